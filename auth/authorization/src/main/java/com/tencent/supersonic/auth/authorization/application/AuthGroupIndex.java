@@ -0,0 +1,182 @@
+package com.tencent.supersonic.auth.authorization.application;
+
+import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthGroup;
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthRule;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * immutable index of the auth groups by model, authorized user and authorized department,
+ * a change of one group only rebuilds the entry of its model. the groups are copied when they
+ * are added and when they are returned, so the caller can not change an indexed group.
+ */
+public class AuthGroupIndex {
+
+    public static final AuthGroupIndex EMPTY = new AuthGroupIndex(Collections.emptyMap());
+
+    private static final Gson GSON = new Gson();
+
+    private static final Comparator<AuthGroup> GROUP_ORDER = Comparator.comparing(AuthGroup::getGroupId,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<String, ModelGroups> modelGroups;
+
+    private AuthGroupIndex(Map<String, ModelGroups> modelGroups) {
+        this.modelGroups = modelGroups;
+    }
+
+    public static AuthGroupIndex build(Collection<AuthGroup> groups) {
+        Map<String, List<AuthGroup>> groupsByModel = groups.stream().filter(Objects::nonNull)
+                .map(AuthGroupIndex::copy)
+                .collect(Collectors.groupingBy(group -> Strings.nullToEmpty(group.getModelId())));
+        Map<String, ModelGroups> modelGroups = new HashMap<>();
+        groupsByModel.forEach((modelId, modelGroupList) -> modelGroups.put(modelId, new ModelGroups(modelGroupList)));
+        return new AuthGroupIndex(modelGroups);
+    }
+
+    /**
+     * @return a new index with the group added or replaced
+     */
+    public AuthGroupIndex withGroup(AuthGroup group) {
+        Map<String, ModelGroups> changed = new HashMap<>(without(group.getGroupId()).modelGroups);
+        String modelId = Strings.nullToEmpty(group.getModelId());
+        List<AuthGroup> groups = new ArrayList<>();
+        ModelGroups current = changed.get(modelId);
+        if (current != null) {
+            current.groups.forEach(indexedGroup -> groups.add(indexedGroup.getGroup()));
+        }
+        groups.add(copy(group));
+        changed.put(modelId, new ModelGroups(groups));
+        return new AuthGroupIndex(changed);
+    }
+
+    /**
+     * @return a new index without the group
+     */
+    public AuthGroupIndex without(Integer groupId) {
+        if (groupId == null) {
+            return this;
+        }
+        for (Map.Entry<String, ModelGroups> entry : modelGroups.entrySet()) {
+            List<AuthGroup> remaining = entry.getValue().groups.stream().map(IndexedGroup::getGroup)
+                    .filter(group -> !groupId.equals(group.getGroupId())).collect(Collectors.toList());
+            if (remaining.size() == entry.getValue().groups.size()) {
+                continue;
+            }
+            Map<String, ModelGroups> changed = new HashMap<>(modelGroups);
+            if (remaining.isEmpty()) {
+                changed.remove(entry.getKey());
+            } else {
+                changed.put(entry.getKey(), new ModelGroups(remaining));
+            }
+            return new AuthGroupIndex(changed);
+        }
+        return this;
+    }
+
+    public List<AuthGroup> getGroups(String modelId, Integer groupId) {
+        ModelGroups groups = modelGroups.get(Strings.nullToEmpty(modelId));
+        if (groups == null) {
+            return new ArrayList<>();
+        }
+        return groups.groups.stream().map(IndexedGroup::getGroup)
+                .filter(group -> groupId == null || groupId.equals(group.getGroupId()))
+                .map(AuthGroupIndex::copy).collect(Collectors.toList());
+    }
+
+    /**
+     * the groups of the model that authorize the user or one of the departments, in group id order.
+     * they are not copied on this path of every query, the indexed groups are only read in this package.
+     */
+    List<IndexedGroup> match(String modelId, String userName, Collection<String> departmentIds) {
+        ModelGroups groups = modelGroups.get(Strings.nullToEmpty(modelId));
+        if (groups == null) {
+            return new ArrayList<>();
+        }
+        Map<Integer, IndexedGroup> matched = new TreeMap<>();
+        groups.byUser.getOrDefault(userName, Collections.emptyList())
+                .forEach(group -> matched.put(group.getOrder(), group));
+        if (departmentIds != null) {
+            for (String departmentId : departmentIds) {
+                groups.byDepartment.getOrDefault(departmentId, Collections.emptyList())
+                        .forEach(group -> matched.put(group.getOrder(), group));
+            }
+        }
+        return new ArrayList<>(matched.values());
+    }
+
+    public int size() {
+        return modelGroups.values().stream().mapToInt(groups -> groups.groups.size()).sum();
+    }
+
+    private static AuthGroup copy(AuthGroup group) {
+        return GSON.fromJson(GSON.toJson(group), AuthGroup.class);
+    }
+
+    /**
+     * an auth group with the resource names of its rules collected into a set
+     */
+    @Getter(AccessLevel.PACKAGE)
+    static class IndexedGroup {
+
+        private final AuthGroup group;
+        private final int order;
+        private final Set<String> resourceNames;
+        private final boolean hasDimensionFilter;
+
+        IndexedGroup(AuthGroup group, int order) {
+            this.group = group;
+            this.order = order;
+            Set<String> names = new HashSet<>();
+            if (group.getAuthRules() != null) {
+                for (AuthRule authRule : group.getAuthRules()) {
+                    names.addAll(authRule.resourceNames());
+                }
+            }
+            this.resourceNames = names;
+            this.hasDimensionFilter = group.getDimensionFilters() != null
+                    && group.getDimensionFilters().stream().anyMatch(expr -> !Strings.isNullOrEmpty(expr));
+        }
+    }
+
+    private static class ModelGroups {
+
+        private final List<IndexedGroup> groups = new ArrayList<>();
+        private final Map<String, List<IndexedGroup>> byUser = new HashMap<>();
+        private final Map<String, List<IndexedGroup>> byDepartment = new HashMap<>();
+
+        ModelGroups(List<AuthGroup> authGroups) {
+            List<AuthGroup> sorted = new ArrayList<>(authGroups);
+            sorted.sort(GROUP_ORDER);
+            for (AuthGroup authGroup : sorted) {
+                IndexedGroup group = new IndexedGroup(authGroup, groups.size());
+                groups.add(group);
+                if (!CollectionUtils.isEmpty(authGroup.getAuthorizedUsers())) {
+                    for (String user : new HashSet<>(authGroup.getAuthorizedUsers())) {
+                        byUser.computeIfAbsent(user, k -> new ArrayList<>()).add(group);
+                    }
+                }
+                if (!CollectionUtils.isEmpty(authGroup.getAuthorizedDepartmentIds())) {
+                    for (String departmentId : new HashSet<>(authGroup.getAuthorizedDepartmentIds())) {
+                        byDepartment.computeIfAbsent(departmentId, k -> new ArrayList<>()).add(group);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.tencent.supersonic.auth.authorization.application;
 
-import com.google.common.base.Strings;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.gson.Gson;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.service.UserService;
@@ -11,18 +12,24 @@ import com.tencent.supersonic.auth.api.authorization.request.QueryAuthResReq;
 import com.tencent.supersonic.auth.api.authorization.response.AuthorizedResourceResp;
 import com.tencent.supersonic.auth.api.authorization.service.AuthService;
 import com.tencent.supersonic.auth.api.authorization.pojo.AuthGroup;
-import com.tencent.supersonic.auth.api.authorization.pojo.AuthRule;
+import com.tencent.supersonic.auth.authorization.application.AuthGroupIndex.IndexedGroup;
+import com.tencent.supersonic.common.pojo.AuthChangeEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 
 @Service
 @Slf4j
@@ -32,10 +39,30 @@ public class AuthServiceImpl implements AuthService {
 
     private UserService userService;
 
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${auth.group.refresh.seconds:300}")
+    private long groupRefreshSeconds;
+
+    @Value("${auth.user.org.expire.seconds:60}")
+    private long userOrgExpireSeconds;
+
+    private volatile AuthGroupIndex authGroupIndex;
+    private volatile long authGroupLoadTime;
+    private Cache<String, Set<String>> userOrgCache;
+
     public AuthServiceImpl(JdbcTemplate jdbcTemplate,
-                           UserService userService) {
+                           UserService userService,
+                           ApplicationEventPublisher applicationEventPublisher) {
         this.jdbcTemplate = jdbcTemplate;
         this.userService = userService;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        userOrgCache = Caffeine.newBuilder().maximumSize(10000)
+                .expireAfterWrite(userOrgExpireSeconds, TimeUnit.SECONDS).build();
     }
 
     private List<AuthGroup> load() {
@@ -44,12 +71,44 @@ public class AuthServiceImpl implements AuthService {
         return rows.stream().map(row -> g.fromJson(row, AuthGroup.class)).collect(Collectors.toList());
     }
 
+    /**
+     * the groups are loaded once and kept in an index, changes made by this instance are applied to it
+     * directly and a full reload picks up changes made by other instances
+     */
+    private AuthGroupIndex getAuthGroupIndex() {
+        AuthGroupIndex index = authGroupIndex;
+        if (index != null && System.currentTimeMillis() - authGroupLoadTime
+                < TimeUnit.SECONDS.toMillis(groupRefreshSeconds)) {
+            return index;
+        }
+        synchronized (this) {
+            if (authGroupIndex == index) {
+                long startTime = System.currentTimeMillis();
+                authGroupIndex = AuthGroupIndex.build(load());
+                authGroupLoadTime = System.currentTimeMillis();
+                log.info("load auth groups, size:{}, cost:{}", authGroupIndex.size(),
+                        authGroupLoadTime - startTime);
+            }
+            return authGroupIndex;
+        }
+    }
+
+    private synchronized void updateAuthGroupIndex(UnaryOperator<AuthGroupIndex> change) {
+        if (authGroupIndex != null) {
+            authGroupIndex = change.apply(authGroupIndex);
+        }
+    }
+
+    private Set<String> getUserAllOrgId(String userName) {
+        return userOrgCache.get(userName, name -> {
+            Set<String> orgIds = userService.getUserAllOrgId(name);
+            return orgIds == null ? Collections.emptySet() : orgIds;
+        });
+    }
+
     @Override
     public List<AuthGroup> queryAuthGroups(String modelId, Integer groupId) {
-        return load().stream()
-                .filter(group -> (Objects.isNull(groupId) || groupId.equals(group.getGroupId()))
-                        && modelId.equals(group.getModelId()))
-                .collect(Collectors.toList());
+        return getAuthGroupIndex().getGroups(modelId, groupId);
     }
 
     @Override
@@ -69,24 +128,33 @@ public class AuthServiceImpl implements AuthService {
             jdbcTemplate.update("update s2_auth_groups set config = ? where group_id = ?;", g.toJson(group),
                     group.getGroupId());
         }
+        updateAuthGroupIndex(index -> index.withGroup(group));
+        publishAuthChange(group.getModelId());
     }
 
     @Override
     public void removeAuthGroup(AuthGroup group) {
         jdbcTemplate.update("delete from s2_auth_groups where group_id = ?", group.getGroupId());
+        updateAuthGroupIndex(index -> index.without(group.getGroupId()));
+        publishAuthChange(group.getModelId());
+    }
+
+    private void publishAuthChange(String modelId) {
+        Long changedModelId = StringUtils.isNumeric(modelId) ? Long.valueOf(modelId) : null;
+        applicationEventPublisher.publishEvent(new AuthChangeEvent(this, changedModelId));
     }
 
 
     @Override
     public AuthorizedResourceResp queryAuthorizedResources(QueryAuthResReq req, User user) {
-        Set<String> userOrgIds = userService.getUserAllOrgId(user.getName());
+        Set<String> userOrgIds = getUserAllOrgId(user.getName());
         if (!CollectionUtils.isEmpty(userOrgIds)) {
             req.setDepartmentIds(new ArrayList<>(userOrgIds));
         }
-        List<AuthGroup> groups = getAuthGroups(req, user.getName());
+        List<IndexedGroup> groups = getAuthGroups(req, user.getName());
         AuthorizedResourceResp resource = new AuthorizedResourceResp();
-        Map<String, List<AuthGroup>> authGroupsByModelId = groups.stream()
-                .collect(Collectors.groupingBy(AuthGroup::getModelId));
+        Map<String, List<IndexedGroup>> authGroupsByModelId = groups.stream()
+                .collect(Collectors.groupingBy(group -> group.getGroup().getModelId()));
         Map<String, List<AuthRes>> reqAuthRes = req.getResources().stream()
                 .collect(Collectors.groupingBy(AuthRes::getModelId));
 
@@ -94,17 +162,12 @@ public class AuthServiceImpl implements AuthService {
             List<AuthRes> reqResourcesList = reqAuthRes.get(modelId);
             AuthResGrp rg = new AuthResGrp();
             if (authGroupsByModelId.containsKey(modelId)) {
-                List<AuthGroup> authGroups = authGroupsByModelId.get(modelId);
+                List<IndexedGroup> authGroups = authGroupsByModelId.get(modelId);
                 for (AuthRes reqRes : reqResourcesList) {
-                    for (AuthGroup authRuleGroup : authGroups) {
-                        List<AuthRule> authRules = authRuleGroup.getAuthRules();
-                        List<String> allAuthItems = new ArrayList<>();
-                        authRules.forEach(authRule -> allAuthItems.addAll(authRule.resourceNames()));
-
-                        if (allAuthItems.contains(reqRes.getName())) {
+                    for (IndexedGroup authRuleGroup : authGroups) {
+                        if (authRuleGroup.getResourceNames().contains(reqRes.getName())) {
                             rg.getGroup().add(reqRes);
                         }
-
                     }
                 }
             }
@@ -114,14 +177,14 @@ public class AuthServiceImpl implements AuthService {
         }
 
         if (StringUtils.isNotEmpty(req.getModelId())) {
-            List<AuthGroup> authGroups = authGroupsByModelId.get(req.getModelId());
+            List<IndexedGroup> authGroups = authGroupsByModelId.get(req.getModelId());
             if (!CollectionUtils.isEmpty(authGroups)) {
-                for (AuthGroup group : authGroups) {
-                    if (group.getDimensionFilters() != null
-                            && group.getDimensionFilters().stream().anyMatch(expr -> !Strings.isNullOrEmpty(expr))) {
+                for (IndexedGroup indexedGroup : authGroups) {
+                    if (indexedGroup.isHasDimensionFilter()) {
+                        AuthGroup group = indexedGroup.getGroup();
                         DimensionFilter df = new DimensionFilter();
                         df.setDescription(group.getDimensionFilterDescription());
-                        df.setExpressions(group.getDimensionFilters());
+                        df.setExpressions(new ArrayList<>(group.getDimensionFilters()));
                         resource.getFilters().add(df);
                     }
                 }
@@ -130,25 +193,10 @@ public class AuthServiceImpl implements AuthService {
         return resource;
     }
 
-    private List<AuthGroup> getAuthGroups(QueryAuthResReq req, String userName) {
-        List<AuthGroup> groups = load().stream()
-                .filter(group -> {
-                    if (!Objects.equals(group.getModelId(), req.getModelId())) {
-                        return false;
-                    }
-                    if (!CollectionUtils.isEmpty(group.getAuthorizedUsers()) && group.getAuthorizedUsers()
-                            .contains(userName)) {
-                        return true;
-                    }
-                    for (String departmentId : req.getDepartmentIds()) {
-                        if (!CollectionUtils.isEmpty(group.getAuthorizedDepartmentIds())
-                                && group.getAuthorizedDepartmentIds().contains(departmentId)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                }).collect(Collectors.toList());
-        log.info("user:{} department:{} authGroups:{}", userName, req.getDepartmentIds(), groups);
+    private List<IndexedGroup> getAuthGroups(QueryAuthResReq req, String userName) {
+        List<IndexedGroup> groups = getAuthGroupIndex().match(req.getModelId(), userName, req.getDepartmentIds());
+        log.info("user:{} department:{} authGroups:{}", userName, req.getDepartmentIds(),
+                groups.stream().map(group -> group.getGroup().getGroupId()).collect(Collectors.toList()));
         return groups;
     }
 
@@ -0,0 +1,88 @@
+package com.tencent.supersonic.auth.authorization.application;
+
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthGroup;
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthRule;
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * compares matching the auth groups of a user by scanning all groups, as every query did before,
+ * with the lookup in AuthGroupIndex. run the main method, the index latency should stay flat
+ * as the number of groups grows. AuthGroupIndexTest checks that both match the same groups.
+ */
+public class AuthGroupIndexBenchmark {
+
+    private static final int MODELS = 50;
+    private static final int USERS = 2000;
+    private static final int DEPARTMENTS = 200;
+    private static final int ITERATIONS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        for (int groupCount : new int[]{100, 1000, 5000, 10000}) {
+            run(groupCount);
+        }
+    }
+
+    private static void run(int groupCount) throws Exception {
+        Random random = new Random(groupCount);
+        List<AuthGroup> groups = new ArrayList<>();
+        for (int i = 1; i <= groupCount; i++) {
+            groups.add(newGroup(i, random));
+        }
+        AuthGroupIndex index = AuthGroupIndex.build(groups);
+        long scanNanos = 0;
+        long indexNanos = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            String modelId = String.valueOf(random.nextInt(MODELS));
+            String user = "user" + random.nextInt(USERS);
+            List<String> departments = Collections.singletonList("dept" + random.nextInt(DEPARTMENTS));
+            scanNanos += BenchmarkTimer.nanos(() -> scan(groups, modelId, user, departments));
+            indexNanos += BenchmarkTimer.nanos(() -> index.match(modelId, user, departments));
+        }
+        System.out.printf("groups:%6d  scan:%8.2fus  index:%6.2fus%n", groupCount,
+                scanNanos / 1000.0 / ITERATIONS, indexNanos / 1000.0 / ITERATIONS);
+    }
+
+    private static List<AuthGroup> scan(List<AuthGroup> groups, String modelId, String user,
+            List<String> departments) {
+        return groups.stream().filter(group -> {
+            if (!Objects.equals(group.getModelId(), modelId)) {
+                return false;
+            }
+            if (group.getAuthorizedUsers().contains(user)) {
+                return true;
+            }
+            for (String department : departments) {
+                if (group.getAuthorizedDepartmentIds().contains(department)) {
+                    return true;
+                }
+            }
+            return false;
+        }).collect(Collectors.toList());
+    }
+
+    private static AuthGroup newGroup(int groupId, Random random) {
+        AuthGroup group = new AuthGroup();
+        group.setGroupId(groupId);
+        group.setModelId(String.valueOf(random.nextInt(MODELS)));
+        group.setName("group" + groupId);
+        List<String> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add("user" + random.nextInt(USERS));
+        }
+        group.setAuthorizedUsers(users);
+        group.setAuthorizedDepartmentIds(Arrays.asList("dept" + random.nextInt(DEPARTMENTS),
+                "dept" + random.nextInt(DEPARTMENTS)));
+        AuthRule authRule = new AuthRule();
+        authRule.setMetrics(Arrays.asList("metric" + random.nextInt(100), "metric" + random.nextInt(100)));
+        authRule.setDimensions(Collections.singletonList("dimension" + random.nextInt(100)));
+        group.setAuthRules(Collections.singletonList(authRule));
+        return group;
+    }
+}
@@ -0,0 +1,154 @@
+package com.tencent.supersonic.auth.authorization.application;
+
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthGroup;
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthRule;
+import com.tencent.supersonic.auth.authorization.application.AuthGroupIndex.IndexedGroup;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class AuthGroupIndexTest {
+
+    @Test
+    void matchByUserAndDepartment() {
+        AuthGroupIndex index = AuthGroupIndex.build(Arrays.asList(
+                newGroup(3, "1", Collections.singletonList("jack"), Collections.emptyList()),
+                newGroup(1, "1", Collections.emptyList(), Collections.singletonList("dept1")),
+                newGroup(2, "1", Arrays.asList("jack", "tom"), Collections.singletonList("dept1")),
+                newGroup(4, "2", Collections.singletonList("jack"), Collections.emptyList())));
+
+        Assert.assertEquals(Arrays.asList(2, 3), groupIds(index.match("1", "jack", null)));
+        Assert.assertEquals(Collections.singletonList(2), groupIds(index.match("1", "tom", null)));
+        Assert.assertEquals(Arrays.asList(1, 2), groupIds(index.match("1", "lucy",
+                Collections.singletonList("dept1"))));
+        // matched by the user and the department, listed once in group id order
+        Assert.assertEquals(Arrays.asList(1, 2, 3), groupIds(index.match("1", "jack",
+                Arrays.asList("dept1", "dept2"))));
+        Assert.assertEquals(Collections.singletonList(4), groupIds(index.match("2", "jack", null)));
+        Assert.assertTrue(index.match("3", "jack", null).isEmpty());
+    }
+
+    @Test
+    void indexedGroupResources() {
+        AuthGroup group = newGroup(1, "1", Collections.singletonList("jack"), Collections.emptyList());
+        group.setDimensionFilters(Collections.singletonList("city = 'beijing'"));
+        IndexedGroup indexedGroup = AuthGroupIndex.build(Collections.singletonList(group))
+                .match("1", "jack", null).get(0);
+
+        Assert.assertEquals(2, indexedGroup.getResourceNames().size());
+        Assert.assertTrue(indexedGroup.getResourceNames().containsAll(Arrays.asList("pv", "city")));
+        Assert.assertTrue(indexedGroup.isHasDimensionFilter());
+    }
+
+    @Test
+    void getGroups() {
+        AuthGroupIndex index = AuthGroupIndex.build(Arrays.asList(
+                newGroup(2, "1", Collections.singletonList("jack"), Collections.emptyList()),
+                newGroup(1, "1", Collections.singletonList("tom"), Collections.emptyList()),
+                newGroup(3, "2", Collections.singletonList("jack"), Collections.emptyList())));
+
+        Assert.assertEquals(Arrays.asList(1, 2), index.getGroups("1", null).stream().map(AuthGroup::getGroupId)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(1, index.getGroups("1", 2).size());
+        Assert.assertTrue(index.getGroups("1", 3).isEmpty());
+        Assert.assertTrue(index.getGroups("3", null).isEmpty());
+        Assert.assertEquals(3, index.size());
+    }
+
+    @Test
+    void incrementalUpdate() {
+        AuthGroupIndex index = AuthGroupIndex.build(Arrays.asList(
+                newGroup(1, "1", Collections.singletonList("jack"), Collections.emptyList()),
+                newGroup(2, "2", Collections.singletonList("jack"), Collections.emptyList())));
+
+        // the group moves to another model and authorizes another user
+        AuthGroupIndex changed = index.withGroup(newGroup(1, "2", Collections.singletonList("tom"),
+                Collections.emptyList()));
+        Assert.assertTrue(changed.match("1", "jack", null).isEmpty());
+        Assert.assertEquals(Collections.singletonList(1), groupIds(changed.match("2", "tom", null)));
+        Assert.assertEquals(Collections.singletonList(2), groupIds(changed.match("2", "jack", null)));
+        Assert.assertEquals(2, changed.size());
+        // the previous index is unchanged
+        Assert.assertEquals(Collections.singletonList(1), groupIds(index.match("1", "jack", null)));
+
+        AuthGroupIndex added = changed.withGroup(newGroup(5, "1", Collections.singletonList("jack"),
+                Collections.emptyList()));
+        Assert.assertEquals(Collections.singletonList(5), groupIds(added.match("1", "jack", null)));
+        Assert.assertEquals(3, added.size());
+
+        AuthGroupIndex removed = added.without(2);
+        Assert.assertTrue(removed.match("2", "jack", null).isEmpty());
+        Assert.assertEquals(2, removed.size());
+        Assert.assertSame(removed, removed.without(99));
+        Assert.assertSame(removed, removed.without(null));
+    }
+
+    @Test
+    void groupsCopiedInAndOut() {
+        AuthGroup group = newGroup(1, "1", new ArrayList<>(Collections.singletonList("jack")),
+                Collections.emptyList());
+        AuthGroupIndex index = AuthGroupIndex.build(Collections.emptyList()).withGroup(group);
+
+        group.getAuthorizedUsers().add("tom");
+        group.getAuthRules().get(0).getMetrics().add("uv");
+        Assert.assertTrue(index.match("1", "tom", null).isEmpty());
+        Assert.assertEquals(Collections.singletonList("pv"),
+                index.getGroups("1", 1).get(0).getAuthRules().get(0).getMetrics());
+
+        AuthGroup returned = index.getGroups("1", 1).get(0);
+        returned.setModelId("2");
+        returned.getAuthorizedUsers().add("lucy");
+        Assert.assertEquals("1", index.getGroups("1", 1).get(0).getModelId());
+        Assert.assertEquals(Collections.singletonList("jack"), index.getGroups("1", 1).get(0).getAuthorizedUsers());
+    }
+
+    @Test
+    void matchSameAsScan() {
+        Random random = new Random(0);
+        List<AuthGroup> groups = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            List<String> users = new ArrayList<>();
+            for (int u = 0; u < 5; u++) {
+                users.add("user" + random.nextInt(100));
+            }
+            groups.add(newGroup(i, String.valueOf(random.nextInt(5)), users,
+                    Arrays.asList("dept" + random.nextInt(20), "dept" + random.nextInt(20))));
+        }
+        AuthGroupIndex index = AuthGroupIndex.build(groups);
+
+        for (int i = 0; i < 2000; i++) {
+            String modelId = String.valueOf(random.nextInt(6));
+            String user = "user" + random.nextInt(120);
+            List<String> departments = Arrays.asList("dept" + random.nextInt(25), "dept" + random.nextInt(25));
+            // the former scan of every group
+            List<Integer> scanned = groups.stream()
+                    .filter(group -> group.getModelId().equals(modelId)
+                            && (group.getAuthorizedUsers().contains(user)
+                            || departments.stream().anyMatch(group.getAuthorizedDepartmentIds()::contains)))
+                    .map(AuthGroup::getGroupId).collect(Collectors.toList());
+            Assert.assertEquals(scanned, groupIds(index.match(modelId, user, departments)));
+        }
+    }
+
+    private static List<Integer> groupIds(List<IndexedGroup> groups) {
+        return groups.stream().map(group -> group.getGroup().getGroupId()).collect(Collectors.toList());
+    }
+
+    private static AuthGroup newGroup(int groupId, String modelId, List<String> users, List<String> departments) {
+        AuthRule authRule = new AuthRule();
+        authRule.setMetrics(new ArrayList<>(Collections.singletonList("pv")));
+        authRule.setDimensions(new ArrayList<>(Collections.singletonList("city")));
+        AuthGroup group = new AuthGroup();
+        group.setGroupId(groupId);
+        group.setModelId(modelId);
+        group.setAuthRules(new ArrayList<>(Collections.singletonList(authRule)));
+        group.setAuthorizedUsers(users);
+        group.setAuthorizedDepartmentIds(departments);
+        return group;
+    }
+}
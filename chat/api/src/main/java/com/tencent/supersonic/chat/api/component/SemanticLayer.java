@@ -4,6 +4,7 @@ import com.github.pagehelper.PageInfo;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.chat.api.pojo.ModelSchema;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.request.PageDimensionReq;
 import com.tencent.supersonic.semantic.api.model.request.PageMetricReq;
 import com.tencent.supersonic.semantic.api.model.response.DomainResp;
@@ -31,6 +32,14 @@ import java.util.List;
 public interface SemanticLayer {
 
     QueryResultWithSchemaResp queryByStruct(QueryStructReq queryStructReq, User user);
+
+    /**
+     * streaming variant of queryByStruct, implementations that can not stream replay the materialized result
+     */
+    default void queryByStruct(QueryStructReq queryStructReq, User user, ResultRowConsumer consumer) {
+        ResultRowConsumer.replay(queryByStruct(queryStructReq, user), consumer);
+    }
+
     QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user);
     QueryResultWithSchemaResp queryByDsl(QueryDslReq queryDslReq, User user);
     List<ModelSchema> getModelSchema();
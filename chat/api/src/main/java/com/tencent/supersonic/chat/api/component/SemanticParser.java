@@ -12,4 +12,28 @@ import com.tencent.supersonic.chat.api.pojo.QueryContext;
 public interface SemanticParser {
 
     void parse(QueryContext queryContext, ChatContext chatContext);
+
+    /**
+     * An independent parser only reads the request and the schema map, never the candidates
+     * added by the parsers before it, so it can run concurrently with them.
+     */
+    default boolean isIndependent() {
+        return false;
+    }
+
+    /**
+     * A parser that rewrites the schema map or inherits elements from the chat context,
+     * the independent parsers are started after the last of them to read the final matches.
+     */
+    default boolean isContextShaping() {
+        return false;
+    }
+
+    /**
+     * Checked against the candidates of the parsers before it when an independent parser
+     * is finished, its candidates are dropped if the query is already satisfied.
+     */
+    default boolean accept(QueryContext queryContext) {
+        return true;
+    }
 }
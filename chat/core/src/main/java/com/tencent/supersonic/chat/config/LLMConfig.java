@@ -16,4 +16,28 @@ public class LLMConfig {
     @Value("${query2sql.path:/query2sql}")
     private String queryToSqlPath;
 
+    @Value("${llm.timeout.ms:30000}")
+    private long timeoutMs;
+
+    @Value("${llm.connect.timeout.ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${llm.pool.max.size:64}")
+    private int poolMaxSize;
+
+    @Value("${llm.client.threads:16}")
+    private int clientThreads;
+
+    @Value("${llm.client.queue.size:256}")
+    private int clientQueueSize;
+
+    @Value("${llm.cache.enable:true}")
+    private Boolean cacheEnable;
+
+    @Value("${llm.cache.max.size:2000}")
+    private long cacheMaxSize;
+
+    @Value("${llm.cache.expire.minutes:60}")
+    private long cacheExpireMinutes;
+
 }
@@ -1,33 +1,38 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.component.SemanticCorrector;
-import com.tencent.supersonic.chat.api.pojo.SchemaElement;
-import com.tencent.supersonic.chat.api.pojo.SemanticSchema;
-import com.tencent.supersonic.common.util.ContextUtils;
-import com.tencent.supersonic.knowledge.service.SchemaService;
-import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
-import java.util.ArrayList;
-import java.util.List;
+import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * a corrector rewriting the parsed sql that SemanticCorrectorChain shares between the correctors, called
+ * alone it parses the sql of the correct info and prints it back, recording the pre sql as the chain does
+ */
 @Slf4j
 public abstract class BaseSemanticCorrector implements SemanticCorrector {
     public static final String DATE_FIELD = "数据日期";
-    protected Map<String, String> getFieldToBizName(Long modelId) {
 
-        SemanticSchema semanticSchema = ContextUtils.getBean(SchemaService.class).getSemanticSchema();
+    @Override
+    public void correct(SemanticCorrectInfo semanticCorrectInfo) {
+        String preSql = semanticCorrectInfo.getSql();
+        ParsedSql parsedSql = ParsedSql.parse(preSql);
+        correct(semanticCorrectInfo, parsedSql);
+        semanticCorrectInfo.setSql(parsedSql.getSql());
+        if (!Objects.equals(preSql, semanticCorrectInfo.getSql())) {
+            semanticCorrectInfo.setPreSql(preSql);
+        }
+    }
 
-        List<SchemaElement> dbAllFields = new ArrayList<>();
-        dbAllFields.addAll(semanticSchema.getMetrics());
-        dbAllFields.addAll(semanticSchema.getDimensions());
+    /**
+     * rewrites the parsed sql in place, the sql of the correct info is only set at the end of the chain
+     */
+    public abstract void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql);
 
-        Map<String, String> result = dbAllFields.stream()
-                .filter(entry -> entry.getModel().equals(modelId))
-                .collect(Collectors.toMap(SchemaElement::getName, a -> a.getBizName(), (k1, k2) -> k1));
-        result.put(DATE_FIELD, TimeDimensionEnum.DAY.getName());
-        return result;
+    protected Map<String, String> getFieldToBizName(Long modelId) {
+        return SchemaLookup.get(modelId).getFieldToBizName();
     }
 
 }
@@ -6,7 +6,7 @@ import com.tencent.supersonic.chat.query.llm.dsl.LLMReq;
 import com.tencent.supersonic.chat.query.llm.dsl.LLMReq.ElementValue;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.util.JsonUtil;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -19,14 +19,15 @@ import org.springframework.util.CollectionUtils;
 public class FieldNameCorrector extends BaseSemanticCorrector {
 
     @Override
-    public void correct(SemanticCorrectInfo semanticCorrectInfo) {
+    public void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql) {
 
         Object context = semanticCorrectInfo.getParseInfo().getProperties().get(Constants.CONTEXT);
         if (Objects.isNull(context)) {
             return;
         }
 
-        DSLParseResult dslParseResult = JsonUtil.toObject(JsonUtil.toString(context), DSLParseResult.class);
+        DSLParseResult dslParseResult = context instanceof DSLParseResult ? (DSLParseResult) context
+                : JsonUtil.toObject(JsonUtil.toString(context), DSLParseResult.class);
         if (Objects.isNull(dslParseResult) || Objects.isNull(dslParseResult.getLlmReq())) {
             return;
         }
@@ -40,10 +41,7 @@ public class FieldNameCorrector extends BaseSemanticCorrector {
                 Collectors.groupingBy(ElementValue::getFieldValue,
                         Collectors.mapping(ElementValue::getFieldName, Collectors.toSet())));
 
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceFieldNameByValue(preSql, fieldValueToFieldNames);
-        semanticCorrectInfo.setSql(sql);
+        parsedSql.replaceFieldNameByValue(fieldValueToFieldNames);
     }
 
 }
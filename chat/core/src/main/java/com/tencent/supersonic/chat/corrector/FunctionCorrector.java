@@ -1,17 +1,14 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FunctionCorrector extends BaseSemanticCorrector {
 
     @Override
-    public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceFunction(preSql);
-        semanticCorrectInfo.setSql(sql);
+    public void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql) {
+        parsedSql.replaceFunction();
     }
 }
@@ -0,0 +1,120 @@
+package com.tencent.supersonic.chat.corrector;
+
+import com.tencent.supersonic.chat.api.pojo.SchemaElement;
+import com.tencent.supersonic.chat.api.pojo.SchemaValueMap;
+import com.tencent.supersonic.chat.api.pojo.SemanticSchema;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.knowledge.service.SchemaService;
+import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * the lookup tables the correctors need for one model. they are built once per semantic schema, which
+ * SchemaService reloads as a new instance, so a new schema starts new tables
+ */
+public class SchemaLookup {
+
+    private static volatile Tables tables = new Tables(null);
+
+    private final boolean hasDimensions;
+    private final Map<String, String> fieldToBizName;
+    private final Map<String, Map<String, String>> aliasAndBizNameToTechName;
+
+    private SchemaLookup(SemanticSchema semanticSchema, Long modelId) {
+        List<SchemaElement> dimensions = semanticSchema.getDimensions().stream()
+                .filter(schemaElement -> modelId.equals(schemaElement.getModel()))
+                .collect(Collectors.toList());
+        List<SchemaElement> dbAllFields = new ArrayList<>();
+        dbAllFields.addAll(semanticSchema.getMetrics());
+        dbAllFields.addAll(semanticSchema.getDimensions());
+
+        Map<String, String> result = dbAllFields.stream()
+                .filter(entry -> entry.getModel().equals(modelId))
+                .collect(Collectors.toMap(SchemaElement::getName, a -> a.getBizName(), (k1, k2) -> k1));
+        result.put(BaseSemanticCorrector.DATE_FIELD, TimeDimensionEnum.DAY.getName());
+
+        this.hasDimensions = !dimensions.isEmpty();
+        this.fieldToBizName = Collections.unmodifiableMap(result);
+        this.aliasAndBizNameToTechName = Collections.unmodifiableMap(getAliasAndBizNameToTechName(dimensions));
+    }
+
+    public static SchemaLookup get(Long modelId) {
+        SemanticSchema semanticSchema = ContextUtils.getBean(SchemaService.class).getSemanticSchema();
+        Tables current = tables;
+        if (current.semanticSchema != semanticSchema) {
+            current = new Tables(semanticSchema);
+            tables = current;
+        }
+        return current.lookups.computeIfAbsent(modelId, id -> new SchemaLookup(semanticSchema, id));
+    }
+
+    public boolean hasDimensions() {
+        return hasDimensions;
+    }
+
+    public Map<String, String> getFieldToBizName() {
+        return fieldToBizName;
+    }
+
+    public Map<String, Map<String, String>> getAliasAndBizNameToTechName() {
+        return aliasAndBizNameToTechName;
+    }
+
+    private static Map<String, Map<String, String>> getAliasAndBizNameToTechName(List<SchemaElement> dimensions) {
+        if (CollectionUtils.isEmpty(dimensions)) {
+            return new HashMap<>();
+        }
+
+        Map<String, Map<String, String>> result = new HashMap<>();
+
+        for (SchemaElement dimension : dimensions) {
+            if (Objects.isNull(dimension)
+                    || Strings.isEmpty(dimension.getBizName())
+                    || CollectionUtils.isEmpty(dimension.getSchemaValueMaps())) {
+                continue;
+            }
+            String bizName = dimension.getBizName();
+
+            Map<String, String> aliasAndBizNameToTechName = new HashMap<>();
+
+            for (SchemaValueMap valueMap : dimension.getSchemaValueMaps()) {
+                if (Objects.isNull(valueMap) || Strings.isEmpty(valueMap.getTechName())) {
+                    continue;
+                }
+                if (Strings.isNotEmpty(valueMap.getBizName())) {
+                    aliasAndBizNameToTechName.put(valueMap.getBizName(), valueMap.getTechName());
+                }
+                if (!CollectionUtils.isEmpty(valueMap.getAlias())) {
+                    valueMap.getAlias().stream().forEach(alias -> {
+                        if (Strings.isNotEmpty(alias)) {
+                            aliasAndBizNameToTechName.put(alias, valueMap.getTechName());
+                        }
+                    });
+                }
+            }
+            if (!CollectionUtils.isEmpty(aliasAndBizNameToTechName)) {
+                result.put(bizName, aliasAndBizNameToTechName);
+            }
+        }
+        return result;
+    }
+
+    private static class Tables {
+
+        private final SemanticSchema semanticSchema;
+        private final Map<Long, SchemaLookup> lookups = new ConcurrentHashMap<>();
+
+        Tables(SemanticSchema semanticSchema) {
+            this.semanticSchema = semanticSchema;
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -14,25 +13,22 @@ import org.springframework.util.CollectionUtils;
 public class SelectFieldAppendCorrector extends BaseSemanticCorrector {
 
     @Override
-    public void correct(SemanticCorrectInfo semanticCorrectInfo) {
-        String preSql = semanticCorrectInfo.getSql();
-        if (SqlParserSelectHelper.hasAggregateFunction(preSql)) {
+    public void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql) {
+        if (parsedSql.hasAggregateFunction()) {
             return;
         }
-        Set<String> selectFields = new HashSet<>(SqlParserSelectHelper.getSelectFields(preSql));
-        Set<String> whereFields = new HashSet<>(SqlParserSelectHelper.getWhereFields(preSql));
+        Set<String> selectFields = new HashSet<>(parsedSql.getSelectFields());
+        Set<String> whereFields = new HashSet<>(parsedSql.getWhereFields());
 
         if (CollectionUtils.isEmpty(selectFields) || CollectionUtils.isEmpty(whereFields)) {
             return;
         }
 
-        whereFields.addAll(SqlParserSelectHelper.getOrderByFields(preSql));
+        whereFields.addAll(parsedSql.getOrderByFields());
         whereFields.removeAll(selectFields);
         whereFields.remove(TimeDimensionEnum.DAY.getName());
         whereFields.remove(TimeDimensionEnum.WEEK.getName());
         whereFields.remove(TimeDimensionEnum.MONTH.getName());
-        String replaceFields = SqlParserUpdateHelper.addFieldsToSelect(preSql, new ArrayList<>(whereFields));
-        semanticCorrectInfo.setPreSql(preSql);
-        semanticCorrectInfo.setSql(replaceFields);
+        parsedSql.addFieldsToSelect(new ArrayList<>(whereFields));
     }
 }
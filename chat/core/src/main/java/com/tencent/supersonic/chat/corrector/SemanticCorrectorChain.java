@@ -0,0 +1,48 @@
+package com.tencent.supersonic.chat.corrector;
+
+import com.tencent.supersonic.chat.api.component.SemanticCorrector;
+import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * applies the correctors to one parsed sql instead of parsing and printing it in every corrector, it is
+ * printed again only after a corrector rewrote it. a corrector that does not extend BaseSemanticCorrector
+ * gets the printed sql and its result is parsed again. a corrector that fails is skipped, the sql before it
+ * is parsed again so a rewrite it left half done is dropped. the pre sql is the sql before the last
+ * corrector that changed it
+ */
+@Slf4j
+public class SemanticCorrectorChain {
+
+    public static void correct(SemanticCorrectInfo correctInfo, List<SemanticCorrector> correctors) {
+        ParsedSql parsedSql = ParsedSql.parse(correctInfo.getSql());
+        for (SemanticCorrector corrector : correctors) {
+            String preSql = parsedSql.getSql();
+            try {
+                if (corrector instanceof BaseSemanticCorrector) {
+                    ((BaseSemanticCorrector) corrector).correct(correctInfo, parsedSql);
+                } else {
+                    correctInfo.setSql(preSql);
+                    corrector.correct(correctInfo);
+                    if (!Objects.equals(correctInfo.getSql(), preSql)) {
+                        parsedSql = ParsedSql.parse(correctInfo.getSql());
+                    }
+                }
+                if (!Objects.equals(parsedSql.getSql(), preSql)) {
+                    correctInfo.setPreSql(preSql);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("sqlCorrection:{} sql:{}", corrector.getClass().getSimpleName(), parsedSql.getSql());
+                }
+            } catch (Exception e) {
+                log.error("sqlCorrection:{} correct error,correctInfo:{}", corrector, correctInfo, e);
+                parsedSql = ParsedSql.parse(preSql);
+            }
+        }
+        correctInfo.setSql(parsedSql.getSql());
+        log.info("sqlCorrection sql:{}", correctInfo.getSql());
+    }
+}
@@ -1,7 +1,7 @@
 package com.tencent.supersonic.chat.corrector;
 
 import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserUpdateHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -10,12 +10,9 @@ public class TableNameCorrector extends BaseSemanticCorrector {
     public static final String TABLE_PREFIX = "t_";
 
     @Override
-    public void correct(SemanticCorrectInfo semanticCorrectInfo) {
+    public void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql) {
         Long modelId = semanticCorrectInfo.getParseInfo().getModelId();
-        String preSql = semanticCorrectInfo.getSql();
-        semanticCorrectInfo.setPreSql(preSql);
-        String sql = SqlParserUpdateHelper.replaceTable(preSql, TABLE_PREFIX + modelId);
-        semanticCorrectInfo.setSql(sql);
+        parsedSql.replaceTable(TABLE_PREFIX + modelId);
     }
 
 }
@@ -0,0 +1,14 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.common.util.ContextUtils;
+
+/**
+ * maps the query text like HanlpDictMapper, finding the words with the single pass AutomatonMatchStrategy
+ */
+public class AutomatonDictMapper extends HanlpDictMapper {
+
+    @Override
+    protected MatchStrategy getMatchStrategy() {
+        return ContextUtils.getBean(AutomatonMatchStrategy.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.hankcs.hanlp.seg.common.Term;
+import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
+import com.tencent.supersonic.chat.config.OptimizationConfig;
+import com.tencent.supersonic.knowledge.dictionary.MapResult;
+import com.tencent.supersonic.knowledge.service.SearchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * match strategy in two stages. one aho-corasick pass over the text finds every exact occurrence of a
+ * dictionary word, then only the spans left uncovered go through the prefix and suffix searches of
+ * QueryMatchStrategy, so the fuzzy matching no longer runs over every substring of the text
+ */
+@Service
+@Slf4j
+public class AutomatonMatchStrategy implements MatchStrategy {
+
+    @Autowired
+    private MapperHelper mapperHelper;
+
+    @Autowired
+    private OptimizationConfig optimizationConfig;
+
+    @Autowired
+    private QueryMatchStrategy queryMatchStrategy;
+
+    @Override
+    public Map<MatchText, List<MapResult>> match(QueryReq queryReq, List<Term> terms, Set<Long> detectModelIds) {
+        String text = queryReq.getQueryText();
+        if (Objects.isNull(terms) || StringUtils.isEmpty(text)) {
+            return null;
+        }
+
+        Map<Integer, Integer> regOffsetToLength = mapperHelper.getRegOffsetToLength(terms);
+        List<Integer> offsetList = mapperHelper.getOffsetList(terms);
+
+        // step1. exact words on term boundaries, grouped by the offset they begin at. a word embedded in
+        // a term is left to the fuzzy search of its span, as the segmentation would not detect it either
+        Set<Integer> termEnds = terms.stream().map(term -> term.getOffset() + term.word.length())
+                .collect(Collectors.toSet());
+        Map<Integer, List<MapResult>> offsetToExacts = new TreeMap<>();
+        boolean[] covered = new boolean[text.length()];
+        for (MapResult mapResult : SearchService.match(text, queryReq.getAgentId(), detectModelIds)) {
+            int begin = mapResult.getOffset();
+            int end = begin + mapResult.getDetectWord().length();
+            if (CollectionUtils.isEmpty(mapResult.getNatures()) || !regOffsetToLength.containsKey(begin)
+                    || !termEnds.contains(end)) {
+                continue;
+            }
+            offsetToExacts.computeIfAbsent(begin, key -> new ArrayList<>()).add(mapResult);
+            Arrays.fill(covered, begin, end, true);
+        }
+        Set<MapResult> detects = new LinkedHashSet<>();
+        offsetToExacts.forEach((begin, exacts) -> detects.addAll(selectExacts(exacts, begin)));
+
+        // step2. fuzzy words of the uncovered spans
+        for (int begin = 0; begin < text.length(); ) {
+            if (covered[begin]) {
+                begin++;
+                continue;
+            }
+            int end = begin;
+            while (end < text.length() && !covered[end]) {
+                end++;
+            }
+            detects.addAll(queryMatchStrategy.detect(queryReq, regOffsetToLength, offsetList, detectModelIds,
+                    begin, end));
+            begin = end;
+        }
+        log.debug("exact offsets:{}, detects:{}", offsetToExacts.keySet(), detects);
+
+        Map<MatchText, List<MapResult>> result = new HashMap<>();
+        result.put(MatchText.builder().regText(text).detectSegment(text).build(), new ArrayList<>(detects));
+        return result;
+    }
+
+    /**
+     * like one round of QueryMatchStrategy, one dimension value or the longest metric/dimension words
+     */
+    private List<MapResult> selectExacts(List<MapResult> exacts, int offset) {
+        List<MapResult> mapResults = exacts.stream()
+                .sorted((a, b) -> b.getName().length() - a.getName().length())
+                .map(mapResult -> {
+                    mapResult.setOffset(offset);
+                    mapResult.setSimilarity(1.0);
+                    return mapResult;
+                })
+                .distinct()
+                .collect(Collectors.toList());
+
+        List<MapResult> dimensionValues = mapResults.stream()
+                .filter(entry -> mapperHelper.existDimensionValues(entry.getNatures()))
+                .limit(1)
+                .collect(Collectors.toList());
+        if (CollectionUtils.isNotEmpty(dimensionValues)) {
+            return dimensionValues;
+        }
+        return mapResults.stream().limit(optimizationConfig.getOneDetectionSize()).collect(Collectors.toList());
+    }
+}
@@ -41,7 +41,7 @@ public class HanlpDictMapper implements SchemaMapper {
             log.info("word:{},nature:{},frequency:{}", term.word, term.nature.toString(), term.getFrequency());
         }
 
-        QueryMatchStrategy matchStrategy = ContextUtils.getBean(QueryMatchStrategy.class);
+        MatchStrategy matchStrategy = getMatchStrategy();
         MapperHelper mapperHelper = ContextUtils.getBean(MapperHelper.class);
         Set<Long> detectModelIds = mapperHelper.getModelIds(queryContext.getRequest());
 
@@ -57,6 +57,9 @@ public class HanlpDictMapper implements SchemaMapper {
         convertTermsToSchemaMapInfo(matches, queryContext.getMapInfo(), terms);
     }
 
+    protected MatchStrategy getMatchStrategy() {
+        return ContextUtils.getBean(QueryMatchStrategy.class);
+    }
 
     private void convertTermsToSchemaMapInfo(List<MapResult> mapResults, SchemaMapInfo schemaMap, List<Term> terms) {
         if (CollectionUtils.isEmpty(mapResults)) {
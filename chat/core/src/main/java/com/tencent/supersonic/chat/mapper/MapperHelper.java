@@ -1,11 +1,13 @@
 package com.tencent.supersonic.chat.mapper;
 
 import com.hankcs.hanlp.algorithm.EditDistance;
+import com.hankcs.hanlp.seg.common.Term;
 import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
 import com.tencent.supersonic.chat.config.OptimizationConfig;
 import com.tencent.supersonic.chat.service.AgentService;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.knowledge.utils.NatureHelper;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +51,19 @@ public class MapperHelper {
         return index;
     }
 
+    /**
+     * @return the length of the term beginning at each offset, the longest if several do
+     */
+    public Map<Integer, Integer> getRegOffsetToLength(List<Term> terms) {
+        return terms.stream().sorted(Comparator.comparing(Term::length))
+                .collect(Collectors.toMap(Term::getOffset, term -> term.word.length(), (value1, value2) -> value2));
+    }
+
+    public List<Integer> getOffsetList(List<Term> terms) {
+        return terms.stream().sorted(Comparator.comparing(Term::getOffset))
+                .map(term -> term.getOffset()).collect(Collectors.toList());
+    }
+
     public double getThresholdMatch(List<String> natures) {
         if (existDimensionValues(natures)) {
             return optimizationConfig.getDimensionValueThresholdConfig();
@@ -83,6 +98,58 @@ public class MapperHelper {
                 detectSegment.length());
     }
 
+    /***
+     * same as getSimilarity(detectSegment, matchName) >= threshold, but the edit distance is only computed
+     * up to the largest distance the threshold allows, words too far off in length are rejected right away
+     * @param detectSegment
+     * @param matchName
+     * @param threshold
+     * @return
+     */
+    public boolean isSimilar(String detectSegment, String matchName, double threshold) {
+        int maxLength = Math.max(matchName.length(), detectSegment.length());
+        int maxDistance = (int) ((1 - threshold) * maxLength) + 1;
+        int distance = getEditDistance(detectSegment.toLowerCase(), matchName.toLowerCase(), maxDistance);
+        return distance <= maxDistance && 1 - (double) distance / maxLength >= threshold;
+    }
+
+    /**
+     * levenshtein distance computed only in the band of cells within maxDistance of the diagonal,
+     * any distance above maxDistance is returned as maxDistance + 1
+     */
+    public static int getEditDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int over = maxDistance + 1;
+        int[] previous = new int[b.length() + 2];
+        int[] current = new int[b.length() + 2];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j <= maxDistance ? j : over;
+        }
+        previous[b.length() + 1] = over;
+        for (int i = 1; i <= a.length(); i++) {
+            int low = Math.max(1, i - maxDistance);
+            int high = Math.min(b.length(), i + maxDistance);
+            current[low - 1] = low == 1 ? Math.min(i, over) : over;
+            int rowMin = current[low - 1];
+            for (int j = low; j <= high; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j - 1] + cost, previous[j] + 1), current[j - 1] + 1);
+                current[j] = Math.min(current[j], over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            current[high + 1] = over;
+            if (rowMin > maxDistance) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
     public Set<Long> getModelIds(QueryReq request) {
 
         Long modelId = request.getModelId();
@@ -7,7 +7,6 @@ import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.knowledge.dictionary.MapResult;
 import com.tencent.supersonic.knowledge.service.SearchService;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -42,35 +41,36 @@ public class QueryMatchStrategy implements MatchStrategy {
             return null;
         }
 
-        Map<Integer, Integer> regOffsetToLength = terms.stream().sorted(Comparator.comparing(Term::length))
-                .collect(Collectors.toMap(Term::getOffset, term -> term.word.length(), (value1, value2) -> value2));
+        Map<Integer, Integer> regOffsetToLength = mapperHelper.getRegOffsetToLength(terms);
 
-        List<Integer> offsetList = terms.stream().sorted(Comparator.comparing(Term::getOffset))
-                .map(term -> term.getOffset()).collect(Collectors.toList());
+        List<Integer> offsetList = mapperHelper.getOffsetList(terms);
 
         log.debug("retryCount:{},terms:{},regOffsetToLength:{},offsetList:{},detectModelIds:{}", terms,
                 regOffsetToLength, offsetList, detectModelIds);
 
-        List<MapResult> detects = detect(queryReq, regOffsetToLength, offsetList, detectModelIds);
+        List<MapResult> detects = detect(queryReq, regOffsetToLength, offsetList, detectModelIds, 0,
+                text.length());
         Map<MatchText, List<MapResult>> result = new HashMap<>();
 
         result.put(MatchText.builder().regText(text).detectSegment(text).build(), detects);
         return result;
     }
 
-    private List<MapResult> detect(QueryReq queryReq, Map<Integer, Integer> regOffsetToLength, List<Integer> offsetList,
-            Set<Long> detectModelIds) {
-        String text = queryReq.getQueryText();
+    /**
+     * detects the words of the segments between begin and end
+     */
+    List<MapResult> detect(QueryReq queryReq, Map<Integer, Integer> regOffsetToLength, List<Integer> offsetList,
+            Set<Long> detectModelIds, int begin, int end) {
         List<MapResult> results = Lists.newArrayList();
 
-        for (Integer index = 0; index <= text.length() - 1; ) {
+        for (Integer index = begin; index <= end - 1; ) {
 
             Set<MapResult> mapResultRowSet = new LinkedHashSet();
 
-            for (Integer i = index; i <= text.length(); ) {
+            for (Integer i = index; i <= end; ) {
                 int offset = mapperHelper.getStepOffset(offsetList, index);
                 i = mapperHelper.getStepIndex(regOffsetToLength, i);
-                if (i <= text.length()) {
+                if (i <= end) {
                     List<MapResult> mapResults = detectByStep(queryReq, detectModelIds, index, i, offset);
                     selectMapResultInOneRound(mapResultRowSet, mapResults);
                 }
@@ -133,8 +133,8 @@ public class QueryMatchStrategy implements MatchStrategy {
 
         // step4. filter by similarity
         mapResults = mapResults.stream()
-                .filter(term -> mapperHelper.getSimilarity(detectSegment, term.getName())
-                        >= mapperHelper.getThresholdMatch(term.getNatures()))
+                .filter(term -> mapperHelper.isSimilar(detectSegment, term.getName(),
+                        mapperHelper.getThresholdMatch(term.getNatures())))
                 .filter(term -> CollectionUtils.isNotEmpty(term.getNatures()))
                 .collect(Collectors.toCollection(LinkedHashSet::new));
 
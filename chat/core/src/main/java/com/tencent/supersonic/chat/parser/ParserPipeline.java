@@ -0,0 +1,234 @@
+package com.tencent.supersonic.chat.parser;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.chat.api.component.SemanticParser;
+import com.tencent.supersonic.chat.api.pojo.ChatContext;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import com.tencent.supersonic.chat.api.pojo.SchemaElementMatch;
+import com.tencent.supersonic.chat.api.pojo.SchemaMapInfo;
+import com.tencent.supersonic.chat.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.chat.persistence.dataobject.CostType;
+import com.tencent.supersonic.chat.persistence.dataobject.StatisticsDO;
+import com.tencent.supersonic.common.util.JsonUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * runs the semantic parsers in their declared order, independent parsers are started once the
+ * context shaping parsers have run, on their own copy of the query and chat context, so the remote
+ * calls of the llm and plugin parsers overlap with the remaining rule parsers. their candidates are
+ * merged at their position in the order, and dropped, with the call cancelled, if the parsers before
+ * them have already satisfied the query.
+ */
+@Slf4j
+@Component
+public class ParserPipeline {
+
+    @Value("${parser.concurrent.enable:true}")
+    private Boolean concurrentEnable;
+
+    @Value("${parser.concurrent.pool.size:16}")
+    private int poolSize;
+
+    @Value("${parser.concurrent.queue.size:64}")
+    private int queueSize;
+
+    @Value("${parser.concurrent.timeout.ms:30000}")
+    private long timeoutMs;
+
+    /**
+     * timeouts of single parsers by their class name, the llm parser waits longer than the plugin parsers
+     */
+    @Value("#{${parser.concurrent.timeouts:{:}}}")
+    private Map<String, Long> timeouts;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        if (timeouts == null) {
+            timeouts = Collections.emptyMap();
+        }
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("semantic-parser-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        // the parsers call the semantic layer with the token of the current request
+        executor = TtlExecutors.getTtlExecutorService(threadPoolExecutor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    public void parse(List<SemanticParser> parsers, QueryContext queryCtx, ChatContext chatCtx,
+            List<StatisticsDO> timeCostDOList) {
+        Map<SemanticParser, Speculation> speculative = new HashMap<>();
+        int launchIndex = Boolean.TRUE.equals(concurrentEnable) ? getLaunchIndex(parsers) : parsers.size();
+        try {
+            for (int i = 0; i < parsers.size(); i++) {
+                if (i == launchIndex) {
+                    launch(parsers.subList(i, parsers.size()), queryCtx, chatCtx, speculative);
+                }
+                SemanticParser parser = parsers.get(i);
+                String className = parser.getClass().getSimpleName();
+                Speculation speculation = speculative.remove(parser);
+                if (speculation == null) {
+                    long startTime = System.currentTimeMillis();
+                    parser.parse(queryCtx, chatCtx);
+                    addCost(timeCostDOList, className, System.currentTimeMillis() - startTime);
+                } else if (!parser.accept(queryCtx)) {
+                    speculation.future.cancel(true);
+                    log.info("skip {}, query is satisfied by the candidates before it", className);
+                    continue;
+                } else {
+                    ParseResult result = await(speculation, className);
+                    if (result == null) {
+                        continue;
+                    }
+                    queryCtx.getCandidateQueries().addAll(result.queryCtx.getCandidateQueries());
+                    addCost(timeCostDOList, className, result.cost);
+                }
+                log.info("{} result:{}", className, JsonUtil.toString(queryCtx));
+            }
+        } finally {
+            speculative.values().forEach(speculation -> speculation.future.cancel(true));
+        }
+    }
+
+    /**
+     * the independent parsers are started right after the last parser that shapes the context
+     */
+    private int getLaunchIndex(List<SemanticParser> parsers) {
+        for (int i = parsers.size() - 1; i >= 0; i--) {
+            if (parsers.get(i).isContextShaping()) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private void launch(List<SemanticParser> parsers, QueryContext queryCtx, ChatContext chatCtx,
+            Map<SemanticParser, Speculation> speculative) {
+        for (SemanticParser parser : parsers) {
+            if (parser.isIndependent()) {
+                Speculation speculation = submit(parser, queryCtx, chatCtx);
+                if (speculation != null) {
+                    speculative.put(parser, speculation);
+                }
+            }
+        }
+    }
+
+    private Speculation submit(SemanticParser parser, QueryContext queryCtx, ChatContext chatCtx) {
+        QueryContext isolatedCtx = copyOf(queryCtx);
+        ChatContext isolatedChatCtx = copyOf(chatCtx);
+        long timeout = timeouts.getOrDefault(parser.getClass().getSimpleName(), timeoutMs);
+        try {
+            Future<ParseResult> future = executor.submit(() -> {
+                long startTime = System.currentTimeMillis();
+                parser.parse(isolatedCtx, isolatedChatCtx);
+                return new ParseResult(isolatedCtx, System.currentTimeMillis() - startTime);
+            });
+            return new Speculation(future, timeout, System.currentTimeMillis() + timeout);
+        } catch (RejectedExecutionException e) {
+            log.warn("parser pool is full, run {} in order", parser.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private ParseResult await(Speculation speculation, String className) {
+        Future<ParseResult> future = speculation.future;
+        try {
+            return future.get(Math.max(0L, speculation.deadline - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            log.warn("{} interrupted", className);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("{} timeout after {}ms, skip its candidates", className, speculation.timeout);
+        } catch (ExecutionException e) {
+            log.error("{} parse error", className, e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * the rule parsers replace and extend the matched elements while the independent parsers read them
+     */
+    private QueryContext copyOf(QueryContext queryCtx) {
+        SchemaMapInfo mapInfo = new SchemaMapInfo();
+        for (Map.Entry<Long, List<SchemaElementMatch>> entry
+                : queryCtx.getMapInfo().getModelElementMatches().entrySet()) {
+            mapInfo.setMatchedElements(entry.getKey(),
+                    entry.getValue() == null ? null : new ArrayList<>(entry.getValue()));
+        }
+        QueryContext isolatedCtx = new QueryContext(queryCtx.getRequest());
+        isolatedCtx.setMapInfo(mapInfo);
+        return isolatedCtx;
+    }
+
+    /**
+     * the rule parsers after the launch update the parse info of the chat context in place
+     */
+    private ChatContext copyOf(ChatContext chatCtx) {
+        ChatContext isolatedChatCtx = new ChatContext();
+        isolatedChatCtx.setChatId(chatCtx.getChatId());
+        isolatedChatCtx.setAgentId(chatCtx.getAgentId());
+        isolatedChatCtx.setQueryText(chatCtx.getQueryText());
+        isolatedChatCtx.setUser(chatCtx.getUser());
+        isolatedChatCtx.setParseInfo(JsonUtil.toObject(JsonUtil.toString(chatCtx.getParseInfo()),
+                SemanticParseInfo.class));
+        return isolatedChatCtx;
+    }
+
+    private void addCost(List<StatisticsDO> timeCostDOList, String className, long cost) {
+        timeCostDOList.add(StatisticsDO.builder().cost((int) cost)
+                .interfaceName(className).type(CostType.PARSER.getType()).build());
+    }
+
+    private static class Speculation {
+
+        private final Future<ParseResult> future;
+        private final long timeout;
+        private final long deadline;
+
+        Speculation(Future<ParseResult> future, long timeout, long deadline) {
+            this.future = future;
+            this.timeout = timeout;
+            this.deadline = deadline;
+        }
+    }
+
+    private static class ParseResult {
+
+        private final QueryContext queryCtx;
+        private final long cost;
+
+        ParseResult(QueryContext queryCtx, long cost) {
+            this.queryCtx = queryCtx;
+            this.cost = cost;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.tencent.supersonic.chat.parser.llm.dsl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.chat.config.LLMConfig;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMReq;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMResp;
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.common.util.MD5Util;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * calls the llm over pooled http connections on its own threads, so a caller only waits as long as its
+ * deadline. answers are cached by the normalized query text, the model and a version of the schema sent
+ * along, and identical requests in flight share one call
+ */
+@Slf4j
+@Component
+public class LLMClient {
+
+    private final LLMConfig llmConfig;
+    private CloseableHttpClient httpClient;
+    private ExecutorService executor;
+    private AsyncCache<String, LLMResp> cache;
+
+    public LLMClient(LLMConfig llmConfig) {
+        this.llmConfig = llmConfig;
+    }
+
+    @PostConstruct
+    public void init() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(llmConfig.getPoolMaxSize());
+        connectionManager.setDefaultMaxPerRoute(llmConfig.getPoolMaxSize());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(llmConfig.getConnectTimeoutMs())
+                .setConnectionRequestTimeout(llmConfig.getConnectTimeoutMs())
+                .setSocketTimeout((int) llmConfig.getTimeoutMs())
+                .build();
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig).build();
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(llmConfig.getClientThreads(),
+                llmConfig.getClientThreads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(llmConfig.getClientQueueSize()),
+                new ThreadFactoryBuilder().setNameFormat("llm-client-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executor = threadPoolExecutor;
+        cache = Caffeine.newBuilder()
+                .maximumSize(llmConfig.getCacheMaxSize())
+                .expireAfterWrite(llmConfig.getCacheExpireMinutes(), TimeUnit.MINUTES)
+                .buildAsync();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    /**
+     * waits for the answer until the deadline, a call still running then goes on and fills the cache
+     *
+     * @return null if the llm failed or did not answer in time
+     */
+    public LLMResp request(LLMReq llmReq, Long modelId) {
+        try {
+            return requestAsync(llmReq, modelId).get(llmConfig.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("requestLLM timeout, modelId:{}, timeoutMs:{}", modelId, llmConfig.getTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("requestLLM error", e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * @return the answer, a copy per caller, completed with null if the llm failed, which is not cached
+     */
+    public CompletableFuture<LLMResp> requestAsync(LLMReq llmReq, Long modelId) {
+        String key = getCacheKey(llmReq, modelId);
+        CompletableFuture<LLMResp> future;
+        try {
+            future = cache.get(key, (k, cacheExecutor) -> CompletableFuture.supplyAsync(
+                    () -> post(llmReq, modelId), executor));
+        } catch (Exception e) {
+            log.warn("requestLLM rejected, modelId:{}", modelId, e);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!Boolean.TRUE.equals(llmConfig.getCacheEnable())) {
+            // only share the call while it is in flight
+            future.whenComplete((llmResp, e) -> cache.asMap().remove(key, future));
+        }
+        return future.thenApply(this::copy);
+    }
+
+    private LLMResp post(LLMReq llmReq, Long modelId) {
+        String questUrl = llmConfig.getUrl() + llmConfig.getQueryToSqlPath();
+        long startTime = System.currentTimeMillis();
+        log.info("requestLLM request, modelId:{},llmReq:{}", modelId, llmReq);
+        HttpPost httpPost = new HttpPost(questUrl);
+        httpPost.setEntity(new StringEntity(JsonUtil.toString(llmReq), ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+            String body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            int statusCode = response.getStatusLine().getStatusCode();
+            log.info("requestLLM response,cost:{}, questUrl:{}, status:{} \n body:{}",
+                    System.currentTimeMillis() - startTime, questUrl, statusCode, body);
+            if (statusCode != 200) {
+                return null;
+            }
+            return JsonUtil.toObject(body, LLMResp.class);
+        } catch (Exception e) {
+            log.error("requestLLM error, questUrl:{}", questUrl, e);
+        }
+        return null;
+    }
+
+    /**
+     * the schema version covers what the llm sees besides the question, the fields, the linked values and
+     * the current date, in sorted order so that equal schemas give equal keys
+     */
+    private String getCacheKey(LLMReq llmReq, Long modelId) {
+        List<String> schemaItems = new ArrayList<>();
+        if (Objects.nonNull(llmReq.getSchema())) {
+            schemaItems.add(llmReq.getSchema().getModelName());
+            schemaItems.add(llmReq.getSchema().getDomainName());
+            if (Objects.nonNull(llmReq.getSchema().getFieldNameList())) {
+                schemaItems.addAll(llmReq.getSchema().getFieldNameList().stream().sorted()
+                        .collect(Collectors.toList()));
+            }
+        }
+        if (Objects.nonNull(llmReq.getLinking())) {
+            schemaItems.addAll(llmReq.getLinking().stream()
+                    .map(value -> value.getFieldName() + "=" + value.getFieldValue())
+                    .sorted().collect(Collectors.toList()));
+        }
+        schemaItems.add(llmReq.getCurrentDate());
+        String schemaVersion = MD5Util.getMD5(String.valueOf(schemaItems), false, MD5Util.BIT32);
+        String queryText = StringUtils.normalizeSpace(llmReq.getQueryText()).toLowerCase();
+        return modelId + "_" + schemaVersion + "_" + queryText;
+    }
+
+    private LLMResp copy(LLMResp llmResp) {
+        if (llmResp == null) {
+            return null;
+        }
+        LLMResp copied = new LLMResp();
+        BeanUtils.copyProperties(llmResp, copied);
+        if (Objects.nonNull(llmResp.getFields())) {
+            copied.setFields(new ArrayList<>(llmResp.getFields()));
+        }
+        return copied;
+    }
+}
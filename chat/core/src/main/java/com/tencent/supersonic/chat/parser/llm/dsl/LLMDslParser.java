@@ -3,7 +3,6 @@ package com.tencent.supersonic.chat.parser.llm.dsl;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.chat.agent.tool.AgentToolType;
 import com.tencent.supersonic.chat.agent.tool.DslTool;
-import com.tencent.supersonic.chat.api.component.SemanticCorrector;
 import com.tencent.supersonic.chat.api.component.SemanticParser;
 import com.tencent.supersonic.chat.api.pojo.ChatContext;
 import com.tencent.supersonic.chat.api.pojo.QueryContext;
@@ -17,6 +16,7 @@ import com.tencent.supersonic.chat.api.pojo.request.QueryFilter;
 import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
 import com.tencent.supersonic.chat.config.LLMConfig;
 import com.tencent.supersonic.chat.corrector.BaseSemanticCorrector;
+import com.tencent.supersonic.chat.corrector.SemanticCorrectorChain;
 import com.tencent.supersonic.chat.parser.SatisfactionChecker;
 import com.tencent.supersonic.chat.parser.plugin.function.ModelResolver;
 import com.tencent.supersonic.chat.query.QueryManager;
@@ -31,7 +31,6 @@ import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.DateConf;
 import com.tencent.supersonic.common.pojo.DateConf.DateMode;
 import com.tencent.supersonic.common.util.ContextUtils;
-import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.common.util.jsqlparser.FilterExpression;
 import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
 import com.tencent.supersonic.knowledge.service.SchemaService;
@@ -49,19 +48,23 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
-import org.springframework.web.client.RestTemplate;
 
 @Slf4j
 public class LLMDslParser implements SemanticParser {
 
     public static final double function_bonus_threshold = 201;
 
+    @Override
+    public boolean isIndependent() {
+        return true;
+    }
+
+    @Override
+    public boolean accept(QueryContext queryCtx) {
+        return !SatisfactionChecker.check(queryCtx);
+    }
+
     @Override
     public void parse(QueryContext queryCtx, ChatContext chatCtx) {
         QueryReq request = queryCtx.getRequest();
@@ -83,7 +86,7 @@ public class LLMDslParser implements SemanticParser {
             }
 
             LLMReq llmReq = getLlmReq(queryCtx, modelId);
-            LLMResp llmResp = requestLLM(llmReq, modelId, llmConfig);
+            LLMResp llmResp = ContextUtils.getBean(LLMClient.class).request(llmReq, modelId);
 
             if (Objects.isNull(llmResp)) {
                 return;
@@ -244,16 +247,7 @@ public class LLMDslParser implements SemanticParser {
                 .queryFilters(queryCtx.getRequest().getQueryFilters()).sql(sql)
                 .parseInfo(parseInfo).build();
 
-        List<SemanticCorrector> dslCorrections = ComponentFactory.getSqlCorrections();
-
-        dslCorrections.forEach(dslCorrection -> {
-            try {
-                dslCorrection.correct(correctInfo);
-                log.info("sqlCorrection:{} sql:{}", dslCorrection.getClass().getSimpleName(), correctInfo.getSql());
-            } catch (Exception e) {
-                log.error("sqlCorrection:{} correct error,correctInfo:{}", dslCorrection, correctInfo, e);
-            }
-        });
+        SemanticCorrectorChain.correct(correctInfo, ComponentFactory.getSqlCorrections());
         return correctInfo;
     }
 
@@ -301,27 +295,6 @@ public class LLMDslParser implements SemanticParser {
         return modelId;
     }
 
-    private LLMResp requestLLM(LLMReq llmReq, Long modelId, LLMConfig llmConfig) {
-        String questUrl = llmConfig.getUrl() + llmConfig.getQueryToSqlPath();
-        long startTime = System.currentTimeMillis();
-        log.info("requestLLM request, modelId:{},llmReq:{}", modelId, llmReq);
-        RestTemplate restTemplate = ContextUtils.getBean(RestTemplate.class);
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> entity = new HttpEntity<>(JsonUtil.toString(llmReq), headers);
-            ResponseEntity<LLMResp> responseEntity = restTemplate.exchange(questUrl, HttpMethod.POST, entity,
-                    LLMResp.class);
-
-            log.info("requestLLM response,cost:{}, questUrl:{} \n entity:{} \n body:{}",
-                    System.currentTimeMillis() - startTime, questUrl, entity, responseEntity.getBody());
-            return responseEntity.getBody();
-        } catch (Exception e) {
-            log.error("requestLLM error", e);
-        }
-        return null;
-    }
-
     private LLMReq getLlmReq(QueryContext queryCtx, Long modelId) {
         SemanticSchema semanticSchema = ContextUtils.getBean(SchemaService.class).getSemanticSchema();
         Map<Long, String> modelIdToName = semanticSchema.getModelIdToName();
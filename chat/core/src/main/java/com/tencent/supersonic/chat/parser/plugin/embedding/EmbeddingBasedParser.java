@@ -32,6 +32,16 @@ public class EmbeddingBasedParser extends PluginParser {
         if (CollectionUtils.isEmpty(plugins)) {
             return false;
         }
+        return accept(queryContext);
+    }
+
+    @Override
+    public boolean isIndependent() {
+        return true;
+    }
+
+    @Override
+    public boolean accept(QueryContext queryContext) {
         List<SemanticQuery> semanticQueries = queryContext.getCandidateQueries();
         for (SemanticQuery semanticQuery : semanticQueries) {
             if (queryContext.getRequest().getQueryText().length() <= semanticQuery.getParseInfo().getScore()) {
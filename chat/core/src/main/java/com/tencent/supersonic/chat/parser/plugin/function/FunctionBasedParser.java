@@ -35,6 +35,16 @@ import org.springframework.web.util.UriComponentsBuilder;
 @Slf4j
 public class FunctionBasedParser extends PluginParser {
 
+    @Override
+    public boolean isIndependent() {
+        return true;
+    }
+
+    @Override
+    public boolean accept(QueryContext queryContext) {
+        return !SatisfactionChecker.check(queryContext);
+    }
+
     @Override
     public boolean checkPreCondition(QueryContext queryContext) {
         FunctionCallInfoConfig functionCallConfig = ContextUtils.getBean(FunctionCallInfoConfig.class);
@@ -40,6 +40,11 @@ public class ContextInheritParser implements SemanticParser {
             new AbstractMap.SimpleEntry<>(ID, Arrays.asList(ID))
     ).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
+    @Override
+    public boolean isContextShaping() {
+        return true;
+    }
+
     @Override
     public void parse(QueryContext queryContext, ChatContext chatContext) {
         if (!shouldInherit(queryContext, chatContext)) {
@@ -17,6 +17,11 @@ import org.apache.commons.collections.CollectionUtils;
 @Slf4j
 public class QueryModeParser implements SemanticParser {
 
+    @Override
+    public boolean isContextShaping() {
+        return true;
+    }
+
     @Override
     public void parse(QueryContext queryContext, ChatContext chatContext) {
         SchemaMapInfo mapInfo = queryContext.getMapInfo();
@@ -1,6 +1,7 @@
 package com.tencent.supersonic.chat.persistence.mapper;
 
 import com.tencent.supersonic.chat.persistence.dataobject.ChatContextDO;
+import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
@@ -11,4 +12,6 @@ public interface ChatContextMapper {
     int updateContext(ChatContextDO contextDO);
 
     int addContext(ChatContextDO contextDO);
+
+    int batchAddContext(List<ChatContextDO> contextDOs);
 }
@@ -1,5 +1,8 @@
 package com.tencent.supersonic.chat.persistence.repository.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.gson.Gson;
 import com.tencent.supersonic.chat.api.pojo.ChatContext;
 import com.tencent.supersonic.chat.api.pojo.SemanticParseInfo;
@@ -7,44 +10,189 @@ import com.tencent.supersonic.chat.persistence.dataobject.ChatContextDO;
 import com.tencent.supersonic.chat.persistence.mapper.ChatContextMapper;
 import com.tencent.supersonic.chat.persistence.repository.ChatContextRepository;
 import com.tencent.supersonic.common.util.JsonUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
+/**
+ * keeps the latest context of each chat in a bounded cache, so a chat turn reads its context from memory.
+ * the context is cached parsed and copied on the way in and out, as the callers update it in place.
+ * a cached context is read again from the database after a short time, as another instance may have
+ * updated the chat. in the async persist mode updates are written behind by a single thread, the updates
+ * of a chat between two flushes are coalesced to the last one, and a context not flushed yet is read from
+ * the pending updates. the sync mode writes through on the caller thread, and the async mode falls back to
+ * it while the pending updates are over pending.max, e.g. when the database is down
+ */
 @Repository
 @Primary
 @Slf4j
 public class ChatContextRepositoryImpl implements ChatContextRepository {
 
+    private static final String MODE_SYNC = "sync";
+
     @Autowired(required = false)
     private final ChatContextMapper chatContextMapper;
 
+    @Value("${chat.context.cache.max.size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${chat.context.cache.expire.seconds:60}")
+    private long cacheExpireSeconds;
+
+    @Value("${chat.context.persist.mode:async}")
+    private String persistMode;
+
+    @Value("${chat.context.flush.ms:500}")
+    private long flushMs;
+
+    @Value("${chat.context.batch.size:100}")
+    private int batchSize;
+
+    @Value("${chat.context.pending.max:10000}")
+    private int pendingMax;
+
+    private final Map<Integer, ChatContextDO> pending = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private Cache<Integer, ChatContext> cache;
+    private Ticker ticker = Ticker.systemTicker();
+    private Thread writer;
+    private volatile boolean running;
+
     public ChatContextRepositoryImpl(ChatContextMapper chatContextMapper) {
         this.chatContextMapper = chatContextMapper;
     }
 
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheExpireSeconds, TimeUnit.SECONDS).ticker(ticker).build();
+        running = true;
+        writer = new Thread(this::writeLoop, "chat-context-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
     @Override
     public ChatContext getOrCreateContext(int chatId) {
-        ChatContextDO context = chatContextMapper.getContextByChatId(chatId);
-        if (context == null) {
-            ChatContext chatContext = new ChatContext();
-            chatContext.setChatId(chatId);
-            return chatContext;
-        }
-        return cast(context);
+        return copyOf(cache.get(chatId, this::load));
     }
 
     @Override
     public void updateContext(ChatContext chatCtx) {
         ChatContextDO context = cast(chatCtx);
-        if (chatContextMapper.getContextByChatId(chatCtx.getChatId()) == null) {
-            chatContextMapper.addContext(context);
+        if (MODE_SYNC.equalsIgnoreCase(persistMode) || pending.size() >= pendingMax) {
+            cache.put(context.getChatId(), copyOf(chatCtx));
+            // the writer skips the older update once it is no longer pending
+            pending.remove(context.getChatId());
+            synchronized (writeLock) {
+                write(context);
+            }
         } else {
-            chatContextMapper.updateContext(context);
+            pending.put(context.getChatId(), context);
+            cache.put(context.getChatId(), copyOf(chatCtx));
+        }
+    }
+
+    /**
+     * a context evicted from the cache before it is flushed is read from the pending updates
+     */
+    private ChatContext load(Integer chatId) {
+        ChatContextDO context = pending.get(chatId);
+        if (context != null) {
+            return cast(context);
+        }
+        context = chatContextMapper.getContextByChatId(chatId);
+        if (context == null) {
+            context = new ChatContextDO();
+            context.setChatId(chatId);
+        }
+        return cast(context);
+    }
+
+    private void write(ChatContextDO context) {
+        if (chatContextMapper.updateContext(context) == 0) {
+            chatContextMapper.addContext(context);
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                Thread.sleep(flushMs);
+                flush();
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable e) {
+                log.error("chat context writer error", e);
+            }
+        }
+        // write what is left on shutdown
+        try {
+            while (!pending.isEmpty()) {
+                flush();
+            }
+        } catch (Exception e) {
+            log.error("write chat context on shutdown error, left:{}", pending.size(), e);
         }
     }
 
+    /**
+     * only updates still pending are written, and removed only if no newer one replaced them meanwhile
+     */
+    private void flush() {
+        while (!pending.isEmpty()) {
+            List<ChatContextDO> batch = new ArrayList<>(batchSize);
+            for (ChatContextDO context : pending.values()) {
+                batch.add(context);
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+            }
+            synchronized (writeLock) {
+                List<ChatContextDO> added = new ArrayList<>();
+                for (ChatContextDO context : batch) {
+                    if (pending.get(context.getChatId()) == context
+                            && chatContextMapper.updateContext(context) == 0) {
+                        added.add(context);
+                    }
+                }
+                if (!added.isEmpty()) {
+                    chatContextMapper.batchAddContext(added);
+                }
+            }
+            batch.forEach(context -> pending.remove(context.getChatId(), context));
+        }
+    }
+
+    /**
+     * copies the persisted fields only, a context read from the cache is the same as one read from the database
+     */
+    private ChatContext copyOf(ChatContext chatContext) {
+        ChatContext copied = new ChatContext();
+        copied.setChatId(chatContext.getChatId());
+        copied.setUser(chatContext.getUser());
+        copied.setQueryText(chatContext.getQueryText());
+        if (chatContext.getParseInfo() != null) {
+            copied.setParseInfo(JsonUtil.clone(chatContext.getParseInfo(), SemanticParseInfo.class));
+        }
+        return copied;
+    }
 
     private ChatContext cast(ChatContextDO contextDO) {
         ChatContext chatContext = new ChatContext();
@@ -52,7 +200,7 @@ public class ChatContextRepositoryImpl implements ChatContextRepository {
         chatContext.setUser(contextDO.getUser());
         chatContext.setQueryText(contextDO.getQueryText());
         if (contextDO.getSemanticParse() != null && !contextDO.getSemanticParse().isEmpty()) {
-            log.info("--->: {}", contextDO.getSemanticParse());
+            log.debug("--->: {}", contextDO.getSemanticParse());
             SemanticParseInfo semanticParseInfo = JsonUtil.toObject(contextDO.getSemanticParse(),
                     SemanticParseInfo.class);
             chatContext.setParseInfo(semanticParseInfo);
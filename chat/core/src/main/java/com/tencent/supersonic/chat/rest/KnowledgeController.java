@@ -8,6 +8,7 @@ import com.tencent.supersonic.knowledge.listener.ApplicationStartedListener;
 import com.tencent.supersonic.knowledge.dictionary.DictTaskFilter;
 import com.tencent.supersonic.knowledge.dictionary.DimValue2DictCommand;
 import com.tencent.supersonic.knowledge.dictionary.DimValueDictInfo;
+import com.tencent.supersonic.knowledge.dictionary.KnowledgeRefreshMetrics;
 
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
@@ -84,4 +85,9 @@ public class KnowledgeController {
         return applicationStartedListener.updateKnowledgeDimValue();
     }
 
+    @GetMapping("/knowledge/refresh/stats")
+    public KnowledgeRefreshMetrics getKnowledgeRefreshStats() {
+        return applicationStartedListener.getRefreshMetrics();
+    }
+
 }
@@ -18,6 +18,7 @@ import com.tencent.supersonic.chat.api.pojo.response.QueryState;
 import com.tencent.supersonic.chat.persistence.dataobject.ChatParseDO;
 import com.tencent.supersonic.chat.persistence.dataobject.CostType;
 import com.tencent.supersonic.chat.persistence.dataobject.StatisticsDO;
+import com.tencent.supersonic.chat.parser.ParserPipeline;
 import com.tencent.supersonic.chat.query.QuerySelector;
 import com.tencent.supersonic.chat.api.pojo.request.QueryDataReq;
 import com.tencent.supersonic.chat.query.QueryManager;
@@ -63,6 +64,8 @@ public class QueryServiceImpl implements QueryService {
     private ChatService chatService;
     @Autowired
     private StatisticsService statisticsService;
+    @Autowired
+    private ParserPipeline parserPipeline;
 
     private final String entity = "ENTITY";
 
@@ -88,15 +91,7 @@ public class QueryServiceImpl implements QueryService {
                     .interfaceName(className).type(CostType.MAPPER.getType()).build());
             log.info("{} result:{}", className, JsonUtil.toString(queryCtx));
         });
-        semanticParsers.stream().forEach(parser -> {
-            Long startTime = System.currentTimeMillis();
-            parser.parse(queryCtx, chatCtx);
-            Long endTime = System.currentTimeMillis();
-            String className = parser.getClass().getSimpleName();
-            timeCostDOList.add(StatisticsDO.builder().cost((int) (endTime - startTime))
-                    .interfaceName(className).type(CostType.PARSER.getType()).build());
-            log.info("{} result:{}", className, JsonUtil.toString(queryCtx));
-        });
+        parserPipeline.parse(semanticParsers, queryCtx, chatCtx, timeCostDOList);
         ParseResp parseResult;
         if (queryCtx.getCandidateQueries().size() > 0) {
             log.debug("pick before [{}]", queryCtx.getCandidateQueries().stream().collect(
@@ -10,7 +10,8 @@ import com.tencent.supersonic.chat.api.component.SemanticLayer;
 import com.tencent.supersonic.chat.config.DefaultMetric;
 import com.tencent.supersonic.chat.config.Dim4Dict;
 import com.tencent.supersonic.common.pojo.QueryColumn;
-import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.api.model.pojo.ColumnVector;
+import com.tencent.supersonic.semantic.api.model.pojo.ColumnarResult;
 import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
 import com.tencent.supersonic.semantic.api.query.pojo.Filter;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
@@ -52,19 +53,18 @@ public class DictQueryHelper {
         List<String> data = new ArrayList<>();
         QueryStructReq queryStructCmd = generateQueryStructCmd(modelId, defaultMetricDesc, dim4Dict);
         try {
-            QueryResultWithSchemaResp queryResultWithColumns = semanticLayer.queryByStruct(queryStructCmd, user);
             String nature = String.format("_%d_%d", modelId, dim4Dict.getDimId());
-            String dimNameRewrite = rewriteDimName(queryResultWithColumns.getColumns(), dim4Dict.getBizName());
-            data = generateFileData(queryResultWithColumns.getResultList(), nature, dimNameRewrite,
-                    defaultMetricDesc.getBizName());
+            // dimension values can reach dimension.max.limit, the rows are kept in column vectors, not maps
+            ColumnarResult.Collector collector = new ColumnarResult.Collector();
+            semanticLayer.queryByStruct(queryStructCmd, user, collector);
+            Map<String, Long> valueAndFrequencyPair = getValueAndFrequency(collector.getResult(),
+                    dim4Dict.getBizName(), defaultMetricDesc.getBizName());
+            constructDataLines(valueAndFrequencyPair, nature, data);
             if (!CollectionUtils.isEmpty(data)) {
                 int size = (data.size() > printDataShow) ? printDataShow : data.size();
                 log.info("data:{}", data.subList(0, size - 1));
             } else {
-                log.warn("data is empty. nature:{}", nature);
-                if (Objects.nonNull(queryResultWithColumns)) {
-                    log.warn("sql:{}", queryResultWithColumns.getSql());
-                }
+                log.warn("data is empty. nature:{}, queryStructCmd:{}", nature, queryStructCmd);
             }
 
         } catch (Exception e) {
@@ -90,29 +90,28 @@ public class DictQueryHelper {
         return dimNameRewrite;
     }
 
-    private List<String> generateFileData(List<Map<String, Object>> resultList, String nature, String dimName,
-                                          String metricName) {
-        List<String> data = new ArrayList<>();
-        if (CollectionUtils.isEmpty(resultList)) {
-            return data;
-        }
+    private Map<String, Long> getValueAndFrequency(ColumnarResult result, String bizName, String metricName) {
         Map<String, Long> valueAndFrequencyPair = new HashMap<>(2000);
-        for (Map<String, Object> line : resultList) {
-
-            if (CollectionUtils.isEmpty(line) || !line.containsKey(dimName)) {
+        if (Objects.isNull(result)) {
+            return valueAndFrequencyPair;
+        }
+        int dimIndex = result.getColumnIndex(rewriteDimName(result.getColumns(), bizName));
+        int metricIndex = result.getColumnIndex(metricName);
+        if (dimIndex < 0 || metricIndex < 0) {
+            return valueAndFrequencyPair;
+        }
+        ColumnVector dimVector = result.getVectors().get(dimIndex);
+        ColumnVector metricVector = result.getVectors().get(metricIndex);
+        for (int row = 0; row < result.getRowCount(); row++) {
+            if (dimVector.isNull(row) || metricVector.isNull(row)) {
                 continue;
             }
-
-            String dimValue = line.get(dimName).toString();
-            Object metricObject = line.get(metricName);
-            if (Strings.isNotEmpty(dimValue) && Objects.nonNull(metricObject)) {
-                Long metric = Math.round(Double.parseDouble(metricObject.toString()));
-                mergeMultivaluedValue(valueAndFrequencyPair, dimValue, metric);
+            String dimValue = dimVector.get(row).toString();
+            if (Strings.isNotEmpty(dimValue)) {
+                mergeMultivaluedValue(valueAndFrequencyPair, dimValue, Math.round(metricVector.getAsDouble(row)));
             }
-
         }
-        constructDataLines(valueAndFrequencyPair, nature, data);
-        return data;
+        return valueAndFrequencyPair;
     }
 
     private void constructDataLines(Map<String, Long> valueAndFrequencyPair, String nature, List<String> data) {
@@ -200,4 +199,4 @@ public class DictQueryHelper {
 
         return joiner.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package com.tencent.supersonic.chat.corrector;
+
+import com.tencent.supersonic.chat.api.component.SemanticCorrector;
+import com.tencent.supersonic.chat.api.pojo.SchemaElement;
+import com.tencent.supersonic.chat.api.pojo.SemanticCorrectInfo;
+import com.tencent.supersonic.chat.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.chat.api.pojo.request.QueryFilter;
+import com.tencent.supersonic.chat.api.pojo.request.QueryFilters;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
+import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
+import java.util.Arrays;
+import java.util.List;
+import net.sf.jsqlparser.JSQLParserException;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class SemanticCorrectorChainTest {
+
+    @Test
+    void correct() {
+        List<SemanticCorrector> correctors = Arrays.asList(new FunctionCorrector(), new TableNameCorrector(),
+                new QueryFilterAppend(), new SelectFieldAppendCorrector());
+        String sql = "select 歌曲名 from 歌曲库 where datediff('day', 发布日期, '2023-08-09') <= 1 "
+                + "and 歌手名 = '邓紫棋' order by 播放量 desc limit 11";
+
+        SemanticCorrectInfo oneByOne = getCorrectInfo(sql);
+        correctors.forEach(corrector -> ((BaseSemanticCorrector) corrector).correct(oneByOne));
+
+        SemanticCorrectInfo chained = getCorrectInfo(sql);
+        SemanticCorrectorChain.correct(chained, correctors);
+
+        Assert.assertEquals("SELECT 歌曲名, 歌手名, 播放量, 发布日期, 歌曲风格 FROM t_2 WHERE 发布日期 <= '2023-08-09' "
+                + "AND 歌手名 = '邓紫棋' AND 发布日期 >= '2023-08-08' AND 歌曲风格 = '流行' "
+                + "ORDER BY 播放量 DESC LIMIT 11", chained.getSql());
+        Assert.assertEquals(oneByOne.getSql(), chained.getSql());
+        Assert.assertEquals(oneByOne.getPreSql(), chained.getPreSql());
+    }
+
+    @Test
+    void dropRewriteOfFailedCorrector() {
+        String sql = "select 歌曲名 from 歌曲库 where 歌手名 = '邓紫棋'";
+        SemanticCorrectInfo correctInfo = getCorrectInfo(sql);
+        SemanticCorrectorChain.correct(correctInfo, Arrays.asList(new TableNameCorrector(),
+                new HalfRewriteCorrector(), new FailingCorrector(), new QueryFilterAppend()));
+
+        Assert.assertEquals("SELECT 歌曲名 FROM t_2 WHERE 歌手名 = '邓紫棋' AND 歌曲风格 = '流行'", correctInfo.getSql());
+        Assert.assertEquals("SELECT 歌曲名 FROM t_2 WHERE 歌手名 = '邓紫棋'", correctInfo.getPreSql());
+    }
+
+    @Test
+    void preSqlBeforeLastChange() {
+        String sql = "select 歌曲名 from 歌曲库 where 歌手名 = '邓紫棋'";
+        SemanticCorrectInfo correctInfo = getCorrectInfo(sql);
+        correctInfo.setQueryFilters(null);
+        // the last correctors leave the sql unchanged
+        SemanticCorrectorChain.correct(correctInfo, Arrays.asList(new TableNameCorrector(),
+                new FunctionCorrector(), new QueryFilterAppend()));
+
+        Assert.assertEquals("SELECT 歌曲名 FROM t_2 WHERE 歌手名 = '邓紫棋'", correctInfo.getSql());
+        Assert.assertEquals(sql, correctInfo.getPreSql());
+
+        SemanticCorrectInfo unchanged = getCorrectInfo(correctInfo.getSql());
+        unchanged.setQueryFilters(null);
+        SemanticCorrectorChain.correct(unchanged, Arrays.asList(new TableNameCorrector(), new FunctionCorrector()));
+        Assert.assertNull(unchanged.getPreSql());
+    }
+
+    private SemanticCorrectInfo getCorrectInfo(String sql) {
+        SemanticParseInfo parseInfo = new SemanticParseInfo();
+        SchemaElement model = new SchemaElement();
+        model.setId(2L);
+        parseInfo.setModel(model);
+        QueryFilter queryFilter = new QueryFilter();
+        queryFilter.setBizName("歌曲风格");
+        queryFilter.setOperator(FilterOperatorEnum.EQUALS);
+        queryFilter.setValue("流行");
+        QueryFilters queryFilters = new QueryFilters();
+        queryFilters.getFilters().add(queryFilter);
+        return SemanticCorrectInfo.builder().sql(sql).parseInfo(parseInfo).queryFilters(queryFilters).build();
+    }
+
+    /**
+     * rewrites the shared statement and fails before it is done
+     */
+    static class HalfRewriteCorrector extends BaseSemanticCorrector {
+
+        @Override
+        public void correct(SemanticCorrectInfo semanticCorrectInfo, ParsedSql parsedSql) {
+            parsedSql.addWhere("歌曲名", "光年之外");
+            throw new IllegalStateException("half done");
+        }
+    }
+
+    static class FailingCorrector implements SemanticCorrector {
+
+        @Override
+        public void correct(SemanticCorrectInfo semanticCorrectInfo) throws JSQLParserException {
+            semanticCorrectInfo.setSql("select from");
+            throw new JSQLParserException("failed");
+        }
+    }
+}
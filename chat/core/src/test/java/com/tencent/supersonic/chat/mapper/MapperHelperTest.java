@@ -0,0 +1,92 @@
+package com.tencent.supersonic.chat.mapper;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class MapperHelperTest {
+
+    @Test
+    void emptyStrings() {
+        assertEditDistance("", "", 0, 0);
+        assertEditDistance("", "abc", 3, 3);
+        assertEditDistance("abc", "", 3, 3);
+        // the length difference alone is over the band
+        assertEditDistance("", "abc", 2, 3);
+        assertEditDistance("abc", "", 0, 3);
+    }
+
+    @Test
+    void distanceAtBandLimit() {
+        assertEditDistance("kitten", "sitting", 3, 3);
+        assertEditDistance("周杰伦", "周杰伦", 0, 0);
+        assertEditDistance("周杰伦", "周星驰", 2, 2);
+        assertEditDistance("abcdef", "azced", 3, 3);
+    }
+
+    @Test
+    void distanceJustOverBandLimit() {
+        assertEditDistance("kitten", "sitting", 2, 3);
+        assertEditDistance("周杰伦", "周星驰", 1, 2);
+        assertEditDistance("abcdef", "azced", 2, 3);
+        assertEditDistance("abc", "abd", 0, 1);
+    }
+
+    @Test
+    void unequalLengths() {
+        assertEditDistance("abc", "abcdef", 3, 3);
+        assertEditDistance("abc", "abcdef", 2, 3);
+        assertEditDistance("abcdef", "xbc", 4, 4);
+        assertEditDistance("abcdef", "xbc", 3, 4);
+        // a match far off the diagonal is outside the band
+        assertEditDistance("aaaab", "baaaa", 2, 2);
+        assertEditDistance("aaaab", "baaaa", 1, 2);
+    }
+
+    @Test
+    void sameAsFullDistanceForAllBands() {
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            String a = randomString(random, random.nextInt(9));
+            String b = randomString(random, random.nextInt(9));
+            int distance = getFullEditDistance(a, b);
+            for (int maxDistance = 0; maxDistance <= Math.max(a.length(), b.length()) + 1; maxDistance++) {
+                assertEditDistance(a, b, maxDistance, distance);
+            }
+        }
+    }
+
+    /**
+     * the banded distance equals the full one within the band and is maxDistance + 1 above it
+     */
+    private static void assertEditDistance(String a, String b, int maxDistance, int distance) {
+        Assert.assertEquals(a + " / " + b, distance, getFullEditDistance(a, b));
+        Assert.assertEquals(a + " / " + b + " within " + maxDistance, Math.min(distance, maxDistance + 1),
+                MapperHelper.getEditDistance(a, b, maxDistance));
+    }
+
+    private static int getFullEditDistance(String a, String b) {
+        int[][] dp = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j - 1] + cost, dp[i - 1][j] + 1), dp[i][j - 1] + 1);
+            }
+        }
+        return dp[a.length()][b.length()];
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.tencent.supersonic.chat.mapper;
+
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import com.tencent.supersonic.knowledge.dictionary.DictionaryTrie;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * measures the word detection of long queries against a dictionary of 100k words, comparing the search of
+ * every substring done by QueryMatchStrategy with the aho-corasick pass of AutomatonMatchStrategy followed
+ * by the bounded fuzzy search of the uncovered spans. both run on the tries directly, without the spring
+ * context, so the nature filtering and the selection per round are left out. run the main method.
+ */
+public class SchemaMatchBenchmark {
+
+    private static final int WORDS = 100_000;
+    private static final int LIMIT = 20;
+    private static final double THRESHOLD = 0.5;
+    private static final int[] TEXT_LENGTHS = {20, 50, 100, 200};
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(0);
+        List<String> words = new ArrayList<>();
+        TreeMap<String, List<String>> prefixes = new TreeMap<>();
+        TreeMap<String, List<String>> suffixes = new TreeMap<>();
+        for (int i = 0; i < WORDS; i++) {
+            String word = newWord(random, 2 + random.nextInt(5));
+            words.add(word);
+            prefixes.put(word, Collections.singletonList("_1_" + i + "_dimension"));
+            suffixes.put(StringUtils.reverse(word), Collections.singletonList("_1_" + i + "_suffix_dimension"));
+        }
+        DictionaryTrie trie = DictionaryTrie.build(prefixes);
+        DictionaryTrie suffixTrie = DictionaryTrie.build(suffixes);
+        MapperHelper mapperHelper = new MapperHelper();
+        // build the fail links before timing
+        trie.match("", (begin, end, natures) -> {
+        });
+
+        for (int textLength : TEXT_LENGTHS) {
+            for (int round = 0; round < ROUNDS; round++) {
+                String text = newText(random, words, textLength);
+                int[] found = new int[2];
+                long scanNanos = BenchmarkTimer.nanos(() -> found[0] = scan(text, 0, text.length(), trie,
+                        suffixTrie, mapperHelper, false));
+                long matchNanos = BenchmarkTimer.nanos(() -> found[1] = match(text, trie, suffixTrie, mapperHelper));
+
+                System.out.printf("length:%4d  round:%d  scan:%9.3f ms (%5d words)  automaton:%9.3f ms (%5d words)%n",
+                        textLength, round, scanNanos / 1e6, found[0], matchNanos / 1e6, found[1]);
+            }
+        }
+    }
+
+    private static int match(String text, DictionaryTrie trie, DictionaryTrie suffixTrie, MapperHelper mapperHelper) {
+        boolean[] covered = new boolean[text.length()];
+        int[] found = new int[1];
+        trie.match(text, (begin, end, natures) -> {
+            found[0]++;
+            for (int i = begin; i < end; i++) {
+                covered[i] = true;
+            }
+        });
+        for (int begin = 0; begin < text.length(); ) {
+            if (covered[begin]) {
+                begin++;
+                continue;
+            }
+            int end = begin;
+            while (end < text.length() && !covered[end]) {
+                end++;
+            }
+            found[0] += scan(text, begin, end, trie, suffixTrie, mapperHelper, true);
+            begin = end;
+        }
+        return found[0];
+    }
+
+    private static int scan(String text, int begin, int end, DictionaryTrie trie, DictionaryTrie suffixTrie,
+            MapperHelper mapperHelper, boolean bounded) {
+        int found = 0;
+        for (int index = begin; index < end; index++) {
+            for (int i = index + 1; i <= end; i++) {
+                String segment = text.substring(index, i);
+                List<String> candidates = new ArrayList<>();
+                trie.prefixSearch(segment, (word, natures) -> candidates.add(word) && candidates.size() < LIMIT);
+                List<String> suffixCandidates = new ArrayList<>();
+                suffixTrie.prefixSearch(StringUtils.reverse(segment),
+                        (word, natures) -> suffixCandidates.add(StringUtils.reverse(word))
+                                && suffixCandidates.size() < LIMIT);
+                candidates.addAll(suffixCandidates);
+                for (String candidate : candidates) {
+                    boolean similar = bounded ? mapperHelper.isSimilar(segment, candidate, THRESHOLD)
+                            : mapperHelper.getSimilarity(segment, candidate) >= THRESHOLD;
+                    if (similar) {
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String newText(Random random, List<String> words, int length) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            if (random.nextBoolean()) {
+                text.append(words.get(random.nextInt(words.size())));
+            } else {
+                text.append(newWord(random, 1 + random.nextInt(3)));
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    private static String newWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) (0x4E00 + random.nextInt(3000)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.tencent.supersonic.chat.parser;
+
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.chat.api.component.SemanticParser;
+import com.tencent.supersonic.chat.api.component.SemanticQuery;
+import com.tencent.supersonic.chat.api.pojo.ChatContext;
+import com.tencent.supersonic.chat.api.pojo.QueryContext;
+import com.tencent.supersonic.chat.api.pojo.SemanticParseInfo;
+import com.tencent.supersonic.chat.api.pojo.request.QueryReq;
+import com.tencent.supersonic.chat.api.pojo.response.QueryResult;
+import com.tencent.supersonic.chat.persistence.dataobject.StatisticsDO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ParserPipelineTest {
+
+    @Test
+    void parseWithoutTimeoutsConfigured() {
+        ParserPipeline pipeline = newPipeline(null);
+        try {
+            QueryContext queryCtx = new QueryContext(new QueryReq());
+            List<StatisticsDO> costs = new ArrayList<>();
+            pipeline.parse(Arrays.asList(new ShapingParser(), new RemoteParser()), queryCtx, new ChatContext(),
+                    costs);
+
+            Assert.assertEquals(Arrays.asList("ShapingParser", "RemoteParser"), getQueryModes(queryCtx));
+            Assert.assertEquals(2, costs.size());
+        } finally {
+            pipeline.destroy();
+        }
+    }
+
+    @Test
+    void skipParserAfterItsTimeout() throws Exception {
+        SlowParser slowParser = new SlowParser();
+        ParserPipeline pipeline = newPipeline(Collections.singletonMap("SlowParser", 100L));
+        try {
+            QueryContext queryCtx = new QueryContext(new QueryReq());
+            long startTime = System.currentTimeMillis();
+            pipeline.parse(Arrays.asList(new ShapingParser(), slowParser, new RemoteParser()), queryCtx,
+                    new ChatContext(), new ArrayList<>());
+
+            // the other parsers wait for the default timeout, the slow one only for its own
+            Assert.assertTrue(System.currentTimeMillis() - startTime < 5000);
+            Assert.assertEquals(Arrays.asList("ShapingParser", "RemoteParser"), getQueryModes(queryCtx));
+            Assert.assertTrue(slowParser.interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            pipeline.destroy();
+        }
+    }
+
+    private ParserPipeline newPipeline(Map<String, Long> timeouts) {
+        ParserPipeline pipeline = new ParserPipeline();
+        ReflectionTestUtils.setField(pipeline, "concurrentEnable", true);
+        ReflectionTestUtils.setField(pipeline, "poolSize", 2);
+        ReflectionTestUtils.setField(pipeline, "queueSize", 2);
+        ReflectionTestUtils.setField(pipeline, "timeoutMs", 10000L);
+        ReflectionTestUtils.setField(pipeline, "timeouts", timeouts);
+        pipeline.init();
+        return pipeline;
+    }
+
+    private List<String> getQueryModes(QueryContext queryCtx) {
+        return queryCtx.getCandidateQueries().stream().map(SemanticQuery::getQueryMode)
+                .collect(Collectors.toList());
+    }
+
+    static class ShapingParser implements SemanticParser {
+
+        @Override
+        public void parse(QueryContext queryContext, ChatContext chatContext) {
+            queryContext.getCandidateQueries().add(new ModeQuery(getClass().getSimpleName()));
+        }
+
+        @Override
+        public boolean isContextShaping() {
+            return true;
+        }
+    }
+
+    static class RemoteParser implements SemanticParser {
+
+        @Override
+        public void parse(QueryContext queryContext, ChatContext chatContext) {
+            queryContext.getCandidateQueries().add(new ModeQuery(getClass().getSimpleName()));
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+    }
+
+    static class SlowParser implements SemanticParser {
+
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public void parse(QueryContext queryContext, ChatContext chatContext) {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return;
+            }
+            queryContext.getCandidateQueries().add(new ModeQuery(getClass().getSimpleName()));
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+    }
+
+    static class ModeQuery implements SemanticQuery {
+
+        private final String queryMode;
+        private SemanticParseInfo parseInfo = new SemanticParseInfo();
+
+        ModeQuery(String queryMode) {
+            this.queryMode = queryMode;
+        }
+
+        @Override
+        public String getQueryMode() {
+            return queryMode;
+        }
+
+        @Override
+        public QueryResult execute(User user) {
+            return null;
+        }
+
+        @Override
+        public SemanticParseInfo getParseInfo() {
+            return parseInfo;
+        }
+
+        @Override
+        public void setParseInfo(SemanticParseInfo parseInfo) {
+            this.parseInfo = parseInfo;
+        }
+    }
+}
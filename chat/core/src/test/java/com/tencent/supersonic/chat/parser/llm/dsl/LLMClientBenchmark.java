@@ -0,0 +1,126 @@
+package com.tencent.supersonic.chat.parser.llm.dsl;
+
+import com.tencent.supersonic.chat.config.LLMConfig;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMReq;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMResp;
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import com.tencent.supersonic.common.util.JsonUtil;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * measures throughput and latency of the parser side llm calls against LLMStubServer, comparing a blocking
+ * RestTemplate call per question with LLMClient, where repeated questions are answered from the cache or
+ * share the call in flight. run the main method.
+ */
+public class LLMClientBenchmark {
+
+    private static final int CALLERS = 32;
+    private static final int REQUESTS = 2000;
+    private static final int QUESTIONS = 200;
+    private static final long LATENCY_MS = 50;
+    private static final long JITTER_MS = 50;
+
+    public static void main(String[] args) throws Exception {
+        LLMStubServer stubServer = new LLMStubServer(LATENCY_MS, JITTER_MS, 64);
+        stubServer.start();
+        try {
+            List<LLMReq> llmReqs = newRequests();
+            String questUrl = stubServer.getUrl() + LLMStubServer.PATH;
+            RestTemplate restTemplate = new RestTemplate();
+            run("blocking", stubServer, llmReqs, llmReq -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                HttpEntity<String> entity = new HttpEntity<>(JsonUtil.toString(llmReq), headers);
+                return restTemplate.exchange(questUrl, HttpMethod.POST, entity, LLMResp.class).getBody();
+            });
+
+            LLMClient llmClient = new LLMClient(newConfig(stubServer.getUrl()));
+            llmClient.init();
+            try {
+                run("client", stubServer, llmReqs, llmReq -> llmClient.request(llmReq, 1L));
+            } finally {
+                llmClient.destroy();
+            }
+        } finally {
+            stubServer.stop();
+        }
+    }
+
+    private static void run(String name, LLMStubServer stubServer, List<LLMReq> llmReqs,
+            Function<LLMReq, LLMResp> caller) throws Exception {
+        long requestCnt = stubServer.getRequestCnt();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<Long>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (LLMReq llmReq : llmReqs) {
+            futures.add(callers.submit(() -> BenchmarkTimer.nanos(() -> {
+                if (caller.apply(llmReq) == null) {
+                    throw new IllegalStateException("no answer for " + llmReq.getQueryText());
+                }
+            })));
+        }
+        long[] latencies = new long[futures.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = futures.get(i).get();
+        }
+        long elapsed = System.nanoTime() - start;
+        callers.shutdown();
+        callers.awaitTermination(1, TimeUnit.MINUTES);
+        Arrays.sort(latencies);
+        System.out.printf("%-8s  requests:%d  llm calls:%4d  throughput:%8.1f req/s  p50:%7.1f ms  p99:%7.1f ms%n",
+                name, latencies.length, stubServer.getRequestCnt() - requestCnt,
+                latencies.length / (elapsed / 1e9), BenchmarkTimer.percentileMillis(latencies, 0.5),
+                BenchmarkTimer.percentileMillis(latencies, 0.99));
+    }
+
+    private static List<LLMReq> newRequests() {
+        Random random = new Random(0);
+        List<LLMReq> llmReqs = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int question = random.nextInt(QUESTIONS);
+            LLMReq llmReq = new LLMReq();
+            // the same question written differently hits the same cache entry
+            llmReq.setQueryText((i % 2 == 0 ? "近7天 " : "  近7天  ") + "超音数访问次数 " + question);
+            LLMReq.LLMSchema llmSchema = new LLMReq.LLMSchema();
+            llmSchema.setModelName("超音数");
+            llmSchema.setDomainName("超音数");
+            List<String> fieldNameList = new ArrayList<>(Arrays.asList("访问次数", "用户名", "数据日期"));
+            Collections.shuffle(fieldNameList, random);
+            llmSchema.setFieldNameList(fieldNameList);
+            llmReq.setSchema(llmSchema);
+            llmReq.setLinking(new ArrayList<>());
+            llmReq.setCurrentDate("2023-08-31");
+            llmReqs.add(llmReq);
+        }
+        return llmReqs;
+    }
+
+    private static LLMConfig newConfig(String url) {
+        LLMConfig llmConfig = new LLMConfig();
+        llmConfig.setUrl(url);
+        llmConfig.setQueryToSqlPath(LLMStubServer.PATH);
+        llmConfig.setTimeoutMs(30000);
+        llmConfig.setConnectTimeoutMs(5000);
+        llmConfig.setPoolMaxSize(64);
+        llmConfig.setClientThreads(16);
+        llmConfig.setClientQueueSize(256);
+        llmConfig.setCacheEnable(true);
+        llmConfig.setCacheMaxSize(2000);
+        llmConfig.setCacheExpireMinutes(60);
+        return llmConfig;
+    }
+}
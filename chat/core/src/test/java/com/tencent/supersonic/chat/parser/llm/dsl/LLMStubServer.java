@@ -0,0 +1,92 @@
+package com.tencent.supersonic.chat.parser.llm.dsl;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMReq;
+import com.tencent.supersonic.chat.query.llm.dsl.LLMResp;
+import com.tencent.supersonic.common.util.JsonUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.util.StreamUtils;
+
+/**
+ * an in process stand in for the llm service, it answers the query to sql path after a latency of
+ * latencyMs plus a random jitter up to jitterMs, so the client can be measured offline
+ */
+public class LLMStubServer {
+
+    public static final String PATH = "/query2sql";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requestCnt = new AtomicLong();
+    private final long latencyMs;
+    private final long jitterMs;
+
+    public LLMStubServer(long latencyMs, long jitterMs, int threads) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(PATH, exchange -> {
+            requestCnt.incrementAndGet();
+            try (InputStream body = exchange.getRequestBody()) {
+                LLMReq llmReq = JsonUtil.toObject(StreamUtils.copyToString(body, StandardCharsets.UTF_8), LLMReq.class);
+                sleep();
+                byte[] response = JsonUtil.toString(answer(llmReq)).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCnt() {
+        return requestCnt.get();
+    }
+
+    private void sleep() {
+        long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0;
+        try {
+            Thread.sleep(latencyMs + jitter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private LLMResp answer(LLMReq llmReq) {
+        String modelName = llmReq.getSchema() == null ? "" : llmReq.getSchema().getModelName();
+        LLMResp llmResp = new LLMResp();
+        llmResp.setQuery(llmReq.getQueryText());
+        llmResp.setModelName(modelName);
+        llmResp.setSqlOutput("SELECT 数据日期, 访问次数 FROM " + modelName + " WHERE 数据日期 = '"
+                + llmReq.getCurrentDate() + "'");
+        llmResp.setFields(Collections.singletonList("访问次数"));
+        return llmResp;
+    }
+}
@@ -0,0 +1,178 @@
+package com.tencent.supersonic.chat.persistence.repository.impl;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.tencent.supersonic.chat.api.pojo.ChatContext;
+import com.tencent.supersonic.chat.persistence.dataobject.ChatContextDO;
+import com.tencent.supersonic.chat.persistence.mapper.ChatContextMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ChatContextRepositoryImplTest {
+
+    @Test
+    void coalesceUpdatesOfChat() throws InterruptedException {
+        InMemoryMapper mapper = new InMemoryMapper();
+        ChatContextRepositoryImpl repository = create(mapper, "async", 10000);
+        for (int i = 0; i < 5; i++) {
+            repository.updateContext(context(1, "query" + i));
+        }
+        repository.destroy();
+
+        Assert.assertEquals(1, mapper.writes.get());
+        Assert.assertEquals("query4", mapper.contexts.get(1).getQueryText());
+    }
+
+    @Test
+    void readYourWritesBeforeFlush() throws InterruptedException {
+        InMemoryMapper mapper = new InMemoryMapper();
+        ChatContextRepositoryImpl repository = create(mapper, "async", 10000);
+        repository.updateContext(context(1, "query0"));
+        repository.updateContext(context(1, "query1"));
+
+        Assert.assertEquals("query1", repository.getOrCreateContext(1).getQueryText());
+        Assert.assertEquals(0, mapper.writes.get());
+        repository.destroy();
+    }
+
+    @Test
+    void writeThroughWhenPendingIsFull() throws InterruptedException {
+        InMemoryMapper mapper = new InMemoryMapper();
+        ChatContextRepositoryImpl repository = create(mapper, "async", 0);
+        repository.updateContext(context(1, "query0"));
+
+        Assert.assertEquals(1, mapper.writes.get());
+        Assert.assertEquals("query0", repository.getOrCreateContext(1).getQueryText());
+        repository.destroy();
+        Assert.assertEquals(1, mapper.writes.get());
+    }
+
+    @Test
+    void readChangesOfOtherInstancesAfterExpiry() throws InterruptedException {
+        InMemoryMapper mapper = new InMemoryMapper();
+        FakeTicker ticker = new FakeTicker();
+        ChatContextRepositoryImpl repository = create(mapper, "sync", 10000, ticker);
+        repository.updateContext(context(1, "query0"));
+        ChatContextDO changed = new ChatContextDO();
+        changed.setChatId(1);
+        changed.setQueryText("query1");
+        mapper.contexts.put(1, changed);
+
+        Assert.assertEquals("query0", repository.getOrCreateContext(1).getQueryText());
+        ticker.advance(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals("query1", repository.getOrCreateContext(1).getQueryText());
+        repository.destroy();
+    }
+
+    @Test
+    void readPendingUpdateAfterExpiry() throws InterruptedException {
+        InMemoryMapper mapper = new InMemoryMapper();
+        FakeTicker ticker = new FakeTicker();
+        ChatContextRepositoryImpl repository = create(mapper, "async", 10000, ticker);
+        repository.updateContext(context(1, "query0"));
+
+        ticker.advance(TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals("query0", repository.getOrCreateContext(1).getQueryText());
+        Assert.assertEquals(0, mapper.writes.get());
+        repository.destroy();
+    }
+
+    @Test
+    void contextCopiedInAndOut() throws InterruptedException {
+        ChatContextRepositoryImpl repository = create(new InMemoryMapper(), "async", 10000);
+        ChatContext chatContext = context(1, "query0");
+        chatContext.getParseInfo().setQueryMode("METRIC_MODEL");
+        repository.updateContext(chatContext);
+
+        chatContext.setQueryText("query1");
+        chatContext.getParseInfo().setQueryMode("ENTITY_DETAIL");
+        ChatContext read = repository.getOrCreateContext(1);
+        Assert.assertEquals("query0", read.getQueryText());
+        Assert.assertEquals("METRIC_MODEL", read.getParseInfo().getQueryMode());
+
+        read.setQueryText("query2");
+        read.getParseInfo().setQueryMode("ENTITY_DETAIL");
+        Assert.assertEquals("query0", repository.getOrCreateContext(1).getQueryText());
+        Assert.assertEquals("METRIC_MODEL", repository.getOrCreateContext(1).getParseInfo().getQueryMode());
+        repository.destroy();
+    }
+
+    private ChatContextRepositoryImpl create(ChatContextMapper mapper, String persistMode, int pendingMax) {
+        return create(mapper, persistMode, pendingMax, Ticker.systemTicker());
+    }
+
+    private ChatContextRepositoryImpl create(ChatContextMapper mapper, String persistMode, int pendingMax,
+            Ticker ticker) {
+        ChatContextRepositoryImpl repository = new ChatContextRepositoryImpl(mapper);
+        ReflectionTestUtils.setField(repository, "ticker", ticker);
+        ReflectionTestUtils.setField(repository, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(repository, "cacheExpireSeconds", 1L);
+        ReflectionTestUtils.setField(repository, "persistMode", persistMode);
+        ReflectionTestUtils.setField(repository, "flushMs", 60000L);
+        ReflectionTestUtils.setField(repository, "batchSize", 100);
+        ReflectionTestUtils.setField(repository, "pendingMax", pendingMax);
+        repository.init();
+        return repository;
+    }
+
+    private ChatContext context(int chatId, String queryText) {
+        ChatContext chatContext = new ChatContext();
+        chatContext.setChatId(chatId);
+        chatContext.setQueryText(queryText);
+        return chatContext;
+    }
+
+    private static class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+
+        void advance(long duration) {
+            nanos.addAndGet(duration);
+        }
+    }
+
+    private static class InMemoryMapper implements ChatContextMapper {
+
+        private final Map<Integer, ChatContextDO> contexts = new ConcurrentHashMap<>();
+        private final AtomicInteger writes = new AtomicInteger();
+
+        @Override
+        public ChatContextDO getContextByChatId(int chatId) {
+            return contexts.get(chatId);
+        }
+
+        @Override
+        public int updateContext(ChatContextDO contextDO) {
+            if (!contexts.containsKey(contextDO.getChatId())) {
+                return 0;
+            }
+            writes.incrementAndGet();
+            contexts.put(contextDO.getChatId(), contextDO);
+            return 1;
+        }
+
+        @Override
+        public int addContext(ChatContextDO contextDO) {
+            writes.incrementAndGet();
+            contexts.put(contextDO.getChatId(), contextDO);
+            return 1;
+        }
+
+        @Override
+        public int batchAddContext(List<ChatContextDO> contextDOs) {
+            contextDOs.forEach(this::addContext);
+            return contextDOs.size();
+        }
+    }
+}
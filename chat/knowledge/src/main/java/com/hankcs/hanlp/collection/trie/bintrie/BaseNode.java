@@ -1,21 +1,14 @@
 package com.hankcs.hanlp.collection.trie.bintrie;
 
 import com.hankcs.hanlp.corpus.io.ByteArray;
-import com.tencent.supersonic.common.util.ContextUtils;
-import com.tencent.supersonic.knowledge.service.LoadRemoveService;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.AbstractMap;
-import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 
 public abstract class BaseNode<V> implements Comparable<BaseNode> {
@@ -25,7 +18,6 @@ public abstract class BaseNode<V> implements Comparable<BaseNode> {
      */
     static final Status[] ARRAY_STATUS = Status.values();
 
-    private static final Logger logger = LoggerFactory.getLogger(BaseNode.class);
     /**
      * 子节点
      */
@@ -43,8 +35,6 @@ public abstract class BaseNode<V> implements Comparable<BaseNode> {
      */
     protected V value;
 
-    protected String prefix = null;
-
     public BaseNode<V> transition(String path, int begin) {
         BaseNode<V> cur = this;
         for (int i = begin; i < path.length(); ++i) {
@@ -280,52 +270,6 @@ public abstract class BaseNode<V> implements Comparable<BaseNode> {
                 + c
                 + ", value="
                 + value
-                + ", prefix='"
-                + prefix
-                + '\''
                 + '}';
     }
-
-    public void walkNode(Set<Map.Entry<String, V>> entrySet, Integer agentId, Set<Long> detectModelIds) {
-        if (status == Status.WORD_MIDDLE_2 || status == Status.WORD_END_3) {
-            LoadRemoveService loadRemoveService = ContextUtils.getBean(LoadRemoveService.class);
-            logger.debug("agentId:{},detectModelIds:{},before:{}", agentId, detectModelIds, value.toString());
-            List natures = loadRemoveService.removeNatures((List) value, agentId, detectModelIds);
-            String name = this.prefix != null ? this.prefix + c : "" + c;
-            logger.debug("name:{},after:{},natures:{}", name, (List) value, natures);
-            entrySet.add(new TrieEntry(name, (V) natures));
-        }
-    }
-
-    /***
-     * walk limit
-     * @param sb
-     * @param entrySet
-     * @param limit
-     */
-    public void walkLimit(StringBuilder sb, Set<Map.Entry<String, V>> entrySet, int limit, Integer agentId,
-            Set<Long> detectModelIds) {
-        Queue<BaseNode> queue = new ArrayDeque<>();
-        this.prefix = sb.toString();
-        queue.add(this);
-        while (!queue.isEmpty()) {
-            if (entrySet.size() >= limit) {
-                break;
-            }
-            BaseNode root = queue.poll();
-            if (root == null) {
-                continue;
-            }
-            root.walkNode(entrySet, agentId, detectModelIds);
-            if (root.child == null) {
-                continue;
-            }
-            String prefix = root.prefix + root.c;
-            for (BaseNode node : root.child) {
-                node.prefix = prefix;
-                queue.add(node);
-            }
-        }
-    }
-
 }
@@ -0,0 +1,24 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * the words added and removed since the last refresh of the knowledge
+ */
+@Data
+public class DictWordDelta {
+
+    private List<DictWord> added = new ArrayList<>();
+
+    private List<DictWord> removed = new ArrayList<>();
+
+    private Integer modelCnt = 0;
+
+    private Integer changedModelCnt = 0;
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
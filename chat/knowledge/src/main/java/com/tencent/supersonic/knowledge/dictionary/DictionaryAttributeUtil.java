@@ -2,6 +2,7 @@ package com.tencent.supersonic.knowledge.dictionary;
 
 import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -35,4 +36,23 @@ public class DictionaryAttributeUtil {
         }
         return attribute;
     }
+
+    /**
+     * @return the attribute without the natures of removed, null if no nature is left
+     */
+    public static CoreDictionary.Attribute removeNatures(CoreDictionary.Attribute old,
+            CoreDictionary.Attribute removed) {
+        List<Nature> removedNatures = Arrays.asList(removed.nature);
+        int[] kept = IntStream.range(0, old.nature.length).filter(i -> !removedNatures.contains(old.nature[i]))
+                .toArray();
+        if (kept.length == 0) {
+            return null;
+        }
+        CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(
+                Arrays.stream(kept).mapToObj(i -> old.nature[i]).toArray(Nature[]::new),
+                Arrays.stream(kept).map(i -> old.frequency[i]).toArray(),
+                Arrays.stream(kept).map(i -> old.frequency[i]).sum());
+        attribute.original = old.original;
+        return attribute;
+    }
 }
@@ -0,0 +1,339 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * immutable trie of dictionary words and their natures, nodes are numbered in breadth first order
+ * so the children of a node are a contiguous range and the whole trie is kept in a few flat arrays.
+ * a built trie is never modified, readers can share it without locking.
+ */
+public class DictionaryTrie {
+
+    public static final DictionaryTrie EMPTY = build(new TreeMap<>());
+
+    private static final int NO_VALUE = -1;
+
+    /**
+     * the char of each node, the root has none
+     */
+    private final char[] labels;
+    /**
+     * the children of node i are the nodes from firstChild[i] to firstChild[i + 1] - 1
+     */
+    private final int[] firstChild;
+    /**
+     * index into values if the node ends a word
+     */
+    private final int[] valueIndex;
+    /**
+     * distinct nature lists, most words share them
+     */
+    private final List<String>[] values;
+    private final int size;
+    /**
+     * aho-corasick links of the nodes, built on the first match
+     */
+    private volatile MatchLinks matchLinks;
+
+    private DictionaryTrie(char[] labels, int[] firstChild, int[] valueIndex, List<String>[] values, int size) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.valueIndex = valueIndex;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @param words sorted words, each word becomes the path of one node
+     */
+    @SuppressWarnings("unchecked")
+    public static DictionaryTrie build(SortedMap<String, List<String>> words) {
+        String[] keys = words.keySet().toArray(new String[0]);
+        List<String>[] keyValues = words.values().toArray(new List[0]);
+        Map<List<String>, Integer> distinctValues = new HashMap<>();
+        IntArray valueIndex = new IntArray(keys.length + 1);
+        IntArray firstChild = new IntArray(keys.length + 1);
+        CharArray labels = new CharArray(keys.length + 1);
+        // key range and depth of each node, only needed while building
+        IntArray lows = new IntArray(keys.length + 1);
+        IntArray highs = new IntArray(keys.length + 1);
+        IntArray depths = new IntArray(keys.length + 1);
+        labels.add((char) 0);
+        lows.add(0);
+        highs.add(keys.length);
+        depths.add(0);
+        for (int node = 0; node < labels.size(); node++) {
+            int low = lows.get(node);
+            int high = highs.get(node);
+            int depth = depths.get(node);
+            // in sorted order the word ending at this node comes before the longer words below it
+            if (low < high && keys[low].length() == depth) {
+                valueIndex.add(distinctValues.computeIfAbsent(keyValues[low], v -> distinctValues.size()));
+                low++;
+            } else {
+                valueIndex.add(NO_VALUE);
+            }
+            firstChild.add(labels.size());
+            while (low < high) {
+                char c = keys[low].charAt(depth);
+                int end = low + 1;
+                while (end < high && keys[end].charAt(depth) == c) {
+                    end++;
+                }
+                labels.add(c);
+                lows.add(low);
+                highs.add(end);
+                depths.add(depth + 1);
+                low = end;
+            }
+        }
+        firstChild.add(labels.size());
+        List<String>[] values = new List[distinctValues.size()];
+        distinctValues.forEach((value, index) -> values[index] = value == null ? null
+                : Collections.unmodifiableList(value));
+        return new DictionaryTrie(labels.toArray(), firstChild.toArray(), valueIndex.toArray(), values, keys.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public List<String> get(String word) {
+        int node = find(word);
+        return node < 0 || valueIndex[node] == NO_VALUE ? null : values[valueIndex[node]];
+    }
+
+    /**
+     * visits the words starting with prefix, shorter words first and words of the same length in
+     * sorted order, until the visitor has collected enough of them
+     *
+     * @param visitor receives each word and its natures, returns false to stop the search
+     */
+    public void prefixSearch(String prefix, WordVisitor visitor) {
+        int start = find(prefix);
+        if (start < 0) {
+            return;
+        }
+        Queue<Integer> nodes = new ArrayDeque<>();
+        Queue<String> names = new ArrayDeque<>();
+        nodes.add(start);
+        names.add(prefix);
+        while (!nodes.isEmpty()) {
+            int node = nodes.poll();
+            String name = names.poll();
+            if (valueIndex[node] != NO_VALUE && !visitor.visit(name, values[valueIndex[node]])) {
+                return;
+            }
+            for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+                nodes.add(child);
+                names.add(name + labels[child]);
+            }
+        }
+    }
+
+    /**
+     * finds every word occurring in text in a single pass over it, following the aho-corasick fail links
+     * instead of searching again from each offset
+     *
+     * @param visitor receives the begin and end offsets of each occurrence and the natures of the word
+     */
+    public void match(String text, MatchVisitor visitor) {
+        MatchLinks links = getMatchLinks();
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(links.fail, node, text.charAt(i));
+            int found = valueIndex[node] != NO_VALUE ? node : links.output[node];
+            for (; found > 0; found = links.output[found]) {
+                visitor.visit(i + 1 - links.depth[found], i + 1, values[valueIndex[found]]);
+            }
+        }
+    }
+
+    public SortedMap<String, List<String>> toMap() {
+        SortedMap<String, List<String>> words = new TreeMap<>();
+        forEach(words::put);
+        return words;
+    }
+
+    /**
+     * visits all words in sorted order
+     */
+    public void forEach(BiConsumer<String, List<String>> consumer) {
+        forEach(0, new StringBuilder(), consumer);
+    }
+
+    private void forEach(int node, StringBuilder path, BiConsumer<String, List<String>> consumer) {
+        if (valueIndex[node] != NO_VALUE) {
+            consumer.accept(path.toString(), values[valueIndex[node]]);
+        }
+        for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            path.append(labels[child]);
+            forEach(child, path, consumer);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    private int find(String word) {
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            node = getChild(node, word.charAt(i));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private MatchLinks getMatchLinks() {
+        MatchLinks links = matchLinks;
+        if (links == null) {
+            links = buildMatchLinks();
+            matchLinks = links;
+        }
+        return links;
+    }
+
+    /**
+     * in breadth first order the links of all shallower nodes are known when the children of a node are
+     * linked, so one walk over the nodes is enough
+     */
+    private MatchLinks buildMatchLinks() {
+        int[] depth = new int[labels.length];
+        int[] fail = new int[labels.length];
+        int[] output = new int[labels.length];
+        output[0] = NO_VALUE;
+        for (int node = 0; node < labels.length; node++) {
+            for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+                depth[child] = depth[node] + 1;
+                fail[child] = node == 0 ? 0 : next(fail, fail[node], labels[child]);
+                output[child] = fail[child] != 0 && valueIndex[fail[child]] != NO_VALUE ? fail[child]
+                        : output[fail[child]];
+            }
+        }
+        return new MatchLinks(depth, fail, output);
+    }
+
+    private int next(int[] fail, int node, char c) {
+        while (true) {
+            int child = getChild(node, c);
+            if (child >= 0) {
+                return child;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+
+    private int getChild(int node, char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public interface WordVisitor {
+
+        boolean visit(String word, List<String> natures);
+    }
+
+    public interface MatchVisitor {
+
+        void visit(int begin, int end, List<String> natures);
+    }
+
+    private static class MatchLinks {
+
+        /**
+         * the length of the word a node ends
+         */
+        private final int[] depth;
+        /**
+         * the node of the longest proper suffix of the node's word that is in the trie
+         */
+        private final int[] fail;
+        /**
+         * the nearest node on the fail chain that ends a word, -1 if there is none
+         */
+        private final int[] output;
+
+        MatchLinks(int[] depth, int[] fail, int[] output) {
+            this.depth = depth;
+            this.fail = fail;
+            this.output = output;
+        }
+    }
+
+    private static class IntArray {
+
+        private int[] data;
+        private int size;
+
+        IntArray(int capacity) {
+            data = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    private static class CharArray {
+
+        private char[] data;
+        private int size;
+
+        CharArray(int capacity) {
+            data = new char[Math.max(capacity, 1)];
+        }
+
+        void add(char value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        char[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
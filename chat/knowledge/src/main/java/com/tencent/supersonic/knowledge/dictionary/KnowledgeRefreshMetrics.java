@@ -0,0 +1,26 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.Date;
+import lombok.Data;
+
+@Data
+public class KnowledgeRefreshMetrics {
+
+    private Date lastRefreshAt;
+
+    private Long lastElapsedMs;
+
+    private Integer lastModelCnt;
+
+    private Integer lastChangedModelCnt;
+
+    private Integer lastAddedCnt;
+
+    private Integer lastRemovedCnt;
+
+    private Long refreshCnt = 0L;
+
+    private Long changedRefreshCnt = 0L;
+
+    private Long maxElapsedMs = 0L;
+}
@@ -375,4 +375,40 @@ public class MultiCustomDictionary extends DynamicCustomDictionary {
             return true;
         }
     }
+
+    /**
+     * removes the natures of natureWithFrequency from the word, the word is dropped once no nature is left.
+     * words of the dictionary files live in the double array trie, which is only rebuilt by a reload
+     */
+    public boolean removeNatures(String word, String natureWithFrequency) {
+        if (word == null || natureWithFrequency == null || this.trie == null) {
+            return false;
+        }
+        if (HanLP.Config.Normalization) {
+            word = CharTable.convert(word);
+        }
+        boolean isLetters = isLetters(word);
+        word = getWordBySpace(word);
+        if (isLetters) {
+            word = word.toLowerCase();
+        }
+        CoreDictionary.Attribute att = this.trie.get(word);
+        CoreDictionary.Attribute removed = CoreDictionary.Attribute.create(natureWithFrequency);
+        if (att == null || removed == null || this.dat.containsKey(word)) {
+            return false;
+        }
+        CoreDictionary.Attribute kept = DictionaryAttributeUtil.removeNatures(att, removed);
+        if (kept == null) {
+            this.trie.remove(word);
+            if (addToSuggesterTrie) {
+                SearchService.remove(word);
+            }
+        } else {
+            this.trie.put(word, kept);
+            if (addToSuggesterTrie) {
+                SearchService.put(word, kept);
+            }
+        }
+        return true;
+    }
 }
@@ -1,17 +1,19 @@
 package com.tencent.supersonic.knowledge.listener;
 
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDelta;
+import com.tencent.supersonic.knowledge.dictionary.KnowledgeRefreshMetrics;
 import com.tencent.supersonic.knowledge.service.SchemaService;
 import com.tencent.supersonic.knowledge.service.KnowledgeService;
 import com.tencent.supersonic.knowledge.service.WordService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.Date;
 import java.util.List;
 
 @Slf4j
@@ -25,6 +27,8 @@ public class ApplicationStartedListener implements ApplicationListener<Applicati
     @Autowired
     private SchemaService schemaService;
 
+    private volatile KnowledgeRefreshMetrics refreshMetrics = new KnowledgeRefreshMetrics();
+
     @Override
     public void onApplicationEvent(ApplicationStartedEvent event) {
         updateKnowledgeDimValue();
@@ -36,7 +40,6 @@ public class ApplicationStartedListener implements ApplicationListener<Applicati
             log.debug("ApplicationStartedInit start");
 
             List<DictWord> dictWords = wordService.getAllDictWords();
-            wordService.setPreDictWords(dictWords);
             knowledgeService.reloadAllData(dictWords);
 
             log.debug("ApplicationStartedInit end");
@@ -48,29 +51,48 @@ public class ApplicationStartedListener implements ApplicationListener<Applicati
     }
 
     /***
-     * reload knowledge task
+     * reload knowledge task, applies the words added and removed in the models changed since the last run
      */
     @Scheduled(cron = "${reload.knowledge.corn:0 0/1 * * * ?}")
     public void reloadKnowledge() {
         log.debug("reloadKnowledge start");
 
         try {
-            List<DictWord> dictWords = wordService.getAllDictWords();
-            List<DictWord> preDictWords = wordService.getPreDictWords();
-
-            if (CollectionUtils.isEqualCollection(dictWords, preDictWords)) {
-                log.debug("dictWords has not changed, reloadKnowledge end");
-                return;
+            long startTime = System.currentTimeMillis();
+            DictWordDelta delta = wordService.getDictWordDelta();
+            if (!delta.isEmpty()) {
+                knowledgeService.applyKnowledgeDelta(delta);
+                schemaService.getCache().refresh(SchemaService.ALL_CACHE);
             }
-            log.info("dictWords has changed");
-            wordService.setPreDictWords(dictWords);
-            knowledgeService.updateOnlineKnowledge(wordService.getAllDictWords());
-            schemaService.getCache().refresh(SchemaService.ALL_CACHE);
-
+            recordRefresh(delta, System.currentTimeMillis() - startTime);
         } catch (Exception e) {
             log.error("reloadKnowledge error", e);
         }
 
         log.debug("reloadKnowledge end");
     }
+
+    public KnowledgeRefreshMetrics getRefreshMetrics() {
+        return refreshMetrics;
+    }
+
+    private synchronized void recordRefresh(DictWordDelta delta, long elapsedMs) {
+        KnowledgeRefreshMetrics metrics = new KnowledgeRefreshMetrics();
+        metrics.setLastRefreshAt(new Date());
+        metrics.setLastElapsedMs(elapsedMs);
+        metrics.setLastModelCnt(delta.getModelCnt());
+        metrics.setLastChangedModelCnt(delta.getChangedModelCnt());
+        metrics.setLastAddedCnt(delta.getAdded().size());
+        metrics.setLastRemovedCnt(delta.getRemoved().size());
+        metrics.setRefreshCnt(refreshMetrics.getRefreshCnt() + 1);
+        metrics.setChangedRefreshCnt(refreshMetrics.getChangedRefreshCnt() + (delta.isEmpty() ? 0 : 1));
+        metrics.setMaxElapsedMs(Math.max(refreshMetrics.getMaxElapsedMs(), elapsedMs));
+        refreshMetrics = metrics;
+        if (delta.isEmpty()) {
+            log.debug("dictWords has not changed, cost:{}", elapsedMs);
+        } else {
+            log.info("dictWords has changed, changedModels:{}, added:{}, removed:{}, cost:{}",
+                    delta.getChangedModelCnt(), delta.getAdded().size(), delta.getRemoved().size(), elapsedMs);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.DataDeleteEvent;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.knowledge.service.SearchService;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationListener;
@@ -23,5 +24,6 @@ public class DataDeleteListener implements ApplicationListener<DataDeleteEvent>
         dictWord.setNatureWithFrequency(natureWithFrequency);
         log.info("dataDeleteListener begins to delete data:{}", dictWord);
         HanlpHelper.removeFromCustomDictionary(dictWord);
+        SearchService.publishLater();
     }
 }
@@ -4,6 +4,7 @@ import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.DataUpdateEvent;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.knowledge.service.SearchService;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationListener;
@@ -25,5 +26,6 @@ public class DataUpdateListener implements ApplicationListener<DataUpdateEvent>
         HanlpHelper.removeFromCustomDictionary(dictWord);
         dictWord.setWord(event.getNewName());
         HanlpHelper.addToCustomDictionary(dictWord);
+        SearchService.publishLater();
     }
 }
@@ -5,6 +5,7 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.request.ModelSchemaFilterReq;
 import com.tencent.supersonic.semantic.api.model.request.PageDimensionReq;
 import com.tencent.supersonic.semantic.api.model.request.PageMetricReq;
@@ -41,6 +42,13 @@ public class LocalSemanticLayer extends BaseSemanticLayer {
         return queryService.queryByStructWithAuth(queryStructReq, user);
     }
 
+    @SneakyThrows
+    @Override
+    public void queryByStruct(QueryStructReq queryStructReq, User user, ResultRowConsumer consumer) {
+        QueryService queryService = ContextUtils.getBean(QueryService.class);
+        queryService.queryByStructStream(queryStructReq, user, consumer);
+    }
+
     @Override
     public QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user) {
         try {
@@ -1,6 +1,7 @@
 package com.tencent.supersonic.knowledge.service;
 
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDelta;
 
 import java.util.List;
 
@@ -12,4 +13,6 @@ public interface KnowledgeService {
 
     void updateOnlineKnowledge(List<DictWord> natures);
 
+    void applyKnowledgeDelta(DictWordDelta delta);
+
 }
@@ -1,9 +1,11 @@
 package com.tencent.supersonic.knowledge.service;
 
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDelta;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.knowledge.utils.HanlpHelper;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,19 +31,22 @@ public class KnowledgeServiceImpl implements KnowledgeService {
                 .collect(Collectors.toList());
 
         SearchService.loadSuffix(suffixes);
+        SearchService.publish();
     }
 
 
     public void reloadAllData(List<DictWord> natures) {
-        // 1. reload custom knowledge
-        try {
-            HanlpHelper.reloadCustomDictionary();
-        } catch (Exception e) {
-            log.error("reloadCustomDictionary error", e);
-        }
+        SearchService.rebuild(() -> {
+            // 1. reload custom knowledge
+            try {
+                HanlpHelper.reloadCustomDictionary();
+            } catch (Exception e) {
+                log.error("reloadCustomDictionary error", e);
+            }
 
-        // 2. update online knowledge
-        updateOnlineKnowledge(natures);
+            // 2. update online knowledge
+            updateOnlineKnowledge(natures);
+        });
     }
 
     public void updateOnlineKnowledge(List<DictWord> natures) {
@@ -52,4 +57,38 @@ public class KnowledgeServiceImpl implements KnowledgeService {
         }
     }
 
+    /**
+     * removes the stale natures first, so a word moved between elements ends up with its new nature only
+     */
+    public void applyKnowledgeDelta(DictWordDelta delta) {
+        try {
+            List<DictWord> removedSuffixes = new ArrayList<>();
+            for (DictWord removed : delta.getRemoved()) {
+                if (isSuffix(removed)) {
+                    removedSuffixes.add(removed);
+                } else {
+                    HanlpHelper.removeFromCustomDictionary(removed);
+                }
+            }
+            SearchService.removeSuffix(removedSuffixes);
+
+            List<DictWord> addedSuffixes = new ArrayList<>();
+            for (DictWord added : delta.getAdded()) {
+                if (isSuffix(added)) {
+                    addedSuffixes.add(added);
+                } else {
+                    HanlpHelper.addToCustomDictionary(added);
+                }
+            }
+            SearchService.addSuffix(addedSuffixes);
+            SearchService.publish();
+        } catch (Exception e) {
+            log.error("applyKnowledgeDelta error", e);
+        }
+    }
+
+    private boolean isSuffix(DictWord dictWord) {
+        return dictWord.getNatureWithFrequency().contains(DictWordType.SUFFIX.getType());
+    }
+
 }
@@ -1,19 +1,26 @@
 package com.tencent.supersonic.knowledge.service;
 
-import com.hankcs.hanlp.collection.trie.bintrie.BaseNode;
-import com.hankcs.hanlp.collection.trie.bintrie.BinTrie;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hankcs.hanlp.corpus.tag.Nature;
 import com.hankcs.hanlp.dictionary.CoreDictionary;
+import com.tencent.supersonic.common.util.ContextUtils;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
 import com.tencent.supersonic.knowledge.dictionary.DictionaryAttributeUtil;
+import com.tencent.supersonic.knowledge.dictionary.DictionaryTrie;
 import com.tencent.supersonic.knowledge.dictionary.MapResult;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -25,13 +32,13 @@ import org.springframework.util.CollectionUtils;
 public class SearchService {
 
     public static final int SEARCH_SIZE = 200;
-    private static BinTrie<List<String>> trie;
-    private static BinTrie<List<String>> suffixTrie;
-
-    static {
-        trie = new BinTrie<>();
-        suffixTrie = new BinTrie<>();
-    }
+    private static final TrieSnapshot trie = new TrieSnapshot("prefix");
+    private static final TrieSnapshot suffixTrie = new TrieSnapshot("suffix");
+    private static final ReentrantLock rebuildLock = new ReentrantLock();
+    private static final long PUBLISH_DELAY_MS = 500L;
+    private static final ScheduledExecutorService publishExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("dictionary-publish-%d").setDaemon(true).build());
+    private static final AtomicBoolean publishScheduled = new AtomicBoolean();
 
     /***
      * prefix Search
@@ -39,12 +46,13 @@ public class SearchService {
      * @return
      */
     public static List<MapResult> prefixSearch(String key, int limit, Integer agentId, Set<Long> detectModelIds) {
-        return prefixSearch(key, limit, agentId, trie, detectModelIds);
+        return prefixSearch(key, limit, agentId, trie.get(), detectModelIds);
     }
 
-    public static List<MapResult> prefixSearch(String key, int limit, Integer agentId, BinTrie<List<String>> binTrie,
+    public static List<MapResult> prefixSearch(String key, int limit, Integer agentId, DictionaryTrie dictionaryTrie,
             Set<Long> detectModelIds) {
-        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, binTrie, agentId, detectModelIds);
+        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, dictionaryTrie, agentId,
+                detectModelIds);
         return result.stream().map(
                         entry -> {
                             String name = entry.getKey().replace("#", " ");
@@ -62,12 +70,13 @@ public class SearchService {
      */
     public static List<MapResult> suffixSearch(String key, int limit, Integer agentId, Set<Long> detectModelIds) {
         String reverseDetectSegment = StringUtils.reverse(key);
-        return suffixSearch(reverseDetectSegment, limit, agentId, suffixTrie, detectModelIds);
+        return suffixSearch(reverseDetectSegment, limit, agentId, suffixTrie.get(), detectModelIds);
     }
 
-    public static List<MapResult> suffixSearch(String key, int limit, Integer agentId, BinTrie<List<String>> binTrie,
+    public static List<MapResult> suffixSearch(String key, int limit, Integer agentId, DictionaryTrie dictionaryTrie,
             Set<Long> detectModelIds) {
-        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, binTrie, agentId, detectModelIds);
+        Set<Map.Entry<String, List<String>>> result = prefixSearchLimit(key, limit, dictionaryTrie, agentId,
+                detectModelIds);
         return result.stream().map(
                         entry -> {
                             String name = entry.getKey().replace("#", " ");
@@ -82,37 +91,106 @@ public class SearchService {
                 .collect(Collectors.toList());
     }
 
-    private static Set<Map.Entry<String, List<String>>> prefixSearchLimit(String key, int limit,
-            BinTrie<List<String>> binTrie, Integer agentId, Set<Long> detectModelIds) {
-        key = key.toLowerCase();
-        Set<Map.Entry<String, List<String>>> entrySet = new TreeSet<Map.Entry<String, List<String>>>();
-        StringBuilder sb = new StringBuilder(key.substring(0, key.length() - 1));
-        BaseNode branch = binTrie;
-        char[] chars = key.toCharArray();
-        for (char aChar : chars) {
-            if (branch == null) {
-                return entrySet;
-            }
-            branch = branch.getChild(aChar);
+    /***
+     * finds every dictionary word occurring in the text in one pass
+     * @param text
+     * @return the words with the offset they begin at, natures filtered by agent and models
+     */
+    public static List<MapResult> match(String text, Integer agentId, Set<Long> detectModelIds) {
+        List<MapResult> results = new ArrayList<>();
+        String lowerText = text.toLowerCase();
+        // offsets would not line up, such text is left to the searches
+        if (lowerText.length() != text.length()) {
+            return results;
         }
+        LoadRemoveService loadRemoveService = ContextUtils.getBean(LoadRemoveService.class);
+        trie.get().match(lowerText, (begin, end, natures) -> {
+            List<String> filtered = CollectionUtils.isEmpty(natures) ? new ArrayList<>()
+                    : loadRemoveService.removeNatures(natures, agentId, detectModelIds);
+            MapResult mapResult = new MapResult(lowerText.substring(begin, end).replace("#", " "), filtered,
+                    text.substring(begin, end));
+            mapResult.setOffset(begin);
+            results.add(mapResult);
+        });
+        return results;
+    }
 
-        if (branch == null) {
-            return entrySet;
-        }
-        branch.walkLimit(sb, entrySet, limit, agentId, detectModelIds);
-        return entrySet;
+    private static Set<Map.Entry<String, List<String>>> prefixSearchLimit(String key, int limit,
+            DictionaryTrie dictionaryTrie, Integer agentId, Set<Long> detectModelIds) {
+        Map<String, List<String>> result = new TreeMap<>();
+        LoadRemoveService loadRemoveService = ContextUtils.getBean(LoadRemoveService.class);
+        dictionaryTrie.prefixSearch(key.toLowerCase(), (word, natures) -> {
+            List<String> filtered = CollectionUtils.isEmpty(natures) ? new ArrayList<>()
+                    : loadRemoveService.removeNatures(natures, agentId, detectModelIds);
+            result.put(word, filtered);
+            return result.size() < limit;
+        });
+        return result.entrySet();
     }
 
+    /**
+     * starts a new dictionary, searches keep using the current one until it is published
+     */
     public static void clear() {
         log.info("clear all trie");
-        trie = new BinTrie<>();
-        suffixTrie = new BinTrie<>();
+        trie.reset();
+        suffixTrie.reset();
+    }
+
+    /**
+     * builds the words put since the last publish into new tries and swaps them in. skipped while another
+     * thread rebuilds the dictionary, its words are pending and published by the rebuild.
+     */
+    public static void publish() {
+        if (rebuildLock.isLocked() && !rebuildLock.isHeldByCurrentThread()) {
+            log.info("dictionary rebuild in progress, publish with it");
+            return;
+        }
+        trie.publish();
+        suffixTrie.publish();
+    }
+
+    /**
+     * publishes the words of a single change, like an added or deleted dimension, a moment later. every
+     * publish builds the tries from all their words, so the changes arriving in the meantime are built once
+     */
+    public static void publishLater() {
+        if (!publishScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        publishExecutor.schedule(() -> {
+            // changes put while publishing schedule the next one
+            publishScheduled.set(false);
+            try {
+                publish();
+            } catch (Exception e) {
+                log.error("publish dictionary error", e);
+            }
+        }, PUBLISH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * runs a reload that clears and refills the dictionary, only the refilled dictionary is published
+     */
+    public static void rebuild(Runnable reload) {
+        rebuildLock.lock();
+        try {
+            reload.run();
+            publish();
+        } finally {
+            rebuildLock.unlock();
+        }
+        // words put by other threads after the publish above
+        publish();
     }
 
     public static void put(String key, CoreDictionary.Attribute attribute) {
         trie.put(key, Arrays.stream(attribute.nature).map(entry -> entry.toString()).collect(Collectors.toList()));
     }
 
+    public static void remove(String key) {
+        trie.remove(key);
+    }
 
     public static void loadSuffix(List<DictWord> suffixes) {
         if (CollectionUtils.isEmpty(suffixes)) {
@@ -138,5 +216,25 @@ public class SearchService {
                 Arrays.stream(attribute.nature).map(entry -> entry.toString()).collect(Collectors.toList()));
     }
 
-}
+    /**
+     * merges the natures of the suffixes into the words already in the suffix trie
+     */
+    public static void addSuffix(List<DictWord> suffixes) {
+        suffixes.forEach(suffix -> suffixTrie.update(suffix.getWord(), getNatures(suffix), Collections.emptyList()));
+    }
+
+    /**
+     * removes the natures of the suffixes, a word is removed once it has no nature left
+     */
+    public static void removeSuffix(List<DictWord> suffixes) {
+        suffixes.forEach(suffix -> suffixTrie.update(suffix.getWord(), Collections.emptyList(), getNatures(suffix)));
+    }
+
+    private static List<String> getNatures(DictWord dictWord) {
+        CoreDictionary.Attribute attribute = dictWord.getNatureWithFrequency() == null
+                ? new CoreDictionary.Attribute(Nature.nz, 1)
+                : CoreDictionary.Attribute.create(dictWord.getNatureWithFrequency());
+        return Arrays.stream(attribute.nature).map(Nature::toString).collect(Collectors.toList());
+    }
 
+}
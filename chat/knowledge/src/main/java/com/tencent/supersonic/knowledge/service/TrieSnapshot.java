@@ -0,0 +1,78 @@
+package com.tencent.supersonic.knowledge.service;
+
+import com.tencent.supersonic.knowledge.dictionary.DictionaryTrie;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * the published trie is immutable and replaced as a whole, so a search never sees a half built
+ * dictionary. words put in between are collected and merged into the next published trie,
+ * a pending word without natures is removed from it.
+ */
+@Slf4j
+class TrieSnapshot {
+
+    private final String name;
+    private volatile DictionaryTrie published = DictionaryTrie.EMPTY;
+    private TreeMap<String, List<String>> pending = new TreeMap<>();
+    private boolean rebuild;
+
+    TrieSnapshot(String name) {
+        this.name = name;
+    }
+
+    DictionaryTrie get() {
+        return published;
+    }
+
+    synchronized void put(String key, List<String> natures) {
+        pending.put(key, natures);
+    }
+
+    synchronized void remove(String key) {
+        pending.put(key, null);
+    }
+
+    synchronized void update(String key, List<String> added, List<String> removed) {
+        List<String> current = pending.containsKey(key) || rebuild ? pending.get(key) : published.get(key);
+        Set<String> natures = current == null ? new LinkedHashSet<>() : new LinkedHashSet<>(current);
+        natures.removeAll(removed);
+        natures.addAll(added);
+        pending.put(key, natures.isEmpty() ? null : new ArrayList<>(natures));
+    }
+
+    synchronized void reset() {
+        pending = new TreeMap<>();
+        rebuild = true;
+    }
+
+    /**
+     * costs as much for one pending word as for many, the published words are read back and the trie is
+     * built from all of them, linear in the characters of the dictionary. callers publish a batch of changes
+     * at once, see SearchService.publishLater.
+     */
+    synchronized void publish() {
+        if (!rebuild && pending.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        SortedMap<String, List<String>> words = rebuild ? new TreeMap<>() : published.toMap();
+        pending.forEach((word, natures) -> {
+            if (natures == null) {
+                words.remove(word);
+            } else {
+                words.put(word, natures);
+            }
+        });
+        published = DictionaryTrie.build(words);
+        log.info("publish {} trie, words:{}, pending:{}, nodes:{}, cost:{}", name, published.size(),
+                pending.size(), published.nodeCount(), System.currentTimeMillis() - startTime);
+        pending = new TreeMap<>();
+        rebuild = false;
+    }
+}
@@ -1,14 +1,22 @@
 package com.tencent.supersonic.knowledge.service;
 
-import com.tencent.supersonic.chat.api.component.SemanticLayer;
+import com.tencent.supersonic.chat.api.pojo.ModelSchema;
 import com.tencent.supersonic.chat.api.pojo.SchemaElement;
-import com.tencent.supersonic.chat.api.pojo.SemanticSchema;
 import com.tencent.supersonic.knowledge.dictionary.DictWord;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.knowledge.dictionary.DictWordDelta;
 import com.tencent.supersonic.knowledge.dictionary.builder.WordBuilderFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import com.tencent.supersonic.knowledge.utils.ComponentFactory;
 import lombok.extern.slf4j.Slf4j;
@@ -19,34 +27,114 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class WordService {
 
-    private List<DictWord> preDictWords = new ArrayList<>();
-
-    public List<DictWord> getAllDictWords() {
-        SemanticLayer semanticLayer = ComponentFactory.getSemanticLayer();
-        SemanticSchema semanticSchema = new SemanticSchema(semanticLayer.getModelSchema());
+    /**
+     * the words of each model with the stamp of the schema they were built from
+     */
+    private final Map<Long, ModelWords> modelWords = new HashMap<>();
 
+    /**
+     * builds the words of all models, they are the base of the next delta
+     */
+    public synchronized List<DictWord> getAllDictWords() {
+        List<ModelSchema> modelSchemas = ComponentFactory.getSemanticLayer().getModelSchema();
+        modelWords.clear();
         List<DictWord> words = new ArrayList<>();
+        for (ModelSchema modelSchema : modelSchemas) {
+            ModelWords built = new ModelWords(stamp(modelSchema), getDictWords(modelSchema));
+            modelWords.put(modelSchema.getModel().getId(), built);
+            words.addAll(built.words);
+        }
+        return words;
+    }
 
-        addWordsByType(DictWordType.DIMENSION, semanticSchema.getDimensions(), words);
-        addWordsByType(DictWordType.METRIC, semanticSchema.getMetrics(), words);
-        addWordsByType(DictWordType.DOMAIN, semanticSchema.getModels(), words);
-        addWordsByType(DictWordType.ENTITY, semanticSchema.getEntities(), words);
-        addWordsByType(DictWordType.VALUE, semanticSchema.getDimensionValues(), words);
+    /**
+     * only the models whose schema stamp changed since the last call are rebuilt and diffed with their
+     * previous words, the words of deleted models are removed
+     */
+    public synchronized DictWordDelta getDictWordDelta() {
+        List<ModelSchema> modelSchemas = ComponentFactory.getSemanticLayer().getModelSchema();
+        DictWordDelta delta = new DictWordDelta();
+        delta.setModelCnt(modelSchemas.size());
+        Set<Long> deletedModels = new HashSet<>(modelWords.keySet());
+        for (ModelSchema modelSchema : modelSchemas) {
+            Long modelId = modelSchema.getModel().getId();
+            deletedModels.remove(modelId);
+            long stamp = stamp(modelSchema);
+            ModelWords previous = modelWords.get(modelId);
+            if (previous != null && previous.stamp == stamp) {
+                continue;
+            }
+            Set<DictWord> words = getDictWords(modelSchema);
+            Set<DictWord> previousWords = previous == null ? Collections.emptySet() : previous.words;
+            words.stream().filter(word -> !previousWords.contains(word)).forEach(delta.getAdded()::add);
+            previousWords.stream().filter(word -> !words.contains(word)).forEach(delta.getRemoved()::add);
+            modelWords.put(modelId, new ModelWords(stamp, words));
+            delta.setChangedModelCnt(delta.getChangedModelCnt() + 1);
+        }
+        for (Long modelId : deletedModels) {
+            delta.getRemoved().addAll(modelWords.remove(modelId).words);
+            delta.setChangedModelCnt(delta.getChangedModelCnt() + 1);
+        }
+        return delta;
+    }
 
+    private Set<DictWord> getDictWords(ModelSchema modelSchema) {
+        Set<DictWord> words = new LinkedHashSet<>();
+        addWordsByType(DictWordType.DIMENSION, modelSchema.getDimensions(), words);
+        addWordsByType(DictWordType.METRIC, modelSchema.getMetrics(), words);
+        addWordsByType(DictWordType.DOMAIN, Collections.singletonList(modelSchema.getModel()), words);
+        addWordsByType(DictWordType.ENTITY, Collections.singletonList(modelSchema.getEntity()), words);
+        addWordsByType(DictWordType.VALUE, modelSchema.getDimensionValues(), words);
         return words;
     }
 
-    private void addWordsByType(DictWordType value, List<SchemaElement> metas, List<DictWord> natures) {
-        List<DictWord> natureList = WordBuilderFactory.get(value).getDictWords(metas);
+    private void addWordsByType(DictWordType value, Collection<SchemaElement> metas, Set<DictWord> natures) {
+        List<DictWord> natureList = WordBuilderFactory.get(value).getDictWords(new ArrayList<>(metas));
         log.debug("nature type:{} , nature size:{}", value.name(), natureList.size());
         natures.addAll(natureList);
     }
 
-    public List<DictWord> getPreDictWords() {
-        return preDictWords;
+    /**
+     * the stamp covers the fields the words are built from, summed per element so that the order of the
+     * schema sets does not matter
+     */
+    private long stamp(ModelSchema modelSchema) {
+        long stamp = stamp(modelSchema.getModel()) + 31 * stamp(modelSchema.getEntity());
+        for (SchemaElement metric : modelSchema.getMetrics()) {
+            stamp += stamp(metric);
+        }
+        for (SchemaElement dimension : modelSchema.getDimensions()) {
+            stamp += stamp(dimension);
+        }
+        for (SchemaElement dimensionValue : modelSchema.getDimensionValues()) {
+            stamp += stamp(dimensionValue);
+        }
+        return stamp;
     }
 
-    public void setPreDictWords(List<DictWord> preDictWords) {
-        this.preDictWords = preDictWords;
+    private long stamp(SchemaElement schemaElement) {
+        if (schemaElement == null) {
+            return 0L;
+        }
+        long aliasStamp = 0L;
+        if (schemaElement.getAlias() != null) {
+            for (String alias : schemaElement.getAlias()) {
+                aliasStamp += Objects.hashCode(alias);
+            }
+        }
+        long stamp = Objects.hash(schemaElement.getType(), schemaElement.getModel(), schemaElement.getId(),
+                schemaElement.getName()) * 0x9E3779B97F4A7C15L + aliasStamp;
+        return stamp ^ (stamp >>> 29);
+    }
+
+    private static class ModelWords {
+
+        private final long stamp;
+        private final Set<DictWord> words;
+
+        ModelWords(long stamp, Set<DictWord> words) {
+            this.stamp = stamp;
+            this.words = words;
+        }
     }
 }
@@ -0,0 +1,59 @@
+package com.tencent.supersonic.knowledge.dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class DictionaryTrieTest {
+
+    @Test
+    void prefixSearch() {
+        TreeMap<String, List<String>> words = new TreeMap<>();
+        words.put("周杰伦", Arrays.asList("_1_2", "_1_3"));
+        words.put("周杰", Collections.singletonList("_1_2"));
+        words.put("周星驰", Collections.singletonList("_1_2"));
+        words.put("周", Collections.singletonList("_1_4"));
+        words.put("周杰伦演唱会", Collections.singletonList("_1_5"));
+        words.put("刘德华", Collections.singletonList("_1_2"));
+        DictionaryTrie trie = DictionaryTrie.build(words);
+
+        Assert.assertEquals(6, trie.size());
+        Assert.assertEquals(Arrays.asList("_1_2", "_1_3"), trie.get("周杰伦"));
+        Assert.assertNull(trie.get("周杰伦演"));
+        Assert.assertEquals(words, trie.toMap());
+
+        List<String> found = new ArrayList<>();
+        trie.prefixSearch("周", (word, natures) -> found.add(word));
+        Assert.assertEquals(Arrays.asList("周", "周杰", "周星驰", "周杰伦", "周杰伦演唱会"), found);
+
+        found.clear();
+        trie.prefixSearch("周杰", (word, natures) -> found.add(word) && found.size() < 2);
+        Assert.assertEquals(Arrays.asList("周杰", "周杰伦"), found);
+
+        found.clear();
+        trie.prefixSearch("张", (word, natures) -> found.add(word));
+        Assert.assertTrue(found.isEmpty());
+    }
+
+    @Test
+    void match() {
+        TreeMap<String, List<String>> words = new TreeMap<>();
+        words.put("周杰伦", Collections.singletonList("_1_2"));
+        words.put("杰伦", Collections.singletonList("_1_3"));
+        words.put("演唱会", Collections.singletonList("_1_4"));
+        words.put("周杰伦演唱会门票", Collections.singletonList("_1_5"));
+        DictionaryTrie trie = DictionaryTrie.build(words);
+
+        List<String> found = new ArrayList<>();
+        trie.match("看周杰伦演唱会", (begin, end, natures) -> found.add(begin + "-" + end + natures));
+        Assert.assertEquals(Arrays.asList("1-4[_1_2]", "2-4[_1_3]", "4-7[_1_4]"), found);
+
+        found.clear();
+        DictionaryTrie.EMPTY.match("周杰伦", (begin, end, natures) -> found.add(begin + "-" + end));
+        Assert.assertTrue(found.isEmpty());
+    }
+}
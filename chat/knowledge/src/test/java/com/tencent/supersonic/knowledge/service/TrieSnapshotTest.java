@@ -0,0 +1,71 @@
+package com.tencent.supersonic.knowledge.service;
+
+import com.tencent.supersonic.knowledge.dictionary.DictionaryTrie;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class TrieSnapshotTest {
+
+    @Test
+    void publishChangesAtOnce() {
+        TrieSnapshot snapshot = new TrieSnapshot("prefix");
+        snapshot.put("周杰伦", Collections.singletonList("_1_2"));
+        snapshot.put("周星驰", Collections.singletonList("_1_2"));
+        Assert.assertSame(DictionaryTrie.EMPTY, snapshot.get());
+
+        snapshot.publish();
+        DictionaryTrie published = snapshot.get();
+        Assert.assertEquals(2, published.size());
+
+        snapshot.remove("周星驰");
+        snapshot.put("刘德华", Collections.singletonList("_1_3"));
+        // searches keep the published trie until the next publish
+        Assert.assertSame(published, snapshot.get());
+        snapshot.publish();
+        Assert.assertEquals(2, snapshot.get().size());
+        Assert.assertNull(snapshot.get().get("周星驰"));
+        Assert.assertEquals(Collections.singletonList("_1_3"), snapshot.get().get("刘德华"));
+    }
+
+    @Test
+    void publishWithoutChangesKeepsTrie() {
+        TrieSnapshot snapshot = new TrieSnapshot("prefix");
+        snapshot.put("周杰伦", Collections.singletonList("_1_2"));
+        snapshot.publish();
+        DictionaryTrie published = snapshot.get();
+
+        snapshot.publish();
+        Assert.assertSame(published, snapshot.get());
+    }
+
+    @Test
+    void updateNatures() {
+        TrieSnapshot snapshot = new TrieSnapshot("suffix");
+        snapshot.put("伦杰周", Arrays.asList("_1_2", "_1_3"));
+        snapshot.publish();
+
+        snapshot.update("伦杰周", Collections.singletonList("_1_4"), Collections.singletonList("_1_2"));
+        snapshot.publish();
+        Assert.assertEquals(Arrays.asList("_1_3", "_1_4"), snapshot.get().get("伦杰周"));
+
+        snapshot.update("伦杰周", Collections.emptyList(), Arrays.asList("_1_3", "_1_4"));
+        snapshot.publish();
+        Assert.assertEquals(0, snapshot.get().size());
+    }
+
+    @Test
+    void resetDropsPublishedWords() {
+        TrieSnapshot snapshot = new TrieSnapshot("prefix");
+        snapshot.put("周杰伦", Collections.singletonList("_1_2"));
+        snapshot.publish();
+
+        snapshot.reset();
+        snapshot.put("刘德华", Collections.singletonList("_1_3"));
+        Assert.assertEquals(1, snapshot.get().size());
+        snapshot.publish();
+        Assert.assertNull(snapshot.get().get("周杰伦"));
+        Assert.assertEquals(Collections.singletonList("_1_3"), snapshot.get().get("刘德华"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.tencent.supersonic.common.pojo;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * published after an auth group is written or removed, modelId is null when it can not be determined
+ */
+public class AuthChangeEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+    private Long modelId;
+
+    public AuthChangeEvent(Object source, Long modelId) {
+        super(source);
+        this.modelId = modelId;
+    }
+
+    public Long getModelId() {
+        return modelId;
+    }
+
+    public void setModelId(Long modelId) {
+        this.modelId = modelId;
+    }
+}
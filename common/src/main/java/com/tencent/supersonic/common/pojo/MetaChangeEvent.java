@@ -0,0 +1,36 @@
+package com.tencent.supersonic.common.pojo;
+
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * published after domain, model, datasource or database meta is written,
+ * modelId is null when the change is not bound to a single model
+ */
+public class MetaChangeEvent extends ApplicationEvent {
+    private static final long serialVersionUID = 1L;
+    private TypeEnums type;
+    private Long modelId;
+
+    public MetaChangeEvent(Object source, TypeEnums type, Long modelId) {
+        super(source);
+        this.type = type;
+        this.modelId = modelId;
+    }
+
+    public TypeEnums getType() {
+        return type;
+    }
+
+    public void setType(TypeEnums type) {
+        this.type = type;
+    }
+
+    public Long getModelId() {
+        return modelId;
+    }
+
+    public void setModelId(Long modelId) {
+        this.modelId = modelId;
+    }
+}
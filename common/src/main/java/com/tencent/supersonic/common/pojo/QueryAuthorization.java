@@ -1,5 +1,6 @@
 package com.tencent.supersonic.common.pojo;
 
+import java.io.Serializable;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
@@ -11,7 +12,7 @@ import lombok.ToString;
 @Data
 @ToString
 @NoArgsConstructor
-public class QueryAuthorization {
+public class QueryAuthorization implements Serializable {
 
     private String domainName;
     private List<String> dimensionFilters;
@@ -7,6 +7,8 @@ public enum TypeEnums {
     METRIC("metric"),
     DIMENSION("dimension"),
     DOMAIN("domain"),
+    MODEL("model"),
+    DATABASE("database"),
     ENTITY("entity"),
     UNKNOWN("unknown");
 
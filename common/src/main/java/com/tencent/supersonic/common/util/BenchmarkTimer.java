@@ -0,0 +1,63 @@
+package com.tencent.supersonic.common.util;
+
+import java.util.Arrays;
+
+/**
+ * the timing of the benchmark main methods in the test sources of the modules, which share no test code.
+ * the benchmarks compare the time of two implementations, their results are checked by the unit tests.
+ */
+public class BenchmarkTimer {
+
+    @FunctionalInterface
+    public interface Task {
+
+        void run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface IndexedTask {
+
+        void run(int index) throws Exception;
+    }
+
+    private BenchmarkTimer() {
+    }
+
+    public static long nanos(Task task) throws Exception {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * the average milliseconds of the rounds, after one run to warm up
+     */
+    public static double averageMillis(int rounds, Task task) throws Exception {
+        task.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    /**
+     * the sorted nanoseconds of each call, the task is called with the indexes from 0 to count - 1
+     */
+    public static long[] latencies(int count, IndexedTask task) throws Exception {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            latencies[i] = nanos(() -> task.run(index));
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * the milliseconds at the percentile, between 0 and 1, of the sorted nanoseconds
+     */
+    public static double percentileMillis(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+    }
+}
@@ -0,0 +1,120 @@
+package com.tencent.supersonic.common.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * concurrent calls with the same key share one execution,
+ * the first caller runs it and the others wait for its result
+ */
+@Slf4j
+public class SingleFlight<V> {
+
+    private final Map<String, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(String key, Callable<V> callable) throws Exception {
+        return execute(key, callable, UnaryOperator.identity());
+    }
+
+    /**
+     * @param copier applied to the shared result for every caller that joins, the caller that runs it gets the
+     *               shared result itself once the joiners have taken their copies, so callers that modify their
+     *               result do not interfere and a call nobody joined is not copied at all
+     */
+    public V execute(String key, Callable<V> callable, UnaryOperator<V> copier) throws Exception {
+        Flight<V> flight = new Flight<>();
+        Flight<V> existing = inFlight.compute(key, (k, running) -> {
+            if (running == null) {
+                return flight;
+            }
+            running.join();
+            return running;
+        });
+        if (existing != flight) {
+            log.info("join in-flight execution, key:{}", key);
+            onJoin(key);
+            try {
+                V result = await(existing.future);
+                return result == null ? null : copier.apply(result);
+            } finally {
+                existing.copied();
+            }
+        }
+        V result;
+        try {
+            result = callable.call();
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+        // removed before it completes, no caller joins after the joiners are counted
+        inFlight.remove(key, flight);
+        flight.future.complete(result);
+        flight.awaitCopies();
+        return result;
+    }
+
+    public int inFlightSize() {
+        return inFlight.size();
+    }
+
+    /**
+     * called when a caller joins a running execution, before it waits for the result
+     */
+    protected void onJoin(String key) {
+    }
+
+    private V await(CompletableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class Flight<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private int joiners;
+        private int copied;
+
+        private synchronized void join() {
+            joiners++;
+        }
+
+        private synchronized void copied() {
+            copied++;
+            notifyAll();
+        }
+
+        /**
+         * the joiners copy in a moment, the wait is not given up on interrupt but the interrupt is kept
+         */
+        private synchronized void awaitCopies() {
+            boolean interrupted = false;
+            while (copied < joiners) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
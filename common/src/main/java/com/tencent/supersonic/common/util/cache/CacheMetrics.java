@@ -0,0 +1,19 @@
+package com.tencent.supersonic.common.util.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheMetrics {
+
+    private long hitCount;
+    private long spillHitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+    private long spillCount;
+    private long heapEntries;
+    private long heapBytes;
+    private long spillEntries;
+    private long spillBytes;
+
+}
@@ -1,14 +1,39 @@
 package com.tencent.supersonic.common.util.cache;
 
 
+import java.util.Set;
+
 public interface CacheUtils {
 
     Boolean put(String key, Object value);
 
+    /**
+     * @param tags e.g. model:1, datasource:2, all entries of a tag can be evicted by removeByTag
+     */
+    Boolean put(String key, Object value, Set<String> tags);
+
+    /**
+     * @param generation the generation read by getGeneration when the value started to be computed, the put is
+     *                   rejected if one of the tags was removed since then, so a value read before an eviction
+     *                   is not cached after it
+     */
+    Boolean put(String key, Object value, Set<String> tags, long generation);
+
+    /**
+     * @return the current generation, every removal by tag or of all entries starts a new one
+     */
+    long getGeneration();
+
     Object get(String key);
 
     String generateCacheKey(String prefix, String body);
 
     Boolean removeCache(String key);
 
+    Boolean removeByTag(String tag);
+
+    Boolean removeAll();
+
+    CacheMetrics getMetrics();
+
 }
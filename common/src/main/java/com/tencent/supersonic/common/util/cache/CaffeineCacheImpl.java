@@ -2,37 +2,162 @@ package com.tencent.supersonic.common.util.cache;
 
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.base.Joiner;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * two tier cache, the heap tier is bounded by the estimated size of the values instead of the entry count,
+ * entries evicted for size are serialized into an off-heap spill tier and promoted back on the next hit.
+ * entries can be tagged with the model or datasource they are read from and evicted by tag.
+ */
 @Component
 @Slf4j
 public class CaffeineCacheImpl implements CacheUtils {
 
+    private static final long MB = 1024L * 1024L;
 
     @Autowired
     private CacheCommonConfig cacheCommonConfig;
 
-    @Autowired
-    @Qualifier("caffeineCache")
-    private Cache<String, Object> caffeineCache;
+    @Value("${caffeine.initial.capacity:500}")
+    private Integer caffeineInitialCapacity;
+
+    @Value("${caffeine.max.weight.mb:256}")
+    private Long caffeineMaxWeightMb;
+
+    @Value("${caffeine.spill.max.mb:512}")
+    private Long caffeineSpillMaxMb;
+
+    private Cache<String, CacheEntry> heapCache;
+    private Cache<String, SpillEntry> spillCache;
+    private final Map<String, Set<String>> tagIndex = new ConcurrentHashMap<>();
+    /**
+     * every put records the current generation, every removal by tag or of all entries starts a new one,
+     * an entry older than the removal of one of its tags is not spilled or promoted anymore
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Long> tagRemovedGenerations = new ConcurrentHashMap<>();
+    private volatile long allRemovedGeneration = -1L;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder spillHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder spillCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        heapCache = Caffeine.newBuilder()
+                .initialCapacity(caffeineInitialCapacity)
+                .maximumWeight(caffeineMaxWeightMb * MB)
+                .weigher((String key, CacheEntry entry) -> entry.getWeight())
+                .expireAfter(new EntryExpiry<String, CacheEntry>())
+                .removalListener(this::onHeapRemoval)
+                .build();
+        if (caffeineSpillMaxMb > 0) {
+            spillCache = Caffeine.newBuilder()
+                    .maximumWeight(caffeineSpillMaxMb * MB)
+                    .weigher((String key, SpillEntry entry) -> entry.getWeight())
+                    .expireAfter(new EntryExpiry<String, SpillEntry>())
+                    .removalListener(this::onSpillRemoval)
+                    .build();
+        }
+        log.info("caffeineCache init, maxWeight:{}MB, spillMax:{}MB", caffeineMaxWeightMb, caffeineSpillMaxMb);
+    }
 
     @Override
     public Boolean put(String key, Object value) {
-        log.info("[put caffeineCache] key:{}, value:{}", key, value);
-        caffeineCache.put(key, value);
+        return put(key, value, Collections.emptySet());
+    }
+
+    @Override
+    public Boolean put(String key, Object value, Set<String> tags) {
+        return put(key, value, tags, generation.get());
+    }
+
+    @Override
+    public Boolean put(String key, Object value, Set<String> tags, long entryGeneration) {
+        if (value == null) {
+            return false;
+        }
+        Set<String> entryTags = tags == null ? Collections.emptySet() : tags;
+        if (isRemoved(entryTags, entryGeneration)) {
+            log.debug("[put caffeineCache] key:{} evicted since generation:{}", key, entryGeneration);
+            return false;
+        }
+        long expireAt = System.nanoTime()
+                + TimeUnit.MINUTES.toNanos(cacheCommonConfig.getCacheCommonExpireAfterWrite());
+        CacheEntry entry = new CacheEntry(value, entryTags, expireAt,
+                toWeight(ObjectSizeEstimator.estimate(value) + 2L * key.length()), entryGeneration);
+        index(key, entryTags);
+        heapCache.put(key, entry);
+        // a tag was removed while the entry was put
+        if (isRemoved(entryTags, entryGeneration)) {
+            heapCache.asMap().remove(key, entry);
+            return false;
+        }
+        putCount.increment();
+        log.debug("[put caffeineCache] key:{}, weight:{}", key, entry.getWeight());
         return true;
     }
 
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
     @Override
     public Object get(String key) {
-        Object value = caffeineCache.asMap().get(key);
-        log.info("[get caffeineCache] key:{}, value:{}", key, value);
-        return value;
+        CacheEntry entry = heapCache.getIfPresent(key);
+        if (entry != null) {
+            hitCount.increment();
+            log.debug("[get caffeineCache] hit key:{}", key);
+            return entry.getValue();
+        }
+        SpillEntry spillEntry = spillCache == null ? null : spillCache.getIfPresent(key);
+        if (spillEntry != null) {
+            Object value = isRemoved(spillEntry.getTags(), spillEntry.getGeneration())
+                    ? null : deserialize(spillEntry.getBuffer());
+            if (value != null) {
+                CacheEntry promoted = new CacheEntry(value, spillEntry.getTags(), spillEntry.getExpireAt(),
+                        toWeight(ObjectSizeEstimator.estimate(value) + 2L * key.length()),
+                        spillEntry.getGeneration());
+                heapCache.put(key, promoted);
+                spillCache.invalidate(key);
+                spillHitCount.increment();
+                log.debug("[get caffeineCache] spill hit key:{}", key);
+                return value;
+            }
+            spillCache.invalidate(key);
+        }
+        missCount.increment();
+        log.debug("[get caffeineCache] miss key:{}", key);
+        return null;
     }
 
     @Override
@@ -46,7 +171,233 @@ public class CaffeineCacheImpl implements CacheUtils {
 
     @Override
     public Boolean removeCache(String key) {
-        caffeineCache.asMap().remove(key);
+        heapCache.invalidate(key);
+        if (spillCache != null) {
+            spillCache.invalidate(key);
+        }
         return true;
     }
+
+    @Override
+    public Boolean removeByTag(String tag) {
+        tagRemovedGenerations.put(tag, generation.incrementAndGet());
+        Set<String> keys = tagIndex.remove(tag);
+        if (keys == null || keys.isEmpty()) {
+            return true;
+        }
+        heapCache.invalidateAll(keys);
+        if (spillCache != null) {
+            spillCache.invalidateAll(keys);
+        }
+        log.info("[remove caffeineCache] tag:{}, size:{}", tag, keys.size());
+        return true;
+    }
+
+    @Override
+    public Boolean removeAll() {
+        allRemovedGeneration = generation.incrementAndGet();
+        heapCache.invalidateAll();
+        if (spillCache != null) {
+            spillCache.invalidateAll();
+        }
+        tagIndex.clear();
+        log.info("[remove caffeineCache] all");
+        return true;
+    }
+
+    @Override
+    public CacheMetrics getMetrics() {
+        CacheMetrics metrics = new CacheMetrics();
+        metrics.setHitCount(hitCount.sum());
+        metrics.setSpillHitCount(spillHitCount.sum());
+        metrics.setMissCount(missCount.sum());
+        metrics.setPutCount(putCount.sum());
+        metrics.setEvictionCount(evictionCount.sum());
+        metrics.setSpillCount(spillCount.sum());
+        metrics.setHeapEntries(heapCache.estimatedSize());
+        metrics.setHeapBytes(getWeightedSize(heapCache));
+        if (spillCache != null) {
+            metrics.setSpillEntries(spillCache.estimatedSize());
+            metrics.setSpillBytes(getWeightedSize(spillCache));
+        }
+        return metrics;
+    }
+
+    private void onHeapRemoval(String key, CacheEntry entry, RemovalCause cause) {
+        if (key == null || entry == null || RemovalCause.REPLACED.equals(cause)) {
+            return;
+        }
+        if (RemovalCause.SIZE.equals(cause)) {
+            if (spill(key, entry)) {
+                return;
+            }
+            evictionCount.increment();
+        }
+        unindex(key, entry.getTags());
+    }
+
+    private void onSpillRemoval(String key, SpillEntry entry, RemovalCause cause) {
+        if (key == null || entry == null || RemovalCause.REPLACED.equals(cause)) {
+            return;
+        }
+        if (RemovalCause.SIZE.equals(cause)) {
+            evictionCount.increment();
+        }
+        unindex(key, entry.getTags());
+    }
+
+    private boolean spill(String key, CacheEntry entry) {
+        if (spillCache == null || !(entry.getValue() instanceof Serializable)
+                || entry.getExpireAt() - System.nanoTime() <= 0 || isRemoved(entry.getTags(), entry.getGeneration())) {
+            return false;
+        }
+        // a newer value was put while the eviction was notified
+        if (heapCache.asMap().containsKey(key)) {
+            return true;
+        }
+        ByteBuffer buffer = serialize(entry.getValue());
+        if (buffer == null) {
+            return false;
+        }
+        spillCache.put(key, new SpillEntry(buffer, entry.getTags(), entry.getExpireAt(), entry.getGeneration()));
+        // the tag was removed while the entry was serialized
+        if (isRemoved(entry.getTags(), entry.getGeneration())) {
+            spillCache.invalidate(key);
+            return false;
+        }
+        spillCount.increment();
+        log.debug("[spill caffeineCache] key:{}, bytes:{}", key, buffer.capacity());
+        return true;
+    }
+
+    private boolean isRemoved(Set<String> tags, long entryGeneration) {
+        if (allRemovedGeneration > entryGeneration) {
+            return true;
+        }
+        for (String tag : tags) {
+            if (tagRemovedGenerations.getOrDefault(tag, -1L) > entryGeneration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void index(String key, Set<String> tags) {
+        for (String tag : tags) {
+            tagIndex.computeIfAbsent(tag, k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindex(String key, Set<String> tags) {
+        if (heapCache.asMap().containsKey(key) || (spillCache != null && spillCache.asMap().containsKey(key))) {
+            return;
+        }
+        for (String tag : tags) {
+            tagIndex.computeIfPresent(tag, (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private ByteBuffer serialize(Object value) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+            out.flush();
+            byte[] data = bytes.toByteArray();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+            buffer.put(data);
+            buffer.flip();
+            return buffer;
+        } catch (IOException e) {
+            log.warn("serialize cache value error, type:{}", value.getClass().getName(), e);
+            return null;
+        }
+    }
+
+    private Object deserialize(ByteBuffer buffer) {
+        ByteBuffer readBuffer = buffer.duplicate();
+        byte[] data = new byte[readBuffer.remaining()];
+        readBuffer.get(data);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            log.warn("deserialize cache value error", e);
+            return null;
+        }
+    }
+
+    private long getWeightedSize(Cache<String, ?> cache) {
+        return cache.policy().eviction().map(Policy.Eviction::weightedSize)
+                .map(size -> size.orElse(0L)).orElse(0L);
+    }
+
+    private static int toWeight(long size) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1L, size));
+    }
+
+    private interface Expirable {
+
+        long getExpireAt();
+    }
+
+    @Getter
+    private static class CacheEntry implements Expirable {
+
+        private final Object value;
+        private final Set<String> tags;
+        private final long expireAt;
+        private final int weight;
+        private final long generation;
+
+        CacheEntry(Object value, Set<String> tags, long expireAt, int weight, long generation) {
+            this.value = value;
+            this.tags = tags;
+            this.expireAt = expireAt;
+            this.weight = weight;
+            this.generation = generation;
+        }
+    }
+
+    @Getter
+    private static class SpillEntry implements Expirable {
+
+        private final ByteBuffer buffer;
+        private final Set<String> tags;
+        private final long expireAt;
+        private final long generation;
+
+        SpillEntry(ByteBuffer buffer, Set<String> tags, long expireAt, long generation) {
+            this.buffer = buffer;
+            this.tags = tags;
+            this.expireAt = expireAt;
+            this.generation = generation;
+        }
+
+        int getWeight() {
+            return toWeight(buffer.capacity());
+        }
+    }
+
+    /**
+     * promoted and spilled entries keep the expire time of the original put
+     */
+    private static class EntryExpiry<K, V extends Expirable> implements Expiry<K, V> {
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return Math.max(0L, value.getExpireAt() - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return Math.max(0L, value.getExpireAt() - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.tencent.supersonic.common.util.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * rough heap size of cached values, large collections are sampled so estimating a big result stays cheap
+ */
+public class ObjectSizeEstimator {
+
+    private static final int SAMPLE_SIZE = 32;
+    private static final int MAX_DEPTH = 8;
+    private static final long OBJECT_HEADER = 16;
+    private static final long REFERENCE = 8;
+    private static final Map<Class<?>, List<Field>> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    public static long estimate(Object object) {
+        return estimate(object, 0);
+    }
+
+    private static long estimate(Object object, int depth) {
+        if (object == null) {
+            return 0;
+        }
+        if (object instanceof CharSequence) {
+            return OBJECT_HEADER * 2 + 2L * ((CharSequence) object).length();
+        }
+        if (object instanceof Number || object instanceof Boolean || object instanceof Character
+                || object instanceof Enum) {
+            return OBJECT_HEADER + REFERENCE;
+        }
+        if (object instanceof Date || object instanceof Temporal) {
+            return OBJECT_HEADER * 2;
+        }
+        if (depth >= MAX_DEPTH) {
+            return OBJECT_HEADER;
+        }
+        if (object instanceof Collection) {
+            Collection<?> collection = (Collection<?>) object;
+            return OBJECT_HEADER * 2 + REFERENCE * collection.size() + sample(collection.iterator(),
+                    collection.size(), depth);
+        }
+        if (object instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            long size = OBJECT_HEADER * 3 + (OBJECT_HEADER + REFERENCE * 3) * map.size();
+            return size + sample(map.keySet().iterator(), map.size(), depth)
+                    + sample(map.values().iterator(), map.size(), depth);
+        }
+        Class<?> clazz = object.getClass();
+        if (clazz.isArray()) {
+            int length = Array.getLength(object);
+            if (clazz.getComponentType().isPrimitive()) {
+                return OBJECT_HEADER + REFERENCE * length;
+            }
+            List<Object> elements = new ArrayList<>(Math.min(length, SAMPLE_SIZE));
+            for (int i = 0; i < length && i < SAMPLE_SIZE; i++) {
+                elements.add(Array.get(object, i));
+            }
+            return OBJECT_HEADER + REFERENCE * length + sample(elements.iterator(), length, depth);
+        }
+        if (clazz.getName().startsWith("java.")) {
+            return OBJECT_HEADER * 2;
+        }
+        long size = OBJECT_HEADER;
+        for (Field field : getFields(clazz)) {
+            size += REFERENCE;
+            if (!field.getType().isPrimitive()) {
+                try {
+                    size += estimate(field.get(object), depth + 1);
+                } catch (IllegalAccessException e) {
+                    size += OBJECT_HEADER;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * estimates the first elements and scales the result up to the full size
+     */
+    private static long sample(Iterator<?> iterator, int size, int depth) {
+        long sampled = 0;
+        int count = 0;
+        while (iterator.hasNext() && count < SAMPLE_SIZE) {
+            sampled += estimate(iterator.next(), depth + 1);
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        return sampled * size / count;
+    }
+
+    private static List<Field> getFields(Class<?> clazz) {
+        return FIELD_CACHE.computeIfAbsent(clazz, key -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = key; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // not accessible, only the reference is counted
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+}
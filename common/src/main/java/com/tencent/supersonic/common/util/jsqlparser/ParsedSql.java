@@ -0,0 +1,183 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * a select parsed once for several reads and rewrites, printed again only when its sql is asked for.
+ * the reads use the shared statement of SqlParserCache until the first rewrite parses a statement of its
+ * own, rewrites of a sql that is not a plain select leave it unchanged like the string helpers do.
+ * not thread safe, it is meant to live within one request
+ */
+public class ParsedSql {
+
+    private final String originalSql;
+    private Select select;
+    private boolean owned;
+    private String sql;
+
+    private ParsedSql(String originalSql) {
+        this.originalSql = originalSql;
+        this.select = SqlParserSelectHelper.getSelect(SqlParserCache.getShared(originalSql));
+        this.sql = originalSql;
+    }
+
+    public static ParsedSql parse(String sql) {
+        return new ParsedSql(sql);
+    }
+
+    public String getSql() {
+        if (sql == null) {
+            sql = select.toString();
+        }
+        return sql;
+    }
+
+    public boolean isPlainSelect() {
+        return getPlainSelect() != null;
+    }
+
+    public List<String> getAllFields() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? new ArrayList<>() : SqlParserSelectHelper.getAllFields(plainSelect);
+    }
+
+    public List<String> getSelectFields() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? new ArrayList<>()
+                : new ArrayList<>(SqlParserSelectHelper.getSelectFields(plainSelect));
+    }
+
+    public List<String> getWhereFields() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? new ArrayList<>() : SqlParserSelectHelper.getWhereFields(plainSelect);
+    }
+
+    public List<String> getOrderByFields() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? new ArrayList<>() : SqlParserSelectHelper.getOrderByFields(plainSelect);
+    }
+
+    public List<FilterExpression> getFilterExpression() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? new ArrayList<>() : SqlParserSelectHelper.getFilterExpression(plainSelect);
+    }
+
+    public String getTableName() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect == null ? null : SqlParserSelectHelper.getTableName(plainSelect);
+    }
+
+    public boolean hasAggregateFunction() {
+        PlainSelect plainSelect = getPlainSelect();
+        return plainSelect != null && SqlParserSelectHelper.hasAggregateFunction(plainSelect);
+    }
+
+    public ParsedSql replaceValue(Map<String, Map<String, String>> filedNameToValueMap) {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceValue(plainSelect, filedNameToValueMap);
+        }
+        return this;
+    }
+
+    public ParsedSql replaceFieldNameByValue(Map<String, Set<String>> fieldValueToFieldNames) {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceFieldNameByValue(plainSelect, fieldValueToFieldNames);
+        }
+        return this;
+    }
+
+    public ParsedSql replaceFields(Map<String, String> fieldToBizName) {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceFields(plainSelect, fieldToBizName);
+        }
+        return this;
+    }
+
+    public ParsedSql replaceFunction(Map<String, String> functionMap) {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceFunction(plainSelect, functionMap);
+        }
+        return this;
+    }
+
+    public ParsedSql replaceFunction() {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceFunction(plainSelect);
+        }
+        return this;
+    }
+
+    public ParsedSql addFieldsToSelect(List<String> fields) {
+        if (select != null && !fields.isEmpty()) {
+            own();
+            SqlParserUpdateHelper.addFieldsToSelect(select, fields);
+        }
+        return this;
+    }
+
+    public ParsedSql replaceTable(String tableName) {
+        if (StringUtils.isEmpty(tableName)) {
+            return this;
+        }
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.replaceTable(plainSelect, tableName);
+        }
+        return this;
+    }
+
+    public ParsedSql addWhere(String column, Object value) {
+        if (StringUtils.isEmpty(column) || Objects.isNull(value)) {
+            return this;
+        }
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.addWhere(plainSelect, column, value);
+        }
+        return this;
+    }
+
+    public ParsedSql addWhere(Expression expression) {
+        PlainSelect plainSelect = getOwnedPlainSelect();
+        if (plainSelect != null) {
+            SqlParserUpdateHelper.addWhere(plainSelect, expression);
+        }
+        return this;
+    }
+
+    private PlainSelect getPlainSelect() {
+        return SqlParserSelectHelper.getPlainSelect(select);
+    }
+
+    /**
+     * the plain select to rewrite, the sql is printed again on the next call of getSql
+     */
+    private PlainSelect getOwnedPlainSelect() {
+        if (getPlainSelect() == null) {
+            return null;
+        }
+        own();
+        return getPlainSelect();
+    }
+
+    private void own() {
+        if (!owned) {
+            select = SqlParserSelectHelper.getSelect(originalSql);
+            owned = true;
+        }
+        sql = null;
+    }
+}
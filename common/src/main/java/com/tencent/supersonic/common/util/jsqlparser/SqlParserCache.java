@@ -0,0 +1,56 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+
+/**
+ * parses sql with jsqlparser and keeps the statements of the recent sql texts, also those that failed to
+ * parse. a cached statement is shared by all readers and must never be changed, rewrites parse their own
+ */
+@Slf4j
+public class SqlParserCache {
+
+    private static final long MAX_SIZE = 2000;
+
+    private static final Cache<String, Optional<Statement>> STATEMENTS = Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE).build();
+
+    private static final LongAdder PARSE_COUNT = new LongAdder();
+
+    /**
+     * @return the shared statement, read only, null if the sql can not be parsed
+     */
+    public static Statement getShared(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        return STATEMENTS.get(sql, key -> Optional.ofNullable(parse(key))).orElse(null);
+    }
+
+    /**
+     * @return a statement of the caller's own, null if the sql can not be parsed
+     */
+    public static Statement parse(String sql) {
+        PARSE_COUNT.increment();
+        try {
+            return CCJSqlParserUtil.parse(sql);
+        } catch (JSQLParserException e) {
+            log.error("parse error", e);
+            return null;
+        }
+    }
+
+    public static long getParseCount() {
+        return PARSE_COUNT.sum();
+    }
+
+    public static void clear() {
+        STATEMENTS.invalidateAll();
+    }
+}
@@ -6,10 +6,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
@@ -28,10 +26,14 @@ import org.springframework.util.CollectionUtils;
 public class SqlParserSelectHelper {
 
     public static List<FilterExpression> getFilterExpression(String sql) {
-        PlainSelect plainSelect = getPlainSelect(sql);
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getFilterExpression(plainSelect);
+    }
+
+    public static List<FilterExpression> getFilterExpression(PlainSelect plainSelect) {
         Set<FilterExpression> result = new HashSet<>();
         Expression where = plainSelect.getWhere();
         if (Objects.nonNull(where)) {
@@ -41,10 +43,14 @@ public class SqlParserSelectHelper {
     }
 
     public static List<String> getWhereFields(String sql) {
-        PlainSelect plainSelect = getPlainSelect(sql);
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getWhereFields(plainSelect);
+    }
+
+    public static List<String> getWhereFields(PlainSelect plainSelect) {
         Set<String> result = new HashSet<>();
         Expression where = plainSelect.getWhere();
         if (Objects.nonNull(where)) {
@@ -54,10 +60,14 @@ public class SqlParserSelectHelper {
     }
 
     public static List<String> getOrderByFields(String sql) {
-        PlainSelect plainSelect = getPlainSelect(sql);
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getOrderByFields(plainSelect);
+    }
+
+    public static List<String> getOrderByFields(PlainSelect plainSelect) {
         Set<String> result = new HashSet<>();
         List<OrderByElement> orderByElements = plainSelect.getOrderByElements();
         if (!CollectionUtils.isEmpty(orderByElements)) {
@@ -69,7 +79,7 @@ public class SqlParserSelectHelper {
     }
 
     public static List<String> getSelectFields(String sql) {
-        PlainSelect plainSelect = getPlainSelect(sql);
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
@@ -85,8 +95,14 @@ public class SqlParserSelectHelper {
         return result;
     }
 
+    /**
+     * @return the plain select of a statement of the caller's own, it can be changed
+     */
     public static PlainSelect getPlainSelect(String sql) {
-        Select selectStatement = getSelect(sql);
+        return getPlainSelect(getSelect(sql));
+    }
+
+    public static PlainSelect getPlainSelect(Select selectStatement) {
         if (selectStatement == null) {
             return null;
         }
@@ -98,28 +114,29 @@ public class SqlParserSelectHelper {
         return (PlainSelect) selectBody;
     }
 
+    /**
+     * @return a statement of the caller's own, it can be changed
+     */
     public static Select getSelect(String sql) {
-        Statement statement = null;
-        try {
-            statement = CCJSqlParserUtil.parse(sql);
-        } catch (JSQLParserException e) {
-            log.error("parse error", e);
-            return null;
-        }
+        return getSelect(SqlParserCache.parse(sql));
+    }
 
+    public static Select getSelect(Statement statement) {
         if (!(statement instanceof Select)) {
             return null;
         }
         return (Select) statement;
     }
 
-
     public static List<String> getAllFields(String sql) {
-
-        PlainSelect plainSelect = getPlainSelect(sql);
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
         if (Objects.isNull(plainSelect)) {
             return new ArrayList<>();
         }
+        return getAllFields(plainSelect);
+    }
+
+    public static List<String> getAllFields(PlainSelect plainSelect) {
         Set<String> result = getSelectFields(plainSelect);
 
         GroupByElement groupBy = plainSelect.getGroupBy();
@@ -153,26 +170,27 @@ public class SqlParserSelectHelper {
     }
 
     public static String getTableName(String sql) {
-        Select selectStatement = getSelect(sql);
-        if (selectStatement == null) {
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
+        if (plainSelect == null) {
             return null;
         }
-        SelectBody selectBody = selectStatement.getSelectBody();
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        return getTableName(plainSelect);
+    }
 
+    public static String getTableName(PlainSelect plainSelect) {
         Table table = (Table) plainSelect.getFromItem();
         return table.getName();
     }
 
-
     public static boolean hasAggregateFunction(String sql) {
-        Select selectStatement = getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = getSharedPlainSelect(sql);
+        if (plainSelect == null) {
             return false;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        return hasAggregateFunction(plainSelect);
+    }
+
+    public static boolean hasAggregateFunction(PlainSelect plainSelect) {
         List<SelectItem> selectItems = plainSelect.getSelectItems();
         AggregateFunctionVisitor visitor = new AggregateFunctionVisitor();
         for (SelectItem selectItem : selectItems) {
@@ -191,5 +209,11 @@ public class SqlParserSelectHelper {
         return false;
     }
 
-}
+    /**
+     * the reads share the cached statement of the sql instead of parsing it again
+     */
+    private static PlainSelect getSharedPlainSelect(String sql) {
+        return getPlainSelect(getSelect(SqlParserCache.getShared(sql)));
+    }
 
+}
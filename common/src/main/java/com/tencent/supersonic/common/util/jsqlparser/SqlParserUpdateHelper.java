@@ -16,7 +16,6 @@ import net.sf.jsqlparser.statement.select.GroupByElement;
 import net.sf.jsqlparser.statement.select.OrderByElement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
-import net.sf.jsqlparser.statement.select.SelectBody;
 import net.sf.jsqlparser.statement.select.SelectItem;
 import net.sf.jsqlparser.util.SelectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -30,42 +29,52 @@ public class SqlParserUpdateHelper {
 
     public static String replaceValue(String sql, Map<String, Map<String, String>> filedNameToValueMap) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceValue(plainSelect, filedNameToValueMap);
+        return selectStatement.toString();
+    }
+
+    public static void replaceValue(PlainSelect plainSelect, Map<String, Map<String, String>> filedNameToValueMap) {
         Expression where = plainSelect.getWhere();
         FieldlValueReplaceVisitor visitor = new FieldlValueReplaceVisitor(filedNameToValueMap);
         if (Objects.nonNull(where)) {
             where.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFieldNameByValue(String sql, Map<String, Set<String>> fieldValueToFieldNames) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFieldNameByValue(plainSelect, fieldValueToFieldNames);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFieldNameByValue(PlainSelect plainSelect,
+            Map<String, Set<String>> fieldValueToFieldNames) {
         Expression where = plainSelect.getWhere();
         FiledNameReplaceVisitor visitor = new FiledNameReplaceVisitor(fieldValueToFieldNames);
         if (Objects.nonNull(where)) {
             where.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
-
     public static String replaceFields(String sql, Map<String, String> fieldToBizName) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFields(plainSelect, fieldToBizName);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFields(PlainSelect plainSelect, Map<String, String> fieldToBizName) {
         //1. replace where fields
         Expression where = plainSelect.getWhere();
         FieldReplaceVisitor visitor = new FieldReplaceVisitor(fieldToBizName);
@@ -91,16 +100,19 @@ public class SqlParserUpdateHelper {
         if (Objects.nonNull(groupByElement)) {
             groupByElement.accept(new GroupByReplaceVisitor(fieldToBizName));
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFunction(String sql, Map<String, String> functionMap) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFunction(plainSelect, functionMap);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFunction(PlainSelect plainSelect, Map<String, String> functionMap) {
         //1. replace where dataDiff function
         Expression where = plainSelect.getWhere();
 
@@ -117,16 +129,19 @@ public class SqlParserUpdateHelper {
         for (SelectItem selectItem : plainSelect.getSelectItems()) {
             selectItem.accept(visitor);
         }
-        return selectStatement.toString();
     }
 
     public static String replaceFunction(String sql) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceFunction(plainSelect);
+        return selectStatement.toString();
+    }
+
+    public static void replaceFunction(PlainSelect plainSelect) {
         //1. replace where dataDiff function
         Expression where = plainSelect.getWhere();
         FunctionReplaceVisitor visitor = new FunctionReplaceVisitor();
@@ -136,32 +151,19 @@ public class SqlParserUpdateHelper {
         //2. add Waiting Expression
         List<Expression> waitingForAdds = visitor.getWaitingForAdds();
         addWaitingExpression(plainSelect, where, waitingForAdds);
-        return selectStatement.toString();
     }
 
-    private static void addWaitingExpression(PlainSelect plainSelect, Expression where,
-            List<Expression> waitingForAdds) {
-        if (CollectionUtils.isEmpty(waitingForAdds)) {
-            return;
-        }
-        for (Expression expression : waitingForAdds) {
-            if (where == null) {
-                plainSelect.setWhere(expression);
-            } else {
-                where = new AndExpression(where, expression);
-            }
-        }
-        plainSelect.setWhere(where);
-    }
-
-
     public static String addFieldsToSelect(String sql, List<String> fields) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
+        addFieldsToSelect(selectStatement, fields);
+        return selectStatement.toString();
+    }
+
+    public static void addFieldsToSelect(Select selectStatement, List<String> fields) {
         // add fields to select
         for (String field : fields) {
             SelectUtils.addExpression(selectStatement, new Column(field));
         }
-        return selectStatement.toString();
     }
 
     public static String replaceTable(String sql, String tableName) {
@@ -169,50 +171,54 @@ public class SqlParserUpdateHelper {
             return sql;
         }
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        replaceTable((PlainSelect) selectStatement.getSelectBody(), tableName);
+        return selectStatement.toString();
+    }
+
+    public static void replaceTable(PlainSelect plainSelect, String tableName) {
+        if (StringUtils.isEmpty(tableName)) {
+            return;
+        }
         // replace table name
         Table table = (Table) plainSelect.getFromItem();
         table.setName(tableName);
-        return selectStatement.toString();
     }
 
-
     public static String addWhere(String sql, String column, Object value) {
         if (StringUtils.isEmpty(column) || Objects.isNull(value)) {
             return sql;
         }
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
-        Expression where = plainSelect.getWhere();
+        addWhere(plainSelect, column, value);
+        return selectStatement.toString();
+    }
 
+    public static void addWhere(PlainSelect plainSelect, String column, Object value) {
+        if (StringUtils.isEmpty(column) || Objects.isNull(value)) {
+            return;
+        }
         Expression right = new StringValue(value.toString());
         if (value instanceof Integer || value instanceof Long) {
             right = new LongValue(value.toString());
         }
-
-        if (where == null) {
-            plainSelect.setWhere(new EqualsTo(new Column(column), right));
-        } else {
-            plainSelect.setWhere(new AndExpression(where, new EqualsTo(new Column(column), right)));
-        }
-        return selectStatement.toString();
+        addWhere(plainSelect, new EqualsTo(new Column(column), right));
     }
 
-
     public static String addWhere(String sql, Expression expression) {
         Select selectStatement = SqlParserSelectHelper.getSelect(sql);
-        SelectBody selectBody = selectStatement.getSelectBody();
-
-        if (!(selectBody instanceof PlainSelect)) {
+        PlainSelect plainSelect = SqlParserSelectHelper.getPlainSelect(selectStatement);
+        if (plainSelect == null) {
             return sql;
         }
-        PlainSelect plainSelect = (PlainSelect) selectBody;
+        addWhere(plainSelect, expression);
+        return selectStatement.toString();
+    }
+
+    public static void addWhere(PlainSelect plainSelect, Expression expression) {
         Expression where = plainSelect.getWhere();
 
         if (where == null) {
@@ -220,8 +226,21 @@ public class SqlParserUpdateHelper {
         } else {
             plainSelect.setWhere(new AndExpression(where, expression));
         }
-        return selectStatement.toString();
     }
 
-}
+    private static void addWaitingExpression(PlainSelect plainSelect, Expression where,
+            List<Expression> waitingForAdds) {
+        if (CollectionUtils.isEmpty(waitingForAdds)) {
+            return;
+        }
+        for (Expression expression : waitingForAdds) {
+            if (where == null) {
+                plainSelect.setWhere(expression);
+            } else {
+                where = new AndExpression(where, expression);
+            }
+        }
+        plainSelect.setWhere(where);
+    }
 
+}
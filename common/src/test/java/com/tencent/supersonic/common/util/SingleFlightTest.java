@@ -0,0 +1,118 @@
+package com.tencent.supersonic.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    @Test
+    void executeOnceForConcurrentCalls() throws Exception {
+        CountDownLatch joined = new CountDownLatch(3);
+        SingleFlight<String> singleFlight = new SingleFlight<String>() {
+            @Override
+            protected void onJoin(String key) {
+                joined.countDown();
+            }
+        };
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            futures.add(executorService.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "result";
+            })));
+            started.await();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executorService.submit(() -> singleFlight.execute("key", () -> {
+                    executions.incrementAndGet();
+                    return "other";
+                })));
+            }
+            Assert.assertTrue(joined.await(10, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<String> future : futures) {
+                Assert.assertEquals("result", future.get());
+            }
+            Assert.assertEquals(1, executions.get());
+            Assert.assertEquals(0, singleFlight.inFlightSize());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void noCopyWithoutJoiners() throws Exception {
+        SingleFlight<List<String>> singleFlight = new SingleFlight<>();
+        List<String> shared = new ArrayList<>();
+        shared.add("row");
+        List<String> result = singleFlight.execute("key", () -> shared, ArrayList::new);
+        Assert.assertSame(shared, result);
+    }
+
+    @Test
+    void copyForJoinersBeforeLeaderReturns() throws Exception {
+        CountDownLatch joined = new CountDownLatch(2);
+        SingleFlight<List<String>> singleFlight = new SingleFlight<List<String>>() {
+            @Override
+            protected void onJoin(String key) {
+                joined.countDown();
+            }
+        };
+        List<String> shared = new ArrayList<>();
+        shared.add("row");
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            Future<List<String>> leader = executorService.submit(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                joined.await(5, TimeUnit.SECONDS);
+                return shared;
+            }, ArrayList::new));
+            started.await(5, TimeUnit.SECONDS);
+            List<Future<List<String>>> joiners = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                joiners.add(executorService.submit(() -> singleFlight.execute("key", () -> {
+                    throw new IllegalStateException("joiner must not run");
+                }, ArrayList::new)));
+            }
+            List<String> leaderResult = leader.get(5, TimeUnit.SECONDS);
+            // the joiners copied before the leader got the shared result, its changes do not reach them
+            leaderResult.add("modified");
+            Assert.assertSame(shared, leaderResult);
+            for (Future<List<String>> joiner : joiners) {
+                List<String> joinerResult = joiner.get(5, TimeUnit.SECONDS);
+                Assert.assertNotSame(shared, joinerResult);
+                Assert.assertEquals(1, joinerResult.size());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void propagateException() {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail();
+        } catch (Exception e) {
+            Assert.assertTrue(e instanceof IllegalStateException);
+        }
+        Assert.assertEquals(0, singleFlight.inFlightSize());
+    }
+}
@@ -0,0 +1,63 @@
+package com.tencent.supersonic.common.util.cache;
+
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CaffeineCacheImplTest {
+
+    private static final String MODEL_TAG = "model:1";
+
+    private static CaffeineCacheImpl newCache() {
+        CacheCommonConfig cacheCommonConfig = new CacheCommonConfig();
+        cacheCommonConfig.setCacheCommonExpireAfterWrite(10);
+        CaffeineCacheImpl cache = new CaffeineCacheImpl();
+        ReflectionTestUtils.setField(cache, "cacheCommonConfig", cacheCommonConfig);
+        ReflectionTestUtils.setField(cache, "caffeineInitialCapacity", 16);
+        ReflectionTestUtils.setField(cache, "caffeineMaxWeightMb", 1L);
+        ReflectionTestUtils.setField(cache, "caffeineSpillMaxMb", 0L);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    void putOfQueryStartedBeforeEvictionIsRejected() {
+        CaffeineCacheImpl cache = newCache();
+        long generation = cache.getGeneration();
+        cache.removeByTag(MODEL_TAG);
+
+        Assert.assertFalse(cache.put("key", "stale", Collections.singleton(MODEL_TAG), generation));
+        Assert.assertNull(cache.get("key"));
+    }
+
+    @Test
+    void putOfQueryStartedAfterEvictionIsKept() {
+        CaffeineCacheImpl cache = newCache();
+        cache.removeByTag(MODEL_TAG);
+        long generation = cache.getGeneration();
+
+        Assert.assertTrue(cache.put("key", "fresh", Collections.singleton(MODEL_TAG), generation));
+        Assert.assertEquals("fresh", cache.get("key"));
+    }
+
+    @Test
+    void evictionOfOtherTagKeepsPut() {
+        CaffeineCacheImpl cache = newCache();
+        long generation = cache.getGeneration();
+        cache.removeByTag("model:2");
+
+        Assert.assertTrue(cache.put("key", "value", Collections.singleton(MODEL_TAG), generation));
+        Assert.assertEquals("value", cache.get("key"));
+    }
+
+    @Test
+    void putOfQueryStartedBeforeRemoveAllIsRejected() {
+        CaffeineCacheImpl cache = newCache();
+        long generation = cache.getGeneration();
+        cache.removeAll();
+
+        Assert.assertFalse(cache.put("key", "stale", Collections.singleton(MODEL_TAG), generation));
+        Assert.assertNull(cache.get("key"));
+    }
+}
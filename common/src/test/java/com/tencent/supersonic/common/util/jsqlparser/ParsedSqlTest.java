@@ -0,0 +1,68 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ParsedSql Test
+ */
+class ParsedSqlTest {
+
+    private static final String SQL = "select 部门, sum(访问次数) from 超音数 "
+            + "where datediff('day', 数据日期, '2023-08-09') <= 7 and 用户 = 'alice' "
+            + "group by 部门 order by sum(访问次数) desc limit 10";
+
+    @Test
+    void rewriteOnceAsTheStringHelpers() throws JSQLParserException {
+        Map<String, String> fieldToBizName = new HashMap<>();
+        fieldToBizName.put("部门", "department");
+        fieldToBizName.put("用户", "user_id");
+        fieldToBizName.put("数据日期", "sys_imp_date");
+        fieldToBizName.put("访问次数", "pv");
+
+        String expected = SqlParserUpdateHelper.replaceFields(SQL, fieldToBizName);
+        expected = SqlParserUpdateHelper.replaceFunction(expected);
+        expected = SqlParserUpdateHelper.replaceTable(expected, "t_1");
+        expected = SqlParserUpdateHelper.addWhere(expected, CCJSqlParserUtil.parseCondExpression("pv > 1"));
+        expected = SqlParserUpdateHelper.addFieldsToSelect(expected, Collections.singletonList("user_id"));
+
+        long parseCount = SqlParserCache.getParseCount();
+        ParsedSql parsedSql = ParsedSql.parse(SQL)
+                .replaceFields(fieldToBizName)
+                .replaceFunction()
+                .replaceTable("t_1")
+                .addWhere(CCJSqlParserUtil.parseCondExpression("pv > 1"))
+                .addFieldsToSelect(Collections.singletonList("user_id"));
+        Assert.assertEquals(expected, parsedSql.getSql());
+        Assert.assertEquals("t_1", parsedSql.getTableName());
+        Assert.assertTrue(parsedSql.getWhereFields().containsAll(Arrays.asList("user_id", "pv")));
+        Assert.assertTrue(SqlParserCache.getParseCount() - parseCount <= 2);
+    }
+
+    @Test
+    void readsDoNotSeeRewrites() {
+        ParsedSql parsedSql = ParsedSql.parse(SQL);
+        Assert.assertEquals(SQL, parsedSql.getSql());
+        Assert.assertEquals("超音数", parsedSql.getTableName());
+
+        parsedSql.replaceTable("t_1");
+        Assert.assertEquals("t_1", parsedSql.getTableName());
+        Assert.assertEquals("超音数", SqlParserSelectHelper.getTableName(SQL));
+        Assert.assertEquals("超音数", ParsedSql.parse(SQL).getTableName());
+    }
+
+    @Test
+    void leaveOtherStatementsUnchanged() {
+        String sql = "select 部门 from 超音数 union select 部门 from 歌曲库";
+        ParsedSql parsedSql = ParsedSql.parse(sql).replaceTable("t_1").addWhere("部门", "HR");
+        Assert.assertFalse(parsedSql.isPlainSelect());
+        Assert.assertEquals(sql, parsedSql.getSql());
+        Assert.assertTrue(parsedSql.getAllFields().isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+package com.tencent.supersonic.common.util.jsqlparser;
+
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+
+/**
+ * measures the parses and the latency of the sql work of one llm to sql request: the corrector chain, the
+ * reads of the dsl parser and of QueryReqConverter. the string helpers are compared with one ParsedSql
+ * carried through the request. run the main method.
+ */
+public class SqlParserBenchmark {
+
+    private static final int WARMUP = 2000;
+    private static final int REQUESTS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> fieldToBizName = new HashMap<>();
+        fieldToBizName.put("部门", "department");
+        fieldToBizName.put("用户", "user_id");
+        fieldToBizName.put("数据日期", "sys_imp_date");
+        fieldToBizName.put("访问次数", "pv");
+        Map<String, Set<String>> fieldValueToFieldNames = new HashMap<>();
+        fieldValueToFieldNames.put("alice", Collections.singleton("用户"));
+        Map<String, Map<String, String>> valueToTechName = new HashMap<>();
+        valueToTechName.put("user_id", Collections.singletonMap("alice", "alice_01"));
+        Expression queryFilter = CCJSqlParserUtil.parseCondExpression("department = 'HR'");
+
+        Function<String, String> helpers = sql -> {
+            if (!SqlParserSelectHelper.getWhereFields(sql).contains("数据日期")) {
+                sql = SqlParserUpdateHelper.addWhere(sql, "数据日期", "2023-08-09");
+            }
+            sql = SqlParserUpdateHelper.replaceFieldNameByValue(sql, fieldValueToFieldNames);
+            sql = SqlParserUpdateHelper.replaceFields(sql, fieldToBizName);
+            sql = SqlParserUpdateHelper.replaceFunction(sql);
+            sql = SqlParserUpdateHelper.replaceTable(sql, "t_1");
+            sql = SqlParserUpdateHelper.addWhere(sql, queryFilter);
+            if (!SqlParserSelectHelper.hasAggregateFunction(sql)) {
+                List<String> fields = new ArrayList<>(SqlParserSelectHelper.getWhereFields(sql));
+                fields.addAll(SqlParserSelectHelper.getOrderByFields(sql));
+                fields.removeAll(SqlParserSelectHelper.getSelectFields(sql));
+                sql = SqlParserUpdateHelper.addFieldsToSelect(sql, fields);
+            }
+            sql = SqlParserUpdateHelper.replaceValue(sql, valueToTechName);
+            int size = SqlParserSelectHelper.getAllFields(sql).size()
+                    + SqlParserSelectHelper.getFilterExpression(sql).size()
+                    + SqlParserSelectHelper.getAllFields(sql).size()
+                    + SqlParserSelectHelper.getTableName(sql).length();
+            return sql + size;
+        };
+        Function<String, String> handle = sql -> {
+            ParsedSql parsedSql = ParsedSql.parse(sql);
+            if (!parsedSql.getWhereFields().contains("数据日期")) {
+                parsedSql.addWhere("数据日期", "2023-08-09");
+            }
+            parsedSql.replaceFieldNameByValue(fieldValueToFieldNames)
+                    .replaceFields(fieldToBizName)
+                    .replaceFunction()
+                    .replaceTable("t_1")
+                    .addWhere(queryFilter);
+            if (!parsedSql.hasAggregateFunction()) {
+                List<String> fields = new ArrayList<>(parsedSql.getWhereFields());
+                fields.addAll(parsedSql.getOrderByFields());
+                fields.removeAll(parsedSql.getSelectFields());
+                parsedSql.addFieldsToSelect(fields);
+            }
+            parsedSql.replaceValue(valueToTechName);
+            int size = parsedSql.getAllFields().size() + parsedSql.getFilterExpression().size()
+                    + parsedSql.getAllFields().size() + parsedSql.getTableName().length();
+            return parsedSql.getSql() + size;
+        };
+
+        for (String name : Arrays.asList("helpers", "handle", "helpers", "handle")) {
+            Function<String, String> request = "helpers".equals(name) ? helpers : handle;
+            run(name, request, WARMUP, false);
+            run(name, request, REQUESTS, true);
+        }
+    }
+
+    private static void run(String name, Function<String, String> request, int requests, boolean print)
+            throws Exception {
+        SqlParserCache.clear();
+        long parseCount = SqlParserCache.getParseCount();
+        // every request is a different sql, as the llm answers are
+        List<String> sqls = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            sqls.add("select 部门, 访问次数 from 超音数 where datediff('day', 数据日期, '2023-08-09') <= "
+                    + (i % 30 + 1) + " and 用户 = 'alice' order by 访问次数 desc limit " + (i + 1));
+        }
+        long[] latencies = BenchmarkTimer.latencies(requests, i -> request.apply(sqls.get(i)));
+        if (!print) {
+            return;
+        }
+        System.out.printf("%-8s  parses/request:%5.1f  p50:%7.3f ms  p99:%7.3f ms%n", name,
+                (SqlParserCache.getParseCount() - parseCount) / (double) requests,
+                BenchmarkTimer.percentileMillis(latencies, 0.5), BenchmarkTimer.percentileMillis(latencies, 0.99));
+    }
+}
@@ -0,0 +1,59 @@
+package com.tencent.supersonic.benchmark;
+
+import com.tencent.supersonic.common.pojo.Constants;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.parser.convert.CalculateAggConverter;
+import com.tencent.supersonic.semantic.query.parser.convert.CalculateAggConverter.EngineSql;
+import com.tencent.supersonic.semantic.query.utils.DateUtils;
+import com.tencent.supersonic.util.H2Fixture;
+import com.tencent.supersonic.util.RatioSqlFixture;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * compares the self join and the window function plans of the ratio metrics on H2Fixture, copied back in
+ * time the number of times given as the first argument. every period and ratio is run with and without the
+ * page dimension and the average time of both plans is printed, RatioSqlTest checks that their rows are
+ * equal. run the main method.
+ */
+public class RatioSqlBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:ratio;DATABASE_TO_UPPER=false;QUERY_CACHE_SIZE=0";
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int copies = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(DateUtils.class);
+        new ContextUtils().setApplicationContext(context);
+        EngineSql engineSql = new CalculateAggConverter(null, null, null, null).new H2EngineSql();
+        try (Connection connection = DriverManager.getConnection(URL);
+                Statement statement = connection.createStatement()) {
+            H2Fixture.load(statement, copies);
+            RatioSqlFixture.createViews(statement);
+            for (String period : Arrays.asList(Constants.DAY, Constants.WEEK, Constants.MONTH)) {
+                for (AggOperatorEnum func : Arrays.asList(AggOperatorEnum.RATIO_ROLL, AggOperatorEnum.RATIO_OVER)) {
+                    for (boolean byPage : Arrays.asList(false, true)) {
+                        QueryStructReq queryStructReq = RatioSqlFixture.newQuery(period, func, byPage);
+                        boolean isOver = AggOperatorEnum.RATIO_OVER.equals(func);
+                        String metricTable = RatioSqlFixture.getMetricTable(period, byPage);
+                        String joinSql = engineSql.sql(queryStructReq, isOver, metricTable);
+                        String windowSql = engineSql.windowSql(queryStructReq, isOver, metricTable,
+                                RatioSqlFixture.LAG_FUNC);
+                        System.out.printf("%-5s %-10s page:%-5s rows:%5d  join:%8.3f ms  window:%8.3f ms%n",
+                                period, func.name(), byPage, H2Fixture.query(statement, joinSql).size(),
+                                BenchmarkTimer.averageMillis(ROUNDS, () -> H2Fixture.query(statement, joinSql)),
+                                BenchmarkTimer.averageMillis(ROUNDS, () -> H2Fixture.query(statement, windowSql)));
+                    }
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+}
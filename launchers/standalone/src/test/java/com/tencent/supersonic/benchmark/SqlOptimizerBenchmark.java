@@ -0,0 +1,37 @@
+package com.tencent.supersonic.benchmark;
+
+import com.tencent.supersonic.common.util.BenchmarkTimer;
+import com.tencent.supersonic.util.H2Fixture;
+import com.tencent.supersonic.util.SemanticPlanFixture;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * runs the plans of SemanticPlanFixture as they are rendered and as the optimizer rewrites them for h2 on
+ * H2Fixture, copied back in time the number of times given as the first argument. the average time of both
+ * is printed, SqlOptimizerPlanTest checks that their rows are equal. run the main method.
+ */
+public class SqlOptimizerBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:optimizer;DATABASE_TO_UPPER=false;QUERY_CACHE_SIZE=0";
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int copies = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        try (Connection connection = DriverManager.getConnection(URL);
+                Statement statement = connection.createStatement()) {
+            H2Fixture.load(statement, copies);
+            List<String> plans = SemanticPlanFixture.getPlans();
+            for (int i = 0; i < plans.size(); i++) {
+                String plannedSql = SemanticPlanFixture.getPlannedSql(plans.get(i));
+                String optimizedSql = SemanticPlanFixture.getOptimizedSql(plans.get(i));
+                System.out.printf("plan:%d rows:%5d  planned:%8.3f ms  optimized:%8.3f ms%n", i,
+                        H2Fixture.query(statement, plannedSql).size(),
+                        BenchmarkTimer.averageMillis(ROUNDS, () -> H2Fixture.query(statement, plannedSql)),
+                        BenchmarkTimer.averageMillis(ROUNDS, () -> H2Fixture.query(statement, optimizedSql)));
+            }
+        }
+    }
+}
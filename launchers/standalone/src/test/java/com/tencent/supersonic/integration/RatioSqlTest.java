@@ -0,0 +1,61 @@
+package com.tencent.supersonic.integration;
+
+import com.tencent.supersonic.common.pojo.Constants;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.parser.convert.CalculateAggConverter;
+import com.tencent.supersonic.semantic.query.parser.convert.CalculateAggConverter.EngineSql;
+import com.tencent.supersonic.semantic.query.utils.DateUtils;
+import com.tencent.supersonic.util.H2Fixture;
+import com.tencent.supersonic.util.RatioSqlFixture;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * the window function plan of the ratio metrics gives the same rows as the self join plan on H2Fixture,
+ * copied back in time so the over ratios find their comparison periods
+ */
+public class RatioSqlTest {
+
+    private static final String URL = "jdbc:h2:mem:ratio_test;DATABASE_TO_UPPER=false";
+
+    @Test
+    public void windowSqlEqualsJoinSql() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(DateUtils.class);
+        new ContextUtils().setApplicationContext(context);
+        EngineSql engineSql = new CalculateAggConverter(null, null, null, null).new H2EngineSql();
+        try (Connection connection = DriverManager.getConnection(URL);
+                Statement statement = connection.createStatement()) {
+            H2Fixture.load(statement, 14);
+            RatioSqlFixture.createViews(statement);
+            for (String period : Arrays.asList(Constants.DAY, Constants.WEEK, Constants.MONTH)) {
+                for (AggOperatorEnum func : Arrays.asList(AggOperatorEnum.RATIO_ROLL, AggOperatorEnum.RATIO_OVER)) {
+                    for (boolean byPage : Arrays.asList(false, true)) {
+                        QueryStructReq queryStructReq = RatioSqlFixture.newQuery(period, func, byPage);
+                        boolean isOver = AggOperatorEnum.RATIO_OVER.equals(func);
+                        String metricTable = RatioSqlFixture.getMetricTable(period, byPage);
+                        List<String> joinRows = H2Fixture.query(statement,
+                                engineSql.sql(queryStructReq, isOver, metricTable));
+                        List<String> windowRows = H2Fixture.query(statement,
+                                engineSql.windowSql(queryStructReq, isOver, metricTable, RatioSqlFixture.LAG_FUNC));
+
+                        String plan = period + " " + func + " page:" + byPage;
+                        Assert.assertFalse(plan, joinRows.isEmpty());
+                        Assert.assertTrue(plan, joinRows.stream().anyMatch(row -> !row.contains("_ROLL=null")
+                                && !row.contains("_OVER=null")));
+                        Assert.assertEquals(plan, joinRows, windowRows);
+                    }
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.tencent.supersonic.integration;
+
+import com.tencent.supersonic.util.H2Fixture;
+import com.tencent.supersonic.util.SemanticPlanFixture;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * the plans rewritten by SqlOptimizer give the same rows as the plans as rendered, on H2Fixture copied back
+ * in time so the date filters cut through the data
+ */
+public class SqlOptimizerPlanTest {
+
+    private static final String URL = "jdbc:h2:mem:optimizer_test;DATABASE_TO_UPPER=false";
+
+    @Test
+    public void optimizedSqlEqualsPlannedSql() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL);
+                Statement statement = connection.createStatement()) {
+            H2Fixture.load(statement, 4);
+            for (String plan : SemanticPlanFixture.getPlans()) {
+                String optimizedSql = SemanticPlanFixture.getOptimizedSql(plan);
+                List<String> plannedRows = H2Fixture.query(statement, SemanticPlanFixture.getPlannedSql(plan));
+
+                Assert.assertFalse(plan, plannedRows.isEmpty());
+                Assert.assertNotEquals(plan, SemanticPlanFixture.getPlannedSql(plan), optimizedSql);
+                Assert.assertEquals(optimizedSql, plannedRows, H2Fixture.query(statement, optimizedSql));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tencent.supersonic.util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * the demo data of h2 for the sql run by the benchmarks and the tests, with s2_pv_uv_statis and
+ * s2_stay_time_statis copied back in time so the over ratios and the date filters find older periods
+ */
+public class H2Fixture {
+
+    private H2Fixture() {
+    }
+
+    /**
+     * loads the schema and the data, then inserts the rows of the fixture tables copies - 1 more times,
+     * each copy 31 days before the previous one
+     */
+    public static void load(Statement statement, int copies) throws SQLException {
+        statement.execute("RUNSCRIPT FROM 'classpath:db/schema-h2.sql'");
+        statement.execute("RUNSCRIPT FROM 'classpath:db/data-h2.sql'");
+        statement.execute("CREATE TABLE s2_pv_uv_fixture AS SELECT * FROM s2_pv_uv_statis");
+        statement.execute("CREATE TABLE s2_stay_time_fixture AS SELECT * FROM s2_stay_time_statis");
+        for (int i = 1; i < copies; i++) {
+            statement.execute(String.format("INSERT INTO s2_pv_uv_statis SELECT FORMATDATETIME(DATEADD('DAY', %d, "
+                    + "imp_date), 'yyyy-MM-dd'), user_name, page FROM s2_pv_uv_fixture", -31 * i));
+            statement.execute(String.format("INSERT INTO s2_stay_time_statis SELECT FORMATDATETIME(DATEADD('DAY', "
+                    + "%d, imp_date), 'yyyy-MM-dd'), user_name, stay_hours, page FROM s2_stay_time_fixture", -31 * i));
+        }
+    }
+
+    /**
+     * the rows with their column labels, sorted as rows with the same sort key come in any order
+     */
+    public static List<String> query(Statement statement, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while (resultSet.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    row.append(resultSet.getMetaData().getColumnLabel(i)).append('=')
+                            .append(resultSet.getString(i)).append(' ');
+                }
+                rows.add(row.toString());
+            }
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+}
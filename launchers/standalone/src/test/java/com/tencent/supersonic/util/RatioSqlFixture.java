@@ -0,0 +1,63 @@
+package com.tencent.supersonic.util;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.query.utils.DateUtils;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * the metric tables and the queries of the ratio metrics on H2Fixture. the metric tables are views, so each
+ * reference scans the fixture table as the metric sub-query does. DateUtils must be in the spring context.
+ */
+public class RatioSqlFixture {
+
+    public static final String LAG_FUNC = "LAG(%s, %d) OVER (%s)";
+
+    private RatioSqlFixture() {
+    }
+
+    public static void createViews(Statement statement) throws SQLException {
+        createPeriodViews(statement, "day", "imp_date");
+        createPeriodViews(statement, "week", "FORMATDATETIME(DATE_TRUNC('week', imp_date), 'yyyy-MM-dd')");
+        createPeriodViews(statement, "month", "FORMATDATETIME(imp_date, 'yyyy-MM')");
+    }
+
+    public static String getMetricTable(String period, boolean byPage) {
+        return "v_metric_" + period.toLowerCase() + (byPage ? "_page" : "");
+    }
+
+    public static QueryStructReq newQuery(String period, AggOperatorEnum func, boolean byPage) {
+        QueryStructReq queryStructReq = new QueryStructReq();
+        DateConf dateConf = new DateConf();
+        dateConf.setPeriod(period);
+        queryStructReq.setDateInfo(dateConf);
+        String timeDim = ContextUtils.getBean(DateUtils.class).getSysDateCol(dateConf);
+        queryStructReq.setGroups(byPage ? new ArrayList<>(Arrays.asList(timeDim, "page"))
+                : new ArrayList<>(Collections.singletonList(timeDim)));
+        queryStructReq.setAggregators(new ArrayList<>(Collections.singletonList(new Aggregator("pv", func))));
+        queryStructReq.setLimit(0L);
+        return queryStructReq;
+    }
+
+    /**
+     * one metric table grouped by the time and the page and one grouped by the time only, each has one row
+     * per group as the metric sub-query gives
+     */
+    private static void createPeriodViews(Statement statement, String period, String timeExpr) throws SQLException {
+        DateConf dateConf = new DateConf();
+        dateConf.setPeriod(period.toUpperCase());
+        String timeDim = ContextUtils.getBean(DateUtils.class).getSysDateCol(dateConf);
+        String source = String.format("(SELECT %s AS %s, page FROM s2_pv_uv_statis) t", timeExpr, timeDim);
+        statement.execute(String.format("CREATE VIEW %s AS SELECT %s, page, COUNT(1) AS pv FROM %s "
+                + "GROUP BY %s, page", getMetricTable(period, true), timeDim, source, timeDim));
+        statement.execute(String.format("CREATE VIEW %s AS SELECT %s, COUNT(1) AS pv FROM %s GROUP BY %s",
+                getMetricTable(period, false), timeDim, source, timeDim));
+    }
+}
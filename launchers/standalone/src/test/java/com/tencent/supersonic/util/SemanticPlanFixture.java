@@ -0,0 +1,101 @@
+package com.tencent.supersonic.util;
+
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
+import com.tencent.supersonic.semantic.query.parser.calcite.Configuration;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.node.SemanticNode;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer.SqlOptimizer;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.sql.parser.SqlParser;
+
+/**
+ * plans of the semantic layer on H2Fixture, with the levels the renderers build: datasource, measures,
+ * aggregation, metrics and the filter and output wrappers. each plan is rendered as it is planned and as
+ * SqlOptimizer rewrites it for h2.
+ */
+public class SemanticPlanFixture {
+
+    private static final String PV_SOURCE = "(SELECT imp_date, user_name, page, 1 AS pv, user_name AS uv "
+            + "FROM s2_pv_uv_statis) AS s2_pv_uv_statis";
+    private static final String STAY_SOURCE = "(SELECT imp_date, user_name, stay_hours, page "
+            + "FROM s2_stay_time_statis) AS s2_stay_time_statis";
+
+    /**
+     * the dates of the fixture data are relative to the current date, {since} and {until} are bound to the
+     * last 60 days
+     */
+    private static final List<String> PLANS = Arrays.asList(
+            // pv of one user by day
+            "SELECT sys_imp_date, pv FROM (SELECT * FROM (SELECT sys_imp_date, user_name, s2_pv AS pv FROM "
+                    + "(SELECT sum(s2_pv) AS s2_pv, sys_imp_date, user_name FROM (SELECT pv AS s2_pv, imp_date AS "
+                    + "sys_imp_date, user_name FROM " + PV_SOURCE + ") AS src00_ GROUP BY sys_imp_date, user_name) "
+                    + "AS s2_0) AS src2_ WHERE (user_name = 'jack' AND (sys_imp_date >= '{since}' AND "
+                    + "sys_imp_date <= '{until}'))) AS s2_1 ORDER BY sys_imp_date DESC LIMIT 1000",
+            // pv and uv by page over a month
+            "SELECT page, pv, uv FROM (SELECT * FROM (SELECT page, sys_imp_date, s2_pv AS pv, s2_uv AS uv FROM "
+                    + "(SELECT sum(s2_pv) AS s2_pv, count(DISTINCT s2_uv) AS s2_uv, page, sys_imp_date FROM "
+                    + "(SELECT pv AS s2_pv, uv AS s2_uv, page, imp_date AS sys_imp_date FROM " + PV_SOURCE
+                    + ") AS src00_ GROUP BY page, sys_imp_date) AS s2_0) AS src2_ WHERE (sys_imp_date >= "
+                    + "'{since}' AND sys_imp_date <= '{until}')) AS s2_1 ORDER BY pv DESC LIMIT 1000",
+            // pv of a department, joined with the departments of the users
+            "SELECT department, pv FROM (SELECT * FROM (SELECT department, sys_imp_date, s2_pv AS pv FROM "
+                    + "(SELECT sum(s2_pv) AS s2_pv, department, sys_imp_date FROM (SELECT src1_pv.s2_pv AS s2_pv, "
+                    + "src1_department.department AS department, src1_pv.sys_imp_date AS sys_imp_date FROM "
+                    + "(SELECT pv AS s2_pv, imp_date AS sys_imp_date, user_name, page FROM " + PV_SOURCE
+                    + ") AS src1_pv INNER JOIN (SELECT user_name, department FROM (SELECT user_name, department "
+                    + "FROM s2_user_department) AS user_department) AS src1_department ON src1_pv.user_name = "
+                    + "src1_department.user_name) AS src11_ GROUP BY department, sys_imp_date) AS s2_0) AS src2_ "
+                    + "WHERE (department = 'HR' AND sys_imp_date >= '{since}')) AS s2_1 ORDER BY department "
+                    + "LIMIT 1000",
+            // stay hours by page of one user
+            "SELECT page, stay_hours FROM (SELECT * FROM (SELECT page, user_name, s2_stay_hours AS stay_hours "
+                    + "FROM (SELECT sum(s2_stay_hours) AS s2_stay_hours, page, user_name FROM (SELECT stay_hours "
+                    + "AS s2_stay_hours, page, user_name, imp_date AS sys_imp_date FROM " + STAY_SOURCE
+                    + ") AS src00_ GROUP BY page, user_name) AS s2_0) AS src2_ WHERE (user_name = 'jack')) AS s2_1 "
+                    + "ORDER BY stay_hours DESC LIMIT 1000",
+            // detail rows of a page
+            "SELECT sys_imp_date, user_name, page FROM (SELECT * FROM (SELECT sys_imp_date, user_name, page FROM "
+                    + "(SELECT imp_date AS sys_imp_date, user_name, page FROM " + PV_SOURCE + ") AS src00_) AS "
+                    + "src2_ WHERE (page = 'p1')) AS s2_1 ORDER BY sys_imp_date DESC, user_name LIMIT 100");
+
+    private SemanticPlanFixture() {
+    }
+
+    public static List<String> getPlans() {
+        String since = LocalDate.now().minusDays(60).toString();
+        String until = LocalDate.now().toString();
+        return PLANS.stream().map(plan -> plan.replace("{since}", since).replace("{until}", until))
+                .collect(Collectors.toList());
+    }
+
+    public static String getPlannedSql(String plan) throws SqlParseException {
+        return SemanticNode.getSql(parse(plan));
+    }
+
+    public static String getOptimizedSql(String plan) throws SqlParseException {
+        SqlNode sqlNode = parse(plan);
+        SqlOptimizer.of(EngineTypeEnum.H2).optimize(sqlNode);
+        return SemanticNode.getSql(sqlNode);
+    }
+
+    /**
+     * the order and the limit are set on the select as the planner does, the row count as offset
+     */
+    private static SqlNode parse(String sql) throws SqlParseException {
+        SqlNode sqlNode = SqlParser.create(sql, Configuration.getParserConfig()).parseQuery();
+        if (sqlNode instanceof SqlOrderBy) {
+            SqlOrderBy orderBy = (SqlOrderBy) sqlNode;
+            SqlSelect select = (SqlSelect) orderBy.query;
+            select.setOrderBy(orderBy.orderList);
+            select.setOffset(orderBy.fetch);
+            return select;
+        }
+        return sqlNode;
+    }
+}
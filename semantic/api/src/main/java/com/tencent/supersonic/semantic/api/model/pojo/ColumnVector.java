@@ -0,0 +1,186 @@
+package com.tencent.supersonic.semantic.api.model.pojo;
+
+import java.io.Serializable;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import lombok.Getter;
+
+/**
+ * a single column of a query result, integral and floating values are kept in primitive arrays
+ * so that large results do not box every cell
+ */
+public class ColumnVector implements Serializable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @Getter
+    private VectorType vectorType;
+    @Getter
+    private int size;
+    private long[] longValues;
+    private double[] doubleValues;
+    private Object[] objectValues;
+    private final BitSet nulls = new BitSet();
+
+    public ColumnVector(VectorType vectorType) {
+        this.vectorType = vectorType;
+        switch (vectorType) {
+            case LONG:
+                longValues = new long[INITIAL_CAPACITY];
+                break;
+            case DOUBLE:
+                doubleValues = new double[INITIAL_CAPACITY];
+                break;
+            default:
+                objectValues = new Object[INITIAL_CAPACITY];
+        }
+    }
+
+    public static VectorType typeOf(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return VectorType.LONG;
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+                return VectorType.DOUBLE;
+            default:
+                return VectorType.OBJECT;
+        }
+    }
+
+    /**
+     * the vector type of a column known only by its type name, as reported by the jdbc driver
+     */
+    public static VectorType typeOf(String typeName) {
+        if (typeName == null) {
+            return VectorType.OBJECT;
+        }
+        switch (typeName.toUpperCase(Locale.ROOT).replace(" UNSIGNED", "")) {
+            case "TINYINT":
+            case "SMALLINT":
+            case "INT":
+            case "INTEGER":
+            case "BIGINT":
+                return VectorType.LONG;
+            case "FLOAT":
+            case "REAL":
+            case "DOUBLE":
+                return VectorType.DOUBLE;
+            default:
+                return VectorType.OBJECT;
+        }
+    }
+
+    public void append(Object value) {
+        ensureCapacity(size + 1);
+        if (value == null) {
+            nulls.set(size);
+        } else if (VectorType.LONG.equals(vectorType) && isIntegral(value)) {
+            longValues[size] = ((Number) value).longValue();
+        } else if (VectorType.DOUBLE.equals(vectorType) && value instanceof Number) {
+            doubleValues[size] = ((Number) value).doubleValue();
+        } else {
+            if (!VectorType.OBJECT.equals(vectorType)) {
+                // the driver returned something unexpected for the declared type, keep the raw value
+                promoteToObject();
+            }
+            objectValues[size] = value;
+        }
+        size++;
+    }
+
+    public boolean isNull(int row) {
+        return nulls.get(row);
+    }
+
+    public long getLong(int row) {
+        return longValues[row];
+    }
+
+    public double getDouble(int row) {
+        return doubleValues[row];
+    }
+
+    /**
+     * the cell as a double without boxing for the numeric vectors, null cells are 0
+     */
+    public double getAsDouble(int row) {
+        if (nulls.get(row)) {
+            return 0D;
+        }
+        switch (vectorType) {
+            case LONG:
+                return longValues[row];
+            case DOUBLE:
+                return doubleValues[row];
+            default:
+                Object value = objectValues[row];
+                return value instanceof Number ? ((Number) value).doubleValue()
+                        : Double.parseDouble(value.toString());
+        }
+    }
+
+    public Object get(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row:" + row + ", size:" + size);
+        }
+        if (nulls.get(row)) {
+            return null;
+        }
+        switch (vectorType) {
+            case LONG:
+                return longValues[row];
+            case DOUBLE:
+                return doubleValues[row];
+            default:
+                return objectValues[row];
+        }
+    }
+
+    private boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = VectorType.LONG.equals(vectorType) ? longValues.length
+                : VectorType.DOUBLE.equals(vectorType) ? doubleValues.length : objectValues.length;
+        if (capacity <= length) {
+            return;
+        }
+        int newLength = Math.max(capacity, length + (length >> 1));
+        switch (vectorType) {
+            case LONG:
+                longValues = Arrays.copyOf(longValues, newLength);
+                break;
+            case DOUBLE:
+                doubleValues = Arrays.copyOf(doubleValues, newLength);
+                break;
+            default:
+                objectValues = Arrays.copyOf(objectValues, newLength);
+        }
+    }
+
+    private void promoteToObject() {
+        int length = VectorType.LONG.equals(vectorType) ? longValues.length : doubleValues.length;
+        Object[] values = new Object[length];
+        for (int i = 0; i < size; i++) {
+            values[i] = get(i);
+        }
+        objectValues = values;
+        longValues = null;
+        doubleValues = null;
+        vectorType = VectorType.OBJECT;
+    }
+
+    public enum VectorType {
+        LONG,
+        DOUBLE,
+        OBJECT
+    }
+}
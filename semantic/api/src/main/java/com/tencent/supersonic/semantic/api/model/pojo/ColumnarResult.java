@@ -0,0 +1,88 @@
+package com.tencent.supersonic.semantic.api.model.pojo;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.Getter;
+
+/**
+ * columnar query result: one shared schema and one typed vector per column, cells are read by column index
+ */
+@Getter
+public class ColumnarResult implements Serializable {
+
+    private final List<QueryColumn> columns;
+    private final List<ColumnVector> vectors;
+    private int rowCount;
+
+    public ColumnarResult(List<QueryColumn> columns, List<ColumnVector.VectorType> vectorTypes) {
+        this.columns = columns;
+        this.vectors = new ArrayList<>(vectorTypes.size());
+        vectorTypes.forEach(vectorType -> vectors.add(new ColumnVector(vectorType)));
+    }
+
+    public void appendRow(Object[] row) {
+        for (int i = 0; i < vectors.size(); i++) {
+            vectors.get(i).append(row[i]);
+        }
+        rowCount++;
+    }
+
+    public Object getValue(int row, int column) {
+        return vectors.get(column).get(row);
+    }
+
+    public int getColumnIndex(String nameEn) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getNameEn().equalsIgnoreCase(nameEn)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * materialize the row-oriented representation, only for callers that still need List<Map>
+     */
+    public List<Map<String, Object>> toResultList() {
+        List<Map<String, Object>> resultList = new ArrayList<>(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Map<String, Object> line = new LinkedHashMap<>(columns.size() * 2);
+            for (int col = 0; col < columns.size(); col++) {
+                line.put(columns.get(col).getNameEn(), getValue(row, col));
+            }
+            resultList.add(line);
+        }
+        return resultList;
+    }
+
+    /**
+     * collects streamed rows into a columnar result, the vector types follow the column types
+     */
+    public static class Collector implements ResultRowConsumer {
+
+        private ColumnarResult result;
+
+        @Override
+        public void onSchema(List<QueryColumn> columns) {
+            result = new ColumnarResult(columns, columns.stream().map(column -> ColumnVector.typeOf(column.getType()))
+                    .collect(Collectors.toList()));
+        }
+
+        @Override
+        public void onRow(Object[] row) {
+            result.appendRow(row);
+        }
+
+        /**
+         * @return null if the query returned no schema
+         */
+        public ColumnarResult getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.tencent.supersonic.semantic.api.model.pojo;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * receives query rows one by one in streaming mode, so that results are never materialized in memory.
+ * the values of a row are in the same order as the columns passed to {@link #onSchema(List)}
+ */
+public interface ResultRowConsumer {
+
+    /**
+     * hands a materialized result to the consumer, for the sources that can not stream
+     */
+    static void replay(QueryResultWithSchemaResp queryResultWithColumns, ResultRowConsumer consumer) {
+        if (queryResultWithColumns == null) {
+            return;
+        }
+        consumer.onSchema(queryResultWithColumns.getColumns());
+        int columnCount = queryResultWithColumns.getColumns().size();
+        for (Map<String, Object> line : queryResultWithColumns.getResultList()) {
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = line.get(queryResultWithColumns.getColumns().get(i).getNameEn());
+            }
+            consumer.onRow(row);
+        }
+        consumer.onComplete(queryResultWithColumns.getResultList().size());
+    }
+
+    default void onSchema(List<QueryColumn> columns) {
+    }
+
+    void onRow(Object[] row);
+
+    default void onComplete(long rowCount) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.tencent.supersonic.semantic.api.model.response;
+
+import lombok.Data;
+
+@Data
+public class DataSourcePoolResp {
+
+    private String name;
+    private int activeCount;
+    private int poolingCount;
+    private int maxActive;
+    private int waitThreadCount;
+    private long notEmptyWaitCount;
+    private long createErrorCount;
+    private String circuitState;
+    private int consecutiveFailures;
+
+}
@@ -16,5 +16,9 @@ public class MetricReq {
     private Long limit;
     private List<ColumnOrder> order;
     private boolean nativeQuery = false;
+    /**
+     * rewrite the planned sql with the optimizer of the engine, null for the server default
+     */
+    private Boolean optimize;
 
 }
@@ -1,8 +1,10 @@
 package com.tencent.supersonic.semantic.api.query.request;
 
+import com.alibaba.fastjson.JSONObject;
 import java.util.Map;
 import lombok.Data;
 import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
 
 @Data
 @ToString
@@ -14,4 +16,12 @@ public class QueryDslReq {
 
     private Map<String, String> variables;
 
+    public String toCustomizedString() {
+        return JSONObject.toJSONString(this);
+    }
+
+    public String generateCommandMd5() {
+        return DigestUtils.md5Hex(this.toCustomizedString());
+    }
+
 }
@@ -33,6 +33,10 @@ public class QueryStructReq {
     private Long limit = 2000L;
     private Boolean nativeQuery = false;
     private Cache cacheInfo;
+    /**
+     * rewrite the planned sql with the optimizer of the engine, null for the server default
+     */
+    private Boolean optimize;
 
     public List<String> getGroups() {
         if (!CollectionUtils.isEmpty(this.groups)) {
@@ -126,6 +130,8 @@ public class QueryStructReq {
                 .append(nativeQuery);
         sb.append(",\"cacheInfo\":")
                 .append(cacheInfo);
+        sb.append(",\"optimize\":")
+                .append(optimize);
         sb.append('}');
         return sb.toString();
     }
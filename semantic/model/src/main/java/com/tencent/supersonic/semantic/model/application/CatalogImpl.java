@@ -1,5 +1,12 @@
 package com.tencent.supersonic.semantic.model.application;
 
+import com.tencent.supersonic.common.pojo.DataAddEvent;
+import com.tencent.supersonic.common.pojo.DataDeleteEvent;
+import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
+import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.semantic.api.model.pojo.ItemDateFilter;
 import com.tencent.supersonic.semantic.api.model.response.MetricResp;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
@@ -11,49 +18,77 @@ import com.tencent.supersonic.semantic.api.model.yaml.DatasourceYamlTpl;
 import com.tencent.supersonic.semantic.api.model.yaml.DimensionYamlTpl;
 import com.tencent.supersonic.semantic.api.model.yaml.MetricYamlTpl;
 import com.tencent.supersonic.semantic.model.domain.DatabaseService;
+import com.tencent.supersonic.semantic.model.domain.DomainService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
 import com.tencent.supersonic.semantic.model.domain.DatasourceService;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.manager.DatasourceYamlManager;
+import com.tencent.supersonic.semantic.model.domain.manager.DimensionYamlManager;
+import com.tencent.supersonic.semantic.model.domain.manager.MetricYamlManager;
+import com.tencent.supersonic.semantic.model.domain.pojo.CatalogSnapshot;
+import com.tencent.supersonic.semantic.model.domain.utils.DatasourceConverter;
+import com.tencent.supersonic.semantic.model.domain.utils.DimensionConverter;
+import com.tencent.supersonic.semantic.model.domain.utils.MetricConverter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * serves the meta used on the query path from an in-memory snapshot instead of the database,
+ * the snapshot is rebuilt when dimensions, metrics, datasources, models, domains or databases change,
+ * before any other listener of these events reads the catalog
+ */
 @Slf4j
 @Component
 public class CatalogImpl implements Catalog {
 
     private final DatabaseService databaseService;
     private final ModelService modelService;
+    private final DomainService domainService;
     private final DimensionService dimensionService;
     private final DatasourceService datasourceService;
     private final MetricService metricService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private volatile CatalogSnapshot snapshot;
 
     public CatalogImpl(DatabaseService databaseService,
-            ModelService modelService, DimensionService dimensionService,
+            ModelService modelService, DomainService domainService,
+            DimensionService dimensionService,
             DatasourceService datasourceService,
-            MetricService metricService) {
+            MetricService metricService,
+            ApplicationEventPublisher applicationEventPublisher) {
         this.databaseService = databaseService;
         this.modelService = modelService;
+        this.domainService = domainService;
         this.dimensionService = dimensionService;
         this.datasourceService = datasourceService;
         this.metricService = metricService;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     public DatabaseResp getDatabase(Long id) {
-        return databaseService.getDatabase(id);
+        return getSnapshot().getDatabase(id);
     }
 
     public DatabaseResp getDatabaseByModelId(Long modelId) {
-        return modelService.getDatabaseByModelId(modelId);
+        return getSnapshot().getDatabaseByModelId(modelId);
     }
 
     @Override
     public String getModelFullPath(Long modelId) {
-        ModelResp modelResp = modelService.getModelMap().get(modelId);
+        ModelResp modelResp = getSnapshot().getModelMap().get(modelId);
         if (modelResp != null) {
             return modelResp.getFullPath();
         }
@@ -62,38 +97,168 @@ public class CatalogImpl implements Catalog {
 
     @Override
     public Map<Long, String> getModelFullPath() {
-        return modelService.getModelFullPathMap();
+        return getSnapshot().getModelFullPathMap();
     }
 
     @Override
     public DimensionResp getDimension(String bizName, Long modelId) {
-        return dimensionService.getDimension(bizName, modelId);
+        return getSnapshot().getDimension(bizName, modelId);
     }
 
     @Override
     public void getModelYamlTplByModelIds(Set<Long> modelIds, Map<String, List<DimensionYamlTpl>> dimensionYamlMap,
             List<DatasourceYamlTpl> datasourceYamlTplList, List<MetricYamlTpl> metricYamlTplList) {
-        datasourceService.getModelYamlTplByModelIds(modelIds, dimensionYamlMap, datasourceYamlTplList,
-                metricYamlTplList);
+        CatalogSnapshot current = getSnapshot();
+        for (Long modelId : modelIds) {
+            List<DatasourceResp> datasourceResps = current.getDatasources(modelId);
+            if (datasourceResps.isEmpty()) {
+                log.warn("no datasource found in catalog, modelId:{}", modelId);
+                continue;
+            }
+            metricYamlTplList.addAll(MetricYamlManager.convert2YamlObj(
+                    MetricConverter.metricInfo2Metric(current.getMetrics(modelId))));
+            DatabaseResp databaseResp = current.getDatabase(datasourceResps.get(0).getDatabaseId());
+            List<DimensionResp> dimensionResps = current.getDimensions(modelId);
+            for (DatasourceResp datasourceResp : datasourceResps) {
+                // the yaml manager appends sys dimensions and measures to the detail, keep the snapshot untouched
+                DatasourceResp datasourceCopy = JsonUtil.clone(datasourceResp, DatasourceResp.class);
+                datasourceYamlTplList.add(DatasourceYamlManager.convert2YamlObj(
+                        DatasourceConverter.datasourceInfo2Datasource(datasourceCopy), databaseResp));
+                List<DimensionResp> dimensionRespList = dimensionResps.stream()
+                        .filter(d -> d.getDatasourceBizName().equalsIgnoreCase(datasourceResp.getBizName()))
+                        .collect(Collectors.toList());
+                dimensionYamlMap.computeIfAbsent(datasourceResp.getBizName(), k -> new ArrayList<>())
+                        .addAll(DimensionYamlManager.convert2DimensionYaml(
+                                DimensionConverter.dimensionInfo2Dimension(dimensionRespList)));
+            }
+        }
     }
 
     @Override
     public List<DimensionResp> getDimensions(Long modelId) {
-        return dimensionService.getDimensions(modelId);
+        return getSnapshot().getDimensions(modelId);
     }
 
     @Override
     public List<DatasourceResp> getDatasourceList(Long modelId) {
-        return datasourceService.getDatasourceList(modelId);
+        return getSnapshot().getDatasources(modelId);
     }
 
     @Override
     public List<MetricResp> getMetrics(Long modelId) {
-        return metricService.getMetrics(modelId);
+        return getSnapshot().getMetrics(modelId);
+    }
+
+    @Override
+    public MetricResp getMetric(String bizName, Long modelId) {
+        return getSnapshot().getMetric(bizName, modelId);
     }
 
     @Override
     public ItemDateResp getItemDate(ItemDateFilter dimension, ItemDateFilter metric) {
         return datasourceService.getItemDate(dimension, metric);
     }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDataAdd(DataAddEvent event) {
+        refreshItems(event.getType(), event.getModelId());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDataUpdate(DataUpdateEvent event) {
+        refreshItems(event.getType(), event.getModelId());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDataDelete(DataDeleteEvent event) {
+        refreshItems(event.getType(), event.getModelId());
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onMetaChange(MetaChangeEvent event) {
+        if (TypeEnums.DIMENSION.equals(event.getType())) {
+            refreshItems(DictWordType.DIMENSION.getType(), event.getModelId());
+            return;
+        }
+        if (TypeEnums.METRIC.equals(event.getType())) {
+            refreshItems(DictWordType.METRIC.getType(), event.getModelId());
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * safety net for meta written by other instances or directly into the database, a change found here is
+     * published as a meta change so the caches derived from the catalog are refreshed as well
+     */
+    @Scheduled(cron = "${reload.catalog.cron:0 0/5 * * * ?}")
+    public void scheduledReload() {
+        try {
+            if (snapshot != null && reload()) {
+                applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.UNKNOWN, null));
+            }
+        } catch (Exception e) {
+            log.error("reload catalog error", e);
+        }
+    }
+
+    /**
+     * @return true if the meta changed, the snapshot and its version are kept otherwise
+     */
+    public synchronized boolean reload() {
+        CatalogSnapshot current = snapshot;
+        long version = current == null ? 1L : current.getVersion() + 1;
+        CatalogSnapshot reloaded = new CatalogSnapshot(version, domainService.getDomainList(),
+                modelService.getModelList(), databaseService.getDatabaseList(), datasourceService.getDatasourceList(),
+                dimensionService.getDimensions(), metricService.getMetrics());
+        if (reloaded.sameContent(current)) {
+            log.debug("catalog unchanged, version:{}", current.getVersion());
+            return false;
+        }
+        snapshot = reloaded;
+        log.info("catalog reloaded, version:{}", version);
+        return true;
+    }
+
+    private synchronized void refreshItems(String type, Long modelId) {
+        if (snapshot == null) {
+            return;
+        }
+        if (modelId == null) {
+            reload();
+            return;
+        }
+        long version = snapshot.getVersion() + 1;
+        CatalogSnapshot refreshed;
+        if (DictWordType.DIMENSION.getType().equals(type)) {
+            refreshed = snapshot.withDimensions(version, modelId, dimensionService.getDimensions(modelId));
+        } else if (DictWordType.METRIC.getType().equals(type)) {
+            refreshed = snapshot.withMetrics(version, modelId, metricService.getMetrics(modelId));
+        } else {
+            reload();
+            return;
+        }
+        if (refreshed.sameContent(snapshot)) {
+            return;
+        }
+        snapshot = refreshed;
+        log.info("catalog refreshed {} of model:{}, version:{}", type, modelId, version);
+    }
+
+    private CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
 }
@@ -1,7 +1,10 @@
 package com.tencent.supersonic.semantic.model.application;
 
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
+import com.tencent.supersonic.semantic.api.model.response.DataSourcePoolResp;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
@@ -18,6 +21,8 @@ import com.tencent.supersonic.semantic.model.domain.pojo.Database;
 import java.util.List;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -31,6 +36,9 @@ public class DatabaseServiceImpl implements DatabaseService {
     private DatabaseRepository databaseRepository;
     private DatasourceService datasourceService;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     public DatabaseServiceImpl(DatabaseRepository databaseRepository,
                                SqlUtils sqlUtils,
                                @Lazy DatasourceService datasourceService) {
@@ -50,12 +58,15 @@ public class DatabaseServiceImpl implements DatabaseService {
         Database database = DatabaseConverter.convert(databaseReq, user);
         DatabaseDO databaseDO = getDatabaseDO(databaseReq.getId());
         if (databaseDO != null) {
+            releaseDataSource(DatabaseConverter.convert(databaseDO));
             DatabaseConverter.convert(database, databaseDO);
             databaseRepository.updateDatabase(databaseDO);
+            applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DATABASE, null));
             return DatabaseConverter.convert(databaseDO);
         }
         databaseDO = DatabaseConverter.convert(database);
         databaseRepository.createDatabase(databaseDO);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DATABASE, null));
         return DatabaseConverter.convert(databaseDO);
     }
 
@@ -69,6 +80,12 @@ public class DatabaseServiceImpl implements DatabaseService {
         return databaseResps;
     }
 
+    @Override
+    public List<DatabaseResp> getDatabaseList() {
+        return databaseRepository.getDatabaseList().stream()
+                .map(DatabaseConverter::convert).collect(Collectors.toList());
+    }
+
     private void fillPermission(List<DatabaseResp> databaseResps, User user) {
         databaseResps.forEach(databaseResp -> {
             if (databaseResp.getAdmins().contains(user.getName())
@@ -92,7 +109,12 @@ public class DatabaseServiceImpl implements DatabaseService {
             String message = String.format("该数据库被数据源%s使用，无法删除", datasourceNames);
             throw new RuntimeException(message);
         }
+        DatabaseResp databaseResp = getDatabase(databaseId);
+        if (databaseResp != null) {
+            releaseDataSource(databaseResp);
+        }
         databaseRepository.deleteDatabase(databaseId);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DATABASE, null));
     }
 
     @Override
@@ -133,6 +155,19 @@ public class DatabaseServiceImpl implements DatabaseService {
         return queryResultWithColumns;
     }
 
+    @Override
+    public List<DataSourcePoolResp> getPoolStats() {
+        return sqlUtils.getJdbcDataSource().getPoolStats();
+    }
+
+    /**
+     * close the pool of the old connection config, it is not reachable by the new config anymore
+     */
+    private void releaseDataSource(DatabaseResp databaseResp) {
+        SqlUtils sqlUtils = this.sqlUtils.init(databaseResp);
+        sqlUtils.getJdbcDataSourceUtils().releaseDataSource(sqlUtils.getDatabaseResp());
+    }
+
     private DatabaseDO getDatabaseDO(Long id) {
         return databaseRepository.getDatabase(id);
     }
@@ -3,7 +3,8 @@ package com.tencent.supersonic.semantic.model.application;
 import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
-import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
 import com.tencent.supersonic.semantic.api.model.pojo.Dim;
 import com.tencent.supersonic.semantic.api.model.pojo.Identify;
@@ -30,13 +31,11 @@ import com.tencent.supersonic.semantic.model.domain.DimensionService;
 import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DatasourceDO;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DatasourceRelaDO;
-import com.tencent.supersonic.semantic.model.domain.dataobject.DateInfoDO;
 import com.tencent.supersonic.semantic.model.domain.manager.DatasourceYamlManager;
 import com.tencent.supersonic.semantic.model.domain.manager.DimensionYamlManager;
 import com.tencent.supersonic.semantic.model.domain.manager.MetricYamlManager;
 import com.tencent.supersonic.semantic.model.domain.pojo.Datasource;
 import com.tencent.supersonic.semantic.model.domain.repository.DatasourceRepository;
-import com.tencent.supersonic.semantic.model.domain.repository.DateInfoRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.DatasourceConverter;
 import com.tencent.supersonic.semantic.model.domain.utils.DimensionConverter;
 import com.tencent.supersonic.semantic.model.domain.utils.MetricConverter;
@@ -51,6 +50,8 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -68,19 +69,22 @@ public class DatasourceServiceImpl implements DatasourceService {
 
     private MetricService metricService;
 
-    private DateInfoRepository dateInfoRepository;
+    private ItemDateCache itemDateCache;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
 
 
     public DatasourceServiceImpl(DatasourceRepository datasourceRepository,
             DatabaseService databaseService,
             @Lazy DimensionService dimensionService,
             @Lazy MetricService metricService,
-            DateInfoRepository dateInfoRepository) {
+            ItemDateCache itemDateCache) {
         this.datasourceRepository = datasourceRepository;
         this.databaseService = databaseService;
         this.dimensionService = dimensionService;
         this.metricService = metricService;
-        this.dateInfoRepository = dateInfoRepository;
+        this.itemDateCache = itemDateCache;
     }
 
     @Override
@@ -98,6 +102,7 @@ public class DatasourceServiceImpl implements DatasourceService {
         datasource.setId(datasourceDesc.getId());
         batchCreateDimension(datasource, user);
         batchCreateMetric(datasource, user);
+        publishMetaChange(datasourceReq.getModelId());
         return datasourceDesc;
     }
 
@@ -112,6 +117,7 @@ public class DatasourceServiceImpl implements DatasourceService {
         batchCreateDimension(datasource, user);
         batchCreateMetric(datasource, user);
         DatasourceDO datasourceDO = updateDatasource(datasource, user);
+        publishMetaChange(datasourceDO.getModelId());
         return DatasourceConverter.convert(datasourceDO);
     }
 
@@ -245,6 +251,7 @@ public class DatasourceServiceImpl implements DatasourceService {
         }
         checkDelete(datasourceDO.getModelId(), id);
         datasourceRepository.deleteDatasource(id);
+        publishMetaChange(datasourceDO.getModelId());
     }
 
     private void checkDelete(Long modelId, Long datasourceId) {
@@ -276,6 +283,7 @@ public class DatasourceServiceImpl implements DatasourceService {
             datasourceRelaDO.setUpdatedAt(new Date());
             datasourceRelaDO.setUpdatedBy(user.getName());
             datasourceRepository.createDatasourceRela(datasourceRelaDO);
+            publishMetaChange(datasourceRelaDO.getModelId());
             return DatasourceConverter.convert(datasourceRelaDO);
         }
         Long id = datasourceRelaReq.getId();
@@ -284,6 +292,7 @@ public class DatasourceServiceImpl implements DatasourceService {
         datasourceRelaDO.setUpdatedAt(new Date());
         datasourceRelaDO.setUpdatedBy(user.getName());
         datasourceRepository.updateDatasourceRela(datasourceRelaDO);
+        publishMetaChange(datasourceRelaDO.getModelId());
         return DatasourceConverter.convert(datasourceRelaDO);
     }
 
@@ -296,37 +305,31 @@ public class DatasourceServiceImpl implements DatasourceService {
     @Override
     public void deleteDatasourceRela(Long id) {
         datasourceRepository.deleteDatasourceRela(id);
+        publishMetaChange(null);
+    }
+
+    private void publishMetaChange(Long modelId) {
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DATASOURCE, modelId));
     }
 
 
     @Override
     public ItemDateResp getItemDate(ItemDateFilter dimension, ItemDateFilter metric) {
         List<DateInfoReq> itemDates = new ArrayList<>();
-        List<DateInfoDO> dimensions = dateInfoRepository.getDateInfos(dimension);
-        List<DateInfoDO> metrics = dateInfoRepository.getDateInfos(metric);
+        List<DateInfoReq> dimensions = itemDateCache.getDateInfos(dimension);
+        List<DateInfoReq> metrics = itemDateCache.getDateInfos(metric);
 
-        log.info("getDateDate, dimension:{}, dimensions dateInfo:{}", dimension, dimensions);
-        log.info("getDateDate, metric:{}, metrics dateInfo:{}", metric, metrics);
-        itemDates.addAll(convert(dimensions));
-        itemDates.addAll(convert(metrics));
+        log.debug("getDateDate, dimension:{}, dimensions dateInfo:{}", dimension, dimensions);
+        log.debug("getDateDate, metric:{}, metrics dateInfo:{}", metric, metrics);
+        itemDates.addAll(dimensions);
+        itemDates.addAll(metrics);
 
         ItemDateResp itemDateDescriptor = calculateDateInternal(itemDates);
-        log.info("itemDateDescriptor:{}", itemDateDescriptor);
+        log.debug("itemDateDescriptor:{}", itemDateDescriptor);
 
         return itemDateDescriptor;
     }
 
-    private List<DateInfoReq> convert(List<DateInfoDO> dateInfoDOList) {
-        List<DateInfoReq> dateInfoCommendList = new ArrayList<>();
-        dateInfoDOList.stream().forEach(dateInfoDO -> {
-            DateInfoReq dateInfoCommend = new DateInfoReq();
-            BeanUtils.copyProperties(dateInfoDO, dateInfoCommend);
-            dateInfoCommend.setUnavailableDateList(JsonUtil.toList(dateInfoDO.getUnavailableDateList(), String.class));
-            dateInfoCommendList.add(dateInfoCommend);
-        });
-        return dateInfoCommendList;
-    }
-
     private ItemDateResp calculateDateInternal(List<DateInfoReq> itemDates) {
         if (CollectionUtils.isEmpty(itemDates)) {
             log.warn("itemDates is empty!");
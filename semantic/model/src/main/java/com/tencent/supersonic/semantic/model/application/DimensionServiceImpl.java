@@ -10,7 +10,9 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.common.pojo.DataAddEvent;
 import com.tencent.supersonic.common.pojo.DataDeleteEvent;
 import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.common.util.ChatGptHelper;
 import com.tencent.supersonic.semantic.api.model.pojo.DatasourceDetail;
 import com.tencent.supersonic.semantic.api.model.pojo.DimValueMap;
@@ -109,6 +111,7 @@ public class DimensionServiceImpl implements DimensionService {
 
         log.info("[create dimension] object:{}", JSONObject.toJSONString(dimensions));
         saveDimensionBatch(dimensionToInsert, user);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DIMENSION, modelId));
     }
 
     @Override
@@ -4,8 +4,10 @@ import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.service.UserService;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.util.BeanMapper;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.api.model.request.DomainReq;
 import com.tencent.supersonic.semantic.api.model.request.DomainUpdateReq;
 import com.tencent.supersonic.semantic.api.model.response.ModelResp;
@@ -30,6 +32,8 @@ import java.util.Comparator;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.assertj.core.util.Sets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -43,6 +47,9 @@ public class DomainServiceImpl implements DomainService {
     private final ModelService modelService;
     private final UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
 
     public DomainServiceImpl(DomainRepository domainRepository,
                              @Lazy ModelService modelService,
@@ -58,6 +65,7 @@ public class DomainServiceImpl implements DomainService {
         Domain domain = DomainConvert.convert(domainReq);
         log.info("[create domain] object:{}", JSONObject.toJSONString(domainReq));
         saveDomain(domain, user);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DOMAIN, null));
     }
 
     @Override
@@ -71,6 +79,7 @@ public class DomainServiceImpl implements DomainService {
         domainDO.setViewer(String.join(",", domainUpdateReq.getViewers()));
         domainDO.setViewOrg(String.join(",", domainUpdateReq.getViewOrgs()));
         domainRepository.updateDomain(domainDO);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DOMAIN, null));
     }
 
     @Override
@@ -80,6 +89,7 @@ public class DomainServiceImpl implements DomainService {
             throw new RuntimeException("该主题域下还存在模型, 暂不能删除, 请确认");
         }
         domainRepository.deleteDomain(id);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.DOMAIN, null));
     }
 
     @Override
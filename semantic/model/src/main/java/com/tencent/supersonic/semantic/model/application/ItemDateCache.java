@@ -0,0 +1,116 @@
+package com.tencent.supersonic.semantic.model.application;
+
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.semantic.api.model.pojo.ItemDateFilter;
+import com.tencent.supersonic.semantic.api.model.request.DateInfoReq;
+import com.tencent.supersonic.semantic.model.domain.dataobject.DateInfoDO;
+import com.tencent.supersonic.semantic.model.domain.repository.DateInfoRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * serves the data availability dates of dimensions and metrics from memory, keyed by item type and item id.
+ * the dates are written by the offline jobs a few times a day, they are reloaded when the periodic probe
+ * of the date info table sees a change, and at the latest after reload.item.date.max-age-millis, which
+ * also bounds the staleness of changes the probe misses or when the probe does not run
+ */
+@Slf4j
+@Component
+public class ItemDateCache {
+
+    private final DateInfoRepository dateInfoRepository;
+
+    @Value("${reload.item.date.max-age-millis:600000}")
+    private long maxAgeMillis;
+
+    private volatile Map<String, Map<Long, DateInfoReq>> dateInfos;
+    private volatile Map<String, Object> lastProbe;
+    private volatile long loadedAt;
+
+    public ItemDateCache(DateInfoRepository dateInfoRepository) {
+        this.dateInfoRepository = dateInfoRepository;
+    }
+
+    /**
+     * @return copies of the date infos of the items, items without date info are left out
+     */
+    public List<DateInfoReq> getDateInfos(ItemDateFilter itemDateFilter) {
+        if (Objects.isNull(itemDateFilter) || CollectionUtils.isEmpty(itemDateFilter.getItemIds())) {
+            return new ArrayList<>();
+        }
+        Map<Long, DateInfoReq> items = getSnapshot().getOrDefault(itemDateFilter.getType(),
+                Collections.emptyMap());
+        List<DateInfoReq> result = new ArrayList<>();
+        for (Long itemId : itemDateFilter.getItemIds()) {
+            DateInfoReq dateInfo = items.get(itemId);
+            if (dateInfo != null) {
+                result.add(copy(dateInfo));
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(cron = "${reload.item.date.cron:0 0/1 * * * ?}")
+    public void probe() {
+        try {
+            Map<String, Object> probe = dateInfoRepository.probeDateInfo();
+            if (dateInfos != null && !isExpired() && Objects.equals(probe, lastProbe)) {
+                return;
+            }
+            log.info("date info changed or expired, probe:{}", probe);
+            reload();
+        } catch (Exception e) {
+            log.error("probe date info error", e);
+        }
+    }
+
+    public synchronized void reload() {
+        Map<String, Object> probe = dateInfoRepository.probeDateInfo();
+        Map<String, Map<Long, DateInfoReq>> loaded = new HashMap<>();
+        for (DateInfoDO dateInfoDO : dateInfoRepository.getAllDateInfos()) {
+            DateInfoReq dateInfo = new DateInfoReq();
+            BeanUtils.copyProperties(dateInfoDO, dateInfo);
+            dateInfo.setUnavailableDateList(Collections.unmodifiableList(
+                    JsonUtil.toList(dateInfoDO.getUnavailableDateList(), String.class)));
+            loaded.computeIfAbsent(dateInfoDO.getType(), k -> new HashMap<>()).put(dateInfoDO.getItemId(), dateInfo);
+        }
+        dateInfos = loaded;
+        lastProbe = probe;
+        loadedAt = System.currentTimeMillis();
+        log.info("date info reloaded, types:{}", loaded.keySet());
+    }
+
+    private Map<String, Map<Long, DateInfoReq>> getSnapshot() {
+        Map<String, Map<Long, DateInfoReq>> current = dateInfos;
+        if (current == null || isExpired()) {
+            synchronized (this) {
+                if (dateInfos == null || isExpired()) {
+                    reload();
+                }
+                current = dateInfos;
+            }
+        }
+        return current;
+    }
+
+    private boolean isExpired() {
+        return System.currentTimeMillis() - loadedAt > maxAgeMillis;
+    }
+
+    private DateInfoReq copy(DateInfoReq dateInfo) {
+        DateInfoReq copied = new DateInfoReq();
+        BeanUtils.copyProperties(dateInfo, copied);
+        copied.setUnavailableDateList(new ArrayList<>(dateInfo.getUnavailableDateList()));
+        return copied;
+    }
+}
@@ -9,7 +9,9 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.common.pojo.DataAddEvent;
 import com.tencent.supersonic.common.pojo.DataDeleteEvent;
 import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.pojo.enums.DictWordType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.common.util.ChatGptHelper;
 import com.tencent.supersonic.semantic.api.model.pojo.Measure;
 import com.tencent.supersonic.semantic.api.model.pojo.MetricTypeParams;
@@ -95,6 +97,7 @@ public class MetricServiceImpl implements MetricService {
                 .filter(metric -> !metricDescMap.containsKey(metric.getBizName())).collect(Collectors.toList());
         log.info("[insert metric] object:{}", JSONObject.toJSONString(metricToInsert));
         saveMetricBatch(metricToInsert, user);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.METRIC, modelId));
     }
 
     @Override
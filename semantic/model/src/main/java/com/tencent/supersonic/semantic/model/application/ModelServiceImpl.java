@@ -4,9 +4,11 @@ import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.service.UserService;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
 import com.tencent.supersonic.common.util.BeanMapper;
 import com.tencent.supersonic.common.util.JsonUtil;
 import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.api.model.request.ModelReq;
 import com.tencent.supersonic.semantic.api.model.request.ModelSchemaFilterReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
@@ -31,6 +33,8 @@ import com.tencent.supersonic.semantic.model.domain.repository.ModelRepository;
 import com.tencent.supersonic.semantic.model.domain.utils.ModelConvert;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -55,6 +59,9 @@ public class ModelServiceImpl implements ModelService {
     private final UserService userService;
     private final DatabaseService databaseService;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     public ModelServiceImpl(ModelRepository modelRepository, @Lazy MetricService metricService,
                             @Lazy DimensionService dimensionService, @Lazy DatasourceService datasourceService,
                             @Lazy DomainService domainService, UserService userService,
@@ -74,6 +81,7 @@ public class ModelServiceImpl implements ModelService {
         Model model = ModelConvert.convert(modelReq);
         log.info("[create model] object:{}", JSONObject.toJSONString(modelReq));
         saveModel(model, user);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.MODEL, model.getId()));
     }
 
     @Override
@@ -88,12 +96,14 @@ public class ModelServiceImpl implements ModelService {
         modelDO.setViewOrg(String.join(",", modelReq.getViewOrgs()));
         modelDO.setEntity(JsonUtil.toString(modelReq.getEntity()));
         modelRepository.updateModel(modelDO);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.MODEL, modelDO.getId()));
     }
 
     @Override
     public void deleteModel(Long id) {
         checkDelete(id);
         modelRepository.deleteModel(id);
+        applicationEventPublisher.publishEvent(new MetaChangeEvent(this, TypeEnums.MODEL, id));
     }
 
     @Override
@@ -30,6 +30,8 @@ public interface Catalog {
 
     List<MetricResp> getMetrics(Long modelId);
 
+    MetricResp getMetric(String bizName, Long modelId);
+
     void getModelYamlTplByModelIds(Set<Long> modelIds, Map<String, List<DimensionYamlTpl>> dimensionYamlMap,
             List<DatasourceYamlTpl> datasourceYamlTplList, List<MetricYamlTpl> metricYamlTplList);
 
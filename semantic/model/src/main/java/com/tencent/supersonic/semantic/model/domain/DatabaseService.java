@@ -2,6 +2,7 @@ package com.tencent.supersonic.semantic.model.domain;
 
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
+import com.tencent.supersonic.semantic.api.model.response.DataSourcePoolResp;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import java.util.List;
@@ -19,6 +20,8 @@ public interface DatabaseService {
 
     List<DatabaseResp> getDatabaseList(User user);
 
+    List<DatabaseResp> getDatabaseList();
+
     void deleteDatabase(Long databaseId);
 
     DatabaseResp getDatabase(Long id);
@@ -28,4 +31,6 @@ public interface DatabaseService {
     QueryResultWithSchemaResp getTables(Long id, String db);
 
     QueryResultWithSchemaResp getColumns(Long id, String db, String table);
+
+    List<DataSourcePoolResp> getPoolStats();
 }
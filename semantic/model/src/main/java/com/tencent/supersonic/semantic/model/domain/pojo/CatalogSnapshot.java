@@ -0,0 +1,166 @@
+package com.tencent.supersonic.semantic.model.domain.pojo;
+
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.model.response.DomainResp;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.model.response.ModelResp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.Getter;
+
+/**
+ * immutable view of the semantic meta, a new snapshot is built and swapped in whenever the meta changes,
+ * so readers never lock and never see a half updated catalog
+ */
+@Getter
+public class CatalogSnapshot {
+
+    private final long version;
+    private final Map<Long, DomainResp> domainMap;
+    private final Map<Long, ModelResp> modelMap;
+    private final Map<Long, String> modelFullPathMap;
+    private final Map<Long, DatabaseResp> databaseMap;
+    private final Map<Long, List<DatasourceResp>> datasourceMap;
+    private final Map<Long, List<DimensionResp>> dimensionMap;
+    private final Map<Long, Map<String, DimensionResp>> dimensionBizNameMap;
+    private final Map<Long, List<MetricResp>> metricMap;
+    private final Map<Long, Map<String, MetricResp>> metricBizNameMap;
+
+    public CatalogSnapshot(long version, List<DomainResp> domains, List<ModelResp> models,
+            List<DatabaseResp> databases, List<DatasourceResp> datasources,
+            List<DimensionResp> dimensions, List<MetricResp> metrics) {
+        this.version = version;
+        this.domainMap = toIdMap(domains, DomainResp::getId);
+        this.modelMap = toIdMap(models, ModelResp::getId);
+        this.modelFullPathMap = Collections.unmodifiableMap(models.stream()
+                .collect(Collectors.toMap(ModelResp::getId, ModelResp::getFullPath, (k1, k2) -> k1)));
+        this.databaseMap = toIdMap(databases, DatabaseResp::getId);
+        this.datasourceMap = groupByModel(datasources, DatasourceResp::getModelId);
+        this.dimensionMap = groupByModel(dimensions, DimensionResp::getModelId);
+        this.dimensionBizNameMap = indexByBizName(dimensionMap, DimensionResp::getBizName);
+        this.metricMap = groupByModel(metrics, MetricResp::getModelId);
+        this.metricBizNameMap = indexByBizName(metricMap, MetricResp::getBizName);
+    }
+
+    private CatalogSnapshot(long version, CatalogSnapshot base,
+            Map<Long, List<DimensionResp>> dimensionMap, Map<Long, List<MetricResp>> metricMap) {
+        this.version = version;
+        this.domainMap = base.domainMap;
+        this.modelMap = base.modelMap;
+        this.modelFullPathMap = base.modelFullPathMap;
+        this.databaseMap = base.databaseMap;
+        this.datasourceMap = base.datasourceMap;
+        this.dimensionMap = dimensionMap;
+        this.dimensionBizNameMap = dimensionMap == base.dimensionMap
+                ? base.dimensionBizNameMap : indexByBizName(dimensionMap, DimensionResp::getBizName);
+        this.metricMap = metricMap;
+        this.metricBizNameMap = metricMap == base.metricMap
+                ? base.metricBizNameMap : indexByBizName(metricMap, MetricResp::getBizName);
+    }
+
+    /**
+     * copy on write, only the dimensions of the given model are replaced
+     */
+    public CatalogSnapshot withDimensions(long version, Long modelId, List<DimensionResp> dimensions) {
+        return new CatalogSnapshot(version, this, replace(dimensionMap, modelId, dimensions), metricMap);
+    }
+
+    /**
+     * copy on write, only the metrics of the given model are replaced
+     */
+    public CatalogSnapshot withMetrics(long version, Long modelId, List<MetricResp> metrics) {
+        return new CatalogSnapshot(version, this, dimensionMap, replace(metricMap, modelId, metrics));
+    }
+
+    public DatabaseResp getDatabase(Long id) {
+        return databaseMap.get(id);
+    }
+
+    public DatabaseResp getDatabaseByModelId(Long modelId) {
+        List<DatasourceResp> datasourceResps = getDatasources(modelId);
+        if (datasourceResps.isEmpty()) {
+            return null;
+        }
+        return databaseMap.get(datasourceResps.get(0).getDatabaseId());
+    }
+
+    public List<DatasourceResp> getDatasources(Long modelId) {
+        return datasourceMap.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public List<DimensionResp> getDimensions(Long modelId) {
+        return dimensionMap.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public DimensionResp getDimension(String bizName, Long modelId) {
+        if (bizName == null) {
+            return null;
+        }
+        return dimensionBizNameMap.getOrDefault(modelId, Collections.emptyMap()).get(bizName.toLowerCase());
+    }
+
+    public List<MetricResp> getMetrics(Long modelId) {
+        return metricMap.getOrDefault(modelId, Collections.emptyList());
+    }
+
+    public MetricResp getMetric(String bizName, Long modelId) {
+        if (bizName == null) {
+            return null;
+        }
+        return metricBizNameMap.getOrDefault(modelId, Collections.emptyMap()).get(bizName.toLowerCase());
+    }
+
+    /**
+     * whether both snapshots hold the same meta, whatever their versions
+     */
+    public boolean sameContent(CatalogSnapshot other) {
+        return other != null && getContent().equals(other.getContent());
+    }
+
+    private static <T> Map<Long, T> toIdMap(List<T> items, Function<T, Long> idFunction) {
+        return Collections.unmodifiableMap(items.stream()
+                .collect(Collectors.toMap(idFunction, a -> a, (k1, k2) -> k1)));
+    }
+
+    private static <T> Map<Long, List<T>> groupByModel(List<T> items, Function<T, Long> modelIdFunction) {
+        Map<Long, List<T>> grouped = items.stream().filter(item -> modelIdFunction.apply(item) != null)
+                .collect(Collectors.groupingBy(modelIdFunction));
+        Map<Long, List<T>> result = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((modelId, list) -> result.put(modelId, Collections.unmodifiableList(list)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static <T> Map<Long, List<T>> replace(Map<Long, List<T>> origin, Long modelId, List<T> items) {
+        Map<Long, List<T>> result = new HashMap<>(origin);
+        result.put(modelId, Collections.unmodifiableList(items));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static <T> Map<Long, Map<String, T>> indexByBizName(Map<Long, List<T>> itemMap,
+            Function<T, String> bizNameFunction) {
+        Map<Long, Map<String, T>> result = new HashMap<>(itemMap.size() * 2);
+        itemMap.forEach((modelId, items) -> result.put(modelId, Collections.unmodifiableMap(
+                items.stream().filter(item -> bizNameFunction.apply(item) != null)
+                        .collect(Collectors.toMap(item -> bizNameFunction.apply(item).toLowerCase(),
+                                item -> item, (k1, k2) -> k1)))));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * the meta serialized with the maps ordered by id, the resp classes do not compare their inherited fields
+     */
+    private String getContent() {
+        return JsonUtil.toString(Arrays.asList(new TreeMap<>(domainMap), new TreeMap<>(modelMap),
+                new TreeMap<>(databaseMap), new TreeMap<>(datasourceMap), new TreeMap<>(dimensionMap),
+                new TreeMap<>(metricMap)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tencent.supersonic.semantic.model.domain.pojo;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.GetConnectionTimeoutException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * records connection failures of the pool in the circuit breaker and rejects connections while it is open.
+ * the pool stops creating connections after a failure, so the trial request of the half open circuit gets a
+ * new pool, the queries still running on the old pool finish before it is closed
+ */
+@Slf4j
+public class CircuitBreakerDataSource extends DelegatingDataSource {
+
+    private final DataSourceCircuitBreaker circuitBreaker;
+    private final Supplier<DruidDataSource> poolRebuilder;
+    private volatile DruidDataSource druidDataSource;
+    private volatile boolean rebuildOnTrial;
+
+    public CircuitBreakerDataSource(DruidDataSource druidDataSource, DataSourceCircuitBreaker circuitBreaker,
+            Supplier<DruidDataSource> poolRebuilder) {
+        super(druidDataSource);
+        this.druidDataSource = druidDataSource;
+        this.circuitBreaker = circuitBreaker;
+        this.poolRebuilder = poolRebuilder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!circuitBreaker.allowRequest()) {
+            throw new SQLException(String.format("datasource %s is unavailable, retry after %dms",
+                    druidDataSource.getName(), circuitBreaker.getRemainingOpenMillis()));
+        }
+        if (rebuildOnTrial && circuitBreaker.getState() == DataSourceCircuitBreaker.State.HALF_OPEN) {
+            rebuildPool();
+        }
+        DruidDataSource current = druidDataSource;
+        try {
+            Connection connection = current.getConnection();
+            circuitBreaker.onSuccess();
+            return connection;
+        } catch (SQLException e) {
+            // a timeout while other connections are busy means the pool is saturated, not that the database is down
+            if (!(e instanceof GetConnectionTimeoutException) || current.getActiveCount() == 0
+                    || circuitBreaker.getState() != DataSourceCircuitBreaker.State.CLOSED) {
+                onFailure(e);
+            }
+            throw e;
+        }
+    }
+
+    private void rebuildPool() throws SQLException {
+        rebuildOnTrial = false;
+        try {
+            DruidDataSource rebuilt = poolRebuilder.get();
+            druidDataSource = rebuilt;
+            setTargetDataSource(rebuilt);
+            log.info("pool of datasource {} rebuilt for the trial request", rebuilt.getName());
+        } catch (RuntimeException e) {
+            rebuildOnTrial = true;
+            circuitBreaker.onFailure();
+            throw new SQLException("rebuild pool of datasource " + druidDataSource.getName() + " failed", e);
+        }
+    }
+
+    private void onFailure(SQLException e) {
+        if (circuitBreaker.onFailure()) {
+            log.warn("circuit breaker of datasource {} opened after {} failures, e:{}", druidDataSource.getName(),
+                    circuitBreaker.getConsecutiveFailures(), e.getMessage());
+            rebuildOnTrial = true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tencent.supersonic.semantic.model.domain.pojo;
+
+/**
+ * fails fast while a database is unreachable instead of letting every query wait for a connection,
+ * after openMillis a single trial request is let through to probe the database again
+ */
+public class DataSourceCircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;
+    private boolean trialRunning;
+
+    public DataSourceCircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialRunning = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialRunning) {
+                    return false;
+                }
+                trialRunning = true;
+            }
+            return true;
+        }
+    }
+
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+        synchronized (this) {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trialRunning = false;
+        }
+    }
+
+    /**
+     * @return true if this failure opened the circuit
+     */
+    public synchronized boolean onFailure() {
+        consecutiveFailures++;
+        trialRunning = false;
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized long getRemainingOpenMillis() {
+        return Math.max(0L, openMillis - (System.currentTimeMillis() - openedAt));
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
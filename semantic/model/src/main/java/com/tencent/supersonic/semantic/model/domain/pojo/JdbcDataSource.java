@@ -6,14 +6,20 @@ import com.alibaba.druid.filter.Filter;
 import com.alibaba.druid.pool.DruidDataSource;
 import com.alibaba.druid.wall.WallConfig;
 import com.alibaba.druid.wall.WallFilter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.tencent.supersonic.semantic.api.model.enums.DataTypeEnum;
+import com.tencent.supersonic.semantic.api.model.response.DataSourcePoolResp;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.model.domain.utils.JdbcDataSourceUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -23,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -32,6 +39,10 @@ public class JdbcDataSource {
     private static final Object lockLock = new Object();
     private static volatile Map<String, DruidDataSource> dataSourceMap = new ConcurrentHashMap<>();
     private static volatile Map<String, Lock> dataSourceLockMap = new ConcurrentHashMap<>();
+    private static volatile Map<String, JdbcTemplate> jdbcTemplateMap = new ConcurrentHashMap<>();
+    private static volatile Map<String, DataSourceCircuitBreaker> circuitBreakerMap = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService drainExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("datasource-drain-%d").setDaemon(true).build());
     @Value("${source.lock-time:30}")
     @Getter
     protected Long lockTime;
@@ -103,6 +114,18 @@ public class JdbcDataSource {
     @Value("${source.filters:'stat'}")
     @Getter
     protected String filters;
+
+    @Value("${source.circuit-breaker.failure-threshold:3}")
+    @Getter
+    protected int circuitBreakerFailureThreshold;
+
+    @Value("${source.circuit-breaker.open-millis:30000}")
+    @Getter
+    protected long circuitBreakerOpenMillis;
+
+    @Value("${source.drain-timeout-millis:120000}")
+    @Getter
+    protected long drainTimeoutMillis;
     @Autowired
     WallFilter wallFilter;
 
@@ -155,6 +178,10 @@ public class JdbcDataSource {
     }
 
 
+    /**
+     * the pool is being created while the lock is held, the removal is retried once it is created so the
+     * new pool of a changed database does not keep the old settings
+     */
     public void removeDatasource(DatabaseResp jdbcSourceInfo) {
 
         String key = getDataSourceKey(jdbcSourceInfo);
@@ -162,13 +189,17 @@ public class JdbcDataSource {
         Lock lock = getDataSourceLock(key);
 
         if (!lock.tryLock()) {
+            log.info("datasource {} is locked, retry to remove it later", jdbcSourceInfo.getName());
+            drainExecutor.schedule(() -> removeDatasource(jdbcSourceInfo), 1, TimeUnit.SECONDS);
             return;
         }
 
         try {
+            jdbcTemplateMap.remove(key);
+            circuitBreakerMap.remove(key);
             DruidDataSource druidDataSource = dataSourceMap.remove(key);
             if (druidDataSource != null) {
-                druidDataSource.close();
+                closeWhenDrained(druidDataSource, System.currentTimeMillis() + drainTimeoutMillis);
             }
 
             dataSourceLockMap.remove(key);
@@ -177,6 +208,86 @@ public class JdbcDataSource {
         }
     }
 
+    /**
+     * one configured JdbcTemplate per database, connections are health checked by the pool
+     * and guarded by a circuit breaker instead of being validated before each query
+     */
+    public JdbcTemplate getJdbcTemplate(DatabaseResp jdbcSourceInfo, int maxRows) throws RuntimeException {
+        String key = getDataSourceKey(jdbcSourceInfo);
+        JdbcTemplate jdbcTemplate = jdbcTemplateMap.get(key);
+        if (jdbcTemplate != null) {
+            return jdbcTemplate;
+        }
+        DataSourceCircuitBreaker circuitBreaker = circuitBreakerMap.computeIfAbsent(key,
+                k -> new DataSourceCircuitBreaker(circuitBreakerFailureThreshold, circuitBreakerOpenMillis));
+        DruidDataSource druidDataSource;
+        try {
+            druidDataSource = getDataSource(jdbcSourceInfo);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        CircuitBreakerDataSource dataSource = new CircuitBreakerDataSource(druidDataSource, circuitBreaker,
+                () -> rebuildDataSource(jdbcSourceInfo));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setDatabaseProductName(jdbcSourceInfo.getName());
+        jdbcTemplate.setFetchSize(500);
+        if (maxRows > 0) {
+            jdbcTemplate.setMaxRows(maxRows);
+        }
+        JdbcTemplate existing = jdbcTemplateMap.putIfAbsent(key, jdbcTemplate);
+        return existing == null ? jdbcTemplate : existing;
+    }
+
+    /**
+     * replaces the pool of the database with a new one, the old pool is closed once its connections are returned
+     */
+    private DruidDataSource rebuildDataSource(DatabaseResp jdbcSourceInfo) {
+        String key = getDataSourceKey(jdbcSourceInfo);
+        DruidDataSource retired = dataSourceMap.remove(key);
+        DruidDataSource rebuilt = getDataSource(jdbcSourceInfo);
+        if (retired != null && retired != rebuilt) {
+            closeWhenDrained(retired, System.currentTimeMillis() + drainTimeoutMillis);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * closing a pool aborts the queries running on it, it is closed once they finished or the deadline passed
+     */
+    private void closeWhenDrained(DruidDataSource druidDataSource, long deadline) {
+        if (druidDataSource.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            drainExecutor.schedule(() -> closeWhenDrained(druidDataSource, deadline), 1, TimeUnit.SECONDS);
+            return;
+        }
+        if (druidDataSource.getActiveCount() > 0) {
+            log.warn("close datasource {} with {} active connections after the drain timeout",
+                    druidDataSource.getName(), druidDataSource.getActiveCount());
+        }
+        druidDataSource.close();
+    }
+
+    public List<DataSourcePoolResp> getPoolStats() {
+        List<DataSourcePoolResp> poolStats = new ArrayList<>();
+        dataSourceMap.forEach((key, druidDataSource) -> {
+            DataSourcePoolResp dataSourcePoolResp = new DataSourcePoolResp();
+            dataSourcePoolResp.setName(druidDataSource.getName());
+            dataSourcePoolResp.setActiveCount(druidDataSource.getActiveCount());
+            dataSourcePoolResp.setPoolingCount(druidDataSource.getPoolingCount());
+            dataSourcePoolResp.setMaxActive(druidDataSource.getMaxActive());
+            dataSourcePoolResp.setWaitThreadCount(druidDataSource.getWaitThreadCount());
+            dataSourcePoolResp.setNotEmptyWaitCount(druidDataSource.getNotEmptyWaitCount());
+            dataSourcePoolResp.setCreateErrorCount(druidDataSource.getCreateErrorCount());
+            DataSourceCircuitBreaker circuitBreaker = circuitBreakerMap.get(key);
+            if (circuitBreaker != null) {
+                dataSourcePoolResp.setCircuitState(circuitBreaker.getState().name());
+                dataSourcePoolResp.setConsecutiveFailures(circuitBreaker.getConsecutiveFailures());
+            }
+            poolStats.add(dataSourcePoolResp);
+        });
+        return poolStats;
+    }
+
     public DruidDataSource getDataSource(DatabaseResp jdbcSourceInfo) throws RuntimeException {
 
         String name = jdbcSourceInfo.getName();
@@ -6,6 +6,7 @@ import com.tencent.supersonic.semantic.api.model.request.DateInfoReq;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DateInfoDO;
 
 import java.util.List;
+import java.util.Map;
 
 public interface DateInfoRepository {
 
@@ -13,4 +14,14 @@ public interface DateInfoRepository {
 
     List<DateInfoDO> getDateInfos(ItemDateFilter itemDateFilter);
 
+    /**
+     * the latest date info of every item of every type
+     */
+    List<DateInfoDO> getAllDateInfos();
+
+    /**
+     * a cheap aggregate over the date info table, it changes whenever a row is inserted or updated
+     */
+    Map<String, Object> probeDateInfo();
+
 }
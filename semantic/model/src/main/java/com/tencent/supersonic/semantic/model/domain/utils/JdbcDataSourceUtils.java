@@ -150,49 +150,6 @@ public class JdbcDataSourceUtils {
         return jdbcDataSource.getDataSource(databaseResp);
     }
 
-    public Connection getConnection(DatabaseResp databaseResp) throws RuntimeException {
-        Connection conn = getConnectionWithRetry(databaseResp);
-        if (conn == null) {
-            try {
-                releaseDataSource(databaseResp);
-                DataSource dataSource = getDataSource(databaseResp);
-                return dataSource.getConnection();
-            } catch (Exception e) {
-                log.error("Get connection error, jdbcUrl:{}, e:{}", databaseResp.getUrl(), e);
-                throw new RuntimeException("Get connection error, jdbcUrl:" + databaseResp.getUrl()
-                        + " you can try again later or reset datasource");
-            }
-        }
-        return conn;
-    }
-
-    private Connection getConnectionWithRetry(DatabaseResp databaseResp) {
-        int rc = 1;
-        for (; ; ) {
-
-            if (rc > 3) {
-                return null;
-            }
-
-            try {
-                Connection connection = getDataSource(databaseResp).getConnection();
-                if (connection != null && connection.isValid(5)) {
-                    return connection;
-                }
-            } catch (Exception e) {
-                log.error("e", e);
-            }
-
-            try {
-                Thread.sleep((long) Math.pow(2, rc) * 1000);
-            } catch (InterruptedException e) {
-                log.error("e", e);
-            }
-
-            rc++;
-        }
-    }
-
     public void releaseDataSource(DatabaseResp databaseResp) {
         jdbcDataSource.removeDatasource(databaseResp);
     }
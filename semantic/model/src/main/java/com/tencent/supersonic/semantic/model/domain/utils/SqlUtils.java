@@ -5,14 +5,15 @@ import static com.tencent.supersonic.common.pojo.Constants.AT_SYMBOL;
 import com.tencent.supersonic.common.pojo.QueryColumn;
 import com.tencent.supersonic.common.util.DateUtils;
 import com.tencent.supersonic.semantic.api.model.enums.DataTypeEnum;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.pojo.JdbcDataSource;
 import java.rmi.ServerException;
-import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -21,12 +22,14 @@ import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import javax.sql.DataSource;
+import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.StatementCallback;
 import org.springframework.stereotype.Component;
 
 
@@ -37,6 +40,7 @@ public class SqlUtils {
     @Getter
     private DatabaseResp databaseResp;
 
+    @Getter
     @Autowired
     private JdbcDataSource jdbcDataSource;
 
@@ -92,20 +96,8 @@ public class SqlUtils {
     }
 
     public JdbcTemplate jdbcTemplate() throws RuntimeException {
-        Connection connection = null;
-        try {
-            connection = jdbcDataSourceUtils.getConnection(databaseResp);
-        } catch (Exception e) {
-            log.warn("e:", e);
-        } finally {
-            JdbcDataSourceUtils.releaseConnection(connection);
-        }
-        DataSource dataSource = jdbcDataSourceUtils.getDataSource(databaseResp);
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        jdbcTemplate.setDatabaseProductName(databaseResp.getName());
-        jdbcTemplate.setFetchSize(500);
-        log.info("jdbcTemplate:{}, dataSource:{}", jdbcTemplate, dataSource);
-        return jdbcTemplate;
+        // one row over the limit is fetched, so a truncated result can be told from one of exactly the limit
+        return jdbcDataSource.getJdbcTemplate(databaseResp, resultLimit > 0 ? resultLimit + 1 : resultLimit);
     }
 
 
@@ -113,50 +105,114 @@ public class SqlUtils {
         getResult(sql, queryResultWithColumns, jdbcTemplate());
     }
 
-    private QueryResultWithSchemaResp getResult(String sql, QueryResultWithSchemaResp queryResultWithColumns,
-            JdbcTemplate jdbcTemplate) {
-        jdbcTemplate.query(sql, rs -> {
-            if (null == rs) {
-                return queryResultWithColumns;
+    /**
+     * query with a statement that can be cancelled from another thread,
+     * the statement is handed to the consumer right before it is executed
+     */
+    public void queryInternal(String sql, QueryResultWithSchemaResp queryResultWithColumns, int queryTimeoutSeconds,
+            Consumer<Statement> statementConsumer) {
+        jdbcTemplate().execute((StatementCallback<QueryResultWithSchemaResp>) statement -> {
+            if (queryTimeoutSeconds > 0) {
+                statement.setQueryTimeout(queryTimeoutSeconds);
             }
+            statementConsumer.accept(statement);
+            try (ResultSet rs = statement.executeQuery(sql)) {
+                return extractResult(rs, queryResultWithColumns);
+            }
+        });
+    }
 
-            ResultSetMetaData metaData = rs.getMetaData();
-            List<QueryColumn> queryColumns = new ArrayList<>();
-            for (int i = 1; i <= metaData.getColumnCount(); i++) {
-                String key = metaData.getColumnLabel(i);
-                queryColumns.add(new QueryColumn(key, metaData.getColumnTypeName(i)));
+    /**
+     * query in streaming mode, every row is handed to the consumer and released afterwards.
+     * the statement can be cancelled from another thread like the one of queryInternal
+     *
+     * @return the number of rows consumed
+     */
+    public long queryStream(String sql, ResultRowConsumer consumer, int queryTimeoutSeconds,
+            Consumer<Statement> statementConsumer) {
+        Long rowCount = jdbcTemplate().execute((StatementCallback<Long>) statement -> {
+            if (queryTimeoutSeconds > 0) {
+                statement.setQueryTimeout(queryTimeoutSeconds);
+            }
+            statementConsumer.accept(statement);
+            try (ResultSet rs = statement.executeQuery(sql)) {
+                List<QueryColumn> queryColumns = getQueryColumns(rs.getMetaData());
+                consumer.onSchema(queryColumns);
+                long count = scan(rs, queryColumns.size(), consumer::onRow);
+                consumer.onComplete(count);
+                return count;
             }
-            queryResultWithColumns.setColumns(queryColumns);
+        });
+        return rowCount == null ? 0L : rowCount;
+    }
 
-            List<Map<String, Object>> resultList = getAllData(rs, queryColumns);
-            queryResultWithColumns.setResultList(resultList);
+    private QueryResultWithSchemaResp getResult(String sql, QueryResultWithSchemaResp queryResultWithColumns,
+            JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.query(sql, (ResultSetExtractor<QueryResultWithSchemaResp>) rs -> extractResult(rs,
+                queryResultWithColumns));
+        return queryResultWithColumns;
+    }
+
+    private QueryResultWithSchemaResp extractResult(ResultSet rs, QueryResultWithSchemaResp queryResultWithColumns)
+            throws SQLException {
+        if (null == rs) {
             return queryResultWithColumns;
-        });
+        }
+        List<QueryColumn> queryColumns = getQueryColumns(rs.getMetaData());
+        queryResultWithColumns.setColumns(queryColumns);
+
+        List<Map<String, Object>> resultList = getAllData(rs, queryColumns);
+        queryResultWithColumns.setResultList(resultList);
         return queryResultWithColumns;
     }
 
+    private List<QueryColumn> getQueryColumns(ResultSetMetaData metaData) throws SQLException {
+        List<QueryColumn> queryColumns = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String key = metaData.getColumnLabel(i);
+            queryColumns.add(new QueryColumn(key, metaData.getColumnTypeName(i)));
+        }
+        return queryColumns;
+    }
+
     private List<Map<String, Object>> getAllData(ResultSet rs, List<QueryColumn> queryColumns) {
         List<Map<String, Object>> data = new ArrayList<>();
         try {
-            while (rs.next()) {
-                data.add(getLineData(rs, queryColumns));
-            }
+            scan(rs, queryColumns.size(), row -> data.add(getLineData(row, queryColumns)));
         } catch (Exception e) {
             log.warn("error in getAllData, e:", e);
         }
         return data;
     }
 
-    private Map<String, Object> getLineData(ResultSet rs, List<QueryColumn> queryColumns) throws SQLException {
-        Map<String, Object> map = new LinkedHashMap<>();
-        for (QueryColumn queryColumn : queryColumns) {
-            String colName = queryColumn.getNameEn();
-            Object value = rs.getObject(colName);
-            map.put(colName, getValue(value));
+    private Map<String, Object> getLineData(Object[] row, List<QueryColumn> queryColumns) {
+        Map<String, Object> map = new LinkedHashMap<>(queryColumns.size() * 2);
+        for (int i = 0; i < queryColumns.size(); i++) {
+            map.put(queryColumns.get(i).getNameEn(), row[i]);
         }
         return map;
     }
 
+    /**
+     * read the result set by column index, stop once source.result-limit rows are read
+     */
+    private long scan(ResultSet rs, int columnCount, Consumer<Object[]> rowConsumer) throws SQLException {
+        long count = 0;
+        while (rs.next()) {
+            if (resultLimit > 0 && count >= resultLimit) {
+                log.warn("result exceeds the limit:{}, the rest rows are discarded", resultLimit);
+                break;
+            }
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = getValue(rs.getObject(i + 1));
+            }
+            rowConsumer.accept(row);
+            count++;
+        }
+        return count;
+    }
+
     private Object getValue(Object value) {
         if (value instanceof LocalDate) {
             LocalDate localDate = (LocalDate) value;
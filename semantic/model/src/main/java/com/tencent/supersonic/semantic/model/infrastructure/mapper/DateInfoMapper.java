@@ -5,6 +5,7 @@ import com.tencent.supersonic.semantic.api.model.pojo.ItemDateFilter;
 import com.tencent.supersonic.semantic.model.domain.dataobject.DateInfoDO;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
@@ -13,4 +14,8 @@ public interface DateInfoMapper {
     Boolean upsertDateInfo(DateInfoDO dateInfoDO);
 
     List<DateInfoDO> getDateInfos(ItemDateFilter itemDateFilter);
+
+    List<DateInfoDO> getAllDateInfos();
+
+    Map<String, Object> probeDateInfo();
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import com.tencent.supersonic.semantic.model.domain.repository.DateInfoRepositor
 import com.tencent.supersonic.semantic.model.infrastructure.mapper.DateInfoMapper;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
@@ -62,6 +63,16 @@ public class DateInfoRepositoryImpl implements DateInfoRepository {
         return dateInfoMapper.getDateInfos(itemDateFilter);
     }
 
+    @Override
+    public List<DateInfoDO> getAllDateInfos() {
+        return dateInfoMapper.getAllDateInfos();
+    }
+
+    @Override
+    public Map<String, Object> probeDateInfo() {
+        return dateInfoMapper.probeDateInfo();
+    }
+
     private Integer batchUpsert(List<DateInfoDO> dateInfoDOList) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         for (DateInfoDO dateInfoDO : dateInfoDOList) {
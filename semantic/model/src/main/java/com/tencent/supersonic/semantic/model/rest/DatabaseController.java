@@ -4,6 +4,7 @@ import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
 import com.tencent.supersonic.semantic.api.model.request.DatabaseReq;
 import com.tencent.supersonic.semantic.api.model.request.SqlExecuteReq;
+import com.tencent.supersonic.semantic.api.model.response.DataSourcePoolResp;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.DatabaseService;
@@ -89,4 +90,9 @@ public class DatabaseController {
         return databaseService.getColumns(id, db, table);
     }
 
+    @GetMapping("/pool/stats")
+    public List<DataSourcePoolResp> getPoolStats() {
+        return databaseService.getPoolStats();
+    }
+
 }
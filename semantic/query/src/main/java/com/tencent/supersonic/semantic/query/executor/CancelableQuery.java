@@ -0,0 +1,13 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * a query that registers its jdbc statement, so it can be cancelled on timeout
+ */
+@FunctionalInterface
+public interface CancelableQuery<T> {
+
+    T execute(int queryTimeoutSeconds, Consumer<Statement> statementConsumer) throws Exception;
+}
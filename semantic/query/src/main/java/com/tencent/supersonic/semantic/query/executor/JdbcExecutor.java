@@ -1,10 +1,12 @@
 package com.tencent.supersonic.semantic.query.executor;
 
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.model.domain.utils.SqlUtils;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.stereotype.Component;
@@ -14,9 +16,11 @@ import org.springframework.stereotype.Component;
 public class JdbcExecutor implements QueryExecutor {
 
     private final SqlUtils sqlUtils;
+    private final QueryExecutorPool queryExecutorPool;
 
-    public JdbcExecutor(SqlUtils sqlUtils) {
+    public JdbcExecutor(SqlUtils sqlUtils, QueryExecutorPool queryExecutorPool) {
         this.sqlUtils = sqlUtils;
+        this.queryExecutorPool = queryExecutorPool;
     }
 
     @Override
@@ -26,17 +30,42 @@ public class JdbcExecutor implements QueryExecutor {
 
     @Override
     public QueryResultWithSchemaResp execute(Catalog catalog, QueryStatement queryStatement) {
+        return queryExecutorPool.await(executeAsync(catalog, queryStatement));
+    }
+
+    @Override
+    public CompletableFuture<QueryResultWithSchemaResp> executeAsync(Catalog catalog,
+            QueryStatement queryStatement) {
         if (Strings.isEmpty(queryStatement.getSourceId())) {
             log.warn("data base id is empty");
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
         log.info("query SQL: {}", queryStatement.getSql());
         DatabaseResp databaseResp = catalog.getDatabase(Long.parseLong(queryStatement.getSourceId()));
         log.info("database info:{}", databaseResp);
-        QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
         SqlUtils sqlUtils = this.sqlUtils.init(databaseResp);
-        sqlUtils.queryInternal(queryStatement.getSql(), queryResultWithColumns);
-        return queryResultWithColumns;
+        return queryExecutorPool.submit(databaseResp.getId(), (queryTimeoutSeconds, statementConsumer) -> {
+            QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
+            sqlUtils.queryInternal(queryStatement.getSql(), queryResultWithColumns, queryTimeoutSeconds,
+                    statementConsumer);
+            return queryResultWithColumns;
+        });
+    }
+
+    @Override
+    public void stream(Catalog catalog, QueryStatement queryStatement, ResultRowConsumer consumer) {
+        if (Strings.isEmpty(queryStatement.getSourceId())) {
+            log.warn("data base id is empty");
+            return;
+        }
+        log.info("stream query SQL: {}", queryStatement.getSql());
+        DatabaseResp databaseResp = catalog.getDatabase(Long.parseLong(queryStatement.getSourceId()));
+        SqlUtils sqlUtils = this.sqlUtils.init(databaseResp);
+        // a large export holds a connection as long as it reads, so it counts against the bulkhead and timeout
+        long rowCount = queryExecutorPool.await(queryExecutorPool.submit(databaseResp.getId(),
+                (queryTimeoutSeconds, statementConsumer) -> sqlUtils.queryStream(queryStatement.getSql(), consumer,
+                        queryTimeoutSeconds, statementConsumer)));
+        log.info("stream query finished, rowCount:{}", rowCount);
     }
 
 }
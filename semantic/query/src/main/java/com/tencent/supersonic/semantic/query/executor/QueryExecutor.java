@@ -1,12 +1,35 @@
 package com.tencent.supersonic.semantic.query.executor;
 
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.concurrent.CompletableFuture;
 
 public interface QueryExecutor {
 
     boolean accept(QueryStatement queryStatement);
 
     QueryResultWithSchemaResp execute(Catalog catalog, QueryStatement queryStatement);
+
+    /**
+     * non-blocking execution, executors without their own pool complete the future on the calling thread
+     */
+    default CompletableFuture<QueryResultWithSchemaResp> executeAsync(Catalog catalog,
+            QueryStatement queryStatement) {
+        CompletableFuture<QueryResultWithSchemaResp> future = new CompletableFuture<>();
+        try {
+            future.complete(execute(catalog, queryStatement));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * streaming execution, rows are passed to the consumer without being materialized
+     */
+    default void stream(Catalog catalog, QueryStatement queryStatement, ResultRowConsumer consumer) {
+        ResultRowConsumer.replay(execute(catalog, queryStatement), consumer);
+    }
 }
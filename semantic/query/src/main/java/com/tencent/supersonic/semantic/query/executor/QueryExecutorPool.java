@@ -0,0 +1,224 @@
+package com.tencent.supersonic.semantic.query.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.common.pojo.ReturnCode;
+import com.tencent.supersonic.common.pojo.exception.CommonException;
+import com.tencent.supersonic.semantic.query.persistence.pojo.ExecutorMetrics;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * runs queries on a bounded pool per database, a slow database can only occupy its own threads and queue,
+ * queries are rejected once the queue is full and cancelled by Statement.cancel once they time out
+ */
+@Slf4j
+@Component
+public class QueryExecutorPool {
+
+    @Value("${query.executor.pool.size:8}")
+    private int poolSize;
+
+    @Value("${query.executor.queue.size:64}")
+    private int queueSize;
+
+    @Value("${query.executor.timeout.ms:60000}")
+    private long timeoutMs;
+
+    private final Map<Long, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private ScheduledExecutorService timeoutScheduler;
+
+    @PostConstruct
+    public void init() {
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("query-timeout-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timeoutScheduler.shutdownNow();
+        bulkheads.values().forEach(bulkhead -> bulkhead.executor.shutdownNow());
+    }
+
+    public <T> CompletableFuture<T> submit(Long databaseId, CancelableQuery<T> query) {
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(databaseId, Bulkhead::new);
+        RunningQuery<T> runningQuery = new RunningQuery<>();
+        long enqueueTime = System.currentTimeMillis();
+        Runnable task = () -> {
+            bulkhead.recordQueueTime(System.currentTimeMillis() - enqueueTime);
+            if (runningQuery.future.isDone()) {
+                return;
+            }
+            try {
+                int queryTimeoutSeconds = (int) Math.max(1L,
+                        TimeUnit.MILLISECONDS.toSeconds(timeoutMs - (System.currentTimeMillis() - enqueueTime)));
+                runningQuery.future.complete(query.execute(queryTimeoutSeconds, runningQuery::onStatement));
+            } catch (Throwable e) {
+                bulkhead.failedCount.increment();
+                runningQuery.future.completeExceptionally(e);
+            }
+        };
+        try {
+            bulkhead.executor.execute(task);
+            bulkhead.submittedCount.increment();
+        } catch (RejectedExecutionException e) {
+            bulkhead.rejectedCount.increment();
+            log.warn("query rejected, databaseId:{}, queue is full:{}", databaseId, queueSize);
+            runningQuery.future.completeExceptionally(new CommonException(ReturnCode.SYSTEM_ERROR.getCode(),
+                    "too many queries on database " + databaseId + ", please retry later"));
+            return runningQuery.future;
+        }
+        ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+            if (runningQuery.future.completeExceptionally(new TimeoutException(
+                    "query timeout after " + timeoutMs + "ms, databaseId:" + databaseId))) {
+                bulkhead.timeoutCount.increment();
+                // free the queue slot if the query has not started yet
+                bulkhead.executor.remove(task);
+                runningQuery.cancel();
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        runningQuery.future.whenComplete((result, e) -> {
+            timeout.cancel(false);
+            if (runningQuery.future.isCancelled()) {
+                runningQuery.cancel();
+            }
+        });
+        return runningQuery.future;
+    }
+
+    /**
+     * blocks until the query finishes, failures are rethrown unchecked
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new CommonException(ReturnCode.SYSTEM_ERROR.getCode(), "query interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new CommonException(ReturnCode.SYSTEM_ERROR.getCode(), cause.getMessage());
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * @return the threads of the database free for more queries, the queued queries take them first
+     */
+    public int getIdleCount(Long databaseId) {
+        Bulkhead bulkhead = bulkheads.get(databaseId);
+        if (bulkhead == null) {
+            return poolSize;
+        }
+        return Math.max(0, poolSize - bulkhead.executor.getActiveCount() - bulkhead.executor.getQueue().size());
+    }
+
+    public List<ExecutorMetrics> getMetrics() {
+        List<ExecutorMetrics> metricsList = new ArrayList<>();
+        bulkheads.forEach((databaseId, bulkhead) -> metricsList.add(bulkhead.getMetrics()));
+        return metricsList;
+    }
+
+    private static class RunningQuery<T> {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+
+        void onStatement(Statement statement) {
+            this.statement = statement;
+            if (cancelled) {
+                cancelStatement();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            cancelStatement();
+        }
+
+        private void cancelStatement() {
+            Statement current = statement;
+            if (current == null) {
+                return;
+            }
+            try {
+                current.cancel();
+                log.info("query statement cancelled");
+            } catch (SQLException e) {
+                log.warn("cancel statement error", e);
+            }
+        }
+    }
+
+    private class Bulkhead {
+
+        private final Long databaseId;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder submittedCount = new LongAdder();
+        private final LongAdder rejectedCount = new LongAdder();
+        private final LongAdder timeoutCount = new LongAdder();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAdder queueMillis = new LongAdder();
+        private final LongAdder startedCount = new LongAdder();
+        private final AtomicLong maxQueueMillis = new AtomicLong();
+
+        Bulkhead(Long databaseId) {
+            this.databaseId = databaseId;
+            this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    new ThreadFactoryBuilder().setNameFormat("query-db-" + databaseId + "-%d")
+                            .setDaemon(true).build(),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        void recordQueueTime(long millis) {
+            startedCount.increment();
+            queueMillis.add(millis);
+            maxQueueMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        ExecutorMetrics getMetrics() {
+            ExecutorMetrics metrics = new ExecutorMetrics();
+            metrics.setDatabaseId(databaseId);
+            metrics.setPoolSize(executor.getPoolSize());
+            metrics.setActiveCount(executor.getActiveCount());
+            metrics.setQueueSize(executor.getQueue().size());
+            metrics.setSubmittedCount(submittedCount.sum());
+            metrics.setRejectedCount(rejectedCount.sum());
+            metrics.setTimeoutCount(timeoutCount.sum());
+            metrics.setFailedCount(failedCount.sum());
+            long started = startedCount.sum();
+            metrics.setAvgQueueMillis(started == 0 ? 0 : queueMillis.sum() / started);
+            metrics.setMaxQueueMillis(maxQueueMillis.get());
+            return metrics;
+        }
+    }
+}
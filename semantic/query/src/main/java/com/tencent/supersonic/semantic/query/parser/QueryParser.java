@@ -39,6 +39,8 @@ public class QueryParser {
             }
         }
         log.info("SemanticConverter after {} {} {}", queryStructReq, metricReq, parseSqlReq);
+        parseSqlReq.setOptimize(queryStructReq.getOptimize());
+        metricReq.setOptimize(queryStructReq.getOptimize());
         if (!parseSqlReq.getSql().isEmpty()) {
             return parser(parseSqlReq);
         }
@@ -60,6 +62,7 @@ public class QueryParser {
                     metricReq.setDimensions(metricTable.getDimensions());
                     metricReq.setWhere(formatWhere(metricTable.getWhere()));
                     metricReq.setRootPath(sqlCommend.getRootPath());
+                    metricReq.setOptimize(sqlCommend.getOptimize());
                     QueryStatement tableSql = parser(metricReq, metricTable.isAgg());
                     if (!tableSql.isOk()) {
                         queryStatement.setErrMsg(String.format("parser table [%s] error [%s]", metricTable.getAlias(),
@@ -1,21 +1,43 @@
 package com.tencent.supersonic.semantic.query.parser.calcite;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.tencent.supersonic.common.util.JsonUtil;
+import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.query.request.MetricReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
 import com.tencent.supersonic.semantic.query.parser.SqlParser;
 import com.tencent.supersonic.semantic.query.parser.calcite.planner.AggPlanner;
+import com.tencent.supersonic.semantic.query.parser.calcite.planner.PlanTemplate;
+import com.tencent.supersonic.semantic.query.parser.calcite.planner.WhereTemplate;
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.SemanticModel;
 import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSchema;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.Arrays;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+@Slf4j
 @Component("CalciteSqlParser")
 public class CalciteSqlParser implements SqlParser {
     private final SemanticSchemaManager semanticSchemaManager;
+    private final Cache<String, PlanTemplate> planCache;
+    private final boolean planCacheEnable;
+    private final boolean optimizerEnable;
 
     public CalciteSqlParser(
-            SemanticSchemaManager semanticSchemaManager) {
+            SemanticSchemaManager semanticSchemaManager,
+            @Value("${parser.plan.cache.enable:true}") Boolean planCacheEnable,
+            @Value("${parser.plan.cache.maximumSize:1000}") Integer planCacheMaximumSize,
+            @Value("${parser.optimizer.enable:true}") Boolean optimizerEnable) {
         this.semanticSchemaManager = semanticSchemaManager;
+        this.planCacheEnable = planCacheEnable;
+        this.optimizerEnable = optimizerEnable;
+        this.planCache = CacheBuilder.newBuilder().maximumSize(planCacheMaximumSize).build();
     }
 
     @Override
@@ -26,12 +48,76 @@ public class CalciteSqlParser implements SqlParser {
             queryStatement.setErrMsg("semanticSchema not found");
             return queryStatement;
         }
+        WhereTemplate whereTemplate = planCacheEnable ? WhereTemplate.of(metricReq.getWhere()) : null;
+        PlanTemplate planTemplate = whereTemplate == null ? null
+                : getPlanTemplate(semanticModel, metricReq, whereTemplate, isAgg, catalog);
+        if (planTemplate == null) {
+            AggPlanner aggBuilder = plan(semanticModel, metricReq, isAgg, catalog);
+            queryStatement.setSql(aggBuilder.getSql());
+            queryStatement.setSourceId(aggBuilder.getSourceId());
+            return queryStatement;
+        }
+        queryStatement.setSql(WhereTemplate.bind(planTemplate.getSql(), whereTemplate.getLiterals()));
+        queryStatement.setSourceId(planTemplate.getSourceId());
+        return queryStatement;
+    }
+
+    /**
+     * plans the query shape once with placeholder literals, repeated shapes only bind their literals
+     */
+    private PlanTemplate getPlanTemplate(SemanticModel semanticModel, MetricReq metricReq,
+            WhereTemplate whereTemplate, boolean isAgg, Catalog catalog) throws Exception {
+        String key = getPlanKey(metricReq, whereTemplate, isAgg);
+        PlanTemplate planTemplate = planCache.getIfPresent(key);
+        if (planTemplate != null && planTemplate.getSemanticModel() == semanticModel) {
+            return planTemplate;
+        }
+        MetricReq templateReq = new MetricReq();
+        BeanUtils.copyProperties(metricReq, templateReq);
+        templateReq.setWhere(whereTemplate.getTemplate());
+        AggPlanner aggBuilder = plan(semanticModel, templateReq, isAgg, catalog);
+        planTemplate = new PlanTemplate(semanticModel, aggBuilder.getSql(), aggBuilder.getSourceId());
+        if (!WhereTemplate.isBindable(planTemplate.getSql(), whereTemplate.getLiterals().size())) {
+            log.warn("where literals are lost in plan, skip plan cache, where:{}", metricReq.getWhere());
+            return null;
+        }
+        planCache.put(key, planTemplate);
+        return planTemplate;
+    }
+
+    private AggPlanner plan(SemanticModel semanticModel, MetricReq metricReq, boolean isAgg, Catalog catalog)
+            throws Exception {
         SemanticSchema semanticSchema = getSemanticSchema(semanticModel);
         AggPlanner aggBuilder = new AggPlanner(semanticSchema);
         aggBuilder.explain(metricReq, isAgg);
-        queryStatement.setSql(aggBuilder.getSql());
-        queryStatement.setSourceId(aggBuilder.getSourceId());
-        return queryStatement;
+        if (isOptimize(metricReq)) {
+            aggBuilder.optimize(getEngineType(aggBuilder.getSourceId(), catalog));
+        }
+        return aggBuilder;
+    }
+
+    private boolean isOptimize(MetricReq metricReq) {
+        return metricReq.getOptimize() == null ? optimizerEnable : metricReq.getOptimize();
+    }
+
+    private EngineTypeEnum getEngineType(String sourceId, Catalog catalog) {
+        if (catalog == null) {
+            return null;
+        }
+        try {
+            DatabaseResp databaseResp = catalog.getDatabase(Long.parseLong(sourceId));
+            return databaseResp == null ? null : EngineTypeEnum.valueOf(databaseResp.getType().toUpperCase());
+        } catch (Exception e) {
+            log.warn("engine type of source {} not found, sql is not optimized", sourceId, e);
+            return null;
+        }
+    }
+
+    private String getPlanKey(MetricReq metricReq, WhereTemplate whereTemplate, boolean isAgg) {
+        return JsonUtil.toString(Arrays.asList(metricReq.getRootPath(), metricReq.getMetrics(),
+                metricReq.getDimensions(), Objects.toString(whereTemplate.getTemplate(), ""),
+                metricReq.getLimit(), metricReq.getOrder(), metricReq.getVariables(),
+                metricReq.isNativeQuery(), isAgg, isOptimize(metricReq)));
     }
 
     private SemanticSchema getSemanticSchema(SemanticModel semanticModel) {
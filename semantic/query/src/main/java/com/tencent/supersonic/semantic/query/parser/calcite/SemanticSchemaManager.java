@@ -3,6 +3,12 @@ package com.tencent.supersonic.semantic.query.parser.calcite;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tencent.supersonic.common.pojo.DataAddEvent;
+import com.tencent.supersonic.common.pojo.DataDeleteEvent;
+import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.api.model.yaml.DatasourceYamlTpl;
 import com.tencent.supersonic.semantic.api.model.yaml.DimensionTimeTypeParamsTpl;
 import com.tencent.supersonic.semantic.api.model.yaml.DimensionYamlTpl;
@@ -22,6 +28,7 @@ import com.tencent.supersonic.semantic.query.parser.calcite.dsl.MetricTypeParams
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.SemanticModel;
 import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSchema;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -30,6 +37,9 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +48,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
@@ -48,52 +59,142 @@ public class SemanticSchemaManager {
     @Autowired
     private LoadingCache<String, SemanticModel> loadingCache;
     private final Catalog catalog;
+    /**
+     * the dsl objects of every loaded model, the semantic model of a root path is merged from these parts
+     */
+    private final Map<Long, SemanticModel> modelPartMap = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("semantic-schema-refresh-%d").setDaemon(true).build());
 
     public SemanticSchemaManager(Catalog catalog) {
         this.catalog = catalog;
     }
 
     public SemanticModel reload(String rootPath) {
-        SemanticModel semanticModel = new SemanticModel();
-        semanticModel.setRootPath(rootPath);
-        Map<Long, String> modelFullPathMap = catalog.getModelFullPath();
-        log.info("modelFullPathMap {}", modelFullPathMap);
-        Set<Long> modelIds = modelFullPathMap.entrySet().stream().filter(e -> e.getValue().startsWith(rootPath))
-                .map(Entry::getKey).collect(Collectors.toSet());
+        Set<Long> modelIds = getModelIds(rootPath);
         if (modelIds.isEmpty()) {
             log.error("get modelIds empty {}", rootPath);
+            SemanticModel semanticModel = new SemanticModel();
+            semanticModel.setRootPath(rootPath);
             return semanticModel;
         }
+        modelIds.forEach(this::loadModelPart);
+        return merge(rootPath, modelIds);
+    }
+
+    //private Map<String, SemanticSchema> semanticSchemaMap = new HashMap<>();
+    public SemanticModel get(String rootPath) throws Exception {
+        rootPath = formatKey(rootPath);
+        SemanticModel schema = loadingCache.get(rootPath);
+        if (schema == null) {
+            return null;
+        }
+        return schema;
+    }
+
+    @EventListener
+    public void onDataAdd(DataAddEvent event) {
+        refreshModelAsync(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataUpdate(DataUpdateEvent event) {
+        refreshModelAsync(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataDelete(DataDeleteEvent event) {
+        refreshModelAsync(event.getModelId());
+    }
+
+    @EventListener
+    public void onMetaChange(MetaChangeEvent event) {
+        // models can be moved or removed and domains change the full path, all root paths may be affected then
+        boolean modelScoped = TypeEnums.DATASOURCE.equals(event.getType())
+                || TypeEnums.DIMENSION.equals(event.getType()) || TypeEnums.METRIC.equals(event.getType());
+        refreshModelAsync(modelScoped ? event.getModelId() : null);
+    }
+
+    /**
+     * rebuilds only the changed model and swaps in new semantic models for the cached root paths containing it,
+     * changes not bound to a model refresh every cached root path in the background
+     */
+    private void refreshModelAsync(Long modelId) {
+        refreshExecutor.submit(() -> {
+            try {
+                if (modelId == null) {
+                    modelPartMap.keySet().retainAll(catalog.getModelFullPath().keySet());
+                    loadingCache.asMap().keySet().forEach(loadingCache::refresh);
+                    return;
+                }
+                refreshModel(modelId);
+            } catch (Exception e) {
+                log.error("refresh semantic schema error, modelId:{}", modelId, e);
+            }
+        });
+    }
+
+    private void refreshModel(Long modelId) {
+        loadModelPart(modelId);
+        for (String rootPath : loadingCache.asMap().keySet()) {
+            Set<Long> modelIds = getModelIds(rootPath);
+            if (!modelIds.contains(modelId)) {
+                continue;
+            }
+            modelIds.stream().filter(id -> !modelPartMap.containsKey(id)).forEach(this::loadModelPart);
+            loadingCache.put(rootPath, merge(rootPath, modelIds));
+            log.info("semantic schema [{}] refreshed by model:{}", rootPath, modelId);
+        }
+    }
+
+    private Set<Long> getModelIds(String rootPath) {
+        Map<Long, String> modelFullPathMap = catalog.getModelFullPath();
+        return modelFullPathMap.entrySet().stream().filter(e -> e.getValue().startsWith(rootPath))
+                .map(Entry::getKey).collect(Collectors.toSet());
+    }
+
+    private void loadModelPart(Long modelId) {
         Map<String, List<DimensionYamlTpl>> dimensionYamlTpls = new HashMap<>();
         List<DatasourceYamlTpl> datasourceYamlTpls = new ArrayList<>();
         List<MetricYamlTpl> metricYamlTpls = new ArrayList<>();
-        catalog.getModelYamlTplByModelIds(modelIds, dimensionYamlTpls, datasourceYamlTpls, metricYamlTpls);
+        catalog.getModelYamlTplByModelIds(Collections.singleton(modelId), dimensionYamlTpls, datasourceYamlTpls,
+                metricYamlTpls);
+        SemanticModel modelPart = new SemanticModel();
         if (!datasourceYamlTpls.isEmpty()) {
             Map<String, DataSource> dataSourceMap = datasourceYamlTpls.stream().map(d -> getDatasource(d))
                     .collect(Collectors.toMap(DataSource::getName, item -> item, (k1, k2) -> k1));
-            semanticModel.setDatasourceMap(dataSourceMap);
+            modelPart.setDatasourceMap(dataSourceMap);
         }
         if (!dimensionYamlTpls.isEmpty()) {
             Map<String, List<Dimension>> dimensionMap = new HashMap<>();
             for (Map.Entry<String, List<DimensionYamlTpl>> entry : dimensionYamlTpls.entrySet()) {
                 dimensionMap.put(entry.getKey(), getDimensions(entry.getValue()));
             }
-            semanticModel.setDimensionMap(dimensionMap);
+            modelPart.setDimensionMap(dimensionMap);
         }
         if (!metricYamlTpls.isEmpty()) {
-            semanticModel.setMetrics(getMetrics(metricYamlTpls));
+            modelPart.setMetrics(getMetrics(metricYamlTpls));
         }
-        return semanticModel;
+        modelPartMap.put(modelId, modelPart);
     }
 
-    //private Map<String, SemanticSchema> semanticSchemaMap = new HashMap<>();
-    public SemanticModel get(String rootPath) throws Exception {
-        rootPath = formatKey(rootPath);
-        SemanticModel schema = loadingCache.get(rootPath);
-        if (schema == null) {
-            return null;
+    /**
+     * always builds a new semantic model, models already handed out to queries are never modified
+     */
+    private SemanticModel merge(String rootPath, Set<Long> modelIds) {
+        SemanticModel semanticModel = new SemanticModel();
+        semanticModel.setRootPath(rootPath);
+        for (Long modelId : modelIds) {
+            SemanticModel modelPart = modelPartMap.get(modelId);
+            if (modelPart == null) {
+                continue;
+            }
+            modelPart.getDatasourceMap().forEach(semanticModel.getDatasourceMap()::putIfAbsent);
+            modelPart.getDimensionMap().forEach((datasource, dimensions) -> semanticModel.getDimensionMap()
+                    .computeIfAbsent(datasource, k -> new ArrayList<>()).addAll(dimensions));
+            semanticModel.getMetrics().addAll(modelPart.getMetrics());
         }
-        return schema;
+        return semanticModel;
     }
 
     public static List<Metric> getMetrics(final List<MetricYamlTpl> t) {
@@ -279,25 +380,29 @@ public class SemanticSchemaManager {
     @EnableCaching
     public class GuavaCacheConfig {
 
-        @Value("${parser.cache.saveMinute:1}")
-        private Integer saveMinutes = 1;
+        @Value("${parser.cache.saveMinute:10}")
+        private Integer saveMinutes = 10;
         @Value("${parser.cache.maximumSize:1000}")
         private Integer maximumSize = 1000;
 
+        /**
+         * entries are patched by meta change events, the periodic refresh only catches changes made elsewhere
+         * and runs in the background while queries keep using the previous model
+         */
         @Bean
         public LoadingCache<String, SemanticModel> getCache() {
             LoadingCache<String, SemanticModel> cache
                     = CacheBuilder.newBuilder()
-                    .expireAfterWrite(saveMinutes, TimeUnit.MINUTES)
+                    .refreshAfterWrite(saveMinutes, TimeUnit.MINUTES)
                     .initialCapacity(10)
-                    .maximumSize(maximumSize).build(
+                    .maximumSize(maximumSize).build(CacheLoader.asyncReloading(
                             new CacheLoader<String, SemanticModel>() {
                                 @Override
                                 public SemanticModel load(String key) {
                                     log.info("load SemanticSchema [{}]", key);
                                     return SemanticSchemaManager.this.reload(key);
                                 }
-                            }
+                            }, refreshExecutor)
                     );
             return cache;
         }
@@ -2,6 +2,7 @@ package com.tencent.supersonic.semantic.query.parser.calcite.planner;
 
 
 import com.tencent.supersonic.semantic.api.query.request.MetricReq;
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.Constants;
 import com.tencent.supersonic.semantic.query.parser.calcite.dsl.DataSource;
 import com.tencent.supersonic.semantic.query.parser.calcite.schema.SchemaBuilder;
@@ -10,6 +11,7 @@ import com.tencent.supersonic.semantic.query.parser.calcite.sql.Renderer;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.TableView;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.node.DataSourceNode;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.node.SemanticNode;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer.SqlOptimizer;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.render.FilterRender;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.render.OutputRender;
 import com.tencent.supersonic.semantic.query.parser.calcite.sql.render.SourceRender;
@@ -94,7 +96,13 @@ public class AggPlanner implements Planner {
         this.isAgg = isAgg;
         // build a parse Node
         parse();
-        // optimizer
+    }
+
+    /**
+     * rewrites the planned sql with the rules of the engine it runs on
+     */
+    public void optimize(EngineTypeEnum engineType) {
+        SqlOptimizer.of(engineType).optimize(parserNode);
     }
 
     @Override
@@ -0,0 +1,20 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.planner;
+
+import com.tencent.supersonic.semantic.query.parser.calcite.dsl.SemanticModel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * rendered sql of a query shape, the where literals are placeholders to be bound per query
+ */
+@Getter
+@AllArgsConstructor
+public class PlanTemplate {
+
+    /**
+     * the model the plan was rendered with, the template is stale once the model is reloaded
+     */
+    private final SemanticModel semanticModel;
+    private final String sql;
+    private final String sourceId;
+}
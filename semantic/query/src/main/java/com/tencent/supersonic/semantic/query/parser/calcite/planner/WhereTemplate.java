@@ -0,0 +1,122 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.planner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Getter;
+
+/**
+ * the where condition with every string literal replaced by a placeholder literal,
+ * queries that only differ in date ranges or filter values share the same template
+ */
+@Getter
+public class WhereTemplate {
+
+    private static final String PLACEHOLDER_FORMAT = "'__sp_%d__'";
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("'__sp_(\\d+)__'");
+    // typed literals are validated by the parser, they stay part of the template
+    private static final Pattern TYPED_LITERAL_PATTERN = Pattern.compile(
+            "(?i)\\b(DATE|TIME|TIMESTAMP|INTERVAL)\\s*$");
+
+    private final String template;
+    private final List<String> literals;
+
+    private WhereTemplate(String template, List<String> literals) {
+        this.template = template;
+        this.literals = literals;
+    }
+
+    /**
+     * @return null if the where can not be parameterized safely
+     */
+    public static WhereTemplate of(String where) {
+        if (where == null || where.isEmpty()) {
+            return new WhereTemplate(where, Collections.emptyList());
+        }
+        if (PLACEHOLDER_PATTERN.matcher(where).find()) {
+            return null;
+        }
+        StringBuilder template = new StringBuilder(where.length());
+        List<String> literals = new ArrayList<>();
+        int i = 0;
+        while (i < where.length()) {
+            char c = where.charAt(i);
+            if (c == '`' || c == '"') {
+                int end = where.indexOf(c, i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                template.append(where, i, end + 1);
+                i = end + 1;
+            } else if (c == '\'') {
+                int end = getLiteralEnd(where, i);
+                if (end < 0) {
+                    return null;
+                }
+                if (TYPED_LITERAL_PATTERN.matcher(template).find()) {
+                    template.append(where, i, end + 1);
+                } else {
+                    template.append(String.format(PLACEHOLDER_FORMAT, literals.size()));
+                    literals.add(where.substring(i, end + 1));
+                }
+                i = end + 1;
+            } else {
+                template.append(c);
+                i++;
+            }
+        }
+        return new WhereTemplate(template.toString(), literals);
+    }
+
+    /**
+     * @return false if a placeholder got lost while planning, the template can not be bound then
+     */
+    public static boolean isBindable(String sqlTemplate, int literalSize) {
+        boolean[] found = new boolean[literalSize];
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(sqlTemplate);
+        while (matcher.find()) {
+            int index = Integer.parseInt(matcher.group(1));
+            if (index >= literalSize) {
+                return false;
+            }
+            found[index] = true;
+        }
+        for (boolean f : found) {
+            if (!f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String bind(String sqlTemplate, List<String> literals) {
+        if (literals.isEmpty()) {
+            return sqlTemplate;
+        }
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(sqlTemplate);
+        StringBuffer sql = new StringBuffer(sqlTemplate.length() + 16 * literals.size());
+        while (matcher.find()) {
+            String literal = literals.get(Integer.parseInt(matcher.group(1)));
+            matcher.appendReplacement(sql, Matcher.quoteReplacement(literal));
+        }
+        matcher.appendTail(sql);
+        return sql.toString();
+    }
+
+    private static int getLiteralEnd(String where, int start) {
+        int i = start + 1;
+        while (i < where.length()) {
+            if (where.charAt(i) == '\'') {
+                if (i + 1 < where.length() && where.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+}
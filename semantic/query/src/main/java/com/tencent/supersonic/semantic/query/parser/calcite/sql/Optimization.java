@@ -1,9 +1,15 @@
 package com.tencent.supersonic.semantic.query.parser.calcite.sql;
 
 
-import com.tencent.supersonic.semantic.query.parser.calcite.sql.node.SemanticNode;
+import org.apache.calcite.sql.SqlSelect;
 
+/**
+ * a rewrite rule of the planned sql, applied to each select of the tree in place
+ */
 public interface Optimization {
 
-    public void visit(SemanticNode semanticNode);
+    /**
+     * @return true if the select or one of its sub-selects was changed
+     */
+    public boolean visit(SqlSelect select);
 }
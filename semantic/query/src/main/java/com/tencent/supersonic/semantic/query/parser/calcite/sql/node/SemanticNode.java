@@ -2,7 +2,6 @@ package com.tencent.supersonic.semantic.query.parser.calcite.sql.node;
 
 
 import com.tencent.supersonic.semantic.query.parser.calcite.Configuration;
-import com.tencent.supersonic.semantic.query.parser.calcite.sql.Optimization;
 import com.tencent.supersonic.semantic.query.parser.calcite.schema.SemanticSqlDialect;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -119,9 +118,5 @@ public abstract class SemanticNode {
         return sqlNode;
     }
 
-    public void accept(Optimization optimization) {
-        optimization.visit(this);
-    }
-
 
 }
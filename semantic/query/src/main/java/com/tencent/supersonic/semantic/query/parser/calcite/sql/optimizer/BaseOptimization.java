@@ -0,0 +1,261 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.Optimization;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.apache.calcite.sql.SqlBasicCall;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlJoin;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.apache.calcite.sql.util.SqlShuttle;
+import org.apache.calcite.util.Util;
+
+/**
+ * helpers shared by the rules, the sql is not validated so columns are matched by name
+ */
+public abstract class BaseOptimization implements Optimization {
+
+    /**
+     * aggregate functions of the engines that the parser leaves unresolved
+     */
+    private static final Set<String> AGGREGATE_FUNCTIONS = new HashSet<>(Arrays.asList("sum", "count", "avg",
+            "min", "max", "count_distinct", "group_concat", "any_value", "stddev", "variance", "uniq", "uniqexact",
+            "quantile", "percentile", "percentile_approx", "bitmap_union_count", "hll_union_agg", "array_agg",
+            "string_agg", "listagg", "grouping"));
+
+    protected static boolean isAs(SqlNode node) {
+        return node instanceof SqlBasicCall && node.getKind() == SqlKind.AS
+                && ((SqlBasicCall) node).operandCount() == 2;
+    }
+
+    /**
+     * the name a select item or a from item is known by, null for an expression without alias
+     */
+    protected static String getName(SqlNode node) {
+        if (isAs(node)) {
+            SqlNode alias = ((SqlBasicCall) node).operand(1);
+            return alias instanceof SqlIdentifier ? Util.last(((SqlIdentifier) alias).names) : null;
+        }
+        if (node instanceof SqlIdentifier && !((SqlIdentifier) node).isStar()) {
+            return Util.last(((SqlIdentifier) node).names);
+        }
+        return null;
+    }
+
+    protected static SqlNode getExpr(SqlNode item) {
+        return isAs(item) ? ((SqlBasicCall) item).operand(0) : item;
+    }
+
+    protected static SqlNode as(SqlNode expr, String name) {
+        if (name.equals(getName(expr))) {
+            return expr;
+        }
+        return SqlStdOperatorTable.AS.createCall(SqlParserPos.ZERO, expr, new SqlIdentifier(name, SqlParserPos.ZERO));
+    }
+
+    /**
+     * @return the sub-select of a from item, null for a table, a join or another kind of query
+     */
+    protected static SqlSelect getSubSelect(SqlNode fromItem) {
+        if (isAs(fromItem) && ((SqlBasicCall) fromItem).operand(0) instanceof SqlSelect) {
+            return ((SqlBasicCall) fromItem).operand(0);
+        }
+        return null;
+    }
+
+    /**
+     * the tables a select reads from, the sides of its joins included
+     */
+    protected static List<SqlNode> getFromItems(SqlNode from) {
+        List<SqlNode> fromItems = new ArrayList<>();
+        if (from instanceof SqlJoin) {
+            fromItems.addAll(getFromItems(((SqlJoin) from).getLeft()));
+            fromItems.addAll(getFromItems(((SqlJoin) from).getRight()));
+        } else if (from != null) {
+            fromItems.add(from);
+        }
+        return fromItems;
+    }
+
+    protected static boolean isStar(SqlNode item) {
+        return item instanceof SqlIdentifier && ((SqlIdentifier) item).isStar();
+    }
+
+    protected static boolean hasStar(SqlSelect select) {
+        return select.getSelectList().stream().anyMatch(BaseOptimization::isStar);
+    }
+
+    /**
+     * @return true for a select * without qualifier
+     */
+    protected static boolean isSelectStar(SqlSelect select) {
+        return select.getSelectList().size() == 1 && isStar(select.getSelectList().get(0))
+                && ((SqlIdentifier) select.getSelectList().get(0)).names.size() == 1;
+    }
+
+    protected static boolean hasLimit(SqlSelect select) {
+        return select.getOffset() != null || select.getFetch() != null;
+    }
+
+    protected static boolean isEmpty(SqlNodeList nodeList) {
+        return nodeList == null || nodeList.size() == 0;
+    }
+
+    /**
+     * @return true if the select only projects the rows of its from, without filter, grouping or sort
+     */
+    protected static boolean isProjection(SqlSelect select) {
+        return select.getWhere() == null && isEmpty(select.getGroup()) && select.getHaving() == null
+                && isEmpty(select.getOrderList()) && !hasLimit(select) && !select.isDistinct()
+                && isEmpty(select.getWindowList()) && isEmpty(select.getHints());
+    }
+
+    /**
+     * the expressions of the select items by their names
+     *
+     * @return null if the select has a star or the same name twice
+     */
+    protected static Map<String, SqlNode> getColumns(SqlSelect select) {
+        Map<String, SqlNode> columns = new LinkedHashMap<>();
+        for (SqlNode item : select.getSelectList()) {
+            if (isStar(item)) {
+                return null;
+            }
+            String name = getName(item);
+            if (name != null && columns.put(name, getExpr(item)) != null) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    protected static boolean contains(SqlNode node, Predicate<SqlCall> predicate) {
+        if (node == null) {
+            return false;
+        }
+        boolean[] found = {false};
+        node.accept(new SqlBasicVisitor<Void>() {
+            @Override
+            public Void visit(SqlCall call) {
+                if (found[0] || predicate.test(call)) {
+                    found[0] = true;
+                    return null;
+                }
+                return super.visit(call);
+            }
+        });
+        return found[0];
+    }
+
+    protected static boolean isAggregate(SqlCall call) {
+        return call.getOperator().isAggregator() || call.getKind() == SqlKind.FILTER
+                || call.getKind() == SqlKind.WITHIN_GROUP
+                || AGGREGATE_FUNCTIONS.contains(call.getOperator().getName().toLowerCase());
+    }
+
+    protected static boolean isWindow(SqlCall call) {
+        return call.getKind() == SqlKind.OVER;
+    }
+
+    protected static boolean isSubQuery(SqlCall call) {
+        return call.getKind().belongsTo(SqlKind.QUERY);
+    }
+
+    /**
+     * @return true if the expression has no aggregate, window function or sub-query, so its value only
+     *         depends on the row
+     */
+    protected static boolean isScalar(SqlNode expr) {
+        return !contains(expr, call -> isAggregate(call) || isWindow(call) || isSubQuery(call));
+    }
+
+    protected static boolean hasSubQuery(SqlSelect select) {
+        return contains(select.getSelectList(), BaseOptimization::isSubQuery)
+                || contains(select.getWhere(), BaseOptimization::isSubQuery)
+                || contains(select.getHaving(), BaseOptimization::isSubQuery)
+                || contains(select.getOrderList(), BaseOptimization::isSubQuery);
+    }
+
+    /**
+     * the column identifiers of an expression, the star of count(*) left out
+     */
+    protected static List<SqlIdentifier> getIdentifiers(SqlNode node) {
+        List<SqlIdentifier> identifiers = new ArrayList<>();
+        if (node != null) {
+            node.accept(new SqlBasicVisitor<Void>() {
+                @Override
+                public Void visit(SqlIdentifier identifier) {
+                    if (!identifier.isStar()) {
+                        identifiers.add(identifier);
+                    }
+                    return null;
+                }
+            });
+        }
+        return identifiers;
+    }
+
+    /**
+     * copies the expression with the identifiers the replacer maps, the original is left unchanged
+     */
+    protected static SqlNode replace(SqlNode node, Function<SqlIdentifier, SqlNode> replacer) {
+        if (node == null) {
+            return null;
+        }
+        return node.accept(new SqlShuttle() {
+            @Override
+            public SqlNode visit(SqlIdentifier identifier) {
+                SqlNode replaced = identifier.isStar() ? null : replacer.apply(identifier);
+                return replaced == null ? identifier : replaced;
+            }
+        });
+    }
+
+    protected static SqlNodeList replace(SqlNodeList nodeList, Function<SqlIdentifier, SqlNode> replacer) {
+        if (nodeList == null) {
+            return null;
+        }
+        SqlNodeList replaced = new SqlNodeList(nodeList.getParserPosition());
+        nodeList.forEach(node -> replaced.add(replace(node, replacer)));
+        return replaced;
+    }
+
+    protected static List<SqlNode> splitAnd(SqlNode condition) {
+        List<SqlNode> conditions = new ArrayList<>();
+        if (condition != null && condition.getKind() == SqlKind.AND) {
+            ((SqlCall) condition).getOperandList().forEach(operand -> conditions.addAll(splitAnd(operand)));
+        } else if (condition != null) {
+            conditions.add(condition);
+        }
+        return conditions;
+    }
+
+    /**
+     * @return the conjunction of the conditions, null if there is none
+     */
+    protected static SqlNode and(List<SqlNode> conditions) {
+        SqlNode result = null;
+        for (SqlNode condition : conditions) {
+            if (condition == null) {
+                continue;
+            }
+            result = result == null ? condition
+                    : SqlStdOperatorTable.AND.createCall(SqlParserPos.ZERO, result, condition);
+        }
+        return result;
+    }
+}
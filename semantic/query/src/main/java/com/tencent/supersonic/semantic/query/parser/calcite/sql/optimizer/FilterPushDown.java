@@ -0,0 +1,189 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.calcite.sql.JoinType;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlJoin;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.util.Litmus;
+import org.apache.calcite.util.Util;
+
+/**
+ * moves the conditions of a where into the sub-select they read from, below its group by when they only use
+ * group keys, so the datasource queries filter their rows before they are aggregated and joined. a condition
+ * goes to one side of an inner join, and through the join keys to the other, or to the preserved side of an
+ * outer join, never into a sub-select with a limit or a window function
+ */
+public class FilterPushDown extends BaseOptimization {
+
+    /**
+     * true for the engines that resolve the select aliases in where, a condition is then not pushed into a
+     * select where one of its columns is shadowed by an alias
+     */
+    private final boolean aliasInWhere;
+
+    public FilterPushDown(boolean aliasInWhere) {
+        this.aliasInWhere = aliasInWhere;
+    }
+
+    @Override
+    public boolean visit(SqlSelect select) {
+        if (select.getWhere() == null || contains(select.getWhere(), BaseOptimization::isSubQuery)) {
+            return false;
+        }
+        List<SqlNode> remains = new ArrayList<>();
+        boolean pushed = false;
+        for (SqlNode condition : splitAnd(select.getWhere())) {
+            if (pushDown(select.getFrom(), condition)) {
+                pushed = true;
+            } else {
+                remains.add(condition);
+            }
+        }
+        if (pushed) {
+            select.setWhere(and(remains));
+        }
+        return pushed;
+    }
+
+    private boolean pushDown(SqlNode from, SqlNode condition) {
+        if (!(from instanceof SqlJoin)) {
+            return pushInto(from, condition);
+        }
+        SqlJoin join = (SqlJoin) from;
+        String qualifier = getQualifier(condition);
+        if (qualifier == null) {
+            return false;
+        }
+        JoinType joinType = join.getJoinType();
+        boolean inner = joinType == JoinType.INNER || joinType == JoinType.COMMA;
+        if ((inner || joinType == JoinType.LEFT) && pushToSide(join.getLeft(), qualifier, condition)
+                || (inner || joinType == JoinType.RIGHT) && pushToSide(join.getRight(), qualifier, condition)) {
+            if (inner) {
+                pushToJoined(join, qualifier, condition);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean pushToSide(SqlNode side, String qualifier, SqlNode condition) {
+        if (side instanceof SqlJoin) {
+            return pushDown(side, condition);
+        }
+        return qualifier.equals(getName(side)) && pushInto(side, condition);
+    }
+
+    /**
+     * an inner join only keeps the rows of the other side that are equal on the join keys, so a condition on
+     * the keys of one side is also pushed to the other side with its keys
+     */
+    private void pushToJoined(SqlJoin join, String qualifier, SqlNode condition) {
+        Map<String, SqlIdentifier> joinKeys = new HashMap<>();
+        for (SqlNode equal : splitAnd(join.getCondition())) {
+            if (equal.getKind() != SqlKind.EQUALS || !(((SqlCall) equal).operand(0) instanceof SqlIdentifier)
+                    || !(((SqlCall) equal).operand(1) instanceof SqlIdentifier)) {
+                continue;
+            }
+            SqlIdentifier left = ((SqlCall) equal).operand(0);
+            SqlIdentifier right = ((SqlCall) equal).operand(1);
+            if (left.names.size() != 2 || right.names.size() != 2 || left.names.get(0).equals(right.names.get(0))) {
+                continue;
+            }
+            if (qualifier.equals(left.names.get(0))) {
+                joinKeys.putIfAbsent(left.names.get(1), right);
+            } else if (qualifier.equals(right.names.get(0))) {
+                joinKeys.putIfAbsent(right.names.get(1), left);
+            }
+        }
+        String joined = null;
+        for (SqlIdentifier identifier : getIdentifiers(condition)) {
+            SqlIdentifier joinKey = joinKeys.get(identifier.names.get(1));
+            if (joinKey == null || joined != null && !joined.equals(joinKey.names.get(0))) {
+                return;
+            }
+            joined = joinKey.names.get(0);
+        }
+        if (joined != null) {
+            SqlNode copy = replace(condition, identifier -> joinKeys.get(identifier.names.get(1)));
+            if (!pushToSide(join.getLeft(), joined, copy)) {
+                pushToSide(join.getRight(), joined, copy);
+            }
+        }
+    }
+
+    /**
+     * @return the table all columns of the condition are qualified with, null if they are not
+     */
+    private String getQualifier(SqlNode condition) {
+        String qualifier = null;
+        for (SqlIdentifier identifier : getIdentifiers(condition)) {
+            if (identifier.names.size() != 2 || qualifier != null && !qualifier.equals(identifier.names.get(0))) {
+                return null;
+            }
+            qualifier = identifier.names.get(0);
+        }
+        return qualifier;
+    }
+
+    private boolean pushInto(SqlNode fromItem, SqlNode condition) {
+        SqlSelect child = getSubSelect(fromItem);
+        if (child == null || hasLimit(child) || contains(child.getSelectList(), BaseOptimization::isWindow)
+                || !isEmpty(child.getHints())) {
+            return false;
+        }
+        boolean grouped = !isEmpty(child.getGroup());
+        if (grouped && contains(child.getGroup(), call -> call.getKind() == SqlKind.ROLLUP
+                || call.getKind() == SqlKind.CUBE || call.getKind() == SqlKind.GROUPING_SETS)) {
+            return false;
+        }
+        Map<String, SqlNode> columns = getColumns(child);
+        boolean passThrough = columns == null && isSelectStar(child) && !grouped;
+        if (columns == null && !passThrough
+                || !grouped && !passThrough && columns.values().stream().anyMatch(expr -> !isScalar(expr))) {
+            return false;
+        }
+        String alias = getName(fromItem);
+        Map<String, SqlNode> replacements = new HashMap<>();
+        for (SqlIdentifier identifier : getIdentifiers(condition)) {
+            if (identifier.names.size() > 2
+                    || identifier.names.size() == 2 && !identifier.names.get(0).equals(alias)) {
+                return false;
+            }
+            String name = Util.last(identifier.names);
+            SqlNode expr = passThrough ? new SqlIdentifier(name, SqlParserPos.ZERO) : columns.get(name);
+            if (expr == null || !isScalar(expr) || grouped && !isGroupKey(child, expr)
+                    || aliasInWhere && isShadowed(child, expr)) {
+                return false;
+            }
+            replacements.put(name, expr);
+        }
+        SqlNode pushed = replace(condition, identifier -> replacements.get(Util.last(identifier.names)));
+        child.setWhere(and(Arrays.asList(child.getWhere(), pushed)));
+        return true;
+    }
+
+    private boolean isGroupKey(SqlSelect select, SqlNode expr) {
+        return select.getGroup().stream().anyMatch(key -> key.equalsDeep(expr, Litmus.IGNORE));
+    }
+
+    private boolean isShadowed(SqlSelect select, SqlNode expr) {
+        for (SqlIdentifier identifier : getIdentifiers(expr)) {
+            String name = Util.last(identifier.names);
+            for (SqlNode item : select.getSelectList()) {
+                if (name.equals(getName(item)) && !name.equals(getName(getExpr(item)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.util.Util;
+
+/**
+ * copies the order and the limit of a select that only picks the columns of its sub-select into the
+ * sub-select, so it stops after the rows that are returned. the select keeps its own order and limit.
+ * the dialect prints the offset alone as the row count of the limit, a limit with both is not pushed
+ */
+public class LimitPushDown extends BaseOptimization {
+
+    @Override
+    public boolean visit(SqlSelect select) {
+        SqlSelect child = getSubSelect(select.getFrom());
+        if (child == null || select.getOffset() == null || select.getFetch() != null || hasLimit(child)
+                || !isEmpty(child.getOrderList()) || select.getWhere() != null || !isEmpty(select.getGroup())
+                || select.getHaving() != null || select.isDistinct() || !isScalar(select.getSelectList())) {
+            return false;
+        }
+        SqlNodeList orderList = select.getOrderList();
+        if (!isEmpty(orderList)) {
+            Map<String, SqlNode> columns = isSelectStar(child) ? null : getColumns(child);
+            if (columns == null) {
+                return false;
+            }
+            // order by the select aliases is mapped to the expressions of the sub-select
+            Map<String, SqlNode> outputs = new HashMap<>();
+            for (SqlNode item : select.getSelectList()) {
+                String name = getName(item);
+                SqlNode expr = getExpr(item);
+                if (name != null) {
+                    outputs.put(name, expr instanceof SqlIdentifier && !isStar(expr)
+                            ? columns.get(Util.last(((SqlIdentifier) expr).names)) : null);
+                }
+            }
+            for (SqlIdentifier identifier : getIdentifiers(orderList)) {
+                SqlNode column = outputs.containsKey(identifier.toString()) ? outputs.get(identifier.toString())
+                        : columns.get(Util.last(identifier.names));
+                if (column == null || identifier.names.size() == 2
+                        && !identifier.names.get(0).equals(getName(select.getFrom())) || identifier.names.size() > 2) {
+                    return false;
+                }
+            }
+            child.setOrderBy(replace(orderList, identifier -> outputs.containsKey(identifier.toString())
+                    ? outputs.get(identifier.toString()) : columns.get(Util.last(identifier.names))));
+        }
+        child.setOffset(select.getOffset());
+        return true;
+    }
+}
@@ -0,0 +1,131 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlJoin;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.util.Util;
+
+/**
+ * drops the columns of a sub-select that its parent never reads, so the datasource queries only scan the
+ * columns of the query. a select * over a sub-select is narrowed to the columns read above it first
+ */
+public class ProjectionPruning extends BaseOptimization {
+
+    @Override
+    public boolean visit(SqlSelect select) {
+        if (hasSubQuery(select) || select.getSelectList().stream()
+                .anyMatch(item -> isStar(item) && ((SqlIdentifier) item).names.size() == 1)) {
+            return false;
+        }
+        Set<String> unqualified = new HashSet<>();
+        Map<String, Set<String>> qualified = new HashMap<>();
+        Set<String> starred = new HashSet<>();
+        List<SqlNode> clauses = new ArrayList<>(select.getSelectList().getList());
+        clauses.add(select.getWhere());
+        clauses.add(select.getGroup());
+        clauses.add(select.getHaving());
+        clauses.add(select.getOrderList());
+        clauses.add(select.getWindowList());
+        addJoinConditions(select.getFrom(), clauses);
+        for (SqlNode clause : clauses) {
+            if (isStar(clause)) {
+                starred.add(((SqlIdentifier) clause).names.get(0));
+                continue;
+            }
+            for (SqlIdentifier identifier : getIdentifiers(clause)) {
+                if (identifier.names.size() == 1) {
+                    unqualified.add(identifier.getSimple());
+                } else {
+                    qualified.computeIfAbsent(identifier.names.get(identifier.names.size() - 2),
+                            k -> new HashSet<>()).add(Util.last(identifier.names));
+                }
+            }
+        }
+        boolean changed = false;
+        for (SqlNode fromItem : getFromItems(select.getFrom())) {
+            SqlSelect child = getSubSelect(fromItem);
+            String alias = getName(fromItem);
+            if (child == null || starred.contains(alias)) {
+                continue;
+            }
+            Set<String> used = new HashSet<>(unqualified);
+            used.addAll(qualified.getOrDefault(alias, Collections.emptySet()));
+            changed |= prune(child, used);
+        }
+        return changed;
+    }
+
+    private void addJoinConditions(SqlNode from, List<SqlNode> clauses) {
+        if (from instanceof SqlJoin) {
+            SqlJoin join = (SqlJoin) from;
+            clauses.add(join.getCondition());
+            addJoinConditions(join.getLeft(), clauses);
+            addJoinConditions(join.getRight(), clauses);
+        }
+    }
+
+    private boolean prune(SqlSelect child, Set<String> used) {
+        if (child.isDistinct()) {
+            return false;
+        }
+        if (isSelectStar(child)) {
+            return narrowStar(child, used);
+        }
+        if (hasStar(child)) {
+            return false;
+        }
+        // the clauses may refer to the select aliases, clickhouse even in where
+        Set<String> referenced = new HashSet<>();
+        getIdentifiers(child.getWhere()).forEach(identifier -> referenced.add(Util.last(identifier.names)));
+        getIdentifiers(child.getOrderList()).forEach(identifier -> referenced.add(Util.last(identifier.names)));
+        getIdentifiers(child.getHaving()).forEach(identifier -> referenced.add(Util.last(identifier.names)));
+        getIdentifiers(child.getGroup()).forEach(identifier -> referenced.add(Util.last(identifier.names)));
+        List<SqlNode> kept = new ArrayList<>();
+        for (SqlNode item : child.getSelectList()) {
+            String name = getName(item);
+            if (name == null || used.contains(name) || referenced.contains(name)) {
+                kept.add(item);
+            }
+        }
+        if (kept.size() == child.getSelectList().size()) {
+            return false;
+        }
+        if (kept.isEmpty()) {
+            kept.add(child.getSelectList().get(0));
+        }
+        child.setSelectList(new SqlNodeList(kept, SqlParserPos.ZERO));
+        return true;
+    }
+
+    /**
+     * replaces the star of a select over a single sub-select with the columns of the sub-select that are used
+     */
+    private boolean narrowStar(SqlSelect child, Set<String> used) {
+        SqlSelect source = getSubSelect(child.getFrom());
+        Map<String, SqlNode> columns = source == null || !isEmpty(child.getGroup()) ? null : getColumns(source);
+        if (columns == null || columns.isEmpty()) {
+            return false;
+        }
+        List<SqlNode> kept = new ArrayList<>();
+        for (String name : columns.keySet()) {
+            if (used.contains(name)) {
+                kept.add(new SqlIdentifier(name, SqlParserPos.ZERO));
+            }
+        }
+        if (kept.isEmpty()) {
+            kept.add(new SqlIdentifier(columns.keySet().iterator().next(), SqlParserPos.ZERO));
+        }
+        child.setSelectList(new SqlNodeList(kept, SqlParserPos.ZERO));
+        return true;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.Optimization;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlSelect;
+
+/**
+ * rewrites the planned sql with the rules of its engine, in the order of the rules and top down over the
+ * selects of the tree, until no rule changes it anymore. the rules are equivalences that hold whatever the
+ * data, the datasources have no statistics to compare the cost of the plans with
+ */
+@Slf4j
+public class SqlOptimizer {
+
+    private static final int MAX_ROUNDS = 200;
+
+    private final List<Optimization> optimizations;
+
+    public SqlOptimizer(List<Optimization> optimizations) {
+        this.optimizations = optimizations;
+    }
+
+    /**
+     * doris pushes the predicates and prunes the columns of the sub-queries itself, its plans only lose the
+     * levels that do nothing. the engines not listed keep their sql as planned
+     */
+    public static SqlOptimizer of(EngineTypeEnum engineType) {
+        if (engineType == null) {
+            return new SqlOptimizer(Collections.emptyList());
+        }
+        switch (engineType) {
+            case H2:
+            case MYSQL:
+                return new SqlOptimizer(Arrays.asList(new FilterPushDown(false), new ProjectionPruning(),
+                        new SubSelectRemoval(), new LimitPushDown()));
+            case CLICKHOUSE:
+                return new SqlOptimizer(Arrays.asList(new FilterPushDown(true), new ProjectionPruning(),
+                        new SubSelectRemoval(), new LimitPushDown()));
+            case DORIS:
+                return new SqlOptimizer(Arrays.asList(new SubSelectRemoval(), new LimitPushDown()));
+            default:
+                return new SqlOptimizer(Collections.emptyList());
+        }
+    }
+
+    /**
+     * @return true if the sql was rewritten
+     */
+    public boolean optimize(SqlNode sqlNode) {
+        if (!(sqlNode instanceof SqlSelect) || optimizations.isEmpty()) {
+            return false;
+        }
+        boolean optimized = false;
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            if (!apply((SqlSelect) sqlNode)) {
+                return optimized;
+            }
+            optimized = true;
+        }
+        log.warn("sql optimizer stopped after {} rounds", MAX_ROUNDS);
+        return optimized;
+    }
+
+    /**
+     * applies the first rule that changes a select, the rules after it only run once the rules before have
+     * nothing left to change
+     */
+    private boolean apply(SqlSelect root) {
+        for (Optimization optimization : optimizations) {
+            for (SqlSelect select : getSelects(root)) {
+                if (optimization.visit(select)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the select and the sub-selects of its from, parents before their children
+     */
+    private List<SqlSelect> getSelects(SqlSelect select) {
+        List<SqlSelect> selects = new ArrayList<>();
+        selects.add(select);
+        for (SqlNode fromItem : BaseOptimization.getFromItems(select.getFrom())) {
+            SqlSelect child = BaseOptimization.getSubSelect(fromItem);
+            if (child != null) {
+                selects.addAll(getSelects(child));
+            }
+        }
+        return selects;
+    }
+}
@@ -0,0 +1,165 @@
+package com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.calcite.sql.SqlBasicCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParserPos;
+import org.apache.calcite.util.Util;
+
+/**
+ * removes the levels of the plan that do not change the rows: a select * without any clause is replaced by
+ * what it reads, a sub-select that only picks or renames columns is merged into its parent, and a parent that
+ * only picks the columns of its sub-select with an order and a limit is merged into the sub-select
+ */
+public class SubSelectRemoval extends BaseOptimization {
+
+    @Override
+    public boolean visit(SqlSelect select) {
+        boolean changed = false;
+        for (SqlNode fromItem : getFromItems(select.getFrom())) {
+            SqlSelect child = getSubSelect(fromItem);
+            if (child != null && isSelectStar(child) && isProjection(child) && isAs(child.getFrom())) {
+                ((SqlBasicCall) fromItem).setOperand(0, ((SqlBasicCall) child.getFrom()).operand(0));
+                changed = true;
+            }
+        }
+        return changed || mergeRename(select) || mergeParent(select);
+    }
+
+    /**
+     * merges a sub-select whose items are columns of its source, with or without alias, into the select
+     */
+    private boolean mergeRename(SqlSelect select) {
+        SqlSelect child = getSubSelect(select.getFrom());
+        if (child == null || !isProjection(child) || hasStar(select) || hasSubQuery(select)
+                || !isEmpty(select.getWindowList())) {
+            return false;
+        }
+        Map<String, SqlNode> columns = getColumns(child);
+        if (columns == null || columns.size() != child.getSelectList().size()
+                || !columns.values().stream().allMatch(expr -> expr instanceof SqlIdentifier)) {
+            return false;
+        }
+        String alias = getName(select.getFrom());
+        Set<String> outputs = new HashSet<>();
+        select.getSelectList().forEach(item -> outputs.add(getName(item)));
+        Set<String> aliasRefs = new HashSet<>();
+        aliasRefs.addAll(getIdentifierNames(select.getOrderList()));
+        aliasRefs.addAll(getIdentifierNames(select.getHaving()));
+        aliasRefs.retainAll(outputs);
+        for (SqlNode item : select.getSelectList()) {
+            // a name of both the select and the sub-select must mean the same column
+            String name = getName(item);
+            if (name == null || aliasRefs.contains(name) && columns.containsKey(name)
+                    && !name.equals(getName(getExpr(item)))) {
+                return false;
+            }
+        }
+        for (SqlNode clause : new SqlNode[]{select.getSelectList(), select.getWhere(), select.getGroup(),
+                select.getHaving(), select.getOrderList()}) {
+            for (SqlIdentifier identifier : getIdentifiers(clause)) {
+                boolean mapped = identifier.names.size() == 1
+                        || identifier.names.size() == 2 && identifier.names.get(0).equals(alias);
+                if (!(mapped && columns.containsKey(Util.last(identifier.names)))
+                        && !(identifier.names.size() == 1 && aliasRefs.contains(identifier.getSimple()))) {
+                    return false;
+                }
+            }
+        }
+        SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+        for (SqlNode item : select.getSelectList()) {
+            SqlNode expr = replace(getExpr(item), identifier -> columns.get(Util.last(identifier.names)));
+            selectList.add(as(expr, getName(item)));
+        }
+        select.setSelectList(selectList);
+        select.setWhere(replace(select.getWhere(), identifier -> columns.get(Util.last(identifier.names))));
+        select.setGroupBy(replace(select.getGroup(), identifier -> columns.get(Util.last(identifier.names))));
+        select.setHaving(replace(select.getHaving(), identifier -> identifier.names.size() == 1
+                && aliasRefs.contains(identifier.getSimple()) ? null : columns.get(Util.last(identifier.names))));
+        select.setOrderBy(replace(select.getOrderList(), identifier -> identifier.names.size() == 1
+                && aliasRefs.contains(identifier.getSimple()) ? null : columns.get(Util.last(identifier.names))));
+        select.setFrom(child.getFrom());
+        return true;
+    }
+
+    /**
+     * merges a select that only picks the columns of its sub-select, with an order or a limit, into the
+     * sub-select, the merged select stays in place of the parent
+     */
+    private boolean mergeParent(SqlSelect select) {
+        SqlSelect child = getSubSelect(select.getFrom());
+        if (child == null || select.getWhere() != null || !isEmpty(select.getGroup()) || select.getHaving() != null
+                || select.isDistinct() || !isEmpty(select.getWindowList()) || !isEmpty(select.getHints())
+                || child.isDistinct() || !isEmpty(child.getOrderList()) || hasLimit(child)
+                || !isEmpty(child.getHints()) || !isEmpty(child.getWindowList())) {
+            return false;
+        }
+        Map<String, SqlNode> columns = getColumns(child);
+        if (columns == null) {
+            return false;
+        }
+        String alias = getName(select.getFrom());
+        Set<String> outputs = new HashSet<>();
+        Set<String> kept = new HashSet<>();
+        SqlNodeList selectList = new SqlNodeList(SqlParserPos.ZERO);
+        for (SqlNode item : isSelectStar(select) ? child.getSelectList() : select.getSelectList()) {
+            SqlNode expr = getExpr(item);
+            if (getName(item) == null) {
+                return false;
+            }
+            String column = isSelectStar(select) ? getName(item) : isColumnOf(expr, alias)
+                    ? Util.last(((SqlIdentifier) expr).names) : null;
+            if (column == null || !columns.containsKey(column)) {
+                return false;
+            }
+            outputs.add(getName(item));
+            if (column.equals(getName(item))) {
+                kept.add(column);
+            }
+            selectList.add(as(columns.get(column), getName(item)));
+        }
+        // the aliases the clauses of the sub-select refer to must stay in the select
+        for (SqlNode clause : new SqlNode[]{child.getWhere(), child.getGroup(), child.getHaving()}) {
+            for (SqlIdentifier identifier : getIdentifiers(clause)) {
+                String name = identifier.toString();
+                if (columns.containsKey(name) && !name.equals(getName(columns.get(name))) && !kept.contains(name)) {
+                    return false;
+                }
+            }
+        }
+        SqlNodeList orderList = select.getOrderList();
+        for (SqlIdentifier identifier : getIdentifiers(orderList)) {
+            if (!outputs.contains(identifier.toString())
+                    && !(isColumnOf(identifier, alias) && columns.containsKey(Util.last(identifier.names)))) {
+                return false;
+            }
+        }
+        select.setSelectList(selectList);
+        select.setOrderBy(replace(orderList, identifier -> outputs.contains(identifier.toString()) ? null
+                : columns.get(Util.last(identifier.names))));
+        select.setFrom(child.getFrom());
+        select.setWhere(child.getWhere());
+        select.setGroupBy(child.getGroup());
+        select.setHaving(child.getHaving());
+        return true;
+    }
+
+    private boolean isColumnOf(SqlNode expr, String alias) {
+        if (!(expr instanceof SqlIdentifier) || isStar(expr)) {
+            return false;
+        }
+        SqlIdentifier identifier = (SqlIdentifier) expr;
+        return identifier.names.size() == 1 || identifier.names.size() == 2 && identifier.names.get(0).equals(alias);
+    }
+
+    private Set<String> getIdentifierNames(SqlNode node) {
+        Set<String> names = new HashSet<>();
+        getIdentifiers(node).forEach(identifier -> names.add(identifier.toString()));
+        return names;
+    }
+}
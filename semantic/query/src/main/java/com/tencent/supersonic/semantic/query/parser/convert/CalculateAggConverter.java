@@ -21,7 +21,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,6 +36,9 @@ import org.springframework.util.CollectionUtils;
 @Slf4j
 public class CalculateAggConverter implements SemanticConverter {
 
+    private static final String LAG_FUNC = "LAG(%s, %d) OVER (%s)";
+    private static final String CK_LAG_FUNC =
+            "lagInFrame(toNullable(%s), %d) OVER (%s ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW)";
 
     private final SemanticQueryEngine parserService;
     private final QueryStructUtils queryStructUtils;
@@ -46,6 +51,9 @@ public class CalculateAggConverter implements SemanticConverter {
     @Value("${metricParser.agg.mysql.lowVersion:5.7}")
     private String mysqlLowVersion;
 
+    @Value("${metricParser.agg.ratio.window:true}")
+    private boolean ratioWindowEnable;
+
 
     public CalculateAggConverter(
             SemanticQueryEngine parserService,
@@ -60,6 +68,13 @@ public class CalculateAggConverter implements SemanticConverter {
     public interface EngineSql {
 
         String sql(QueryStructReq queryStructCmd, boolean isOver, String metricSql);
+
+        /**
+         * the same ratio as sql, computed with window functions in one scan of the metric table
+         *
+         * @param lagFunc the lag over a window, formatted with the column, the offset and the window
+         */
+        String windowSql(QueryStructReq queryStructCmd, boolean isOver, String metricSql, String lagFunc);
     }
 
     public ParseSqlReq generateSqlCommend(QueryStructReq queryStructCmd, EngineTypeEnum engineTypeEnum, String version)
@@ -166,28 +181,67 @@ public class CalculateAggConverter implements SemanticConverter {
         metricTable.setAgg(true);
         sqlCommand.setTables(new ArrayList<>(Collections.singletonList(metricTable)));
         boolean isOver = isOverRatio(queryStructCmd);
-        String sql = "";
+        EngineSql engineSql = null;
         switch (engineTypeEnum) {
             case H2:
-                sql = new H2EngineSql().sql(queryStructCmd, isOver, metricTableName);
+                engineSql = new H2EngineSql();
                 break;
             case MYSQL:
             case DORIS:
             case CLICKHOUSE:
-                if (engineTypeEnum.equals(EngineTypeEnum.MYSQL) && Objects.nonNull(version) && version.startsWith(
-                        mysqlLowVersion)) {
+                if (isMysqlLowVersion(engineTypeEnum, version)) {
                     sqlCommand.setSupportWith(false);
-                    sql = new MysqlEngineSql().sql(queryStructCmd, isOver, metricTableName);
+                    engineSql = new MysqlEngineSql();
                 } else {
-                    sql = new CkEngineSql().sql(queryStructCmd, isOver, metricTableName);
+                    engineSql = new CkEngineSql();
                 }
                 break;
             default:
         }
+        String sql = "";
+        if (Objects.nonNull(engineSql)) {
+            if (isWindowAccept(queryStructCmd, engineTypeEnum, version)) {
+                String lagFunc = EngineTypeEnum.CLICKHOUSE.equals(engineTypeEnum) ? CK_LAG_FUNC : LAG_FUNC;
+                sql = engineSql.windowSql(queryStructCmd, isOver, metricTableName, lagFunc);
+            } else {
+                sql = engineSql.sql(queryStructCmd, isOver, metricTableName);
+            }
+        }
         sqlCommand.setSql(sql);
         return sqlCommand;
     }
 
+    /**
+     * the window plan reads the metric table once instead of joining it to itself, it needs window functions,
+     * which mysql 5.7 lacks, and every aggregator to be a ratio
+     */
+    public boolean isWindowAccept(QueryStructReq queryStructCmd, EngineTypeEnum engineTypeEnum, String version) {
+        if (!ratioWindowEnable) {
+            return false;
+        }
+        boolean allRatio = queryStructCmd.getAggregators().stream()
+                .allMatch(f -> f.getFunc().equals(AggOperatorEnum.RATIO_ROLL)
+                        || f.getFunc().equals(AggOperatorEnum.RATIO_OVER));
+        if (!allRatio) {
+            return false;
+        }
+        switch (engineTypeEnum) {
+            case H2:
+            case DORIS:
+            case CLICKHOUSE:
+                return true;
+            case MYSQL:
+                return !isMysqlLowVersion(engineTypeEnum, version);
+            default:
+                return false;
+        }
+    }
+
+    private boolean isMysqlLowVersion(EngineTypeEnum engineTypeEnum, String version) {
+        return EngineTypeEnum.MYSQL.equals(engineTypeEnum) && Objects.nonNull(version)
+                && version.startsWith(mysqlLowVersion);
+    }
+
     public class H2EngineSql implements EngineSql {
 
         public String getOverSelect(QueryStructReq queryStructCmd, boolean isOver) {
@@ -220,22 +274,28 @@ public class CalculateAggConverter implements SemanticConverter {
             return "";
         }
 
+        /**
+         * the condition under which the previous time is the comparison period of the current time
+         */
+        public String getTimeMatch(QueryStructReq queryStructCmd, boolean isOver, String current, String previous) {
+            String timeSpan = getTimeSpan(queryStructCmd, isOver, true);
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
+                return String.format(
+                        "%s is not null and %s = FORMATDATETIME(DATEADD(%s,CONCAT(%s,'-01')),'yyyy-MM') ",
+                        previous, current, timeSpan, previous);
+            }
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
+                return String.format(" DATE_TRUNC('week',DATEADD(%s,%s) ) = %s ",
+                        getTimeSpan(queryStructCmd, isOver, false), current, previous);
+            }
+            return String.format("%s = TIMESTAMPADD(%s,%s) ", current, timeSpan, previous);
+        }
+
         public String getJoinOn(QueryStructReq queryStructCmd, boolean isOver, String aliasLeft, String aliasRight) {
             String timeDim = getTimeDim(queryStructCmd);
-            String timeSpan = getTimeSpan(queryStructCmd, isOver, true);
             String aggStr = queryStructCmd.getAggregators().stream().map(f -> {
                 if (f.getFunc().equals(AggOperatorEnum.RATIO_OVER) || f.getFunc().equals(AggOperatorEnum.RATIO_ROLL)) {
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
-                        return String.format(
-                                "%s is not null and %s = FORMATDATETIME(DATEADD(%s,CONCAT(%s,'-01')),'yyyy-MM') ",
-                                aliasRight + timeDim, aliasLeft + timeDim, timeSpan, aliasRight + timeDim);
-                    }
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
-                        return String.format(" DATE_TRUNC('week',DATEADD(%s,%s) ) = %s ",
-                                getTimeSpan(queryStructCmd, isOver, false), aliasLeft + timeDim, aliasRight + timeDim);
-                    }
-                    return String.format("%s = TIMESTAMPADD(%s,%s) ",
-                            aliasLeft + timeDim, timeSpan, aliasRight + timeDim);
+                    return getTimeMatch(queryStructCmd, isOver, aliasLeft + timeDim, aliasRight + timeDim);
                 } else {
                     return f.getColumn();
                 }
@@ -261,38 +321,28 @@ public class CalculateAggConverter implements SemanticConverter {
                     getOrderBy(queryStructCmd), getLimit(queryStructCmd));
             return sql;
         }
+
+        @Override
+        public String windowSql(QueryStructReq queryStructCmd, boolean isOver, String metricSql, String lagFunc) {
+            return getWindowSql(queryStructCmd, isOver, metricSql, lagFunc, getOverSelect(queryStructCmd, isOver),
+                    (current, previous) -> getTimeMatch(queryStructCmd, isOver, current, previous));
+        }
     }
 
     public class CkEngineSql extends MysqlEngineSql {
 
-        public String getJoinOn(QueryStructReq queryStructCmd, boolean isOver, String aliasLeft, String aliasRight) {
-            String timeDim = getTimeDim(queryStructCmd);
+        @Override
+        public String getTimeMatch(QueryStructReq queryStructCmd, boolean isOver, String current, String previous) {
             String timeSpan = "INTERVAL  " + getTimeSpan(queryStructCmd, isOver, true);
-            String aggStr = queryStructCmd.getAggregators().stream().map(f -> {
-                if (f.getFunc().equals(AggOperatorEnum.RATIO_OVER) || f.getFunc().equals(AggOperatorEnum.RATIO_ROLL)) {
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
-                        return String.format("toDate(CONCAT(%s,'-01')) = date_add(toDate(CONCAT(%s,'-01')),%s)  ",
-                                aliasLeft + timeDim, aliasRight + timeDim, timeSpan);
-                    }
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
-                        return String.format("toMonday(date_add(%s ,INTERVAL %s) ) = %s",
-                                aliasLeft + timeDim, getTimeSpan(queryStructCmd, isOver, false), aliasRight + timeDim);
-                    }
-                    return String.format("%s = date_add(%s,%s) ",
-                            aliasLeft + timeDim, aliasRight + timeDim, timeSpan);
-                } else {
-                    return f.getColumn();
-                }
-            }).collect(Collectors.joining(" and "));
-            List<String> groups = new ArrayList<>();
-            for (String group : queryStructCmd.getGroups()) {
-                if (group.equalsIgnoreCase(timeDim)) {
-                    continue;
-                }
-                groups.add(aliasLeft + group + " = " + aliasRight + group);
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
+                return String.format("toDate(CONCAT(%s,'-01')) = date_add(toDate(CONCAT(%s,'-01')),%s)  ",
+                        current, previous, timeSpan);
             }
-            return CollectionUtils.isEmpty(groups) ? aggStr
-                    : String.join(" and ", groups) + " and " + aggStr + " ";
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
+                return String.format("toMonday(date_add(%s ,INTERVAL %s) ) = %s",
+                        current, getTimeSpan(queryStructCmd, isOver, false), previous);
+            }
+            return String.format("%s = date_add(%s,%s) ", current, previous, timeSpan);
         }
 
         @Override
@@ -341,21 +391,27 @@ public class CalculateAggConverter implements SemanticConverter {
                     : String.join(",", queryStructCmd.getGroups()) + "," + aggStr;
         }
 
+        /**
+         * the condition under which the previous time is the comparison period of the current time
+         */
+        public String getTimeMatch(QueryStructReq queryStructCmd, boolean isOver, String current, String previous) {
+            String timeSpan = "INTERVAL  " + getTimeSpan(queryStructCmd, isOver, true);
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
+                return String.format("%s = DATE_FORMAT(date_add(CONCAT(%s,'-01'), %s),'%%Y-%%m') ",
+                        current, previous, timeSpan);
+            }
+            if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
+                return String.format("to_monday(date_add(%s ,INTERVAL %s) ) = %s",
+                        current, getTimeSpan(queryStructCmd, isOver, false), previous);
+            }
+            return String.format("%s = date_add(%s,%s) ", current, previous, timeSpan);
+        }
+
         public String getJoinOn(QueryStructReq queryStructCmd, boolean isOver, String aliasLeft, String aliasRight) {
             String timeDim = getTimeDim(queryStructCmd);
-            String timeSpan = "INTERVAL  " + getTimeSpan(queryStructCmd, isOver, true);
             String aggStr = queryStructCmd.getAggregators().stream().map(f -> {
                 if (f.getFunc().equals(AggOperatorEnum.RATIO_OVER) || f.getFunc().equals(AggOperatorEnum.RATIO_ROLL)) {
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.MONTH)) {
-                        return String.format("%s = DATE_FORMAT(date_add(CONCAT(%s,'-01'), %s),'%Y-%m') ",
-                                aliasLeft + timeDim, aliasRight + timeDim, timeSpan);
-                    }
-                    if (queryStructCmd.getDateInfo().getPeriod().equals(Constants.WEEK) && isOver) {
-                        return String.format("to_monday(date_add(%s ,INTERVAL %s) ) = %s",
-                                aliasLeft + timeDim, getTimeSpan(queryStructCmd, isOver, false), aliasRight + timeDim);
-                    }
-                    return String.format("%s = date_add(%s,%s) ",
-                            aliasLeft + timeDim, aliasRight + timeDim, timeSpan);
+                    return getTimeMatch(queryStructCmd, isOver, aliasLeft + timeDim, aliasRight + timeDim);
                 } else {
                     return f.getColumn();
                 }
@@ -381,8 +437,65 @@ public class CalculateAggConverter implements SemanticConverter {
                     getOrderBy(queryStructCmd), getLimit(queryStructCmd));
             return sql;
         }
+
+        @Override
+        public String windowSql(QueryStructReq queryStructCmd, boolean isOver, String metricSql, String lagFunc) {
+            return getWindowSql(queryStructCmd, isOver, metricSql, lagFunc, getOverSelect(queryStructCmd, isOver),
+                    (current, previous) -> getTimeMatch(queryStructCmd, isOver, current, previous));
+        }
+    }
+
+    /**
+     * takes the time and the values of up to getLagDepth preceding rows with the same dimension values, the
+     * first of them whose time matches the comparison period gives the _roll value, a row without one gets
+     * null as the left join of sql does. the metric table holds one row per time and dimension values
+     */
+    private static String getWindowSql(QueryStructReq queryStructCmd, boolean isOver, String metricSql,
+            String lagFunc, String overSelect, BiFunction<String, String, String> timeMatch) {
+        String timeDim = getTimeDim(queryStructCmd);
+        String partition = getGroupDimWithOutTime(queryStructCmd);
+        String window = (partition.isEmpty() ? "" : "PARTITION BY " + partition + " ") + "ORDER BY " + timeDim;
+        int depth = getLagDepth(queryStructCmd, isOver);
+        List<String> lags = new ArrayList<>();
+        List<String> rolls = new ArrayList<>();
+        for (Aggregator agg : queryStructCmd.getAggregators()) {
+            String column = agg.getColumn();
+            lags.add(IntStream.rangeClosed(1, depth)
+                    .mapToObj(i -> String.format(lagFunc, column, i, window) + " AS " + column + "_lag" + i)
+                    .collect(Collectors.joining(",")));
+            rolls.add(IntStream.rangeClosed(1, depth)
+                    .mapToObj(i -> String.format("WHEN %s THEN %s_lag%d",
+                            timeMatch.apply(timeDim, timeDim + "_lag" + i), column, i))
+                    .collect(Collectors.joining(" ", "CASE ", " END AS " + column + "_roll")));
+        }
+        lags.add(IntStream.rangeClosed(1, depth)
+                .mapToObj(i -> String.format(lagFunc, timeDim, i, window) + " AS " + timeDim + "_lag" + i)
+                .collect(Collectors.joining(",")));
+        String current = getAllSelect(queryStructCmd, "");
+        return String.format("select %s from ( select %s , %s from ( select %s , %s from %s ) metric_tb_lag "
+                        + ") metric_tb_src %s %s ", overSelect, current, String.join(",", rolls), current,
+                String.join(",", lags), metricSql, getOrderBy(queryStructCmd), getLimit(queryStructCmd));
     }
 
+    /**
+     * how many rows back the comparison period can be, with the time values aligned to the period
+     */
+    private static int getLagDepth(QueryStructReq queryStructCmd, boolean isOver) {
+        if (!isOver) {
+            return 1;
+        }
+        String period = queryStructCmd.getDateInfo().getPeriod();
+        if (Constants.DAY.equalsIgnoreCase(period)) {
+            return 7;
+        }
+        if (Constants.WEEK.equalsIgnoreCase(period)) {
+            return 6;
+        }
+        if (Constants.MONTH.equalsIgnoreCase(period)) {
+            return 12;
+        }
+        return 1;
+    }
 
     private static String getAllJoinSelect(QueryStructReq queryStructCmd, String alias) {
         String aggStr = queryStructCmd.getAggregators().stream()
@@ -399,7 +512,7 @@ public class CalculateAggConverter implements SemanticConverter {
     }
 
 
-    private String getGroupDimWithOutTime(QueryStructReq queryStructCmd) {
+    private static String getGroupDimWithOutTime(QueryStructReq queryStructCmd) {
         String timeDim = getTimeDim(queryStructCmd);
         return queryStructCmd.getGroups().stream().filter(f -> !f.equalsIgnoreCase(timeDim))
                 .collect(Collectors.joining(","));
@@ -53,8 +53,8 @@ public class MultiSourceJoin implements SemanticConverter {
         Map<String, DimensionResp> dimensionMap = catalog.getDimensions(modelId).stream()
                 .filter(dimensionDesc -> fields.contains(dimensionDesc.getBizName()))
                 .collect(Collectors.toMap(DimensionResp::getBizName, dimensionDesc -> dimensionDesc));
-        List<MetricResp> metricDescList = catalog.getMetrics(modelId).stream()
-                .filter(metricDesc -> aggs.contains(metricDesc.getBizName()))
+        List<MetricResp> metricDescList = aggs.stream().distinct()
+                .map(agg -> catalog.getMetric(agg, modelId)).filter(Objects::nonNull)
                 .collect(Collectors.toList());
         Map<Long, DatasourceResp> datasourceMap = catalog.getDatasourceList(modelId)
                 .stream().collect(Collectors.toMap(DatasourceResp::getId, datasource -> datasource));
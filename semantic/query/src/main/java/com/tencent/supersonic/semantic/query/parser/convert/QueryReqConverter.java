@@ -1,6 +1,6 @@
 package com.tencent.supersonic.semantic.query.parser.convert;
 
-import com.tencent.supersonic.common.util.jsqlparser.SqlParserSelectHelper;
+import com.tencent.supersonic.common.util.jsqlparser.ParsedSql;
 import com.tencent.supersonic.semantic.api.model.request.SqlExecuteReq;
 import com.tencent.supersonic.semantic.api.model.response.DatabaseResp;
 import com.tencent.supersonic.semantic.api.model.response.ModelSchemaResp;
@@ -8,7 +8,6 @@ import com.tencent.supersonic.semantic.api.query.pojo.MetricTable;
 import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryDslReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
-import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.model.domain.adaptor.engineadapter.EngineAdaptor;
 import com.tencent.supersonic.semantic.model.domain.adaptor.engineadapter.EngineAdaptorFactory;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
@@ -31,8 +30,6 @@ import org.springframework.util.CollectionUtils;
 @Slf4j
 public class QueryReqConverter {
 
-    @Autowired
-    private ModelService domainService;
     @Autowired
     private SemanticQueryEngine parserService;
     @Autowired
@@ -46,8 +43,9 @@ public class QueryReqConverter {
         List<MetricTable> tables = new ArrayList<>();
         MetricTable metricTable = new MetricTable();
 
-        List<String> allFields = SqlParserSelectHelper.getAllFields(databaseReq.getSql());
-        String tableName = SqlParserSelectHelper.getTableName(databaseReq.getSql());
+        ParsedSql parsedSql = ParsedSql.parse(databaseReq.getSql());
+        List<String> allFields = parsedSql.getAllFields();
+        String tableName = parsedSql.getTableName();
 
         functionNameCorrector(databaseReq);
 
@@ -84,7 +82,7 @@ public class QueryReqConverter {
 
         ParseSqlReq result = new ParseSqlReq();
         BeanUtils.copyProperties(databaseReq, result);
-        result.setRootPath(domainService.getModelFullPathMap().get(databaseReq.getModelId()));
+        result.setRootPath(catalog.getModelFullPath().get(databaseReq.getModelId()));
         result.setTables(tables);
 
         QueryStatement queryStatement = parserService.physicalSql(result);
@@ -3,13 +3,22 @@ package com.tencent.supersonic.semantic.query.persistence.mapper;
 
 import com.tencent.supersonic.semantic.api.model.pojo.QueryStat;
 import com.tencent.supersonic.semantic.api.query.request.ItemUseReq;
+import com.tencent.supersonic.semantic.query.persistence.pojo.ItemUseStat;
 import java.util.List;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 @Mapper
 public interface StatMapper {
 
     Boolean createRecord(QueryStat queryStatInfo);
 
+    Boolean batchCreateRecord(List<QueryStat> queryStatInfos);
+
     List<QueryStat> getStatInfo(ItemUseReq itemUseCommend);
+
+    /**
+     * stats created since the start day, counted per model, day, dimensions and metrics
+     */
+    List<ItemUseStat> getItemUseStat(@Param("startDay") String startDay);
 }
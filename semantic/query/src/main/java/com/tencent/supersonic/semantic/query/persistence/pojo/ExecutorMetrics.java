@@ -0,0 +1,19 @@
+package com.tencent.supersonic.semantic.query.persistence.pojo;
+
+import lombok.Data;
+
+@Data
+public class ExecutorMetrics {
+
+    private Long databaseId;
+    private int poolSize;
+    private int activeCount;
+    private int queueSize;
+    private long submittedCount;
+    private long rejectedCount;
+    private long timeoutCount;
+    private long failedCount;
+    private long avgQueueMillis;
+    private long maxQueueMillis;
+
+}
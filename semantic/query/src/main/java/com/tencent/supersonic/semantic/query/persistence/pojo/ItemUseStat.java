@@ -0,0 +1,17 @@
+package com.tencent.supersonic.semantic.query.persistence.pojo;
+
+import lombok.Data;
+
+/**
+ * the number of query stats of a model on a day with the same dimensions and metrics
+ */
+@Data
+public class ItemUseStat {
+
+    private Long modelId;
+    private String statDay;
+    private String dimensions;
+    private String metrics;
+    private long useCnt;
+
+}
@@ -0,0 +1,19 @@
+package com.tencent.supersonic.semantic.query.persistence.pojo;
+
+import lombok.Data;
+
+@Data
+public class StatWriterMetrics {
+
+    private int queueSize;
+    private int queueCapacity;
+    private long acceptedCount;
+    private long sampledOutCount;
+    private long droppedCount;
+    private long writtenCount;
+    private long failedCount;
+    private long flushCount;
+    private long avgFlushMillis;
+    private long maxFlushMillis;
+
+}
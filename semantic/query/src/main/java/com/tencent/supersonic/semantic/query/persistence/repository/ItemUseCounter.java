@@ -0,0 +1,217 @@
+package com.tencent.supersonic.semantic.query.persistence.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tencent.supersonic.common.pojo.Constants;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
+import com.tencent.supersonic.semantic.api.model.pojo.QueryStat;
+import com.tencent.supersonic.semantic.api.query.request.ItemUseReq;
+import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
+import com.tencent.supersonic.semantic.query.persistence.mapper.StatMapper;
+import com.tencent.supersonic.semantic.query.persistence.pojo.ItemUseStat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * usage counts of dimensions and metrics per model, rolled up by day and updated as query stats are written.
+ * the history of the last retention days is loaded once on first use and again by the scheduled rebuild,
+ * which also picks up the stats written by other instances. it is counted per day in sql, so the load reads
+ * one row per model, day and item combination instead of every query stat.
+ */
+@Slf4j
+@Component
+public class ItemUseCounter {
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern(Constants.DAY_FORMAT);
+    private static final Comparator<ItemUseResp> USE_CNT_DESC = Comparator.comparing(ItemUseResp::getUseCnt)
+            .reversed();
+
+    private final StatMapper statMapper;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${stat.item.use.retention.days:365}")
+    private int retentionDays;
+
+    private volatile Counts counts;
+
+    public ItemUseCounter(StatMapper statMapper) {
+        this.statMapper = statMapper;
+    }
+
+    /**
+     * counts the items of stats that were just written, ignored until the history is loaded
+     */
+    public void record(List<QueryStat> queryStats) {
+        Counts current = counts;
+        if (current == null) {
+            return;
+        }
+        String today = LocalDate.now().format(DAY_FORMATTER);
+        queryStats.forEach(stat -> add(current, stat, today));
+    }
+
+    /**
+     * the start time is resolved to its day, stats of that whole day are counted. stats older than the
+     * retention days are not counted, also when the start time is earlier or not given
+     *
+     * @return the usage ranking, null if the request filters by metric, which needs the raw stats
+     */
+    public List<ItemUseResp> getItemUse(ItemUseReq itemUseReq) {
+        if (Strings.isNotEmpty(itemUseReq.getMetric())) {
+            return null;
+        }
+        Counts current = getCounts();
+        List<ItemUseResp> ranking;
+        if (Strings.isEmpty(itemUseReq.getStartTime())) {
+            ranking = current.getRanking();
+        } else {
+            ranking = current.rankSince(itemUseReq.getStartTime().substring(0,
+                    Math.min(Constants.DAY_FORMAT.length(), itemUseReq.getStartTime().length())));
+        }
+        if (Objects.isNull(itemUseReq.getModelId())) {
+            return new ArrayList<>(ranking);
+        }
+        return ranking.stream().filter(itemUse -> itemUseReq.getModelId().equals(itemUse.getDomainId()))
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(cron = "${stat.item.use.rebuild.cron:0 30 3 * * ?}")
+    public void rebuild() {
+        try {
+            load();
+        } catch (Exception e) {
+            log.error("rebuild item use counts error", e);
+        }
+    }
+
+    private synchronized void load() {
+        long start = System.currentTimeMillis();
+        Counts loaded = new Counts();
+        String startDay = LocalDate.now().minusDays(retentionDays).format(DAY_FORMATTER);
+        List<ItemUseStat> itemUseStats = statMapper.getItemUseStat(startDay);
+        for (ItemUseStat stat : itemUseStats) {
+            String day = stat.getStatDay().substring(0, Math.min(Constants.DAY_FORMAT.length(),
+                    stat.getStatDay().length()));
+            addItems(loaded, stat.getModelId(), day, TypeEnums.DIMENSION.getName(), stat.getDimensions(),
+                    stat.getUseCnt());
+            addItems(loaded, stat.getModelId(), day, TypeEnums.METRIC.getName(), stat.getMetrics(),
+                    stat.getUseCnt());
+        }
+        counts = loaded;
+        log.info("item use counts loaded, rows:{}, days:{}, cost:{}ms", itemUseStats.size(), loaded.days.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    private Counts getCounts() {
+        Counts current = counts;
+        if (current == null) {
+            synchronized (this) {
+                if (counts == null) {
+                    load();
+                }
+                current = counts;
+            }
+        }
+        return current;
+    }
+
+    private void add(Counts target, QueryStat stat, String day) {
+        addItems(target, stat.getModelId(), day, TypeEnums.DIMENSION.getName(), stat.getDimensions(), 1);
+        addItems(target, stat.getModelId(), day, TypeEnums.METRIC.getName(), stat.getMetrics(), 1);
+    }
+
+    private void addItems(Counts target, Long modelId, String day, String type, String items, long useCnt) {
+        if (Strings.isEmpty(items)) {
+            return;
+        }
+        try {
+            List<String> bizNames = mapper.readValue(items, new TypeReference<List<String>>() {
+            });
+            bizNames.forEach(bizName -> target.add(day, new ItemKey(modelId, type, bizName), useCnt));
+        } catch (Exception e) {
+            log.warn("parse stat items error, items:{}", items, e);
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class ItemKey {
+
+        private final Long modelId;
+        private final String type;
+        private final String bizName;
+
+        ItemKey(Long modelId, String type, String bizName) {
+            this.modelId = modelId;
+            this.type = type;
+            this.bizName = bizName;
+        }
+
+        ItemUseResp toResp(long useCnt) {
+            return new ItemUseResp(modelId, type, bizName, useCnt);
+        }
+    }
+
+    private static class Counts {
+
+        private final ConcurrentSkipListMap<String, Map<ItemKey, LongAdder>> days = new ConcurrentSkipListMap<>();
+        private final Map<ItemKey, LongAdder> totals = new ConcurrentHashMap<>();
+        private final AtomicLong version = new AtomicLong();
+        /**
+         * the ranking of the totals with the version of the counts it was sorted at
+         */
+        private volatile SimpleImmutableEntry<Long, List<ItemUseResp>> ranking;
+
+        void add(String day, ItemKey key, long useCnt) {
+            days.computeIfAbsent(day, k -> new ConcurrentHashMap<>()).computeIfAbsent(key, k -> new LongAdder())
+                    .add(useCnt);
+            totals.computeIfAbsent(key, k -> new LongAdder()).add(useCnt);
+            version.incrementAndGet();
+        }
+
+        /**
+         * sorted once per change of the counts, reads between changes share it
+         */
+        List<ItemUseResp> getRanking() {
+            SimpleImmutableEntry<Long, List<ItemUseResp>> current = ranking;
+            long currentVersion = version.get();
+            if (current == null || current.getKey() != currentVersion) {
+                current = new SimpleImmutableEntry<>(currentVersion, rank(totals));
+                ranking = current;
+            }
+            return current.getValue();
+        }
+
+        List<ItemUseResp> rankSince(String day) {
+            Map<ItemKey, LongAdder> merged = new HashMap<>();
+            days.tailMap(day, true).values()
+                    .forEach(dayCounts -> dayCounts.forEach(
+                            (key, count) -> merged.computeIfAbsent(key, k -> new LongAdder()).add(count.sum())));
+            return rank(merged);
+        }
+
+        private static List<ItemUseResp> rank(Map<ItemKey, LongAdder> counts) {
+            List<ItemUseResp> result = new ArrayList<>(counts.size());
+            counts.forEach((key, count) -> result.add(key.toResp(count.sum())));
+            result.sort(USE_CNT_DESC);
+            return result;
+        }
+    }
+}
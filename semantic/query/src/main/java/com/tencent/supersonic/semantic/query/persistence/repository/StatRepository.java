@@ -9,6 +9,8 @@ public interface StatRepository {
 
     Boolean createRecord(QueryStat queryStatInfo);
 
+    Boolean batchCreateRecord(List<QueryStat> queryStatInfos);
+
     List<ItemUseResp> getStatInfo(ItemUseReq itemUseCommend);
 
     List<QueryStat> getQueryStatInfoWithoutCache(ItemUseReq itemUseCommend);
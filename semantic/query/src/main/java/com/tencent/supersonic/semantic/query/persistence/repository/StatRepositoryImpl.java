@@ -10,6 +10,7 @@ import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
 import com.tencent.supersonic.common.pojo.enums.TypeEnums;
 import com.tencent.supersonic.semantic.query.persistence.mapper.StatMapper;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -25,19 +26,40 @@ import org.springframework.stereotype.Repository;
 public class StatRepositoryImpl implements StatRepository {
 
     private final StatMapper statMapper;
+    private final ItemUseCounter itemUseCounter;
     private final ObjectMapper mapper = new ObjectMapper();
 
-    public StatRepositoryImpl(StatMapper statMapper) {
+    public StatRepositoryImpl(StatMapper statMapper, ItemUseCounter itemUseCounter) {
         this.statMapper = statMapper;
+        this.itemUseCounter = itemUseCounter;
     }
 
     @Override
     public Boolean createRecord(QueryStat queryStatInfo) {
-        return statMapper.createRecord(queryStatInfo);
+        Boolean created = statMapper.createRecord(queryStatInfo);
+        itemUseCounter.record(Collections.singletonList(queryStatInfo));
+        return created;
     }
 
+    @Override
+    public Boolean batchCreateRecord(List<QueryStat> queryStatInfos) {
+        if (queryStatInfos.isEmpty()) {
+            return true;
+        }
+        Boolean created = statMapper.batchCreateRecord(queryStatInfos);
+        itemUseCounter.record(queryStatInfos);
+        return created;
+    }
+
+    /**
+     * served from the pre-aggregated counts, only a filter by metric still counts the raw stats
+     */
     @Override
     public List<ItemUseResp> getStatInfo(ItemUseReq itemUseCommend) {
+        List<ItemUseResp> itemUse = itemUseCounter.getItemUse(itemUseCommend);
+        if (itemUse != null) {
+            return itemUse;
+        }
         List<ItemUseResp> result = new ArrayList<>();
         List<QueryStat> statInfos = statMapper.getStatInfo(itemUseCommend);
         Map<String, Long> map = new ConcurrentHashMap<>();
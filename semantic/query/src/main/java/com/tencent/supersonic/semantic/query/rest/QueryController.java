@@ -1,7 +1,12 @@
 package com.tencent.supersonic.semantic.query.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
 import com.tencent.supersonic.auth.api.authentication.utils.UserHolder;
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.common.util.cache.CacheMetrics;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.SqlParserResp;
 import com.tencent.supersonic.semantic.api.query.request.QueryDslReq;
 import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
@@ -9,18 +14,27 @@ import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
 import com.tencent.supersonic.semantic.api.query.request.ItemUseReq;
 import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
+import com.tencent.supersonic.semantic.query.executor.QueryExecutorPool;
+import com.tencent.supersonic.semantic.query.persistence.pojo.ExecutorMetrics;
+import com.tencent.supersonic.semantic.query.persistence.pojo.StatWriterMetrics;
 import com.tencent.supersonic.semantic.query.service.SemanticQueryEngine;
 import com.tencent.supersonic.semantic.query.service.QueryService;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import com.tencent.supersonic.semantic.query.utils.StatWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
@@ -33,6 +47,12 @@ public class QueryController {
     private QueryService queryService;
     @Autowired
     private SemanticQueryEngine semanticQueryEngine;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private QueryExecutorPool queryExecutorPool;
+    @Autowired
+    private StatWriter statWriter;
 
 
     @PostMapping("/sql")
@@ -53,6 +73,62 @@ public class QueryController {
         return queryService.queryByStructWithAuth(queryStructReq, user);
     }
 
+    /**
+     * queryByStructStream
+     * write rows straight to the response instead of materializing the whole result, for large exports
+     */
+    @PostMapping("/struct/stream")
+    public void queryByStructStream(@RequestBody QueryStructReq queryStructReq,
+            HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        User user = UserHolder.findUser(request, response);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+        queryService.queryByStructStream(queryStructReq, user, new ResultRowConsumer() {
+            private List<QueryColumn> columns;
+
+            @Override
+            public void onSchema(List<QueryColumn> columns) {
+                this.columns = columns;
+                try {
+                    generator.writeStartObject();
+                    generator.writeFieldName("columns");
+                    objectMapper.writeValue(generator, columns);
+                    generator.writeArrayFieldStart("resultList");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onRow(Object[] row) {
+                try {
+                    generator.writeStartObject();
+                    for (int i = 0; i < row.length; i++) {
+                        generator.writeObjectField(columns.get(i).getNameEn(), row[i]);
+                    }
+                    generator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public void onComplete(long rowCount) {
+                try {
+                    generator.writeEndArray();
+                    generator.writeNumberField("totalCount", rowCount);
+                    generator.writeEndObject();
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        generator.close();
+    }
+
     @PostMapping("/struct/parse")
     public SqlParserResp parseByStruct(@RequestBody ParseSqlReq parseSqlReq,
             HttpServletRequest request,
@@ -85,4 +161,40 @@ public class QueryController {
         return queryService.getStatInfo(itemUseReq);
     }
 
+    /**
+     * evictCache
+     * evict the cached results of the model or the datasource after its data is refreshed
+     */
+    @PostMapping("/cache/evict")
+    public Boolean evictCache(@RequestParam(value = "modelId", required = false) Long modelId,
+            @RequestParam(value = "datasourceId", required = false) Long datasourceId,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        User user = UserHolder.findUser(request, response);
+        return queryService.evictResultCache(modelId, datasourceId, user);
+    }
+
+    @GetMapping("/cache/stats")
+    public CacheMetrics getCacheStats() {
+        return queryService.getResultCacheMetrics();
+    }
+
+    /**
+     * getExecutorStats
+     * concurrency, queue time, rejection and timeout counters of the query pool per database
+     */
+    @GetMapping("/executor/stats")
+    public List<ExecutorMetrics> getExecutorStats() {
+        return queryExecutorPool.getMetrics();
+    }
+
+    /**
+     * getStatWriterStats
+     * queue depth, sampled out and dropped records and flush latency of the query statistics writer
+     */
+    @GetMapping("/stat/writer/stats")
+    public StatWriterMetrics getStatWriterStats() {
+        return statWriter.getMetrics();
+    }
+
 }
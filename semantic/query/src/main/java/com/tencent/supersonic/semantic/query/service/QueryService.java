@@ -1,6 +1,8 @@
 package com.tencent.supersonic.semantic.query.service;
 
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.util.cache.CacheMetrics;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.request.ItemUseReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
@@ -18,8 +20,19 @@ public interface QueryService {
     QueryResultWithSchemaResp queryByStructWithAuth(QueryStructReq queryStructCmd, User user)
             throws Exception;
 
+    void queryByStructStream(QueryStructReq queryStructCmd, User user, ResultRowConsumer consumer)
+            throws Exception;
+
     QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructCmd, User user) throws Exception;
 
     List<ItemUseResp> getStatInfo(ItemUseReq itemUseCommend);
 
+    /**
+     * evict the cached results read from the model or the datasource, e.g. after the underlying data is refreshed,
+     * the user must be an admin of the model, or of the model of the datasource
+     */
+    Boolean evictResultCache(Long modelId, Long datasourceId, User user);
+
+    CacheMetrics getResultCacheMetrics();
+
 }
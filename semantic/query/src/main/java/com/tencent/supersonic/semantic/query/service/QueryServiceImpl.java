@@ -1,10 +1,16 @@
 package com.tencent.supersonic.semantic.query.service;
 
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.enums.AuthType;
 import com.tencent.supersonic.common.pojo.enums.TaskStatusEnum;
+import com.tencent.supersonic.common.pojo.exception.InvalidPermissionException;
+import com.tencent.supersonic.common.util.cache.CacheMetrics;
 import com.tencent.supersonic.common.util.cache.CacheUtils;
 import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.common.util.SingleFlight;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.request.ModelSchemaFilterReq;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
 import com.tencent.supersonic.semantic.api.model.response.ModelSchemaResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.pojo.Cache;
@@ -13,17 +19,24 @@ import com.tencent.supersonic.semantic.api.query.request.QueryDslReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
+import com.tencent.supersonic.semantic.model.domain.DatasourceService;
+import com.tencent.supersonic.semantic.model.domain.ModelService;
 import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
+import com.tencent.supersonic.semantic.query.executor.QueryExecutorPool;
 import com.tencent.supersonic.semantic.query.parser.convert.QueryReqConverter;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
 import com.tencent.supersonic.semantic.query.utils.QueryUtils;
 import com.tencent.supersonic.semantic.query.utils.StatUtils;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -32,15 +45,27 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class QueryServiceImpl implements QueryService {
 
+    private static final String SQL_KEY_PREFIX = "sql:";
+    private static final String UNION_SUB_KEY_PREFIX = "union_sub:";
 
     private final StatUtils statUtils;
     private final CacheUtils cacheUtils;
     private final QueryUtils queryUtils;
     private final QueryReqConverter queryReqConverter;
+    private final QueryExecutorPool queryExecutorPool;
 
     @Value("${query.cache.enable:true}")
     private Boolean cacheEnable;
 
+    @Value("${query.coalesce.enable:true}")
+    private Boolean coalesceEnable;
+
+    @Value("${query.multi.fanout.enable:true}")
+    private Boolean fanOutEnable;
+
+    // identical queries running at the same time share one execution against the database
+    private final SingleFlight<QueryResultWithSchemaResp> resultFlight = new SingleFlight<>();
+
     private final SemanticQueryEngine semanticQueryEngine;
 
     public QueryServiceImpl(
@@ -48,27 +73,25 @@ public class QueryServiceImpl implements QueryService {
             CacheUtils cacheUtils,
             QueryUtils queryUtils,
             QueryReqConverter queryReqConverter,
+            QueryExecutorPool queryExecutorPool,
             SemanticQueryEngine semanticQueryEngine) {
         this.statUtils = statUtils;
         this.cacheUtils = cacheUtils;
         this.queryUtils = queryUtils;
         this.queryReqConverter = queryReqConverter;
+        this.queryExecutorPool = queryExecutorPool;
         this.semanticQueryEngine = semanticQueryEngine;
     }
 
     @Override
     public Object queryBySql(QueryDslReq querySqlCmd, User user) throws Exception {
-        ModelSchemaFilterReq filter = new ModelSchemaFilterReq();
-        List<Long> modelIds = new ArrayList<>();
-        modelIds.add(querySqlCmd.getModelId());
-
-        filter.setModelIds(modelIds);
-        SchemaService schemaService = ContextUtils.getBean(SchemaService.class);
-        List<ModelSchemaResp> domainSchemas = schemaService.fetchModelSchema(filter, user);
-
-        QueryStatement queryStatement = queryReqConverter.convert(querySqlCmd, domainSchemas);
-        queryStatement.setModelId(querySqlCmd.getModelId());
-        return semanticQueryEngine.execute(queryStatement);
+        if (!coalesceEnable) {
+            return executeSql(querySqlCmd, user);
+        }
+        // the schema of the model is fetched with the permissions of the user, so only the same user shares
+        String key = cacheUtils.generateCacheKey(String.valueOf(querySqlCmd.getModelId()),
+                SQL_KEY_PREFIX + user.getName() + ":" + querySqlCmd.generateCommandMd5());
+        return resultFlight.execute(key, () -> executeSql(querySqlCmd, user), QueryUtils::copyResult);
     }
 
     @Override
@@ -89,14 +112,11 @@ public class QueryServiceImpl implements QueryService {
                 }
             }
             StatUtils.get().setUseResultCache(false);
-            QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
-            QueryExecutor queryExecutor = semanticQueryEngine.route(queryStatement);
-            if (queryExecutor != null) {
-                queryResultWithColumns = semanticQueryEngine.execute(queryStatement);
-                if (isCache) {
-                    // if queryResultWithColumns is not null, update cache data
-                    queryUtils.cacheResultLogic(cacheKey, queryResultWithColumns);
-                }
+            if (coalesceEnable) {
+                queryResultWithColumns = resultFlight.execute(cacheKey,
+                        () -> executeStruct(queryStructCmd, cacheKey, isCache), QueryUtils::copyResult);
+            } else {
+                queryResultWithColumns = executeStruct(queryStructCmd, cacheKey, isCache);
             }
             statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
             return queryResultWithColumns;
@@ -114,6 +134,23 @@ public class QueryServiceImpl implements QueryService {
         return queryByStruct(queryStructCmd, user);
     }
 
+    @Override
+    @DataPermission
+    public void queryByStructStream(QueryStructReq queryStructCmd, User user, ResultRowConsumer consumer)
+            throws Exception {
+        log.info("[stream queryStructCmd:{}]", queryStructCmd);
+        try {
+            statUtils.initStatInfo(queryStructCmd, user);
+            StatUtils.get().setUseResultCache(false);
+            QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
+            semanticQueryEngine.stream(queryStatement, consumer);
+            statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
+        } catch (Exception e) {
+            log.warn("exception in queryByStructStream, e: ", e);
+            statUtils.statInfo2DbAsync(TaskStatusEnum.ERROR);
+            throw e;
+        }
+    }
 
     @Override
     public QueryResultWithSchemaResp queryByMultiStruct(QueryMultiStructReq queryMultiStructReq, User user)
@@ -133,19 +170,14 @@ public class QueryServiceImpl implements QueryService {
         }
         log.info("stat queryByStructWithoutCache, queryMultiStructReq:{}", queryMultiStructReq);
         try {
-            List<QueryStatement> sqlParsers = new ArrayList<>();
-            for (QueryStructReq queryStructCmd : queryMultiStructReq.getQueryStructReqs()) {
-                QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
-                queryUtils.checkSqlParse(queryStatement);
-                sqlParsers.add(queryStatement);
+            if (coalesceEnable) {
+                queryResultWithColumns = resultFlight.execute(cacheKey,
+                        () -> executeMultiStruct(queryMultiStructReq, cacheKey, isCache), QueryUtils::copyResult);
+            } else {
+                queryResultWithColumns = executeMultiStruct(queryMultiStructReq, cacheKey, isCache);
             }
-            log.info("multi sqlParser:{}", sqlParsers);
-
-            QueryStatement sqlParser = queryUtils.sqlParserUnion(queryMultiStructReq, sqlParsers);
-            queryResultWithColumns = semanticQueryEngine.execute(sqlParser);
             if (queryResultWithColumns != null) {
                 statUtils.statInfo2DbAsync(TaskStatusEnum.SUCCESS);
-                queryUtils.fillItemNameInfo(queryResultWithColumns, queryMultiStructReq);
             }
             return queryResultWithColumns;
         } catch (Exception e) {
@@ -155,6 +187,143 @@ public class QueryServiceImpl implements QueryService {
         }
     }
 
+    private QueryResultWithSchemaResp executeSql(QueryDslReq querySqlCmd, User user) throws Exception {
+        ModelSchemaFilterReq filter = new ModelSchemaFilterReq();
+        List<Long> modelIds = new ArrayList<>();
+        modelIds.add(querySqlCmd.getModelId());
+
+        filter.setModelIds(modelIds);
+        SchemaService schemaService = ContextUtils.getBean(SchemaService.class);
+        List<ModelSchemaResp> domainSchemas = schemaService.fetchModelSchema(filter, user);
+
+        QueryStatement queryStatement = queryReqConverter.convert(querySqlCmd, domainSchemas);
+        queryStatement.setModelId(querySqlCmd.getModelId());
+        return semanticQueryEngine.execute(queryStatement);
+    }
+
+    private QueryResultWithSchemaResp executeStruct(QueryStructReq queryStructCmd, String cacheKey,
+            boolean isCache) throws Exception {
+        long generation = cacheUtils.getGeneration();
+        QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
+        QueryExecutor queryExecutor = semanticQueryEngine.route(queryStatement);
+        if (queryExecutor == null) {
+            return null;
+        }
+        QueryResultWithSchemaResp queryResultWithColumns = semanticQueryEngine.execute(queryStatement);
+        if (isCache) {
+            // if queryResultWithColumns is not null, update cache data
+            queryUtils.cacheResultLogic(cacheKey, queryResultWithColumns,
+                    Collections.singleton(queryStructCmd.getModelId()), generation);
+        }
+        return queryResultWithColumns;
+    }
+
+    private QueryResultWithSchemaResp executeMultiStruct(QueryMultiStructReq queryMultiStructReq, String cacheKey,
+            boolean isCache) throws Exception {
+        long generation = cacheUtils.getGeneration();
+        List<QueryStatement> sqlParsers = new ArrayList<>();
+        for (QueryStructReq queryStructCmd : queryMultiStructReq.getQueryStructReqs()) {
+            QueryStatement queryStatement = semanticQueryEngine.plan(queryStructCmd);
+            queryUtils.checkSqlParse(queryStatement);
+            sqlParsers.add(queryStatement);
+        }
+        log.info("multi sqlParser:{}", sqlParsers);
+
+        QueryResultWithSchemaResp queryResultWithColumns;
+        List<QueryResultWithSchemaResp> cachedResults = queryUnionSubByCache(queryMultiStructReq, isCache);
+        if (isFanOut(sqlParsers, cachedResults)) {
+            queryResultWithColumns = executeFanOut(queryMultiStructReq, sqlParsers, cachedResults, isCache,
+                    generation);
+        } else {
+            QueryStatement sqlParser = queryUtils.sqlParserUnion(queryMultiStructReq, sqlParsers);
+            queryResultWithColumns = semanticQueryEngine.execute(sqlParser);
+        }
+        if (queryResultWithColumns != null) {
+            queryUtils.fillItemNameInfo(queryResultWithColumns, queryMultiStructReq);
+            if (isCache) {
+                queryUtils.cacheResultLogic(cacheKey, queryResultWithColumns,
+                        queryMultiStructReq.getQueryStructReqs().stream().map(QueryStructReq::getModelId)
+                                .collect(Collectors.toSet()), generation);
+            }
+        }
+        return queryResultWithColumns;
+    }
+
+    /**
+     * a union all runs as one statement on the database of the first sub query, the sub queries run apart when
+     * they are on different databases. on one database they run apart only while the database has an idle
+     * thread for every sub query not cached, otherwise the request would queue behind itself and take the
+     * threads of other requests, and one union all is cheaper
+     */
+    boolean isFanOut(List<QueryStatement> sqlParsers, List<QueryResultWithSchemaResp> cachedResults) {
+        if (sqlParsers.size() < 2) {
+            return false;
+        }
+        if (sqlParsers.stream().map(QueryStatement::getSourceId).distinct().count() > 1) {
+            return true;
+        }
+        String sourceId = sqlParsers.get(0).getSourceId();
+        if (!fanOutEnable || StringUtils.isEmpty(sourceId)) {
+            return false;
+        }
+        long uncached = cachedResults.stream().filter(Objects::isNull).count();
+        return uncached <= queryExecutorPool.getIdleCount(Long.parseLong(sourceId));
+    }
+
+    /**
+     * @return the cached result of each sub query, null for the ones not cached
+     */
+    private List<QueryResultWithSchemaResp> queryUnionSubByCache(QueryMultiStructReq queryMultiStructReq,
+            boolean isCache) {
+        List<QueryResultWithSchemaResp> cachedResults = new ArrayList<>();
+        for (QueryStructReq queryStructCmd : queryMultiStructReq.getQueryStructReqs()) {
+            cachedResults.add(isCache && fanOutEnable
+                    ? queryByCache(getUnionSubCacheKey(queryStructCmd), queryStructCmd) : null);
+        }
+        return cachedResults;
+    }
+
+    /**
+     * runs the sub queries not cached at once, each database bounds how many of them run in parallel, and
+     * merges their results as the union all would
+     */
+    private QueryResultWithSchemaResp executeFanOut(QueryMultiStructReq queryMultiStructReq,
+            List<QueryStatement> sqlParsers, List<QueryResultWithSchemaResp> cachedResults, boolean isCache,
+            long generation) {
+        List<CompletableFuture<QueryResultWithSchemaResp>> futures = new ArrayList<>();
+        for (int i = 0; i < sqlParsers.size(); i++) {
+            if (cachedResults.get(i) != null) {
+                futures.add(CompletableFuture.completedFuture(cachedResults.get(i)));
+                continue;
+            }
+            QueryStructReq queryStructCmd = queryMultiStructReq.getQueryStructReqs().get(i);
+            QueryStatement subSqlParser = queryUtils.sqlParserUnionSub(queryStructCmd, sqlParsers.get(i), i);
+            futures.add(semanticQueryEngine.executeAsync(subSqlParser));
+        }
+        log.info("multi struct fan out, sub queries:{}, cached:{}", futures.size(),
+                cachedResults.stream().filter(Objects::nonNull).count());
+        List<QueryResultWithSchemaResp> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                QueryResultWithSchemaResp queryResultWithColumns = queryExecutorPool.await(futures.get(i));
+                if (isCache && cachedResults.get(i) == null) {
+                    QueryStructReq queryStructCmd = queryMultiStructReq.getQueryStructReqs().get(i);
+                    queryUtils.cacheResultLogic(getUnionSubCacheKey(queryStructCmd), queryResultWithColumns,
+                            Collections.singleton(queryStructCmd.getModelId()), generation);
+                }
+                results.add(queryResultWithColumns);
+            }
+        } finally {
+            // a failed sub query fails the whole query, the ones still running are cancelled
+            futures.forEach(future -> future.cancel(true));
+        }
+        return queryUtils.mergeUnionResult(results);
+    }
+
+    private String getUnionSubCacheKey(QueryStructReq queryStructCmd) {
+        return cacheUtils.generateCacheKey(queryStructCmd.getModelId().toString(),
+                UNION_SUB_KEY_PREFIX + queryStructCmd.generateCommandMd5());
+    }
 
     private void handleGlobalCacheDisable(QueryStructReq queryStructCmd) {
         if (!cacheEnable) {
@@ -170,6 +339,47 @@ public class QueryServiceImpl implements QueryService {
         return statInfos;
     }
 
+    @Override
+    public Boolean evictResultCache(Long modelId, Long datasourceId, User user) {
+        if (Objects.nonNull(modelId)) {
+            checkModelAdmin(modelId, user);
+        }
+        if (Objects.nonNull(datasourceId)) {
+            DatasourceResp datasourceResp = ContextUtils.getBean(DatasourceService.class)
+                    .getDatasourceMap().get(datasourceId);
+            if (datasourceResp == null) {
+                throw new RuntimeException(String.format("datasource:%s not found", datasourceId));
+            }
+            checkModelAdmin(datasourceResp.getModelId(), user);
+        }
+        if (Objects.nonNull(modelId)) {
+            cacheUtils.removeByTag(QueryUtils.getModelCacheTag(modelId));
+        }
+        if (Objects.nonNull(datasourceId)) {
+            cacheUtils.removeByTag(QueryUtils.getDatasourceCacheTag(datasourceId));
+        }
+        return true;
+    }
+
+    /**
+     * evicting drops the cached results of every user of the model, only its admins may do it
+     */
+    private void checkModelAdmin(Long modelId, User user) {
+        ModelService modelService = ContextUtils.getBean(ModelService.class);
+        boolean isAdmin = modelService.getModelListWithAuth(user.getName(), null, AuthType.ADMIN).stream()
+                .anyMatch(modelResp -> modelResp.getId().equals(modelId));
+        if (!isAdmin) {
+            List<String> admins = modelService.getModelAdmin(modelId);
+            throw new InvalidPermissionException(
+                    String.format("您没有主题域[%s]的管理权限, 无法清除缓存, 请联系管理员%s", modelId, admins));
+        }
+    }
+
+    @Override
+    public CacheMetrics getResultCacheMetrics() {
+        return cacheUtils.getMetrics();
+    }
+
     private boolean isCache(QueryStructReq queryStructCmd) {
         if (!cacheEnable) {
             return false;
@@ -197,7 +407,8 @@ public class QueryServiceImpl implements QueryService {
         if (Objects.nonNull(resultObject)) {
             log.info("queryByStructWithCache, key:{}, queryCmd:{}", key, queryCmd.toString());
             statUtils.updateResultCacheKey(key);
-            return (QueryResultWithSchemaResp) resultObject;
+            // the aspects rewrite the result they get, the cached one stays untouched
+            return QueryUtils.copyResult((QueryResultWithSchemaResp) resultObject);
         }
         return null;
     }
@@ -1,10 +1,12 @@
 package com.tencent.supersonic.semantic.query.service;
 
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.query.executor.QueryExecutor;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.concurrent.CompletableFuture;
 
 public interface SemanticQueryEngine {
 
@@ -14,5 +16,9 @@ public interface SemanticQueryEngine {
 
     QueryResultWithSchemaResp execute(QueryStatement queryStatement);
 
+    CompletableFuture<QueryResultWithSchemaResp> executeAsync(QueryStatement queryStatement);
+
+    void stream(QueryStatement queryStatement, ResultRowConsumer consumer);
+
     QueryStatement physicalSql(ParseSqlReq sqlCommend) throws Exception;
 }
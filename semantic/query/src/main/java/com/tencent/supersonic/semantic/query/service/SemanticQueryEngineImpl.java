@@ -1,5 +1,7 @@
 package com.tencent.supersonic.semantic.query.service;
 
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.request.MetricReq;
 import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
@@ -11,6 +13,8 @@ import com.tencent.supersonic.semantic.query.parser.QueryParser;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
 import com.tencent.supersonic.semantic.query.utils.ComponentFactory;
 import com.tencent.supersonic.semantic.query.utils.QueryUtils;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -35,14 +39,60 @@ public class SemanticQueryEngineImpl implements SemanticQueryEngine {
         QueryExecutor queryExecutor = route(queryStatement);
         if (queryExecutor != null) {
             queryResultWithColumns = queryExecutor.execute(catalog, queryStatement);
-            queryResultWithColumns.setSql(queryStatement.getSql());
-            if (queryStatement.getModelId() > 0) {
-                queryUtils.fillItemNameInfo(queryResultWithColumns, queryStatement.getModelId());
-            }
+            fillResult(queryStatement, queryResultWithColumns);
         }
         return queryResultWithColumns;
     }
 
+    @Override
+    public CompletableFuture<QueryResultWithSchemaResp> executeAsync(QueryStatement queryStatement) {
+        QueryExecutor queryExecutor = route(queryStatement);
+        if (queryExecutor == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<QueryResultWithSchemaResp> execution = queryExecutor.executeAsync(catalog, queryStatement);
+        CompletableFuture<QueryResultWithSchemaResp> result = execution.thenApply(queryResultWithColumns -> {
+            fillResult(queryStatement, queryResultWithColumns);
+            return queryResultWithColumns;
+        });
+        // cancelling the result cancels the query on the database
+        result.whenComplete((queryResultWithColumns, e) -> {
+            if (result.isCancelled()) {
+                execution.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void stream(QueryStatement queryStatement, ResultRowConsumer consumer) {
+        QueryExecutor queryExecutor = route(queryStatement);
+        if (queryExecutor == null) {
+            return;
+        }
+        queryExecutor.stream(catalog, queryStatement, new ResultRowConsumer() {
+            @Override
+            public void onSchema(List<QueryColumn> columns) {
+                if (queryStatement.getModelId() > 0) {
+                    QueryResultWithSchemaResp schema = new QueryResultWithSchemaResp();
+                    schema.setColumns(columns);
+                    queryUtils.fillItemNameInfo(schema, queryStatement.getModelId());
+                }
+                consumer.onSchema(columns);
+            }
+
+            @Override
+            public void onRow(Object[] row) {
+                consumer.onRow(row);
+            }
+
+            @Override
+            public void onComplete(long rowCount) {
+                consumer.onComplete(rowCount);
+            }
+        });
+    }
+
     public QueryStatement plan(QueryStructReq queryStructCmd) throws Exception {
         QueryStatement queryStatement = queryParser.logicSql(queryStructCmd);
         queryUtils.checkSqlParse(queryStatement);
@@ -64,6 +114,16 @@ public class SemanticQueryEngineImpl implements SemanticQueryEngine {
     }
 
 
+    private void fillResult(QueryStatement queryStatement, QueryResultWithSchemaResp queryResultWithColumns) {
+        if (queryResultWithColumns == null) {
+            return;
+        }
+        queryResultWithColumns.setSql(queryStatement.getSql());
+        if (queryStatement.getModelId() > 0) {
+            queryUtils.fillItemNameInfo(queryResultWithColumns, queryStatement.getModelId());
+        }
+    }
+
     @Override
     public QueryStatement physicalSql(ParseSqlReq sqlCommend) throws Exception {
         return queryParser.parser(sqlCommend);
@@ -2,41 +2,28 @@ package com.tencent.supersonic.semantic.query.utils;
 
 import static com.tencent.supersonic.common.pojo.Constants.MINUS;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
-import com.tencent.supersonic.auth.api.authorization.pojo.AuthRes;
-import com.tencent.supersonic.auth.api.authorization.pojo.AuthResGrp;
 import com.tencent.supersonic.auth.api.authorization.pojo.DimensionFilter;
-import com.tencent.supersonic.auth.api.authorization.request.QueryAuthResReq;
-import com.tencent.supersonic.auth.api.authorization.response.AuthorizedResourceResp;
-import com.tencent.supersonic.auth.api.authorization.service.AuthService;
 import com.tencent.supersonic.common.pojo.QueryAuthorization;
 import com.tencent.supersonic.common.pojo.QueryColumn;
-import com.tencent.supersonic.common.pojo.enums.AuthType;
-import com.tencent.supersonic.semantic.api.model.pojo.SchemaItem;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.model.response.ModelResp;
 import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
-import com.tencent.supersonic.semantic.api.model.response.MetricResp;
 import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
 import com.tencent.supersonic.semantic.api.query.pojo.Filter;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.common.pojo.Constants;
 import com.tencent.supersonic.common.pojo.exception.InvalidPermissionException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.StringJoiner;
 import java.util.stream.Collectors;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
-import com.tencent.supersonic.semantic.model.domain.MetricService;
 import com.tencent.supersonic.semantic.model.domain.ModelService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -44,7 +31,6 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.assertj.core.util.Sets;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -56,17 +42,13 @@ import org.springframework.util.CollectionUtils;
 @Slf4j
 public class DataPermissionAOP {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper().setDateFormat(
-            new SimpleDateFormat(Constants.DAY_FORMAT));
     @Autowired
     private QueryStructUtils queryStructUtils;
     @Autowired
-    private AuthService authService;
+    private DataPermissionPlanCache dataPermissionPlanCache;
     @Autowired
     private DimensionService dimensionService;
     @Autowired
-    private MetricService metricService;
-    @Autowired
     private ModelService modelService;
     @Value("${permission.data.enable:true}")
     private Boolean permissionDataEnable;
@@ -75,7 +57,12 @@ public class DataPermissionAOP {
     public void dataPermissionAOP() {
     }
 
-    @Around(value = "dataPermissionAOP()")
+    @Pointcut("dataPermissionAOP() && execution(* *(.., com.tencent.supersonic.semantic.api.model.pojo"
+            + ".ResultRowConsumer))")
+    public void dataPermissionStreamAOP() {
+    }
+
+    @Around(value = "dataPermissionAOP() && !dataPermissionStreamAOP()")
     public Object around(ProceedingJoinPoint point) throws Throwable {
         Object[] args = point.getArgs();
         QueryStructReq queryStructReq = (QueryStructReq) args[0];
@@ -85,103 +72,106 @@ public class DataPermissionAOP {
             log.info("permissionDataEnable is false");
             return point.proceed();
         }
-
-        if (Objects.isNull(user) || Strings.isNullOrEmpty(user.getName())) {
-            throw new RuntimeException("lease provide user information");
-        }
+        Long modelId = queryStructReq.getModelId();
+        DataPermissionPlan plan = getPlan(user, modelId);
         //1. determine whether admin of the model
-        if (doModelAdmin(user, queryStructReq)) {
+        if (plan.isAdmin()) {
             return point.proceed();
         }
-
-        // 2. determine whether the subject field is visible
-        doModelVisible(user, queryStructReq);
-
-        // 3. fetch data permission meta information
-        Long modelId = queryStructReq.getModelId();
-        Set<String> res4Privilege = queryStructUtils.getResNameEnExceptInternalCol(queryStructReq);
-        log.info("modelId:{}, res4Privilege:{}", modelId, res4Privilege);
-
-        Set<String> sensitiveResByModel = getHighSensitiveColsByModelId(modelId);
-        Set<String> sensitiveResReq = res4Privilege.parallelStream()
-                .filter(sensitiveResByModel::contains).collect(Collectors.toSet());
-        log.info("this query domainId:{}, sensitiveResReq:{}", modelId, sensitiveResReq);
-
-        // query user privilege info
-        AuthorizedResourceResp authorizedResource = getAuthorizedResource(user, modelId, sensitiveResReq);
-        // get sensitiveRes that user has privilege
-        Set<String> resAuthSet = getAuthResNameSet(authorizedResource, queryStructReq.getModelId());
-
-        // 4.if sensitive fields without permission are involved in filter, thrown an exception
-        doFilterCheckLogic(queryStructReq, resAuthSet, sensitiveResReq);
-
-        // 5.row permission pre-filter
-        doRowPermission(queryStructReq, authorizedResource);
+        Set<String> need2Apply = doPermissionLogic(queryStructReq, plan);
 
         // 6.proceed
         QueryResultWithSchemaResp queryResultWithColumns = (QueryResultWithSchemaResp) point.proceed();
 
-        if (CollectionUtils.isEmpty(sensitiveResReq) || allSensitiveResReqIsOk(sensitiveResReq, resAuthSet)) {
+        if (CollectionUtils.isEmpty(need2Apply)) {
             // if sensitiveRes is empty
             log.info("sensitiveResReq is empty");
-            return getQueryResultWithColumns(queryResultWithColumns, modelId, authorizedResource);
+            addPromptInfoInfo(modelId, queryResultWithColumns, plan.getFilters(), need2Apply);
+            return queryResultWithColumns;
         }
 
         // 6.if the column has no permission, hit *
-        Set<String> need2Apply = sensitiveResReq.stream().filter(req -> !resAuthSet.contains(req))
-                .collect(Collectors.toSet());
         QueryResultWithSchemaResp queryResultAfterDesensitization = desensitizationData(queryResultWithColumns,
                 need2Apply);
-        addPromptInfoInfo(modelId, queryResultAfterDesensitization, authorizedResource, need2Apply);
+        addPromptInfoInfo(modelId, queryResultAfterDesensitization, plan.getFilters(), need2Apply);
 
         return queryResultAfterDesensitization;
 
     }
 
-    private boolean doModelAdmin(User user, QueryStructReq queryStructReq) {
-        Long modelId = queryStructReq.getModelId();
-        List<ModelResp> modelListAdmin = modelService.getModelListWithAuth(user.getName(), null, AuthType.ADMIN);
-        if (CollectionUtils.isEmpty(modelListAdmin)) {
-            return false;
-        } else {
-            Map<Long, List<ModelResp>> id2modelResp = modelListAdmin.stream()
-                    .collect(Collectors.groupingBy(SchemaItem::getId));
-            return !CollectionUtils.isEmpty(id2modelResp) && id2modelResp.containsKey(modelId);
+    /**
+     * streaming query, the sensitive columns are masked row by row while they pass to the consumer
+     */
+    @Around(value = "dataPermissionStreamAOP()")
+    public Object aroundStream(ProceedingJoinPoint point) throws Throwable {
+        Object[] args = point.getArgs();
+        QueryStructReq queryStructReq = (QueryStructReq) args[0];
+        User user = (User) args[1];
+
+        if (!permissionDataEnable) {
+            log.info("permissionDataEnable is false");
+            return point.proceed();
+        }
+        DataPermissionPlan plan = getPlan(user, queryStructReq.getModelId());
+        if (plan.isAdmin()) {
+            return point.proceed();
+        }
+        Set<String> need2Apply = doPermissionLogic(queryStructReq, plan);
+        if (!CollectionUtils.isEmpty(need2Apply)) {
+            args[2] = new DesensitizationRowConsumer((ResultRowConsumer) args[2], need2Apply);
         }
+        return point.proceed(args);
     }
 
-    private void doModelVisible(User user, QueryStructReq queryStructReq) {
-        Boolean visible = true;
-        Long modelId = queryStructReq.getModelId();
-        List<ModelResp> modelListVisible = modelService.getModelListWithAuth(user.getName(), null, AuthType.VISIBLE);
-        if (CollectionUtils.isEmpty(modelListVisible)) {
-            visible = false;
-        } else {
-            Map<Long, List<ModelResp>> id2domainDesc = modelListVisible.stream()
-                    .collect(Collectors.groupingBy(SchemaItem::getId));
-            if (!CollectionUtils.isEmpty(id2domainDesc) && !id2domainDesc.containsKey(modelId)) {
-                visible = false;
-            }
+    private DataPermissionPlan getPlan(User user, Long modelId) {
+        if (Objects.isNull(user) || Strings.isNullOrEmpty(user.getName())) {
+            throw new RuntimeException("lease provide user information");
         }
-        if (!visible) {
+        return dataPermissionPlanCache.getPlan(user, modelId);
+    }
+
+    /**
+     * checks the permissions of the query and adds the row filters to it
+     *
+     * @return the sensitive columns of the query the user is not authorized for
+     */
+    private Set<String> doPermissionLogic(QueryStructReq queryStructReq, DataPermissionPlan plan) {
+        Long modelId = queryStructReq.getModelId();
+        // 2. determine whether the subject field is visible
+        doModelVisible(plan, modelId);
+
+        // 3. fetch data permission meta information
+        Set<String> res4Privilege = queryStructUtils.getResNameEnExceptInternalCol(queryStructReq);
+        log.info("modelId:{}, res4Privilege:{}", modelId, res4Privilege);
+
+        Set<String> sensitiveResReq = res4Privilege.stream()
+                .filter(plan.getSensitiveColumns()::contains).collect(Collectors.toSet());
+        log.info("this query domainId:{}, sensitiveResReq:{}", modelId, sensitiveResReq);
+
+        // get sensitiveRes that user has privilege
+        Set<String> resAuthSet = plan.getAuthorizedColumns();
+
+        // 4.if sensitive fields without permission are involved in filter, thrown an exception
+        doFilterCheckLogic(queryStructReq, resAuthSet, sensitiveResReq);
+
+        // 5.row permission pre-filter
+        doRowPermission(queryStructReq, plan);
+
+        return sensitiveResReq.stream().filter(req -> !resAuthSet.contains(req)).collect(Collectors.toSet());
+    }
+
+    private void doModelVisible(DataPermissionPlan plan, Long modelId) {
+        if (!plan.isVisible()) {
             ModelResp modelResp = modelService.getModel(modelId);
             String modelName = modelResp.getName();
             List<String> admins = modelService.getModelAdmin(modelResp.getId());
             String message = String.format("您没有主题域[%s]权限，请联系管理员%s开通", modelName, admins);
             throw new InvalidPermissionException(message);
         }
-
-    }
-
-    private QueryResultWithSchemaResp getQueryResultWithColumns(QueryResultWithSchemaResp resultWithColumns,
-            Long domainId, AuthorizedResourceResp authResource) {
-        addPromptInfoInfo(domainId, resultWithColumns, authResource, Sets.newHashSet());
-        return resultWithColumns;
     }
 
     private void addPromptInfoInfo(Long modelId, QueryResultWithSchemaResp queryResultWithColumns,
-            AuthorizedResourceResp authorizedResource, Set<String> need2Apply) {
-        List<DimensionFilter> filters = authorizedResource.getFilters();
+            List<DimensionFilter> filters, Set<String> need2Apply) {
         if (CollectionUtils.isEmpty(need2Apply) && CollectionUtils.isEmpty(filters)) {
             return;
         }
@@ -208,168 +198,56 @@ public class DataPermissionAOP {
         }
     }
 
-    private QueryResultWithSchemaResp deepCopyResult(QueryResultWithSchemaResp raw) throws Exception {
-        QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
-        BeanUtils.copyProperties(raw, queryResultWithColumns);
-
-        List<QueryColumn> columns = new ArrayList<>();
-        if (!CollectionUtils.isEmpty(raw.getColumns())) {
-            String columnsStr = MAPPER.writeValueAsString(raw.getColumns());
-            columns = MAPPER.readValue(columnsStr, new TypeReference<List<QueryColumn>>() {
-            });
-            queryResultWithColumns.setColumns(columns);
-        }
-        queryResultWithColumns.setColumns(columns);
-
-        List<Map<String, Object>> resultData = new ArrayList<>();
-        if (!CollectionUtils.isEmpty(raw.getResultList())) {
-            for (Map<String, Object> line : raw.getResultList()) {
-                Map<String, Object> newLine = new HashMap<>();
-                newLine.putAll(line);
-                resultData.add(newLine);
-            }
-        }
-        queryResultWithColumns.setResultList(resultData);
-        return queryResultWithColumns;
-    }
-
-    private boolean allSensitiveResReqIsOk(Set<String> sensitiveResReq, Set<String> resAuthSet) {
-        if (resAuthSet.containsAll(sensitiveResReq)) {
-            return true;
-        }
-        log.info("sensitiveResReq:{}, resAuthSet:{}", sensitiveResReq, resAuthSet);
-        return false;
-    }
-
-    private Set<String> getAuthResNameSet(AuthorizedResourceResp authorizedResource, Long domainId) {
-        Set<String> resAuthName = new HashSet<>();
-        List<AuthResGrp> authResGrpList = authorizedResource.getResources();
-        authResGrpList.stream().forEach(authResGrp -> {
-            List<AuthRes> cols = authResGrp.getGroup();
-            if (!CollectionUtils.isEmpty(cols)) {
-                cols.stream().filter(col -> domainId.equals(Long.parseLong(col.getModelId())))
-                        .forEach(col -> resAuthName.add(col.getName()));
-            }
-
-        });
-        log.info("resAuthName:{}", resAuthName);
-        return resAuthName;
-    }
-
-    private AuthorizedResourceResp getAuthorizedResource(User user, Long domainId,
-            Set<String> sensitiveResReq) {
-        List<AuthRes> resourceReqList = new ArrayList<>();
-        sensitiveResReq.forEach(res -> resourceReqList.add(new AuthRes(domainId.toString(), res)));
-        QueryAuthResReq queryAuthResReq = new QueryAuthResReq();
-        queryAuthResReq.setResources(resourceReqList);
-        queryAuthResReq.setModelId(domainId + "");
-        AuthorizedResourceResp authorizedResource = fetchAuthRes(queryAuthResReq, user);
-        log.info("user:{}, domainId:{}, after queryAuthorizedResources:{}", user.getName(), domainId,
-                authorizedResource);
-        return authorizedResource;
-    }
-
-    private Set<String> getHighSensitiveColsByModelId(Long modelId) {
-        Set<String> highSensitiveCols = new HashSet<>();
-        List<DimensionResp> highSensitiveDimensions = dimensionService.getHighSensitiveDimension(modelId);
-        List<MetricResp> highSensitiveMetrics = metricService.getHighSensitiveMetric(modelId);
-        if (!CollectionUtils.isEmpty(highSensitiveDimensions)) {
-            highSensitiveDimensions.stream().forEach(dim -> highSensitiveCols.add(dim.getBizName()));
-        }
-        if (!CollectionUtils.isEmpty(highSensitiveMetrics)) {
-            highSensitiveMetrics.stream().forEach(metric -> highSensitiveCols.add(metric.getBizName()));
-        }
-        return highSensitiveCols;
-    }
-
-    private void doRowPermission(QueryStructReq queryStructReq, AuthorizedResourceResp authorizedResource) {
+    private void doRowPermission(QueryStructReq queryStructReq, DataPermissionPlan plan) {
         log.debug("start doRowPermission logic");
-        StringJoiner joiner = new StringJoiner(" OR ");
-        List<String> dimensionFilters = new ArrayList<>();
-        if (!CollectionUtils.isEmpty(authorizedResource.getFilters())) {
-            authorizedResource.getFilters().stream()
-                    .forEach(filter -> dimensionFilters.addAll(filter.getExpressions()));
-        }
-
-        if (CollectionUtils.isEmpty(dimensionFilters)) {
+        if (StringUtils.isEmpty(plan.getRowFilterSql())) {
             log.debug("dimensionFilters is empty");
             return;
         }
-
-        dimensionFilters.stream().forEach(filter -> {
-            if (StringUtils.isNotEmpty(filter) && StringUtils.isNotEmpty(filter.trim())) {
-                joiner.add(" ( " + filter + " ) ");
-            }
-        });
-
-        if (StringUtils.isNotEmpty(joiner.toString())) {
-            log.info("before doRowPermission, queryStructReq:{}", queryStructReq);
-            Filter filter = new Filter("", FilterOperatorEnum.SQL_PART, joiner.toString());
-            List<Filter> filters = Objects.isNull(queryStructReq.getOriginalFilter()) ? new ArrayList<>()
-                    : queryStructReq.getOriginalFilter();
-            filters.add(filter);
-            queryStructReq.setDimensionFilters(filters);
-            log.info("after doRowPermission, queryStructReq:{}", queryStructReq);
-        }
-
+        log.info("before doRowPermission, queryStructReq:{}", queryStructReq);
+        Filter filter = new Filter("", FilterOperatorEnum.SQL_PART, plan.getRowFilterSql());
+        List<Filter> filters = Objects.isNull(queryStructReq.getOriginalFilter()) ? new ArrayList<>()
+                : queryStructReq.getOriginalFilter();
+        filters.add(filter);
+        queryStructReq.setDimensionFilters(filters);
+        log.info("after doRowPermission, queryStructReq:{}", queryStructReq);
     }
 
+    /**
+     * the raw result is left untouched, the masked result shares its rows through MaskedRow views
+     * and only copies the columns that are marked as unauthorized
+     */
     private QueryResultWithSchemaResp desensitizationData(QueryResultWithSchemaResp raw, Set<String> need2Apply) {
         log.debug("start desensitizationData logic");
-        if (CollectionUtils.isEmpty(need2Apply)) {
-            log.info("user has all sensitiveRes");
-            return raw;
-        }
-
         List<QueryColumn> columns = raw.getColumns();
-
-        boolean doDesensitization = false;
-        for (QueryColumn queryColumn : columns) {
-            if (need2Apply.contains(queryColumn.getNameEn())) {
-                doDesensitization = true;
-                break;
-            }
-        }
-        if (!doDesensitization) {
+        if (CollectionUtils.isEmpty(columns)
+                || columns.stream().noneMatch(col -> need2Apply.contains(col.getNameEn()))) {
             return raw;
         }
 
-        QueryResultWithSchemaResp queryResultWithColumns = raw;
-        try {
-            queryResultWithColumns = deepCopyResult(raw);
-        } catch (Exception e) {
-            log.warn("deepCopyResult: ", e);
-        }
-        addAuthorizedSchemaInfo(queryResultWithColumns.getColumns(), need2Apply);
-        desensitizationInternal(queryResultWithColumns.getResultList(), need2Apply);
-        return queryResultWithColumns;
-    }
-
-    private void addAuthorizedSchemaInfo(List<QueryColumn> columns, Set<String> need2Apply) {
-        if (CollectionUtils.isEmpty(need2Apply)) {
-            return;
-        }
-        columns.stream().forEach(col -> {
-            if (need2Apply.contains(col.getNameEn())) {
-                col.setAuthorized(false);
+        QueryResultWithSchemaResp queryResultWithColumns = new QueryResultWithSchemaResp();
+        BeanUtils.copyProperties(raw, queryResultWithColumns);
+        List<QueryColumn> maskedColumns = new ArrayList<>(columns.size());
+        for (QueryColumn column : columns) {
+            if (need2Apply.contains(column.getNameEn())) {
+                QueryColumn maskedColumn = new QueryColumn();
+                BeanUtils.copyProperties(column, maskedColumn);
+                maskedColumn.setAuthorized(false);
+                maskedColumns.add(maskedColumn);
+            } else {
+                maskedColumns.add(column);
             }
-        });
-    }
+        }
+        queryResultWithColumns.setColumns(maskedColumns);
 
-    private void desensitizationInternal(List<Map<String, Object>> result, Set<String> need2Apply) {
-        log.info("start desensitizationInternal logic");
-        for (int i = 0; i < result.size(); i++) {
-            Map<String, Object> row = result.get(i);
-            Map<String, Object> newRow = new HashMap<>();
-            for (String col : row.keySet()) {
-                if (need2Apply.contains(col)) {
-                    newRow.put(col, "****");
-                } else {
-                    newRow.put(col, row.get(col));
-                }
+        List<Map<String, Object>> resultData = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(raw.getResultList())) {
+            for (Map<String, Object> line : raw.getResultList()) {
+                resultData.add(new MaskedRow(line, need2Apply));
             }
-            result.set(i, newRow);
         }
+        queryResultWithColumns.setResultList(resultData);
+        return queryResultWithColumns;
     }
 
     private void doFilterCheckLogic(QueryStructReq queryStructReq, Set<String> resAuthName,
@@ -377,8 +255,11 @@ public class DataPermissionAOP {
         Set<String> resFilterSet = queryStructUtils.getFilterResNameEnExceptInternalCol(queryStructReq);
         Set<String> need2Apply = resFilterSet.stream()
                 .filter(res -> !resAuthName.contains(res) && sensitiveResReq.contains(res)).collect(Collectors.toSet());
+        if (CollectionUtils.isEmpty(need2Apply)) {
+            return;
+        }
+        // the names are only read for the message of the rejected query
         Set<String> nameCnSet = new HashSet<>();
-
         List<Long> modelIds = new ArrayList<>();
         modelIds.add(queryStructReq.getModelId());
         List<ModelResp> modelInfos = modelService.getModelList(modelIds);
@@ -392,19 +273,46 @@ public class DataPermissionAOP {
         dimensionDescList.stream().filter(dim -> need2Apply.contains(dim.getBizName()))
                 .forEach(dim -> nameCnSet.add(finalDomainNameCn + MINUS + dim.getName()));
 
-        if (!CollectionUtils.isEmpty(need2Apply)) {
-            ModelResp modelResp = modelInfos.get(0);
-            List<String> admins = modelService.getModelAdmin(modelResp.getId());
-            log.info("in doFilterLogic, need2Apply:{}", need2Apply);
-            String message = String.format("您没有以下维度%s权限, 请联系管理员%s开通", nameCnSet, admins);
-            throw new InvalidPermissionException(message);
-        }
+        List<String> admins = modelService.getModelAdmin(queryStructReq.getModelId());
+        log.info("in doFilterLogic, need2Apply:{}", need2Apply);
+        String message = String.format("您没有以下维度%s权限, 请联系管理员%s开通", nameCnSet, admins);
+        throw new InvalidPermissionException(message);
     }
 
 
-    private AuthorizedResourceResp fetchAuthRes(QueryAuthResReq queryAuthResReq, User user) {
-        log.info("queryAuthResReq:{}", queryAuthResReq);
-        return authService.queryAuthorizedResources(queryAuthResReq, user);
-    }
+    private static class DesensitizationRowConsumer implements ResultRowConsumer {
+
+        private final ResultRowConsumer delegate;
+        private final Set<String> need2Apply;
+        private final List<Integer> maskIndexes = new ArrayList<>();
+
+        DesensitizationRowConsumer(ResultRowConsumer delegate, Set<String> need2Apply) {
+            this.delegate = delegate;
+            this.need2Apply = need2Apply;
+        }
 
+        @Override
+        public void onSchema(List<QueryColumn> columns) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (need2Apply.contains(columns.get(i).getNameEn())) {
+                    columns.get(i).setAuthorized(false);
+                    maskIndexes.add(i);
+                }
+            }
+            delegate.onSchema(columns);
+        }
+
+        @Override
+        public void onRow(Object[] row) {
+            for (Integer index : maskIndexes) {
+                row[index] = MaskedRow.MASK;
+            }
+            delegate.onRow(row);
+        }
+
+        @Override
+        public void onComplete(long rowCount) {
+            delegate.onComplete(rowCount);
+        }
+    }
 }
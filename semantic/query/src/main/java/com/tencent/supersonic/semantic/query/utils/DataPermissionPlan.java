@@ -0,0 +1,35 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.auth.api.authorization.pojo.DimensionFilter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * what a user may see of a model, compiled once from the model auth, the sensitive columns and the auth groups
+ */
+@Getter
+@Builder
+public class DataPermissionPlan {
+
+    private final boolean admin;
+    private final boolean visible;
+    /**
+     * biz names of the high sensitive dimensions and metrics of the model
+     */
+    @Builder.Default
+    private final Set<String> sensitiveColumns = Collections.emptySet();
+    /**
+     * the sensitive columns the user is authorized to see
+     */
+    @Builder.Default
+    private final Set<String> authorizedColumns = Collections.emptySet();
+    @Builder.Default
+    private final List<DimensionFilter> filters = Collections.emptyList();
+    /**
+     * the row filters joined with OR, null if the user sees all rows
+     */
+    private final String rowFilterSql;
+}
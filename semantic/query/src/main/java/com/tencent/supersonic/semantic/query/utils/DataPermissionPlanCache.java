@@ -0,0 +1,183 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.auth.api.authorization.pojo.AuthRes;
+import com.tencent.supersonic.auth.api.authorization.pojo.DimensionFilter;
+import com.tencent.supersonic.auth.api.authorization.request.QueryAuthResReq;
+import com.tencent.supersonic.auth.api.authorization.response.AuthorizedResourceResp;
+import com.tencent.supersonic.auth.api.authorization.service.AuthService;
+import com.tencent.supersonic.common.pojo.AuthChangeEvent;
+import com.tencent.supersonic.common.pojo.DataAddEvent;
+import com.tencent.supersonic.common.pojo.DataDeleteEvent;
+import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.model.response.MetricResp;
+import com.tencent.supersonic.semantic.api.model.response.ModelResp;
+import com.tencent.supersonic.semantic.model.domain.DimensionService;
+import com.tencent.supersonic.semantic.model.domain.MetricService;
+import com.tencent.supersonic.semantic.model.domain.ModelService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * caches the data permission plan per user and model, plans of a model are dropped when its meta,
+ * its dimensions and metrics or its auth groups change
+ */
+@Component
+@Slf4j
+public class DataPermissionPlanCache {
+
+    private static final String KEY_SPLIT = ":";
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private DimensionService dimensionService;
+    @Autowired
+    private MetricService metricService;
+    @Autowired
+    private ModelService modelService;
+
+    @Value("${permission.plan.expire.seconds:300}")
+    private long expireSeconds;
+
+    @Value("${permission.plan.max.size:10000}")
+    private long maxSize;
+
+    private Cache<String, DataPermissionPlan> plans;
+
+    @PostConstruct
+    public void init() {
+        plans = Caffeine.newBuilder().maximumSize(maxSize)
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS).build();
+    }
+
+    public DataPermissionPlan getPlan(User user, Long modelId) {
+        return plans.get(modelId + KEY_SPLIT + user.getName(), key -> compile(user, modelId));
+    }
+
+    @EventListener
+    public void onDataAdd(DataAddEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataUpdate(DataUpdateEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataDelete(DataDeleteEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onMetaChange(MetaChangeEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onAuthChange(AuthChangeEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    /**
+     * a change not bound to a model, like a domain admin change, drops all plans
+     */
+    private void evictModel(Long modelId) {
+        if (modelId == null) {
+            plans.invalidateAll();
+            return;
+        }
+        String prefix = modelId + KEY_SPLIT;
+        plans.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private DataPermissionPlan compile(User user, Long modelId) {
+        if (containsModel(modelService.getModelListWithAuth(user.getName(), null, AuthType.ADMIN), modelId)) {
+            return DataPermissionPlan.builder().admin(true).visible(true).build();
+        }
+        if (!containsModel(modelService.getModelListWithAuth(user.getName(), null, AuthType.VISIBLE), modelId)) {
+            return DataPermissionPlan.builder().admin(false).visible(false).build();
+        }
+        Set<String> sensitiveColumns = getHighSensitiveColsByModelId(modelId);
+        AuthorizedResourceResp authorizedResource = getAuthorizedResource(user, modelId, sensitiveColumns);
+        Set<String> authorizedColumns = new HashSet<>();
+        authorizedResource.getResources().forEach(authResGrp -> {
+            if (!CollectionUtils.isEmpty(authResGrp.getGroup())) {
+                authResGrp.getGroup().stream().filter(col -> modelId.equals(Long.parseLong(col.getModelId())))
+                        .forEach(col -> authorizedColumns.add(col.getName()));
+            }
+        });
+        List<DimensionFilter> filters = authorizedResource.getFilters() == null ? Collections.emptyList()
+                : authorizedResource.getFilters();
+        log.info("compile data permission plan, user:{}, modelId:{}, sensitive:{}, authorized:{}, filters:{}",
+                user.getName(), modelId, sensitiveColumns, authorizedColumns, filters.size());
+        return DataPermissionPlan.builder()
+                .admin(false)
+                .visible(true)
+                .sensitiveColumns(Collections.unmodifiableSet(sensitiveColumns))
+                .authorizedColumns(Collections.unmodifiableSet(authorizedColumns))
+                .filters(Collections.unmodifiableList(filters))
+                .rowFilterSql(getRowFilterSql(filters))
+                .build();
+    }
+
+    private boolean containsModel(List<ModelResp> models, Long modelId) {
+        return !CollectionUtils.isEmpty(models) && models.stream().anyMatch(model -> modelId.equals(model.getId()));
+    }
+
+    private Set<String> getHighSensitiveColsByModelId(Long modelId) {
+        Set<String> highSensitiveCols = new HashSet<>();
+        List<DimensionResp> highSensitiveDimensions = dimensionService.getHighSensitiveDimension(modelId);
+        List<MetricResp> highSensitiveMetrics = metricService.getHighSensitiveMetric(modelId);
+        if (!CollectionUtils.isEmpty(highSensitiveDimensions)) {
+            highSensitiveDimensions.forEach(dim -> highSensitiveCols.add(dim.getBizName()));
+        }
+        if (!CollectionUtils.isEmpty(highSensitiveMetrics)) {
+            highSensitiveMetrics.forEach(metric -> highSensitiveCols.add(metric.getBizName()));
+        }
+        return highSensitiveCols;
+    }
+
+    /**
+     * authorizes all sensitive columns of the model at once, a query only checks the columns it uses
+     */
+    private AuthorizedResourceResp getAuthorizedResource(User user, Long modelId, Set<String> sensitiveColumns) {
+        List<AuthRes> resourceReqList = new ArrayList<>();
+        sensitiveColumns.forEach(res -> resourceReqList.add(new AuthRes(modelId.toString(), res)));
+        QueryAuthResReq queryAuthResReq = new QueryAuthResReq();
+        queryAuthResReq.setResources(resourceReqList);
+        queryAuthResReq.setModelId(modelId + "");
+        return authService.queryAuthorizedResources(queryAuthResReq, user);
+    }
+
+    private String getRowFilterSql(List<DimensionFilter> filters) {
+        StringJoiner joiner = new StringJoiner(" OR ");
+        for (DimensionFilter filter : filters) {
+            if (CollectionUtils.isEmpty(filter.getExpressions())) {
+                continue;
+            }
+            filter.getExpressions().stream().filter(expr -> StringUtils.isNotBlank(expr))
+                    .forEach(expr -> joiner.add(" ( " + expr + " ) "));
+        }
+        return StringUtils.isEmpty(joiner.toString()) ? null : joiner.toString();
+    }
+}
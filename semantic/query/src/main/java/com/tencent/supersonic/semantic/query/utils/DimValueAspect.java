@@ -1,28 +1,26 @@
 package com.tencent.supersonic.semantic.query.utils;
 
-import com.tencent.supersonic.common.pojo.QueryColumn;
-import com.tencent.supersonic.semantic.api.model.pojo.DimValueMap;
-import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.common.pojo.DataAddEvent;
+import com.tencent.supersonic.common.pojo.DataDeleteEvent;
+import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
-import com.tencent.supersonic.semantic.api.query.pojo.Filter;
 import com.tencent.supersonic.semantic.api.query.request.QueryDslReq;
 import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.model.domain.DimensionService;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.logging.log4j.util.Strings;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.util.CollectionUtils;
 
 @Aspect
 @Component
@@ -37,6 +35,17 @@ public class DimValueAspect {
     @Autowired
     private DimensionService dimensionService;
 
+    private final Map<Long, DimValueIndex> dimValueIndexes = new ConcurrentHashMap<>();
+    /**
+     * the version of the dimensions of each model, bumped by every change event
+     */
+    private final Map<Long, Long> modelVersions = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    /**
+     * the version of a change not bound to a model, it outdates the indexes of all models
+     */
+    private volatile long globalVersion;
+
     @Around("execution(* com.tencent.supersonic.semantic.query.service.QueryServiceImpl.queryBySql(..))")
     public Object handleSqlDimValue(ProceedingJoinPoint joinPoint) throws Throwable {
         if (!dimensionValueMapSqlEnable) {
@@ -46,13 +55,11 @@ public class DimValueAspect {
         }
         Object[] args = joinPoint.getArgs();
         QueryDslReq queryDslReq = (QueryDslReq) args[0];
-
-        List<DimensionResp> dimensions = dimensionService.getDimensions(queryDslReq.getModelId());
-        Map<String, Map<String, String>> techNameToBizName = getTechNameToBizName(dimensions);
+        DimValueIndex dimValueIndex = getDimValueIndex(queryDslReq.getModelId());
 
         QueryResultWithSchemaResp queryResultWithColumns = (QueryResultWithSchemaResp) joinPoint.proceed();
         if (Objects.nonNull(queryResultWithColumns)) {
-            rewriteDimValue(queryResultWithColumns, techNameToBizName);
+            dimValueIndex.rewriteResult(queryResultWithColumns.getColumns(), queryResultWithColumns.getResultList());
         }
         return queryResultWithColumns;
     }
@@ -71,170 +78,88 @@ public class DimValueAspect {
 
         Object[] args = joinPoint.getArgs();
         QueryStructReq queryStructReq = (QueryStructReq) args[0];
-        Long modelId = queryStructReq.getModelId();
-
-        List<DimensionResp> dimensions = dimensionService.getDimensions(modelId);
-        Map<String, Map<String, String>> dimAndAliasAndTechNamePair = getAliasAndBizNameToTechName(dimensions);
-        Map<String, Map<String, String>> dimAndTechNameAndBizNamePair = getTechNameToBizName(dimensions);
+        DimValueIndex dimValueIndex = getDimValueIndex(queryStructReq.getModelId());
 
-        rewriteFilter(queryStructReq.getDimensionFilters(), dimAndAliasAndTechNamePair);
+        dimValueIndex.rewriteFilter(queryStructReq.getDimensionFilters());
 
         QueryResultWithSchemaResp queryResultWithColumns = (QueryResultWithSchemaResp) joinPoint.proceed();
         if (Objects.nonNull(queryResultWithColumns)) {
-            rewriteDimValue(queryResultWithColumns, dimAndTechNameAndBizNamePair);
+            dimValueIndex.rewriteResult(queryResultWithColumns.getColumns(), queryResultWithColumns.getResultList());
         }
 
         return queryResultWithColumns;
     }
 
-    private void rewriteDimValue(QueryResultWithSchemaResp queryResultWithColumns,
-            Map<String, Map<String, String>> dimAndTechNameAndBizNamePair) {
-        if (!selectDimValueMap(queryResultWithColumns.getColumns(), dimAndTechNameAndBizNamePair)) {
-            return;
-        }
-        log.debug("start rewriteDimValue for resultList");
-        for (Map<String, Object> line : queryResultWithColumns.getResultList()) {
-            for (String bizName : line.keySet()) {
-                if (dimAndTechNameAndBizNamePair.containsKey(bizName) && Objects.nonNull(line.get(bizName))) {
-                    String techName = line.get(bizName).toString();
-                    Map<String, String> techAndBizPair = dimAndTechNameAndBizNamePair.get(bizName);
-                    if (!CollectionUtils.isEmpty(techAndBizPair) && techAndBizPair.containsKey(techName)) {
-                        String bizValueName = techAndBizPair.get(techName);
-                        if (Strings.isNotEmpty(bizValueName)) {
-                            line.put(bizName, bizValueName);
-                        }
-                    }
-                }
-            }
+    /**
+     * streaming queries get their filters rewritten and each row mapped while it passes to the consumer
+     */
+    @Around("execution(* com.tencent.supersonic.semantic.query.service.QueryService.queryByStructStream(..))")
+    public Object handleStreamDimValue(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!dimensionValueMapEnable) {
+            log.debug("dimensionValueMapEnable is false, skip dimensionValueMap");
+            return joinPoint.proceed();
         }
+        Object[] args = joinPoint.getArgs();
+        QueryStructReq queryStructReq = (QueryStructReq) args[0];
+        DimValueIndex dimValueIndex = getDimValueIndex(queryStructReq.getModelId());
+
+        dimValueIndex.rewriteFilter(queryStructReq.getDimensionFilters());
+        args[2] = dimValueIndex.rewriteRows((ResultRowConsumer) args[2]);
+        return joinPoint.proceed(args);
     }
 
-    private boolean selectDimValueMap(List<QueryColumn> columns, Map<String,
-            Map<String, String>> dimAndTechNameAndBizNamePair) {
-        if (CollectionUtils.isEmpty(dimAndTechNameAndBizNamePair)
-                || CollectionUtils.isEmpty(dimAndTechNameAndBizNamePair)) {
-            return false;
-        }
+    @EventListener
+    public void onDataAdd(DataAddEvent event) {
+        bumpVersion(event.getModelId());
+    }
 
-        for (QueryColumn queryColumn : columns) {
-            if (dimAndTechNameAndBizNamePair.containsKey(queryColumn.getNameEn())) {
-                return true;
-            }
-        }
-        return false;
+    @EventListener
+    public void onDataUpdate(DataUpdateEvent event) {
+        bumpVersion(event.getModelId());
     }
 
+    @EventListener
+    public void onDataDelete(DataDeleteEvent event) {
+        bumpVersion(event.getModelId());
+    }
 
-    private void rewriteFilter(List<Filter> dimensionFilters, Map<String, Map<String, String>> aliasAndTechNamePair) {
-        for (Filter filter : dimensionFilters) {
-            if (Objects.isNull(filter)) {
-                continue;
-            }
-
-            if (CollectionUtils.isEmpty(filter.getChildren())) {
-                Object value = filter.getValue();
-                String bizName = filter.getBizName();
-                if (aliasAndTechNamePair.containsKey(bizName)) {
-                    Map<String, String> aliasPair = aliasAndTechNamePair.get(bizName);
-                    if (Objects.nonNull(value)) {
-                        if (value instanceof List) {
-                            List<String> values = (List) value;
-                            List<String> valuesNew = new ArrayList<>();
-                            for (String valueSingle : values) {
-                                if (aliasPair.containsKey(valueSingle)) {
-                                    valuesNew.add(aliasPair.get(valueSingle));
-                                } else {
-                                    valuesNew.add(valueSingle);
-                                }
-                            }
-                            filter.setValue(valuesNew);
-                        }
-                        if (value instanceof String) {
-                            if (aliasPair.containsKey(value)) {
-                                filter.setValue(aliasPair.get(value));
-                            }
-                        }
-                    }
-                }
-                return;
-            }
-
-            rewriteFilter(filter.getChildren(), aliasAndTechNamePair);
-        }
+    @EventListener
+    public void onMetaChange(MetaChangeEvent event) {
+        bumpVersion(event.getModelId());
     }
 
-    private Map<String, Map<String, String>> getAliasAndBizNameToTechName(List<DimensionResp> dimensions) {
-        if (CollectionUtils.isEmpty(dimensions)) {
-            return new HashMap<>();
+    /**
+     * returns the index of the model, it is rebuilt only if the dimensions changed since it was built.
+     * an index built while a change happens is tagged with the version read before loading the dimensions,
+     * so it is outdated right away and never hides the change
+     */
+    private DimValueIndex getDimValueIndex(Long modelId) {
+        if (modelId == null) {
+            return DimValueIndex.EMPTY;
         }
-        Map<String, Map<String, String>> result = new HashMap<>();
-        for (DimensionResp dimension : dimensions) {
-            if (needSkipDimension(dimension)) {
-                continue;
-            }
-            String bizName = dimension.getBizName();
-            List<DimValueMap> dimValueMaps = dimension.getDimValueMaps();
-            Map<String, String> aliasAndBizNameToTechName = new HashMap<>();
-
-            for (DimValueMap dimValueMap : dimValueMaps) {
-                if (needSkipDimValue(dimValueMap)) {
-                    continue;
-                }
-                if (Strings.isNotEmpty(dimValueMap.getBizName())) {
-                    aliasAndBizNameToTechName.put(dimValueMap.getBizName(), dimValueMap.getTechName());
-                }
-                if (!CollectionUtils.isEmpty(dimValueMap.getAlias())) {
-                    dimValueMap.getAlias().stream().forEach(alias -> {
-                        if (Strings.isNotEmpty(alias)) {
-                            aliasAndBizNameToTechName.put(alias, dimValueMap.getTechName());
-                        }
-                    });
-                }
-            }
-
-            if (!CollectionUtils.isEmpty(aliasAndBizNameToTechName)) {
-                result.put(bizName, aliasAndBizNameToTechName);
-            }
+        long version = currentVersion(modelId);
+        DimValueIndex dimValueIndex = dimValueIndexes.get(modelId);
+        if (dimValueIndex != null && dimValueIndex.getVersion() == version) {
+            return dimValueIndex;
         }
-        return result;
+        DimValueIndex rebuilt = DimValueIndex.build(dimensionService.getDimensions(modelId), version);
+        log.debug("rebuild dimension value index, modelId:{}, version:{}", modelId, version);
+        return dimValueIndexes.merge(modelId, rebuilt,
+                (current, built) -> current.getVersion() > built.getVersion() ? current : built);
     }
 
-    private boolean needSkipDimValue(DimValueMap dimValueMap) {
-        return Objects.isNull(dimValueMap) || Strings.isEmpty(dimValueMap.getTechName());
+    private long currentVersion(Long modelId) {
+        return Math.max(modelVersions.getOrDefault(modelId, 0L), globalVersion);
     }
 
-
-    private Map<String, Map<String, String>> getTechNameToBizName(List<DimensionResp> dimensions) {
-        if (CollectionUtils.isEmpty(dimensions)) {
-            return new HashMap<>();
-        }
-        Map<String, Map<String, String>> result = new HashMap<>();
-        for (DimensionResp dimension : dimensions) {
-            if (needSkipDimension(dimension)) {
-                continue;
-            }
-            String bizName = dimension.getBizName();
-            List<DimValueMap> dimValueMaps = dimension.getDimValueMaps();
-            Map<String, String> techNameToBizName = new HashMap<>();
-
-            for (DimValueMap dimValueMap : dimValueMaps) {
-                if (needSkipDimValue(dimValueMap)) {
-                    continue;
-                }
-                if (StringUtils.isNotEmpty(dimValueMap.getBizName())) {
-                    techNameToBizName.put(dimValueMap.getTechName(), dimValueMap.getBizName());
-                }
-            }
-
-            if (!CollectionUtils.isEmpty(techNameToBizName)) {
-                result.put(bizName, techNameToBizName);
-            }
+    private void bumpVersion(Long modelId) {
+        long version = changeSequence.incrementAndGet();
+        if (modelId == null) {
+            globalVersion = version;
+            dimValueIndexes.clear();
+            return;
         }
-        return result;
-    }
-
-    private boolean needSkipDimension(DimensionResp dimension) {
-        return Objects.isNull(dimension) || Strings.isEmpty(dimension.getBizName()) || CollectionUtils.isEmpty(
-                dimension.getDimValueMaps());
+        modelVersions.put(modelId, version);
+        dimValueIndexes.remove(modelId);
     }
 }
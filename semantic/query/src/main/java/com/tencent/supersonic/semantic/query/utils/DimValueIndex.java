@@ -0,0 +1,202 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.pojo.DimValueMap;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.query.pojo.Filter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.CollectionUtils;
+
+/**
+ * immutable value mappings of the dimensions of a model, built once per version of the model dimensions.
+ * dimensions without value maps are not indexed, so queries over them skip the rewrite entirely
+ */
+public class DimValueIndex {
+
+    public static final DimValueIndex EMPTY = new DimValueIndex(-1L, Collections.emptyMap(), Collections.emptyMap());
+
+    @Getter
+    private final long version;
+    /**
+     * dimension biz name -> value biz name and alias -> value tech name, used to rewrite filters
+     */
+    private final Map<String, Map<String, String>> aliasToTechName;
+    /**
+     * dimension biz name -> value tech name -> value biz name, used to rewrite results
+     */
+    private final Map<String, Map<String, String>> techNameToBizName;
+
+    private DimValueIndex(long version, Map<String, Map<String, String>> aliasToTechName,
+            Map<String, Map<String, String>> techNameToBizName) {
+        this.version = version;
+        this.aliasToTechName = aliasToTechName;
+        this.techNameToBizName = techNameToBizName;
+    }
+
+    public static DimValueIndex build(List<DimensionResp> dimensions, long version) {
+        Map<String, Map<String, String>> aliasToTechName = new HashMap<>();
+        Map<String, Map<String, String>> techNameToBizName = new HashMap<>();
+        if (!CollectionUtils.isEmpty(dimensions)) {
+            for (DimensionResp dimension : dimensions) {
+                if (needSkipDimension(dimension)) {
+                    continue;
+                }
+                Map<String, String> aliasPair = new HashMap<>();
+                Map<String, String> techPair = new HashMap<>();
+                for (DimValueMap dimValueMap : dimension.getDimValueMaps()) {
+                    if (Objects.isNull(dimValueMap) || StringUtils.isEmpty(dimValueMap.getTechName())) {
+                        continue;
+                    }
+                    if (StringUtils.isNotEmpty(dimValueMap.getBizName())) {
+                        aliasPair.put(dimValueMap.getBizName(), dimValueMap.getTechName());
+                        techPair.put(dimValueMap.getTechName(), dimValueMap.getBizName());
+                    }
+                    if (!CollectionUtils.isEmpty(dimValueMap.getAlias())) {
+                        dimValueMap.getAlias().stream().filter(StringUtils::isNotEmpty)
+                                .forEach(alias -> aliasPair.put(alias, dimValueMap.getTechName()));
+                    }
+                }
+                if (!aliasPair.isEmpty()) {
+                    aliasToTechName.put(dimension.getBizName(), aliasPair);
+                }
+                if (!techPair.isEmpty()) {
+                    techNameToBizName.put(dimension.getBizName(), techPair);
+                }
+            }
+        }
+        return new DimValueIndex(version, aliasToTechName, techNameToBizName);
+    }
+
+    public boolean isEmpty() {
+        return aliasToTechName.isEmpty() && techNameToBizName.isEmpty();
+    }
+
+    /**
+     * replaces the value biz names and aliases in the filters with the value tech names
+     */
+    public void rewriteFilter(List<Filter> filters) {
+        if (CollectionUtils.isEmpty(filters) || aliasToTechName.isEmpty()) {
+            return;
+        }
+        for (Filter filter : filters) {
+            if (Objects.isNull(filter)) {
+                continue;
+            }
+            if (!CollectionUtils.isEmpty(filter.getChildren())) {
+                rewriteFilter(filter.getChildren());
+                continue;
+            }
+            Map<String, String> aliasPair = aliasToTechName.get(filter.getBizName());
+            Object value = filter.getValue();
+            if (aliasPair == null || Objects.isNull(value)) {
+                continue;
+            }
+            if (value instanceof List) {
+                List<Object> valuesNew = new ArrayList<>();
+                for (Object valueSingle : (List<?>) value) {
+                    String techName = aliasPair.get(valueSingle);
+                    valuesNew.add(techName != null ? techName : valueSingle);
+                }
+                filter.setValue(valuesNew);
+            } else if (value instanceof String && aliasPair.containsKey(value)) {
+                filter.setValue(aliasPair.get(value));
+            }
+        }
+    }
+
+    /**
+     * replaces the value tech names in the result with the value biz names, the columns that have mappings
+     * are resolved once and each row is rewritten in a single pass over those columns
+     */
+    public void rewriteResult(List<QueryColumn> columns, List<Map<String, Object>> resultList) {
+        if (techNameToBizName.isEmpty() || CollectionUtils.isEmpty(columns) || CollectionUtils.isEmpty(resultList)) {
+            return;
+        }
+        List<String> mappedColumns = new ArrayList<>();
+        List<Map<String, String>> mappings = new ArrayList<>();
+        for (QueryColumn column : columns) {
+            Map<String, String> techPair = techNameToBizName.get(column.getNameEn());
+            if (techPair != null && !mappedColumns.contains(column.getNameEn())) {
+                mappedColumns.add(column.getNameEn());
+                mappings.add(techPair);
+            }
+        }
+        if (mappedColumns.isEmpty()) {
+            return;
+        }
+        int columnCount = mappedColumns.size();
+        for (Map<String, Object> line : resultList) {
+            for (int i = 0; i < columnCount; i++) {
+                String column = mappedColumns.get(i);
+                Object techName = line.get(column);
+                if (techName == null) {
+                    continue;
+                }
+                String bizName = mappings.get(i).get(techName.toString());
+                if (bizName != null) {
+                    line.put(column, bizName);
+                }
+            }
+        }
+    }
+
+    /**
+     * the consumer with the value tech names of each row replaced by the value biz names, as rewriteResult does
+     * for a materialized result
+     */
+    public ResultRowConsumer rewriteRows(ResultRowConsumer consumer) {
+        if (techNameToBizName.isEmpty()) {
+            return consumer;
+        }
+        return new ResultRowConsumer() {
+
+            private final List<Integer> mappedIndexes = new ArrayList<>();
+            private final List<Map<String, String>> mappings = new ArrayList<>();
+
+            @Override
+            public void onSchema(List<QueryColumn> columns) {
+                for (int i = 0; i < columns.size(); i++) {
+                    Map<String, String> techPair = techNameToBizName.get(columns.get(i).getNameEn());
+                    if (techPair != null) {
+                        mappedIndexes.add(i);
+                        mappings.add(techPair);
+                    }
+                }
+                consumer.onSchema(columns);
+            }
+
+            @Override
+            public void onRow(Object[] row) {
+                for (int i = 0; i < mappedIndexes.size(); i++) {
+                    int index = mappedIndexes.get(i);
+                    if (row[index] == null) {
+                        continue;
+                    }
+                    String bizName = mappings.get(i).get(row[index].toString());
+                    if (bizName != null) {
+                        row[index] = bizName;
+                    }
+                }
+                consumer.onRow(row);
+            }
+
+            @Override
+            public void onComplete(long rowCount) {
+                consumer.onComplete(rowCount);
+            }
+        };
+    }
+
+    private static boolean needSkipDimension(DimensionResp dimension) {
+        return Objects.isNull(dimension) || StringUtils.isEmpty(dimension.getBizName())
+                || CollectionUtils.isEmpty(dimension.getDimValueMaps());
+    }
+}
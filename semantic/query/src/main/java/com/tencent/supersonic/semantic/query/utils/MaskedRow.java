@@ -0,0 +1,114 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * a view of a result row that shows the masked columns as ****, the row itself is not copied or changed.
+ * the first write copies the row, so callers can still modify the rows of a masked result.
+ */
+public class MaskedRow extends AbstractMap<String, Object> implements Serializable {
+
+    public static final String MASK = "****";
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Map<String, Object> row;
+    private final transient Set<String> maskedColumns;
+    private transient Map<String, Object> copy;
+
+    public MaskedRow(Map<String, Object> row, Set<String> maskedColumns) {
+        this.row = row;
+        this.maskedColumns = maskedColumns;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (copy != null) {
+            return copy.get(key);
+        }
+        if (maskedColumns.contains(key) && row.containsKey(key)) {
+            return MASK;
+        }
+        return row.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return copy != null ? copy.containsKey(key) : row.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return copy != null ? copy.size() : row.size();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (copy != null) {
+            return copy.entrySet();
+        }
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Entry<String, Object>> iterator = row.entrySet().iterator();
+                return new Iterator<Entry<String, Object>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Entry<String, Object> entry = iterator.next();
+                        Object value = maskedColumns.contains(entry.getKey()) ? MASK : entry.getValue();
+                        return new SimpleImmutableEntry<>(entry.getKey(), value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return row.size();
+            }
+        };
+    }
+
+    private Map<String, Object> materialize() {
+        if (copy == null) {
+            Map<String, Object> materialized = new LinkedHashMap<>(row.size() * 2);
+            for (Entry<String, Object> entry : entrySet()) {
+                materialized.put(entry.getKey(), entry.getValue());
+            }
+            copy = materialized;
+        }
+        return copy;
+    }
+
+    /**
+     * serialized as a plain map with the masked values
+     */
+    private Object writeReplace() {
+        return new LinkedHashMap<>(this);
+    }
+}
@@ -8,15 +8,19 @@ import com.tencent.supersonic.common.pojo.Aggregator;
 import com.tencent.supersonic.common.util.cache.CacheUtils;
 import com.tencent.supersonic.semantic.api.model.enums.TimeDimensionEnum;
 import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.response.DatasourceResp;
 import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
 import com.tencent.supersonic.semantic.api.model.response.MetricResp;
 import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
 import com.tencent.supersonic.semantic.api.query.request.QueryMultiStructReq;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
 import com.tencent.supersonic.semantic.model.domain.Catalog;
 import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,6 +31,7 @@ import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -36,6 +41,9 @@ import org.springframework.util.CollectionUtils;
 @Component
 public class QueryUtils {
 
+    private static final String CACHE_TAG_MODEL = "model:";
+    private static final String CACHE_TAG_DATASOURCE = "datasource:";
+
     private final Set<Pattern> patterns = new HashSet<>();
     @Value("${query.cache.enable:true}")
     private Boolean cacheEnable;
@@ -191,10 +199,8 @@ public class QueryUtils {
         QueryStatement sqlParser = new QueryStatement();
         StringBuilder unionSqlBuilder = new StringBuilder();
         for (int i = 0; i < sqlParsers.size(); i++) {
-            String selectStr = SqlGenerateUtils.getUnionSelect(queryMultiStructCmd.getQueryStructReqs().get(i));
-            unionSqlBuilder.append(String.format("select %s from ( %s ) sub_sql_%s",
-                    selectStr,
-                    sqlParsers.get(i).getSql(), i));
+            unionSqlBuilder.append(getUnionSubSql(queryMultiStructCmd.getQueryStructReqs().get(i),
+                    sqlParsers.get(i), i));
             unionSqlBuilder.append(UNIONALL);
         }
         String unionSql = unionSqlBuilder.substring(0, unionSqlBuilder.length() - Constants.UNIONALL.length());
@@ -204,11 +210,68 @@ public class QueryUtils {
         return sqlParser;
     }
 
-    public void cacheResultLogic(String key, QueryResultWithSchemaResp queryResultWithColumns) {
+    /**
+     * one branch of the union as a query of its own, it returns the same columns as in the union
+     */
+    public QueryStatement sqlParserUnionSub(QueryStructReq queryStructCmd, QueryStatement sqlParser, int index) {
+        QueryStatement subSqlParser = new QueryStatement();
+        subSqlParser.setSql(getUnionSubSql(queryStructCmd, sqlParser, index));
+        subSqlParser.setSourceId(sqlParser.getSourceId());
+        return subSqlParser;
+    }
+
+    /**
+     * the results of the branches in the order of the union, the rows take the column names of the first
+     * result by position as the rows of a union all do
+     */
+    public QueryResultWithSchemaResp mergeUnionResult(List<QueryResultWithSchemaResp> results) {
+        List<QueryResultWithSchemaResp> nonNullResults = results.stream().filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (nonNullResults.isEmpty()) {
+            return null;
+        }
+        QueryResultWithSchemaResp first = nonNullResults.get(0);
+        QueryResultWithSchemaResp merged = new QueryResultWithSchemaResp();
+        // the names of the columns are filled in afterwards, a cached branch keeps its own
+        merged.setColumns(copyColumns(first.getColumns()));
+        List<Map<String, Object>> resultList = new ArrayList<>();
+        for (QueryResultWithSchemaResp result : nonNullResults) {
+            if (result.getColumns().size() != first.getColumns().size()) {
+                throw new RuntimeException("union sub queries return different column counts: "
+                        + first.getColumns().size() + ", " + result.getColumns().size());
+            }
+            for (Map<String, Object> row : result.getResultList()) {
+                Map<String, Object> mergedRow = new LinkedHashMap<>();
+                for (int i = 0; i < first.getColumns().size(); i++) {
+                    mergedRow.put(first.getColumns().get(i).getNameEn(),
+                            row.get(result.getColumns().get(i).getNameEn()));
+                }
+                resultList.add(mergedRow);
+            }
+        }
+        merged.setResultList(resultList);
+        merged.setSql(nonNullResults.stream().map(QueryResultWithSchemaResp::getSql).filter(Objects::nonNull)
+                .collect(Collectors.joining(UNIONALL)));
+        return merged;
+    }
+
+    private String getUnionSubSql(QueryStructReq queryStructCmd, QueryStatement sqlParser, int index) {
+        return String.format("select %s from ( %s ) sub_sql_%s", SqlGenerateUtils.getUnionSelect(queryStructCmd),
+                sqlParser.getSql(), index);
+    }
+
+    /**
+     * @param generation the cache generation read before the query was planned, the result is not cached if
+     *                   the cache of one of the models was evicted while the query ran
+     */
+    public void cacheResultLogic(String key, QueryResultWithSchemaResp queryResultWithColumns,
+            Set<Long> modelIds, long generation) {
         if (cacheEnable && Objects.nonNull(queryResultWithColumns) && !CollectionUtils.isEmpty(
                 queryResultWithColumns.getResultList())) {
-            QueryResultWithSchemaResp finalQueryResultWithColumns = queryResultWithColumns;
-            CompletableFuture.supplyAsync(() -> cacheUtils.put(key, finalQueryResultWithColumns))
+            // copied before the caller post processes its result
+            QueryResultWithSchemaResp finalQueryResultWithColumns = copyResult(queryResultWithColumns);
+            Set<String> tags = getCacheTags(modelIds);
+            CompletableFuture.supplyAsync(() -> cacheUtils.put(key, finalQueryResultWithColumns, tags, generation))
                     .exceptionally(exception -> {
                         log.warn("exception:", exception);
                         return null;
@@ -218,4 +281,65 @@ public class QueryUtils {
         }
 
     }
+
+    /**
+     * copies the columns and rows, so post processing of one request does not leak into a shared result
+     */
+    public static QueryResultWithSchemaResp copyResult(QueryResultWithSchemaResp raw) {
+        QueryResultWithSchemaResp copy = new QueryResultWithSchemaResp();
+        BeanUtils.copyProperties(raw, copy);
+        if (raw.getColumns() != null) {
+            copy.setColumns(copyColumns(raw.getColumns()));
+        }
+        if (raw.getResultList() != null) {
+            List<Map<String, Object>> resultList = new ArrayList<>(raw.getResultList().size());
+            for (Map<String, Object> row : raw.getResultList()) {
+                resultList.add(row == null ? null : new LinkedHashMap<>(row));
+            }
+            copy.setResultList(resultList);
+        }
+        return copy;
+    }
+
+    /**
+     * the aspects set the names and the authorization on the columns, every copy gets its own
+     */
+    private static List<QueryColumn> copyColumns(List<QueryColumn> columns) {
+        List<QueryColumn> copies = new ArrayList<>(columns.size());
+        for (QueryColumn column : columns) {
+            if (column == null) {
+                copies.add(null);
+                continue;
+            }
+            QueryColumn copy = new QueryColumn();
+            BeanUtils.copyProperties(column, copy);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    public static String getModelCacheTag(Long modelId) {
+        return CACHE_TAG_MODEL + modelId;
+    }
+
+    public static String getDatasourceCacheTag(Long datasourceId) {
+        return CACHE_TAG_DATASOURCE + datasourceId;
+    }
+
+    /**
+     * a cached result is tagged with its models and their datasources, so it can be evicted when they change
+     */
+    private Set<String> getCacheTags(Set<Long> modelIds) {
+        Set<String> tags = new HashSet<>();
+        for (Long modelId : modelIds) {
+            if (modelId == null) {
+                continue;
+            }
+            tags.add(getModelCacheTag(modelId));
+            for (DatasourceResp datasourceResp : catalog.getDatasourceList(modelId)) {
+                tags.add(getDatasourceCacheTag(datasourceResp.getId()));
+            }
+        }
+        return tags;
+    }
 }
@@ -0,0 +1,57 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.common.pojo.DataAddEvent;
+import com.tencent.supersonic.common.pojo.DataDeleteEvent;
+import com.tencent.supersonic.common.pojo.DataUpdateEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.TypeEnums;
+import com.tencent.supersonic.common.util.cache.CacheUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * evicts the cached query results of a model once its meta changes, instead of waiting for them to expire
+ */
+@Component
+@Slf4j
+public class ResultCacheListener {
+
+    private final CacheUtils cacheUtils;
+
+    public ResultCacheListener(CacheUtils cacheUtils) {
+        this.cacheUtils = cacheUtils;
+    }
+
+    @EventListener
+    public void onDataAdd(DataAddEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataUpdate(DataUpdateEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onDataDelete(DataDeleteEvent event) {
+        evictModel(event.getModelId());
+    }
+
+    @EventListener
+    public void onMetaChange(MetaChangeEvent event) {
+        if (TypeEnums.DATABASE.equals(event.getType())) {
+            log.info("database changed, evict all query results");
+            cacheUtils.removeAll();
+            return;
+        }
+        evictModel(event.getModelId());
+    }
+
+    private void evictModel(Long modelId) {
+        if (modelId == null) {
+            return;
+        }
+        cacheUtils.removeByTag(QueryUtils.getModelCacheTag(modelId));
+    }
+}
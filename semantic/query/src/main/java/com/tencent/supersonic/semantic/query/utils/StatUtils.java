@@ -4,6 +4,8 @@ import com.alibaba.ttl.TransmittableThreadLocal;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.Order;
 import com.tencent.supersonic.semantic.api.model.enums.QueryTypeBackEnum;
 import com.tencent.supersonic.semantic.api.model.enums.QueryTypeEnum;
 import com.tencent.supersonic.semantic.api.model.pojo.QueryStat;
@@ -15,7 +17,7 @@ import com.tencent.supersonic.semantic.query.persistence.repository.StatReposito
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.logging.log4j.util.Strings;
@@ -26,15 +28,21 @@ import org.springframework.stereotype.Component;
 public class StatUtils {
 
     private static final TransmittableThreadLocal<QueryStat> STATS = new TransmittableThreadLocal<>();
+    /**
+     * fills the json and md5 columns of the current stat, run on the stat writer thread
+     */
+    private static final TransmittableThreadLocal<Consumer<QueryStat>> COMPLETERS = new TransmittableThreadLocal<>();
     private final StatRepository statRepository;
     private final SqlFilterUtils sqlFilterUtils;
+    private final StatWriter statWriter;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public StatUtils(StatRepository statRepository,
-            SqlFilterUtils sqlFilterUtils) {
+            SqlFilterUtils sqlFilterUtils, StatWriter statWriter) {
 
         this.statRepository = statRepository;
         this.sqlFilterUtils = sqlFilterUtils;
+        this.statWriter = statWriter;
     }
 
     public static QueryStat get() {
@@ -47,18 +55,16 @@ public class StatUtils {
 
     public static void remove() {
         STATS.remove();
+        COMPLETERS.remove();
     }
 
     public void statInfo2DbAsync(TaskStatusEnum state) {
         QueryStat queryStatInfo = get();
+        Consumer<QueryStat> completer = COMPLETERS.get();
         queryStatInfo.setElapsedMs(System.currentTimeMillis() - queryStatInfo.getStartTime());
         queryStatInfo.setQueryState(state.getStatus());
-        log.info("queryStatInfo: {}", queryStatInfo);
-        CompletableFuture.runAsync(() -> {
-            statRepository.createRecord(queryStatInfo);
-        }).exceptionally(exception -> {
-            log.warn("queryStatInfo, exception:", exception);
-            return null;
+        log.debug("queryStatInfo: {}", queryStatInfo);
+        statWriter.offer(queryStatInfo, completer != null ? completer : stat -> {
         });
 
         remove();
@@ -69,40 +75,48 @@ public class StatUtils {
         return true;
     }
 
+    /**
+     * only copies what the query may change later on the request thread, the json columns and the md5
+     * are built by the stat writer
+     */
     public void initStatInfo(QueryStructReq queryStructCmd, User facadeUser) {
         QueryStat queryStatInfo = new QueryStat();
         String traceId = "";
-        List<String> dimensions = queryStructCmd.getGroups();
+        List<String> dimensions = new ArrayList<>(queryStructCmd.getGroups());
+        List<Aggregator> aggregators = new ArrayList<>(queryStructCmd.getAggregators());
+        List<Order> orders = new ArrayList<>(queryStructCmd.getOrders());
+        List<String> filterCols = sqlFilterUtils.getFiltersCol(queryStructCmd.getOriginalFilter());
 
         List<String> metrics = new ArrayList<>();
-        queryStructCmd.getAggregators().stream().forEach(aggregator -> metrics.add(aggregator.getColumn()));
+        aggregators.forEach(aggregator -> metrics.add(aggregator.getColumn()));
         String user = (Objects.nonNull(facadeUser) && Strings.isNotEmpty(facadeUser.getName())) ? facadeUser.getName()
                 : "Admin";
-
-        try {
-            queryStatInfo.setTraceId(traceId)
-                    .setClassId(queryStructCmd.getModelId())
-                    .setUser(user)
-                    .setQueryType(QueryTypeEnum.STRUCT.getValue())
-                    .setQueryTypeBack(QueryTypeBackEnum.NORMAL.getState())
-                    .setQueryStructCmd(queryStructCmd.toString())
-                    .setQueryStructCmdMd5(DigestUtils.md5Hex(queryStructCmd.toString()))
-                    .setStartTime(System.currentTimeMillis())
-                    .setNativeQuery(queryStructCmd.getNativeQuery())
-                    .setGroupByCols(objectMapper.writeValueAsString(queryStructCmd.getGroups()))
-                    .setAggCols(objectMapper.writeValueAsString(queryStructCmd.getAggregators()))
-                    .setOrderByCols(objectMapper.writeValueAsString(queryStructCmd.getOrders()))
-                    .setFilterCols(objectMapper.writeValueAsString(
-                            sqlFilterUtils.getFiltersCol(queryStructCmd.getOriginalFilter())))
-                    .setUseResultCache(true)
-                    .setUseSqlCache(true)
-                    .setMetrics(objectMapper.writeValueAsString(metrics))
-                    .setDimensions(objectMapper.writeValueAsString(dimensions));
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-        }
+        String queryStructCmdStr = queryStructCmd.toString();
+
+        queryStatInfo.setTraceId(traceId)
+                .setClassId(queryStructCmd.getModelId())
+                .setUser(user)
+                .setQueryType(QueryTypeEnum.STRUCT.getValue())
+                .setQueryTypeBack(QueryTypeBackEnum.NORMAL.getState())
+                .setQueryStructCmd(queryStructCmdStr)
+                .setStartTime(System.currentTimeMillis())
+                .setNativeQuery(queryStructCmd.getNativeQuery())
+                .setUseResultCache(true)
+                .setUseSqlCache(true);
         StatUtils.set(queryStatInfo);
-
+        COMPLETERS.set(stat -> {
+            try {
+                stat.setQueryStructCmdMd5(DigestUtils.md5Hex(queryStructCmdStr))
+                        .setGroupByCols(objectMapper.writeValueAsString(dimensions))
+                        .setAggCols(objectMapper.writeValueAsString(aggregators))
+                        .setOrderByCols(objectMapper.writeValueAsString(orders))
+                        .setFilterCols(objectMapper.writeValueAsString(filterCols))
+                        .setMetrics(objectMapper.writeValueAsString(metrics))
+                        .setDimensions(objectMapper.writeValueAsString(dimensions));
+            } catch (JsonProcessingException e) {
+                log.warn("serialize query stat error", e);
+            }
+        });
     }
 
     public List<ItemUseResp> getStatInfo(ItemUseReq itemUseCommend) {
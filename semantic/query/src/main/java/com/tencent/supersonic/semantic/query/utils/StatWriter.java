@@ -0,0 +1,192 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.semantic.api.model.pojo.QueryStat;
+import com.tencent.supersonic.semantic.query.persistence.pojo.StatWriterMetrics;
+import com.tencent.supersonic.semantic.query.persistence.repository.StatRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * writes the query statistics on a single thread in multi row inserts, flushed when a batch is full or
+ * the flush interval is over. the queue is bounded, above the high watermark the sample policy keeps one
+ * of every sample.ratio records, a full queue drops the record, so statistics never slow down queries
+ */
+@Slf4j
+@Component
+public class StatWriter {
+
+    private static final String POLICY_SAMPLE = "sample";
+
+    @Value("${stat.writer.queue.size:10000}")
+    private int queueSize;
+
+    @Value("${stat.writer.batch.size:200}")
+    private int batchSize;
+
+    @Value("${stat.writer.flush.ms:1000}")
+    private long flushMs;
+
+    @Value("${stat.writer.overflow.policy:sample}")
+    private String overflowPolicy;
+
+    @Value("${stat.writer.high.watermark:0.8}")
+    private double highWatermark;
+
+    @Value("${stat.writer.sample.ratio:10}")
+    private int sampleRatio;
+
+    private final StatRepository statRepository;
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder sampledOutCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushMillis = new LongAdder();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+    private final AtomicLong sampleSequence = new AtomicLong();
+    private BlockingQueue<PendingStat> queue;
+    private int sampleThreshold;
+    private Thread writer;
+    private volatile boolean running;
+
+    public StatWriter(StatRepository statRepository) {
+        this.statRepository = statRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        sampleThreshold = (int) (queueSize * highWatermark);
+        sampleRatio = Math.max(1, sampleRatio);
+        running = true;
+        writer = new Thread(this::writeLoop, "query-stat-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * queues the record without blocking, the completer fills the expensive columns on the writer thread
+     *
+     * @return false if the record was sampled out or dropped
+     */
+    public boolean offer(QueryStat queryStat, Consumer<QueryStat> completer) {
+        if (POLICY_SAMPLE.equalsIgnoreCase(overflowPolicy) && queue.size() >= sampleThreshold
+                && sampleSequence.incrementAndGet() % sampleRatio != 0) {
+            sampledOutCount.increment();
+            return false;
+        }
+        if (!queue.offer(new PendingStat(queryStat, completer))) {
+            droppedCount.increment();
+            if (droppedCount.sum() % 1000 == 1) {
+                log.warn("query stat queue is full, dropped:{}", droppedCount.sum());
+            }
+            return false;
+        }
+        acceptedCount.increment();
+        return true;
+    }
+
+    public StatWriterMetrics getMetrics() {
+        StatWriterMetrics metrics = new StatWriterMetrics();
+        metrics.setQueueSize(queue.size());
+        metrics.setQueueCapacity(queueSize);
+        metrics.setAcceptedCount(acceptedCount.sum());
+        metrics.setSampledOutCount(sampledOutCount.sum());
+        metrics.setDroppedCount(droppedCount.sum());
+        metrics.setWrittenCount(writtenCount.sum());
+        metrics.setFailedCount(failedCount.sum());
+        long flushes = flushCount.sum();
+        metrics.setFlushCount(flushes);
+        metrics.setAvgFlushMillis(flushes == 0 ? 0 : flushMillis.sum() / flushes);
+        metrics.setMaxFlushMillis(maxFlushMillis.get());
+        return metrics;
+    }
+
+    private void writeLoop() {
+        List<PendingStat> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushMs;
+        while (running) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                PendingStat pendingStat = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+                if (pendingStat != null) {
+                    batch.add(pendingStat);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                    flush(batch);
+                    deadline = System.currentTimeMillis() + flushMs;
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable e) {
+                log.error("query stat writer error", e);
+            }
+        }
+        // write what is left on shutdown
+        queue.drainTo(batch);
+        while (!batch.isEmpty()) {
+            List<PendingStat> chunk = new ArrayList<>(batch.subList(0, Math.min(batchSize, batch.size())));
+            batch.subList(0, chunk.size()).clear();
+            flush(chunk);
+        }
+    }
+
+    private void flush(List<PendingStat> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<QueryStat> queryStats = new ArrayList<>(batch.size());
+        for (PendingStat pendingStat : batch) {
+            try {
+                pendingStat.completer.accept(pendingStat.queryStat);
+            } catch (Exception e) {
+                log.warn("complete query stat error", e);
+            }
+            queryStats.add(pendingStat.queryStat);
+        }
+        batch.clear();
+        try {
+            statRepository.batchCreateRecord(queryStats);
+            writtenCount.add(queryStats.size());
+        } catch (Exception e) {
+            failedCount.add(queryStats.size());
+            log.warn("write query stat error, size:{}", queryStats.size(), e);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        flushCount.increment();
+        flushMillis.add(elapsed);
+        maxFlushMillis.accumulateAndGet(elapsed, Math::max);
+    }
+
+    private static class PendingStat {
+
+        private final QueryStat queryStat;
+        private final Consumer<QueryStat> completer;
+
+        PendingStat(QueryStat queryStat, Consumer<QueryStat> completer) {
+            this.queryStat = queryStat;
+            this.completer = completer;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tencent.supersonic.semantic.query.domain.calcite;
+
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
+import com.tencent.supersonic.semantic.query.parser.calcite.Configuration;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.node.SemanticNode;
+import com.tencent.supersonic.semantic.query.parser.calcite.sql.optimizer.SqlOptimizer;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class SqlOptimizerTest {
+
+    /**
+     * the plan of pv by sys_imp_date of SemanticParserServiceTest
+     */
+    private static final String PLAN = "SELECT sys_imp_date, pv FROM (SELECT * FROM (SELECT sys_imp_date, user_name, "
+            + "s2_pv_uv_statis_pv AS pv FROM (SELECT sum(s2_pv_uv_statis_pv) AS s2_pv_uv_statis_pv, sys_imp_date, "
+            + "user_name FROM (SELECT pv AS s2_pv_uv_statis_pv, imp_date AS sys_imp_date, user_name FROM (SELECT "
+            + "imp_date, user_name, page, 1 AS pv, user_name AS uv FROM s2_pv_uv_statis) AS s2_pv_uv_statis) AS src00_ "
+            + "GROUP BY sys_imp_date, user_name) AS s2_pv_uv_statis_0) AS src2_ WHERE (user_name = 'ab' AND "
+            + "(sys_imp_date >= '2023-02-28' AND sys_imp_date <= '2023-05-28'))) AS s2_pv_uv_statis_1 "
+            + "ORDER BY sys_imp_date DESC LIMIT 1000";
+
+    private static final String JOIN_PLAN = "SELECT sys_imp_date, user_name__department, pv FROM (SELECT * FROM "
+            + "(SELECT sys_imp_date, user_name__department, s2_pv_uv_statis_pv AS pv FROM (SELECT "
+            + "sum(s2_pv_uv_statis_pv) AS s2_pv_uv_statis_pv, sys_imp_date, user_name__department FROM (SELECT "
+            + "src1_user_department.sys_imp_date AS sys_imp_date, src1_s2_pv_uv_statis.s2_pv_uv_statis_pv AS "
+            + "s2_pv_uv_statis_pv, src1_user_department.department AS user_name__department FROM (SELECT pv AS "
+            + "s2_pv_uv_statis_pv, imp_date AS sys_imp_date, user_name, page AS page FROM (SELECT imp_date, "
+            + "user_name, page, 1 AS pv, user_name AS uv FROM s2_pv_uv_statis) AS s2_pv_uv_statis) AS "
+            + "src1_s2_pv_uv_statis INNER JOIN (SELECT imp_date AS sys_imp_date, user_name, department AS department "
+            + "FROM (SELECT imp_date, user_name, department FROM s2_user_department) AS user_department) AS "
+            + "src1_user_department ON src1_s2_pv_uv_statis.sys_imp_date = src1_user_department.sys_imp_date AND "
+            + "src1_s2_pv_uv_statis.user_name = src1_user_department.user_name) AS src11_ GROUP BY sys_imp_date, "
+            + "user_name__department) AS s2_0) AS src2_ WHERE (sys_imp_date >= '2023-02-28')) AS s2_1 "
+            + "ORDER BY sys_imp_date DESC LIMIT 1000";
+
+    @Test
+    void pushDownAndMerge() throws Exception {
+        Assert.assertEquals("SELECT `sys_imp_date` , sum ( `s2_pv_uv_statis_pv` ) as `pv` FROM ( SELECT 1 as "
+                        + "`s2_pv_uv_statis_pv` , `imp_date` as `sys_imp_date` , `user_name` FROM `s2_pv_uv_statis` "
+                        + "WHERE `user_name` = 'ab' and `imp_date` >= '2023-02-28' and `imp_date` <= '2023-05-28' ) "
+                        + "as `src00_` GROUP BY `sys_imp_date` , `user_name` ORDER BY `sys_imp_date` desc limit 1000",
+                optimize(PLAN, EngineTypeEnum.H2));
+    }
+
+    @Test
+    void pushDownBothSidesOfJoin() throws Exception {
+        String sql = optimize(JOIN_PLAN, EngineTypeEnum.MYSQL);
+        Assert.assertTrue(sql, sql.contains("FROM `s2_pv_uv_statis` WHERE `imp_date` >= '2023-02-28'"));
+        Assert.assertTrue(sql, sql.contains("FROM `s2_user_department` WHERE `imp_date` >= '2023-02-28'"));
+        Assert.assertFalse(sql, sql.contains("*"));
+        Assert.assertFalse(sql, sql.contains("`page`"));
+        Assert.assertFalse(sql, sql.contains("`uv`"));
+    }
+
+    @Test
+    void keepSemantics() throws Exception {
+        // below a limit, on an aggregate and on the null side of a left join a filter is not pushed
+        String limited = "SELECT a FROM (SELECT a, b FROM t LIMIT 10) AS x WHERE a = 1";
+        Assert.assertEquals(SemanticNode.getSql(parse(limited)), optimize(limited, EngineTypeEnum.H2));
+        String aggregated = "SELECT a, s FROM (SELECT a, sum(b) AS s FROM t GROUP BY a) AS x WHERE s > 1";
+        Assert.assertEquals(SemanticNode.getSql(parse(aggregated)), optimize(aggregated, EngineTypeEnum.H2));
+        String leftJoin = "SELECT x.a, y.c FROM (SELECT a FROM t) AS x LEFT JOIN (SELECT a, c FROM u) AS y "
+                + "ON x.a = y.a WHERE y.c = 1";
+        Assert.assertTrue(optimize(leftJoin, EngineTypeEnum.H2).endsWith("WHERE `y` . `c` = 1"));
+    }
+
+    @Test
+    void shadowedByAlias() throws Exception {
+        String sql = "SELECT d FROM (SELECT toDate(d) AS d FROM t) AS x WHERE d = '2023-01-01'";
+        Assert.assertTrue(optimize(sql, EngineTypeEnum.H2).contains("WHERE `toDate` ( `d` ) = '2023-01-01'"));
+        Assert.assertTrue(optimize(sql, EngineTypeEnum.CLICKHOUSE).endsWith("WHERE `d` = '2023-01-01'"));
+    }
+
+    @Test
+    void byEngine() throws Exception {
+        // doris pushes the filter itself, only the levels are merged
+        String doris = optimize(PLAN, EngineTypeEnum.DORIS);
+        Assert.assertTrue(doris, doris.contains("as `src2_` WHERE `user_name` = 'ab'"));
+        Assert.assertFalse(doris, doris.contains("`uv`"));
+        Assert.assertEquals(SemanticNode.getSql(parse(PLAN)), optimize(PLAN, EngineTypeEnum.TDW));
+    }
+
+    private String optimize(String sql, EngineTypeEnum engineType) throws Exception {
+        SqlNode sqlNode = parse(sql);
+        SqlOptimizer.of(engineType).optimize(sqlNode);
+        return SemanticNode.getSql(sqlNode);
+    }
+
+    /**
+     * the order and the limit are set on the select as the planner does, the row count as offset
+     */
+    private SqlNode parse(String sql) throws Exception {
+        SqlNode sqlNode = SqlParser.create(sql, Configuration.getParserConfig()).parseQuery();
+        if (sqlNode instanceof SqlOrderBy) {
+            SqlOrderBy orderBy = (SqlOrderBy) sqlNode;
+            SqlSelect select = (SqlSelect) orderBy.query;
+            select.setOrderBy(orderBy.orderList);
+            select.setOffset(orderBy.fetch);
+            return select;
+        }
+        return sqlNode;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tencent.supersonic.semantic.query.domain.calcite;
+
+import com.tencent.supersonic.semantic.query.parser.calcite.planner.WhereTemplate;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class WhereTemplateTest {
+
+    @Test
+    void parameterize() {
+        String where = "user_name = 'ab' and (sys_imp_date >= '2023-02-28' and sys_imp_date <= '2023-05-28')";
+        WhereTemplate whereTemplate = WhereTemplate.of(where);
+        Assert.assertEquals("user_name = '__sp_0__' and (sys_imp_date >= '__sp_1__' and sys_imp_date <= '__sp_2__')",
+                whereTemplate.getTemplate());
+        Assert.assertEquals(Arrays.asList("'ab'", "'2023-02-28'", "'2023-05-28'"), whereTemplate.getLiterals());
+
+        WhereTemplate otherRange = WhereTemplate.of(
+                "user_name = 'cd' and (sys_imp_date >= '2023-03-01' and sys_imp_date <= '2023-03-31')");
+        Assert.assertEquals(whereTemplate.getTemplate(), otherRange.getTemplate());
+    }
+
+    @Test
+    void keepTypedLiteralAndIdentifier() {
+        WhereTemplate whereTemplate = WhereTemplate.of("`a'b` = 'x''y' and d > DATE '2023-01-01'");
+        Assert.assertEquals("`a'b` = '__sp_0__' and d > DATE '2023-01-01'", whereTemplate.getTemplate());
+        Assert.assertEquals(Arrays.asList("'x''y'"), whereTemplate.getLiterals());
+        Assert.assertNull(WhereTemplate.of("user_name = 'ab"));
+    }
+
+    @Test
+    void bind() {
+        String where = "user_name in ('ab', 'cd')";
+        WhereTemplate whereTemplate = WhereTemplate.of(where);
+        String sqlTemplate = "SELECT * FROM t WHERE " + whereTemplate.getTemplate();
+        Assert.assertTrue(WhereTemplate.isBindable(sqlTemplate, whereTemplate.getLiterals().size()));
+        Assert.assertFalse(WhereTemplate.isBindable("SELECT * FROM t", whereTemplate.getLiterals().size()));
+        Assert.assertEquals("SELECT * FROM t WHERE " + where,
+                WhereTemplate.bind(sqlTemplate, whereTemplate.getLiterals()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.tencent.supersonic.semantic.query.parser.convert;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.tencent.supersonic.common.pojo.Aggregator;
+import com.tencent.supersonic.common.pojo.Constants;
+import com.tencent.supersonic.common.pojo.DateConf;
+import com.tencent.supersonic.common.pojo.enums.AggOperatorEnum;
+import com.tencent.supersonic.common.util.ContextUtils;
+import com.tencent.supersonic.semantic.api.query.request.ParseSqlReq;
+import com.tencent.supersonic.semantic.api.query.request.QueryStructReq;
+import com.tencent.supersonic.semantic.model.domain.Catalog;
+import com.tencent.supersonic.semantic.model.domain.pojo.EngineTypeEnum;
+import com.tencent.supersonic.semantic.query.utils.DateUtils;
+import com.tencent.supersonic.semantic.query.utils.QueryStructUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CalculateAggConverterTest {
+
+    static {
+        new ContextUtils().setApplicationContext(new AnnotationConfigApplicationContext(DateUtils.class));
+    }
+
+    @Test
+    void h2WindowSql() throws Exception {
+        ParseSqlReq sqlReq = newConverter(true).generateRatioSqlCommand(
+                newQuery(Constants.DAY, AggOperatorEnum.RATIO_ROLL, false), EngineTypeEnum.H2, null);
+
+        Assert.assertEquals("select sys_imp_date,( (pv-pv_roll)/cast(pv_roll as DOUBLE) ) as pv_RATIO_ROLL,pv from "
+                + "( select sys_imp_date,pv , CASE WHEN sys_imp_date = TIMESTAMPADD(day,1,sys_imp_date_lag1)  "
+                + "THEN pv_lag1 END AS pv_roll from ( select sys_imp_date,pv , LAG(pv, 1) OVER (ORDER BY "
+                + "sys_imp_date) AS pv_lag1,LAG(sys_imp_date, 1) OVER (ORDER BY sys_imp_date) AS sys_imp_date_lag1 "
+                + "from v_metric_tb_tmp ) metric_tb_lag ) metric_tb_src order by sys_imp_date desc  ",
+                sqlReq.getSql());
+        Assert.assertTrue(sqlReq.isSupportWith());
+    }
+
+    @Test
+    void clickHouseWindowSql() throws Exception {
+        String sql = newConverter(true).generateRatioSqlCommand(
+                newQuery(Constants.WEEK, AggOperatorEnum.RATIO_OVER, true), EngineTypeEnum.CLICKHOUSE, null).getSql();
+
+        Assert.assertTrue(sql.contains("lagInFrame(toNullable(pv), 6) OVER (PARTITION BY page ORDER BY "
+                + "sys_imp_week ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) AS pv_lag6"));
+        Assert.assertTrue(sql.contains("WHEN toMonday(date_add(sys_imp_week ,INTERVAL -1 month) ) = "
+                + "sys_imp_week_lag6 THEN pv_lag6"));
+        Assert.assertFalse(sql.contains("pv_lag7"));
+        Assert.assertFalse(sql.contains("LAG("));
+        Assert.assertFalse(sql.contains("left join"));
+    }
+
+    @Test
+    void mysqlWindowSql() throws Exception {
+        // the engines after mysql 5.7 match the times as the join of the clickhouse plan, with the standard lag
+        for (EngineTypeEnum engineType : Arrays.asList(EngineTypeEnum.MYSQL, EngineTypeEnum.DORIS)) {
+            ParseSqlReq sqlReq = newConverter(true).generateRatioSqlCommand(
+                    newQuery(Constants.MONTH, AggOperatorEnum.RATIO_OVER, true), engineType, "8.0.32");
+
+            Assert.assertTrue(sqlReq.getSql().startsWith("select sys_imp_month,page,if(pv_roll!=0,"));
+            Assert.assertTrue(sqlReq.getSql().contains("LAG(pv, 12) OVER (PARTITION BY page ORDER BY sys_imp_month) "
+                    + "AS pv_lag12"));
+            Assert.assertTrue(sqlReq.getSql().contains("WHEN toDate(CONCAT(sys_imp_month,'-01')) = date_add(toDate("
+                    + "CONCAT(sys_imp_month_lag1,'-01')),INTERVAL  1 year)   THEN pv_lag1"));
+            Assert.assertFalse(sqlReq.getSql().contains("pv_lag13"));
+            Assert.assertFalse(sqlReq.getSql().contains("lagInFrame"));
+            Assert.assertTrue(sqlReq.isSupportWith());
+        }
+    }
+
+    @Test
+    void mysqlLowVersionJoinSql() throws Exception {
+        CalculateAggConverter converter = newConverter(true);
+        QueryStructReq queryStructReq = newQuery(Constants.DAY, AggOperatorEnum.RATIO_ROLL, true);
+        Assert.assertFalse(converter.isWindowAccept(queryStructReq, EngineTypeEnum.MYSQL, "5.7.40"));
+
+        ParseSqlReq sqlReq = converter.generateRatioSqlCommand(queryStructReq, EngineTypeEnum.MYSQL, "5.7.40");
+        Assert.assertEquals("select sys_imp_date,page,if(pv_roll!=0,  (pv-pv_roll)/pv_roll , 0) as pv_RATIO_ROLL,pv "
+                + "from ( select t0.sys_imp_date,t0.page,t0.pv , t1.sys_imp_date as sys_imp_date_roll,t1.page as "
+                + "page_roll,t1.pv as pv_roll from v_metric_tb_tmp t0 left join v_metric_tb_tmp t1 on t0.page = "
+                + "t1.page and t0.sys_imp_date = date_add(t1.sys_imp_date,INTERVAL  1 day)   ) metric_tb_src "
+                + "order by sys_imp_date desc  ", sqlReq.getSql());
+        Assert.assertFalse(sqlReq.isSupportWith());
+    }
+
+    @Test
+    void joinSqlWithoutWindow() throws Exception {
+        QueryStructReq queryStructReq = newQuery(Constants.DAY, AggOperatorEnum.RATIO_ROLL, true);
+        Assert.assertFalse(newConverter(false).isWindowAccept(queryStructReq, EngineTypeEnum.H2, null));
+        Assert.assertTrue(newConverter(false).generateRatioSqlCommand(queryStructReq, EngineTypeEnum.H2, null)
+                .getSql().contains("left join"));
+        Assert.assertTrue(newConverter(false).generateRatioSqlCommand(queryStructReq, EngineTypeEnum.CLICKHOUSE,
+                null).getSql().startsWith(",t0 as (select * from v_metric_tb_tmp)"));
+
+        // an aggregator that is no ratio is only computed by the join
+        queryStructReq.getAggregators().add(new Aggregator("uv", AggOperatorEnum.SUM));
+        Assert.assertFalse(newConverter(true).isWindowAccept(queryStructReq, EngineTypeEnum.H2, null));
+        Assert.assertTrue(newConverter(true).isWindowAccept(
+                newQuery(Constants.DAY, AggOperatorEnum.RATIO_ROLL, true), EngineTypeEnum.H2, null));
+    }
+
+    private static CalculateAggConverter newConverter(boolean ratioWindowEnable) {
+        Catalog catalog = Mockito.mock(Catalog.class);
+        QueryStructUtils queryStructUtils = Mockito.mock(QueryStructUtils.class);
+        when(queryStructUtils.generateWhere(any())).thenReturn("");
+        CalculateAggConverter converter = new CalculateAggConverter(null, queryStructUtils, null, catalog);
+        ReflectionTestUtils.setField(converter, "mysqlLowVersion", "5.7");
+        ReflectionTestUtils.setField(converter, "ratioWindowEnable", ratioWindowEnable);
+        return converter;
+    }
+
+    private static QueryStructReq newQuery(String period, AggOperatorEnum func, boolean byPage) {
+        DateConf dateConf = new DateConf();
+        dateConf.setPeriod(period);
+        String timeDim = ContextUtils.getBean(DateUtils.class).getSysDateCol(dateConf);
+        List<String> groups = new ArrayList<>();
+        groups.add(timeDim);
+        if (byPage) {
+            groups.add("page");
+        }
+        QueryStructReq queryStructReq = new QueryStructReq();
+        queryStructReq.setDateInfo(dateConf);
+        queryStructReq.setGroups(groups);
+        queryStructReq.setAggregators(new ArrayList<>(Arrays.asList(new Aggregator("pv", func))));
+        queryStructReq.setLimit(0L);
+        return queryStructReq;
+    }
+}
@@ -0,0 +1,120 @@
+package com.tencent.supersonic.semantic.query.persistence.repository;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tencent.supersonic.semantic.api.model.pojo.QueryStat;
+import com.tencent.supersonic.semantic.api.query.request.ItemUseReq;
+import com.tencent.supersonic.semantic.api.query.response.ItemUseResp;
+import com.tencent.supersonic.semantic.query.persistence.mapper.StatMapper;
+import com.tencent.supersonic.semantic.query.persistence.pojo.ItemUseStat;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ItemUseCounterTest {
+
+    private static final String TODAY = LocalDate.now().toString();
+    private static final String YESTERDAY = LocalDate.now().minusDays(1).toString();
+    private static final String LAST_WEEK = LocalDate.now().minusDays(7).toString();
+
+    @Test
+    void rankLoadedCounts() {
+        StatMapper statMapper = mockStatMapper();
+        ItemUseCounter counter = newCounter(statMapper);
+
+        List<ItemUseResp> ranking = counter.getItemUse(new ItemUseReq());
+        Assert.assertEquals(Arrays.asList("metric:pv:9", "dimension:city:7", "metric:uv:5", "dimension:city:4"),
+                toStrings(ranking));
+        Assert.assertEquals(Arrays.asList("metric:pv:9", "dimension:city:7"),
+                toStrings(counter.getItemUse(new ItemUseReq(null, 1L))));
+        // the history is loaded once, bounded by the retention days
+        counter.getItemUse(new ItemUseReq());
+        verify(statMapper, times(1)).getItemUseStat(LocalDate.now().minusDays(30).toString());
+    }
+
+    @Test
+    void rankSinceDayOfStartTime() {
+        ItemUseCounter counter = newCounter(mockStatMapper());
+
+        // the stats of the whole start day are counted
+        Assert.assertEquals(Arrays.asList("metric:pv:6", "dimension:city:4"),
+                toStrings(counter.getItemUse(new ItemUseReq(YESTERDAY + " 23:59:59", 1L))));
+        Assert.assertEquals(Arrays.asList("metric:pv:6", "metric:uv:5", "dimension:city:4", "dimension:city:4"),
+                toStrings(counter.getItemUse(new ItemUseReq(YESTERDAY, null))));
+        Assert.assertTrue(counter.getItemUse(new ItemUseReq(LocalDate.now().plusDays(1).toString(), null))
+                .isEmpty());
+    }
+
+    @Test
+    void recordAfterLoad() {
+        ItemUseCounter counter = newCounter(mockStatMapper());
+        QueryStat stat = new QueryStat();
+        stat.setModelId(1L);
+        stat.setDimensions("[\"city\"]");
+        stat.setMetrics("[\"pv\"]");
+
+        // stats written before the history is loaded are part of it
+        counter.record(Collections.singletonList(stat));
+        Assert.assertEquals(Arrays.asList("metric:pv:9", "dimension:city:7"),
+                toStrings(counter.getItemUse(new ItemUseReq(null, 1L))));
+
+        counter.record(Collections.singletonList(stat));
+        Assert.assertEquals(Arrays.asList("metric:pv:10", "dimension:city:8"),
+                toStrings(counter.getItemUse(new ItemUseReq(null, 1L))));
+        Assert.assertEquals(Arrays.asList("metric:pv:5", "dimension:city:3"),
+                toStrings(counter.getItemUse(new ItemUseReq(TODAY, 1L))));
+    }
+
+    @Test
+    void filterByMetricNeedsRawStats() {
+        StatMapper statMapper = mockStatMapper();
+        ItemUseReq itemUseReq = new ItemUseReq();
+        itemUseReq.setMetric("pv");
+
+        Assert.assertNull(newCounter(statMapper).getItemUse(itemUseReq));
+        verify(statMapper, times(0)).getItemUseStat(anyString());
+    }
+
+    private static StatMapper mockStatMapper() {
+        StatMapper statMapper = Mockito.mock(StatMapper.class);
+        when(statMapper.getItemUseStat(anyString())).thenReturn(Arrays.asList(
+                newItemUseStat(1L, LAST_WEEK + " 00:00:00", "[\"city\"]", "[\"pv\"]", 3),
+                newItemUseStat(1L, YESTERDAY, "[\"city\"]", "[\"pv\"]", 2),
+                newItemUseStat(1L, TODAY, "[]", "[\"pv\"]", 4),
+                newItemUseStat(1L, TODAY, "[\"city\"]", null, 2),
+                newItemUseStat(2L, YESTERDAY, "[\"city\"]", "[\"uv\"]", 4),
+                newItemUseStat(2L, TODAY, "[]", "[\"uv\"]", 1)));
+        return statMapper;
+    }
+
+    private static ItemUseCounter newCounter(StatMapper statMapper) {
+        ItemUseCounter counter = new ItemUseCounter(statMapper);
+        ReflectionTestUtils.setField(counter, "retentionDays", 30);
+        return counter;
+    }
+
+    private static ItemUseStat newItemUseStat(Long modelId, String statDay, String dimensions, String metrics,
+            long useCnt) {
+        ItemUseStat itemUseStat = new ItemUseStat();
+        itemUseStat.setModelId(modelId);
+        itemUseStat.setStatDay(statDay);
+        itemUseStat.setDimensions(dimensions);
+        itemUseStat.setMetrics(metrics);
+        itemUseStat.setUseCnt(useCnt);
+        return itemUseStat;
+    }
+
+    private static List<String> toStrings(List<ItemUseResp> itemUses) {
+        return itemUses.stream().map(itemUse -> itemUse.getType() + ":" + itemUse.getBizName() + ":"
+                + itemUse.getUseCnt()).collect(Collectors.toList());
+    }
+}
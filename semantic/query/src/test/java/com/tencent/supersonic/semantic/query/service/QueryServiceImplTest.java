@@ -0,0 +1,74 @@
+package com.tencent.supersonic.semantic.query.service;
+
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import com.tencent.supersonic.semantic.query.executor.QueryExecutorPool;
+import com.tencent.supersonic.semantic.query.persistence.pojo.QueryStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class QueryServiceImplTest {
+
+    @Test
+    void unionSingleSubQuery() {
+        QueryServiceImpl queryService = create(true, 2);
+        Assert.assertFalse(queryService.isFanOut(statements("1"), uncached(1)));
+    }
+
+    @Test
+    void fanOutAcrossDatabases() {
+        QueryServiceImpl queryService = create(false, 2);
+        Assert.assertTrue(queryService.isFanOut(statements("1", "2", "2"), uncached(3)));
+    }
+
+    @Test
+    void fanOutWhileDatabaseHasIdleThreads() {
+        QueryServiceImpl queryService = create(true, 2);
+        Assert.assertTrue(queryService.isFanOut(statements("1", "1"), uncached(2)));
+    }
+
+    @Test
+    void unionWhenSubQueriesExceedIdleThreads() {
+        QueryServiceImpl queryService = create(true, 2);
+        Assert.assertFalse(queryService.isFanOut(statements("1", "1", "1"), uncached(3)));
+    }
+
+    @Test
+    void cachedSubQueriesNeedNoThread() {
+        QueryServiceImpl queryService = create(true, 2);
+        List<QueryResultWithSchemaResp> cachedResults = uncached(3);
+        cachedResults.set(1, new QueryResultWithSchemaResp());
+        Assert.assertTrue(queryService.isFanOut(statements("1", "1", "1"), cachedResults));
+    }
+
+    @Test
+    void unionWhenFanOutDisabled() {
+        QueryServiceImpl queryService = create(false, 2);
+        Assert.assertFalse(queryService.isFanOut(statements("1", "1"), uncached(2)));
+    }
+
+    private QueryServiceImpl create(boolean fanOutEnable, int poolSize) {
+        QueryExecutorPool queryExecutorPool = new QueryExecutorPool();
+        ReflectionTestUtils.setField(queryExecutorPool, "poolSize", poolSize);
+        QueryServiceImpl queryService = new QueryServiceImpl(null, null, null, null, queryExecutorPool, null);
+        ReflectionTestUtils.setField(queryService, "fanOutEnable", fanOutEnable);
+        return queryService;
+    }
+
+    private List<QueryStatement> statements(String... sourceIds) {
+        List<QueryStatement> statements = new ArrayList<>();
+        for (String sourceId : sourceIds) {
+            QueryStatement statement = new QueryStatement();
+            statement.setSourceId(sourceId);
+            statements.add(statement);
+        }
+        return statements;
+    }
+
+    private List<QueryResultWithSchemaResp> uncached(int size) {
+        return new ArrayList<>(Collections.nCopies(size, null));
+    }
+}
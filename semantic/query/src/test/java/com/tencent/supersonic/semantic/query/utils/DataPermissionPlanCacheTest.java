@@ -0,0 +1,94 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tencent.supersonic.auth.api.authentication.pojo.User;
+import com.tencent.supersonic.common.pojo.AuthChangeEvent;
+import com.tencent.supersonic.common.pojo.MetaChangeEvent;
+import com.tencent.supersonic.common.pojo.enums.AuthType;
+import com.tencent.supersonic.semantic.api.model.response.ModelResp;
+import com.tencent.supersonic.semantic.model.domain.ModelService;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class DataPermissionPlanCacheTest {
+
+    private static final User JACK = User.get(1L, "jack", "jack", "jack@email");
+    private static final User TOM = User.get(2L, "tom", "tom", "tom@email");
+
+    @Test
+    void reuseCompiledPlan() {
+        ModelService modelService = mockModelService();
+        DataPermissionPlanCache planCache = newPlanCache(modelService);
+
+        DataPermissionPlan plan = planCache.getPlan(JACK, 1L);
+        Assert.assertTrue(plan.isAdmin());
+        Assert.assertSame(plan, planCache.getPlan(JACK, 1L));
+        planCache.getPlan(TOM, 1L);
+        verify(modelService, times(1)).getModelListWithAuth(eq("jack"), any(), eq(AuthType.ADMIN));
+        verify(modelService, times(1)).getModelListWithAuth(eq("tom"), any(), eq(AuthType.ADMIN));
+    }
+
+    @Test
+    void evictPlansOfChangedModel() {
+        ModelService modelService = mockModelService();
+        DataPermissionPlanCache planCache = newPlanCache(modelService);
+        DataPermissionPlan model1Plan = planCache.getPlan(JACK, 1L);
+        DataPermissionPlan model2Plan = planCache.getPlan(JACK, 2L);
+
+        planCache.onAuthChange(new AuthChangeEvent(this, 1L));
+        Assert.assertNotSame(model1Plan, planCache.getPlan(JACK, 1L));
+        // the plans of the other models are kept
+        Assert.assertSame(model2Plan, planCache.getPlan(JACK, 2L));
+
+        // a change not bound to a model drops all plans
+        DataPermissionPlan recompiled = planCache.getPlan(JACK, 1L);
+        planCache.onMetaChange(new MetaChangeEvent(this, null, null));
+        Assert.assertNotSame(recompiled, planCache.getPlan(JACK, 1L));
+        Assert.assertNotSame(model2Plan, planCache.getPlan(JACK, 2L));
+    }
+
+    @Test
+    void evictedPlanSeesNewPermission() {
+        ModelService modelService = mockModelService();
+        DataPermissionPlanCache planCache = newPlanCache(modelService);
+        Assert.assertTrue(planCache.getPlan(JACK, 1L).isAdmin());
+
+        when(modelService.getModelListWithAuth(eq("jack"), any(), eq(AuthType.ADMIN)))
+                .thenReturn(Arrays.asList(newModel(2L)));
+        Assert.assertTrue(planCache.getPlan(JACK, 1L).isAdmin());
+        planCache.onMetaChange(new MetaChangeEvent(this, null, 1L));
+        DataPermissionPlan plan = planCache.getPlan(JACK, 1L);
+        Assert.assertFalse(plan.isAdmin());
+        Assert.assertFalse(plan.isVisible());
+    }
+
+    private static ModelService mockModelService() {
+        ModelService modelService = Mockito.mock(ModelService.class);
+        when(modelService.getModelListWithAuth(any(), any(), eq(AuthType.ADMIN)))
+                .thenReturn(Arrays.asList(newModel(1L), newModel(2L)));
+        return modelService;
+    }
+
+    private static DataPermissionPlanCache newPlanCache(ModelService modelService) {
+        DataPermissionPlanCache planCache = new DataPermissionPlanCache();
+        ReflectionTestUtils.setField(planCache, "modelService", modelService);
+        ReflectionTestUtils.setField(planCache, "expireSeconds", 300L);
+        ReflectionTestUtils.setField(planCache, "maxSize", 100L);
+        planCache.init();
+        return planCache;
+    }
+
+    private static ModelResp newModel(Long id) {
+        ModelResp modelResp = new ModelResp();
+        modelResp.setId(id);
+        return modelResp;
+    }
+}
@@ -0,0 +1,175 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.pojo.DimValueMap;
+import com.tencent.supersonic.semantic.api.model.pojo.ResultRowConsumer;
+import com.tencent.supersonic.semantic.api.model.response.DimensionResp;
+import com.tencent.supersonic.semantic.api.query.enums.FilterOperatorEnum;
+import com.tencent.supersonic.semantic.api.query.pojo.Filter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class DimValueIndexTest {
+
+    @Test
+    void skipDimensionsWithoutValueMaps() {
+        DimensionResp city = new DimensionResp();
+        city.setBizName("city");
+        Assert.assertTrue(DimValueIndex.build(Collections.singletonList(city), 1L).isEmpty());
+        Assert.assertTrue(DimValueIndex.build(null, 1L).isEmpty());
+        Assert.assertFalse(newIndex().isEmpty());
+        Assert.assertEquals(1L, newIndex().getVersion());
+    }
+
+    @Test
+    void rewriteFilterAliases() {
+        Filter singer = new Filter("singer", FilterOperatorEnum.EQUALS, "周董");
+        Filter singers = new Filter("singer", FilterOperatorEnum.IN, Arrays.asList("杰伦", "Jay Chou", "林俊杰"));
+        Filter unmapped = new Filter("city", FilterOperatorEnum.EQUALS, "周董");
+        Filter child = new Filter("singer", FilterOperatorEnum.EQUALS, "杰伦");
+        Filter parent = new Filter();
+        parent.setChildren(Collections.singletonList(child));
+
+        newIndex().rewriteFilter(Arrays.asList(singer, singers, unmapped, parent, null));
+
+        Assert.assertEquals("jay_chou", singer.getValue());
+        Assert.assertEquals(Arrays.asList("jay_chou", "jay_chou", "林俊杰"), singers.getValue());
+        Assert.assertEquals("周董", unmapped.getValue());
+        Assert.assertEquals("jay_chou", child.getValue());
+    }
+
+    @Test
+    void rewriteResultTechNames() {
+        List<QueryColumn> columns = Arrays.asList(new QueryColumn("singer", "VARCHAR"),
+                new QueryColumn("city", "VARCHAR"), new QueryColumn("singer", "VARCHAR"));
+        List<Map<String, Object>> resultList = new ArrayList<>();
+        resultList.add(newRow("jay_chou", "jay_chou"));
+        resultList.add(newRow("jj_lin", "jay_chou"));
+        resultList.add(newRow(null, "beijing"));
+
+        newIndex().rewriteResult(columns, resultList);
+
+        Assert.assertEquals(newRow("杰伦", "jay_chou"), resultList.get(0));
+        Assert.assertEquals(newRow("jj_lin", "jay_chou"), resultList.get(1));
+        Assert.assertEquals(newRow(null, "beijing"), resultList.get(2));
+    }
+
+    @Test
+    void rewriteStreamedRows() {
+        List<Object[]> rows = new ArrayList<>();
+        ResultRowConsumer consumer = newIndex().rewriteRows(new ResultRowConsumer() {
+            @Override
+            public void onSchema(List<QueryColumn> columns) {
+            }
+
+            @Override
+            public void onRow(Object[] row) {
+                rows.add(row);
+            }
+
+            @Override
+            public void onComplete(long rowCount) {
+            }
+        });
+        consumer.onSchema(Arrays.asList(new QueryColumn("city", "VARCHAR"), new QueryColumn("singer", "VARCHAR")));
+        consumer.onRow(new Object[]{"jay_chou", "jay_chou"});
+        consumer.onRow(new Object[]{"beijing", null});
+
+        Assert.assertArrayEquals(new Object[]{"jay_chou", "杰伦"}, rows.get(0));
+        Assert.assertArrayEquals(new Object[]{"beijing", null}, rows.get(1));
+    }
+
+    @Test
+    void rewriteResultSameAsScan() {
+        Random random = new Random(0);
+        List<DimensionResp> dimensions = new ArrayList<>();
+        List<QueryColumn> columns = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            DimensionResp dimension = new DimensionResp();
+            dimension.setBizName("dim" + i);
+            List<DimValueMap> dimValueMaps = new ArrayList<>();
+            for (int v = 0; i % 2 == 0 && v < 50; v++) {
+                DimValueMap dimValueMap = new DimValueMap();
+                dimValueMap.setTechName("tech" + v);
+                dimValueMap.setBizName("biz" + v);
+                dimValueMaps.add(dimValueMap);
+            }
+            dimension.setDimValueMaps(dimValueMaps);
+            dimensions.add(dimension);
+            columns.add(new QueryColumn("dim" + i, "VARCHAR"));
+        }
+        columns.add(new QueryColumn("pv", "BIGINT"));
+        List<Map<String, Object>> resultList = new ArrayList<>();
+        List<Map<String, Object>> scanned = new ArrayList<>();
+        for (int r = 0; r < 1000; r++) {
+            Map<String, Object> row = new HashMap<>();
+            for (int i = 0; i < 6; i++) {
+                int value = random.nextInt(120);
+                row.put("dim" + i, value < 100 ? "tech" + value : null);
+            }
+            row.put("pv", random.nextInt(10000));
+            resultList.add(row);
+            scanned.add(new HashMap<>(row));
+        }
+
+        DimValueIndex.build(dimensions, 1L).rewriteResult(columns, resultList);
+
+        scan(dimensions, scanned);
+        Assert.assertEquals(scanned, resultList);
+    }
+
+    /**
+     * the rewrite before DimValueIndex: the value maps rebuilt per query and every key of every row looked up
+     */
+    private static void scan(List<DimensionResp> dimensions, List<Map<String, Object>> rows) {
+        Map<String, Map<String, String>> techNameToBizName = new HashMap<>();
+        for (DimensionResp dimension : dimensions) {
+            Map<String, String> pair = new HashMap<>();
+            for (DimValueMap dimValueMap : dimension.getDimValueMaps()) {
+                pair.put(dimValueMap.getTechName(), dimValueMap.getBizName());
+            }
+            if (!pair.isEmpty()) {
+                techNameToBizName.put(dimension.getBizName(), pair);
+            }
+        }
+        for (Map<String, Object> line : rows) {
+            for (String bizName : line.keySet()) {
+                if (techNameToBizName.containsKey(bizName) && Objects.nonNull(line.get(bizName))) {
+                    String techName = line.get(bizName).toString();
+                    Map<String, String> techAndBizPair = techNameToBizName.get(bizName);
+                    if (techAndBizPair.containsKey(techName)) {
+                        line.put(bizName, techAndBizPair.get(techName));
+                    }
+                }
+            }
+        }
+    }
+
+    private static DimValueIndex newIndex() {
+        DimValueMap jay = new DimValueMap();
+        jay.setTechName("jay_chou");
+        jay.setBizName("杰伦");
+        jay.setAlias(Arrays.asList("周董", "Jay Chou", ""));
+        DimValueMap noTechName = new DimValueMap();
+        noTechName.setBizName("林俊杰");
+        DimensionResp singer = new DimensionResp();
+        singer.setBizName("singer");
+        singer.setDimValueMaps(Arrays.asList(jay, noTechName, null));
+        return DimValueIndex.build(Collections.singletonList(singer), 1L);
+    }
+
+    private static Map<String, Object> newRow(Object singer, Object city) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("singer", singer);
+        row.put("city", city);
+        return row;
+    }
+}
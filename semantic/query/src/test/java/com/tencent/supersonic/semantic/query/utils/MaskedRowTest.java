@@ -0,0 +1,70 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class MaskedRowTest {
+
+    @Test
+    void maskColumns() {
+        Map<String, Object> row = newRow();
+        MaskedRow maskedRow = new MaskedRow(row, Collections.singleton("phone"));
+
+        Assert.assertEquals(MaskedRow.MASK, maskedRow.get("phone"));
+        Assert.assertEquals("jack", maskedRow.get("name"));
+        Assert.assertNull(maskedRow.get("city"));
+        Assert.assertTrue(maskedRow.containsKey("phone"));
+        Assert.assertEquals(3, maskedRow.size());
+        // the columns keep the order of the row
+        Assert.assertEquals(new ArrayList<>(row.keySet()), new ArrayList<>(maskedRow.keySet()));
+        Assert.assertEquals(new ArrayList<>(Arrays.asList("jack", MaskedRow.MASK, 10)),
+                new ArrayList<>(maskedRow.values()));
+    }
+
+    @Test
+    void writeCopiesRow() {
+        Map<String, Object> row = newRow();
+        MaskedRow maskedRow = new MaskedRow(row, Collections.singleton("phone"));
+
+        maskedRow.put("pv", 20);
+        maskedRow.remove("name");
+        Assert.assertEquals(20, maskedRow.get("pv"));
+        Assert.assertEquals(MaskedRow.MASK, maskedRow.get("phone"));
+        Assert.assertFalse(maskedRow.containsKey("name"));
+        Assert.assertEquals(newRow(), row);
+    }
+
+    @Test
+    void serializeMaskedValues() throws Exception {
+        MaskedRow maskedRow = new MaskedRow(newRow(), Collections.singleton("phone"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(maskedRow);
+        }
+        Object read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = in.readObject();
+        }
+
+        Assert.assertTrue(read instanceof LinkedHashMap);
+        Assert.assertEquals(maskedRow, read);
+        Assert.assertEquals(MaskedRow.MASK, ((Map<?, ?>) read).get("phone"));
+    }
+
+    private static Map<String, Object> newRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("name", "jack");
+        row.put("phone", "13800000000");
+        row.put("pv", 10);
+        return row;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tencent.supersonic.semantic.query.utils;
+
+import com.tencent.supersonic.common.pojo.QueryColumn;
+import com.tencent.supersonic.semantic.api.model.response.QueryResultWithSchemaResp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+class QueryUtilsTest {
+
+    private final QueryUtils queryUtils = new QueryUtils(null, null, null);
+
+    @Test
+    void mergeUnionResultByColumnPosition() {
+        QueryResultWithSchemaResp first = result("select 1", Arrays.asList("sys_imp_date", "pv", "uv"),
+                Arrays.asList("2023-08-01", 10L, 3L));
+        QueryResultWithSchemaResp second = result("select 2", Arrays.asList("sys_imp_date", "pv_sum", "uv_sum"),
+                Arrays.asList("2023-08-02", 20L, 5L));
+
+        QueryResultWithSchemaResp merged = queryUtils.mergeUnionResult(Arrays.asList(first, null, second));
+
+        Assert.assertEquals(2, merged.getResultList().size());
+        Map<String, Object> row = merged.getResultList().get(1);
+        Assert.assertEquals(Arrays.asList("sys_imp_date", "pv", "uv"), new ArrayList<>(row.keySet()));
+        Assert.assertEquals(Arrays.asList("2023-08-02", 20L, 5L), new ArrayList<>(row.values()));
+        Assert.assertEquals("select 1 union all select 2", merged.getSql());
+    }
+
+    @Test
+    void mergeUnionResultCopiesColumns() {
+        QueryResultWithSchemaResp first = result("select 1", Arrays.asList("pv"), Arrays.asList(10L));
+
+        QueryResultWithSchemaResp merged = queryUtils.mergeUnionResult(Arrays.asList(first));
+        merged.getColumns().get(0).setName("page views");
+
+        Assert.assertNotSame(first.getColumns().get(0), merged.getColumns().get(0));
+        Assert.assertNull(first.getColumns().get(0).getName());
+    }
+
+    @Test
+    void mergeUnionResultOfNothing() {
+        Assert.assertNull(queryUtils.mergeUnionResult(Arrays.asList(null, null)));
+    }
+
+    @Test
+    void mergeUnionResultRejectsDifferentColumnCounts() {
+        QueryResultWithSchemaResp first = result("select 1", Arrays.asList("pv", "uv"), Arrays.asList(10L, 3L));
+        QueryResultWithSchemaResp second = result("select 2", Arrays.asList("pv"), Arrays.asList(20L));
+        Assert.assertThrows(RuntimeException.class, () -> queryUtils.mergeUnionResult(Arrays.asList(first, second)));
+    }
+
+    private QueryResultWithSchemaResp result(String sql, List<String> columns, List<Object> values) {
+        QueryResultWithSchemaResp result = new QueryResultWithSchemaResp();
+        List<QueryColumn> queryColumns = new ArrayList<>();
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            queryColumns.add(new QueryColumn(columns.get(i), "BIGINT"));
+            row.put(columns.get(i), values.get(i));
+        }
+        result.setColumns(queryColumns);
+        List<Map<String, Object>> resultList = new ArrayList<>();
+        resultList.add(row);
+        result.setResultList(resultList);
+        result.setSql(sql);
+        return result;
+    }
+}